@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.annotations;
+
+import com.univocity.parsers.common.processor.*;
+import com.univocity.parsers.conversions.*;
+
+import java.lang.annotation.*;
+
+/**
+ * Indicates the results of the sequence of conversions applied to a field must be memoized using a {@link CachedConversion}, so that
+ * repeated values are converted only once. All conversions associated with the field (including those produced by {@link Convert},
+ * {@link Format} and the default conversion of the field type) are executed as a single cached sequence.
+ *
+ * <p>Cached results are shared among all records that contain the same input value, therefore this annotation can only be used
+ * on fields of immutable types: primitives and their wrappers, {@code String}, {@code BigDecimal}, {@code BigInteger} and enumerations.
+ *
+ * <p>Commonly used for java beans processed using {@link BeanProcessor}
+ *
+ * @see CachedConversion
+ * @see Conversion
+ * @see BeanProcessor
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Target(value = {ElementType.FIELD, ElementType.ANNOTATION_TYPE})
+public @interface Cached {
+
+	/**
+	 * The maximum number of distinct results to keep in memory.
+	 * @return the maximum cache size
+	 */
+	int size() default CachedConversion.DEFAULT_CACHE_SIZE;
+}
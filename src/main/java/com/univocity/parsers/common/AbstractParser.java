@@ -76,6 +76,9 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 		this.errorContentLength = settings.getErrorContentLength();
 		this.output = new ParserOutput(settings);
 		this.processor = settings.getProcessor();
+		if (processor instanceof TranscodingProcessor) {
+			output.enableTranscoding();
+		}
 		this.recordsToRead = settings.getNumberOfRecordsToRead();
 		this.comment = settings.getFormat().getComment();
 		this.errorHandler = settings.getProcessorErrorHandler();
@@ -196,7 +199,7 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 		if (row != null) {
 			rowProcessed(row);
 		}
-		return row;
+		return materialize(row);
 	}
 
 	/**
@@ -451,7 +454,7 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 						}
 					}
 					rowProcessed(row);
-					return row;
+					return materialize(row);
 				}
 			}
 			stopParsing();
@@ -534,7 +537,7 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 				String[] row = output.rowParsed();
 				if (row != null) {
 					rowProcessed(row);
-					return row;
+					return materialize(row);
 				}
 			}
 			return null;
@@ -555,6 +558,21 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 		return null;
 	}
 
+	/**
+	 * Creates the values of a row returned by the {@link ParserOutput} as {@link ParserOutput#TRANSCODED_ROW}, so that callers
+	 * other than the {@link TranscodingProcessor} never receive the (empty) placeholder row.
+	 *
+	 * @param row the row returned by {@link ParserOutput#rowParsed()}
+	 *
+	 * @return the given row, or the values of the last transcoded row.
+	 */
+	private String[] materialize(String[] row) {
+		if (row == ParserOutput.TRANSCODED_ROW) {
+			return output.transcodedRow();
+		}
+		return row;
+	}
+
 	private void rowProcessed(String[] row) {
 		try {
 			processor.rowProcessed(row, context);
@@ -564,8 +582,9 @@ public abstract class AbstractParser<T extends CommonParserSettings<?>> {
 			if (ex.isFatal()) {
 				throw ex;
 			}
-			errorHandler.handleError(ex, row, context);
+			errorHandler.handleError(ex, materialize(row), context);
 		} catch (Throwable t) {
+			row = materialize(row);
 			DataProcessingException ex = new DataProcessingException("Unexpected error processing input row "
 					+ AbstractException.restrictContent(errorContentLength, Arrays.toString(row))
 					+ " using RowProcessor " + processor.getClass().getName() + '.'
@@ -23,6 +23,7 @@ import com.univocity.parsers.fixed.*;
 import java.io.*;
 import java.nio.charset.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * The AbstractWriter class provides a common ground for all writers in uniVocity-parsers.
@@ -51,7 +52,8 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	@SuppressWarnings("rawtypes")
 	private final RowWriterProcessor writerProcessor;
 
-	private BufferedWriter writer;
+	private Writer writer;
+	private final boolean writingOnSeparateThread;
 	private final boolean skipEmptyLines;
 	private final char comment;
 	private final WriterCharAppender rowAppender;
@@ -71,11 +73,13 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	private final Object[] partialLine;
 	private int partialLineIndex = 0;
 	private Map<String[], Map<String, Integer>> headerIndexes;
+	private PrimitiveValue[] primitiveValues;
 	private int largestRowLength = -1;
 	protected boolean writingHeaders = false;
 
 	private String[] dummyHeaderRow;
 	private boolean expandRows;
+	private boolean writeNumbersDirectly;
 	private boolean usingSwitch;
 	private boolean enableNewlineAfterRecord = true;
 
@@ -87,6 +91,15 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	};
 	private final int errorContentLength;
 
+	private static final int ROWS = 0;
+	private static final int COLLECTIONS = 1;
+	private static final int RECORDS = 2;
+	private static final Object[] EMPTY_LINE = new Object[0];
+
+	private final List<AbstractWriter<S>> formatters;
+	private final int formattingBatchSize;
+	private final S settings;
+
 	/**
 	 * All writers must support, at the very least, the settings provided by {@link CommonWriterSettings}. The AbstractWriter requires its configuration to be properly initialized.
 	 * <p><strong>Important: </strong> by not providing an instance of {@link java.io.Writer} to this constructor, only the operations that write to Strings are available.</p>
@@ -169,6 +182,7 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 */
 	public AbstractWriter(Writer writer, S settings) {
 		settings.autoConfigure();
+		this.settings = settings;
 		internalSettings.setMaxColumns(settings.getMaxColumns());
 		this.errorContentLength = settings.getErrorContentLength();
 		this.nullValue = settings.getNullValue();
@@ -180,13 +194,17 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 		this.writerProcessor = settings.getRowWriterProcessor();
 		this.usingSwitch = writerProcessor instanceof RowWriterProcessorSwitch;
 		this.expandRows = settings.getExpandIncompleteRows();
+		this.writeNumbersDirectly = settings.getWriteNumbersDirectly();
 
 		this.appender = new WriterCharAppender(settings.getMaxCharsPerColumn(), "", settings.getFormat());
 		this.rowAppender = new WriterCharAppender(settings.getMaxCharsPerColumn(), "", settings.getFormat());
 
+		this.writingOnSeparateThread = writer != null && settings.getWriteOutputOnSeparateThread();
 		if (writer != null) {
-			if (writer instanceof BufferedWriter) {
-				this.writer = (BufferedWriter) writer;
+			if (writingOnSeparateThread) {
+				this.writer = new ConcurrentOutputWriter(writer);
+			} else if (writer instanceof BufferedWriter || writer instanceof ByteEncodingWriter) {
+				this.writer = writer;
 			} else {
 				this.writer = new BufferedWriter(writer);
 			}
@@ -208,6 +226,40 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 		}
 
 		initialize(settings);
+
+		this.formattingBatchSize = settings.getParallelFormattingBatchSize();
+		this.formatters = writer == null ? null : createFormatters(settings);
+	}
+
+	private List<AbstractWriter<S>> createFormatters(S settings) {
+		int threads = settings.getParallelFormattingThreads();
+		if (threads <= 1) {
+			return null;
+		}
+		List<AbstractWriter<S>> out = new ArrayList<AbstractWriter<S>>(threads);
+		for (int i = 0; i < threads; i++) {
+			AbstractWriter<S> formatter = newFormatter(settings);
+			if (formatter == null) {
+				return null;
+			}
+			out.add(formatter);
+		}
+		return out;
+	}
+
+	/**
+	 * Creates a writer of the same type as this one, without an output, to format rows in a separate thread when
+	 * {@link CommonWriterSettings#getParallelFormattingThreads()} is greater than 1. Only the {@link #processRow(Object[])} method of
+	 * the returned instance will be used, so implementations must ensure the formatting of each row does not depend on the rows written before it.
+	 *
+	 * <p>By default, rows can't be formatted in parallel and this method returns {@code null}.</p>
+	 *
+	 * @param settings the writer configuration
+	 *
+	 * @return a new writer instance to format rows in parallel, or {@code null} if rows must be formatted sequentially.
+	 */
+	protected AbstractWriter<S> newFormatter(S settings) {
+		return null;
 	}
 
 	protected void enableNewlineAfterRecord(boolean enableNewlineAfterRecord) {
@@ -440,6 +492,10 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 * @param records the records to be transformed by a {@link RowWriterProcessor} and then written to the output
 	 */
 	public final void processRecords(Iterable<?> records) {
+		if (formatters != null) {
+			writeInParallel(records, RECORDS);
+			return;
+		}
 		for (Object record : records) {
 			processRecord(record);
 		}
@@ -453,6 +509,10 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 * @param records the records to transformed by a {@link RowWriterProcessor} and then written to the output
 	 */
 	public final void processRecords(Object[] records) {
+		if (formatters != null) {
+			writeInParallel(Arrays.asList(records), RECORDS);
+			return;
+		}
 		for (Object record : records) {
 			processRecord(record);
 		}
@@ -476,8 +536,15 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 *
 	 * @param record the information of a single record to be transformed by a {@link RowWriterProcessor} and then written to the output
 	 */
-	@SuppressWarnings("unchecked")
 	public final void processRecord(Object record) {
+		Object[] row = processRecordToRow(record);
+		if (row != null) {
+			writeRow(row);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object[] processRecordToRow(Object record) {
 		if (this.writerProcessor == null) {
 			String recordDescription;
 			if (record instanceof Object[]) {
@@ -504,10 +571,7 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 			e.setErrorContentLength(errorContentLength);
 			throw e;
 		}
-
-		if (row != null) {
-			writeRow(row);
-		}
+		return row;
 	}
 
 	private String[] getRowProcessorHeaders() {
@@ -582,6 +646,10 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 * @param rows the rows to be written to the output
 	 */
 	public final void writeRows(Object[][] rows) {
+		if (formatters != null) {
+			writeInParallel(Arrays.asList(rows), ROWS);
+			return;
+		}
 		for (Object[] row : rows) {
 			writeRow(row);
 		}
@@ -596,6 +664,10 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 * @param rows the rows to be written to the output
 	 */
 	public final <C extends Collection<Object>> void writeRows(Iterable<C> rows) {
+		if (formatters != null) {
+			writeInParallel(rows, COLLECTIONS);
+			return;
+		}
 		for (Collection<Object> row : rows) {
 			writeRow(row);
 		}
@@ -609,6 +681,10 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 * @param rows the rows to be written to the output
 	 */
 	public final void writeStringRows(Collection<String[]> rows) {
+		if (formatters != null) {
+			writeInParallel(rows, ROWS);
+			return;
+		}
 		for (String[] row : rows) {
 			writeRow(row);
 		}
@@ -623,6 +699,10 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 * @param rows the rows to be written to the output
 	 */
 	public final <C extends Collection<String>> void writeStringRows(Iterable<C> rows) {
+		if (formatters != null) {
+			writeInParallel(rows, COLLECTIONS);
+			return;
+		}
 		for (Collection<String> row : rows) {
 			writeRow(row.toArray());
 		}
@@ -636,6 +716,10 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 * @param rows the rows to be written to the output
 	 */
 	public final void writeRows(Collection<Object[]> rows) {
+		if (formatters != null) {
+			writeInParallel(rows, ROWS);
+			return;
+		}
 		for (Object[] row : rows) {
 			writeRow(row);
 		}
@@ -713,6 +797,360 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 		}
 	}
 
+	/**
+	 * Writes all rows of the given input using the formatters created when {@link CommonWriterSettings#getParallelFormattingThreads()} is greater than 1.
+	 * Rows are prepared sequentially (with the {@link RowWriterProcessor}, field selection and row expansion) and then formatted in batches by separate threads.
+	 * Formatted batches are written to the output in the same order of the input.
+	 *
+	 * @param input     the rows or records to write
+	 * @param inputType the type of the elements in the input: {@link #ROWS}, {@link #COLLECTIONS} or {@link #RECORDS}
+	 */
+	private void writeInParallel(Iterable<?> input, int inputType) {
+		ParallelFormatting formatting = new ParallelFormatting();
+		try {
+			for (Object element : input) {
+				Object[] row;
+				if (inputType == RECORDS) {
+					row = processRecordToRow(element);
+					if (row == null) {
+						continue;
+					}
+				} else if (inputType == COLLECTIONS) {
+					if (element == null) {
+						continue;
+					}
+					row = ((Collection<?>) element).toArray();
+				} else {
+					row = (Object[]) element;
+				}
+
+				if (formatting.isEmpty() && recordCount == 0 && isHeaderWritingEnabled && headers != null) {
+					writeHeaders();
+				}
+
+				row = prepareRowForFormatting(row, inputType == RECORDS);
+				if (row != null) {
+					formatting.add(row);
+				}
+			}
+		} finally {
+			formatting.finish();
+		}
+	}
+
+	/**
+	 * Applies the field selection and row expansion rules of {@link #writeRow(Object...)} to a row that will be formatted in parallel.
+	 *
+	 * @param row  the row to prepare
+	 * @param copy flag indicating whether a copy of the row must be made, as the given array might be reused by the caller.
+	 *
+	 * @return the row to be formatted, {@link #EMPTY_LINE} if an empty line must be written, or {@code null} if the row must be skipped.
+	 */
+	private Object[] prepareRowForFormatting(Object[] row, boolean copy) {
+		try {
+			if (row == null || (row.length == 0 && !expandRows)) {
+				return skipEmptyLines ? null : EMPTY_LINE;
+			}
+
+			if (outputRow != null) {
+				fillOutputRow(row);
+				row = outputRow;
+				copy = true;
+			} else if (expandRows) {
+				if (usingSwitch) {
+					row = expand(row, dummyHeaderRow, headers);
+					dummyHeaderRow = null;
+				} else {
+					row = expand(row, headers, null);
+				}
+			}
+
+			if (largestRowLength < row.length) {
+				largestRowLength = row.length;
+			}
+			return copy ? row.clone() : row;
+		} catch (Throwable ex) {
+			throw throwExceptionAndClose("Error writing row.", row, ex);
+		}
+	}
+
+	/**
+	 * Creates a writer of the same type as this one, without an output, to format rows written by a producer thread of a {@link ConcurrentWriter}.
+	 *
+	 * @return a new writer instance that uses the same configuration, headers and current selection of fields of this writer, or {@code null}
+	 * if rows can't be formatted independently.
+	 *
+	 * @see #newFormatter(CommonWriterSettings)
+	 */
+	final AbstractWriter<S> newConcurrentFormatter() {
+		AbstractWriter<S> formatter = newFormatter(settings);
+		if (formatter != null) {
+			if (headers != null) {
+				formatter.headers = headers;
+			}
+			// the selection of fields may have been changed with updateFieldSelection() since the settings were given.
+			formatter.indexesToWrite = indexesToWrite;
+			formatter.outputRow = outputRow == null ? null : new Object[outputRow.length];
+			formatter.largestRowLength = largestRowLength;
+		}
+		return formatter;
+	}
+
+	/**
+	 * Returns the configuration of this writer.
+	 *
+	 * @return the settings given in the constructor of this writer.
+	 */
+	final S getSettings() {
+		return settings;
+	}
+
+	/**
+	 * Writes the headers if they are defined, header writing is enabled and no records were written yet.
+	 */
+	final void writeHeadersIfEnabled() {
+		if (recordCount == 0 && isHeaderWritingEnabled && headers != null) {
+			writeHeaders();
+		}
+	}
+
+	/**
+	 * Formats the headers and writes the result to the given output, if headers are defined and header writing is enabled.
+	 *
+	 * @param out the buffer that receives the formatted headers
+	 *
+	 * @return {@code true} if the headers have been written, {@code false} otherwise.
+	 *
+	 * @throws IOException if the formatted headers can't be written to the given output.
+	 */
+	final boolean formatHeadersTo(Writer out) throws IOException {
+		if (!isHeaderWritingEnabled || headers == null || headers.length == 0) {
+			return false;
+		}
+		writingHeaders = true;
+		try {
+			return formatRow(headers, out);
+		} finally {
+			writingHeaders = false;
+		}
+	}
+
+	/**
+	 * Applies the field selection and row expansion rules of {@link #writeRow(Object...)} to a row, then formats it and
+	 * writes the result to the given output. Used by the instances returned by {@link #newConcurrentFormatter()}.
+	 *
+	 * @param row the row to format
+	 * @param out the buffer that receives the formatted row
+	 *
+	 * @return {@code true} if a record has been written, {@code false} if an empty line was written or the row was skipped.
+	 *
+	 * @throws IOException if the formatted row can't be written to the given output.
+	 */
+	final boolean formatRowTo(Object[] row, Writer out) throws IOException {
+		if (row == null || (row.length == 0 && !expandRows)) {
+			row = skipEmptyLines ? null : EMPTY_LINE;
+		} else if (outputRow != null) {
+			fillOutputRow(row);
+			row = outputRow;
+		} else if (expandRows) {
+			row = expand(row, headers, null);
+		}
+		return row != null && formatRow(row, out);
+	}
+
+	/**
+	 * Writes rows formatted by another instance to the output, and updates the record count of this writer.
+	 *
+	 * @param rows        the formatted rows
+	 * @param recordCount the number of records in the given rows.
+	 *
+	 * @throws IOException if the rows can't be written to the output.
+	 */
+	final void writeFormattedRows(CharArrayWriter rows, int recordCount) throws IOException {
+		rows.writeTo(writer);
+		this.recordCount += recordCount;
+	}
+
+	/**
+	 * Creates a {@link TextWritingException} to report an error processing a given row, without closing the output.
+	 *
+	 * @param message     description of the error
+	 * @param recordCount the number of records written before the given row
+	 * @param row         the values of the row that could not be written
+	 * @param cause       the error
+	 *
+	 * @return a new {@link TextWritingException} with the content of the row, restricted according to {@link CommonSettings#getErrorContentLength()}
+	 */
+	final TextWritingException newTextWritingException(String message, long recordCount, Object[] row, Throwable cause) {
+		return new TextWritingException(message, recordCount, getContent(row), cause);
+	}
+
+	/**
+	 * Formats a row with {@link #processRow(Object[])} and writes the result to the given output. Used by the instances returned by
+	 * {@link #newFormatter(CommonWriterSettings)} to format rows in parallel.
+	 *
+	 * @param row the row to format
+	 * @param out the buffer that receives the formatted row
+	 *
+	 * @return {@code true} if a record has been written, {@code false} if an empty line was written or the row was skipped.
+	 *
+	 * @throws IOException if the formatted row can't be written to the given output.
+	 */
+	private boolean formatRow(Object[] row, Writer out) throws IOException {
+		if (row == EMPTY_LINE) {
+			if (enableNewlineAfterRecord) {
+				out.write(lineSeparator);
+			}
+			return false;
+		}
+		try {
+			processRow(row);
+			if (skipEmptyLines && rowAppender.length() == 0) {
+				return false;
+			}
+			if (enableNewlineAfterRecord) {
+				rowAppender.appendNewLine();
+			}
+			rowAppender.writeCharsAndReset(out);
+			return true;
+		} catch (RuntimeException ex) {
+			appender.reset();
+			rowAppender.reset();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Distributes batches of rows among the formatters of this writer, and writes the formatted batches to the output in order.
+	 */
+	private final class ParallelFormatting {
+		private final ExecutorService executor;
+		private final BlockingQueue<AbstractWriter<S>> availableFormatters;
+		private final LinkedList<Future<FormattedBatch>> pending = new LinkedList<Future<FormattedBatch>>();
+		private Object[][] rows;
+		private int count;
+		private boolean empty = true;
+
+		ParallelFormatting() {
+			availableFormatters = new ArrayBlockingQueue<AbstractWriter<S>>(formatters.size(), false, formatters);
+			executor = Executors.newFixedThreadPool(formatters.size(), new ThreadFactory() {
+				private int threadCount;
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "unVocity-parsers formatting thread #" + (++threadCount));
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			rows = new Object[formattingBatchSize][];
+		}
+
+		boolean isEmpty() {
+			return empty;
+		}
+
+		void add(Object[] row) {
+			empty = false;
+			rows[count++] = row;
+			if (count == rows.length) {
+				submit();
+				if (pending.size() > formatters.size() * 2) {
+					writeNext();
+				}
+			}
+		}
+
+		private void submit() {
+			pending.add(executor.submit(new FormattedBatch(rows, count)));
+			rows = new Object[formattingBatchSize][];
+			count = 0;
+		}
+
+		/**
+		 * Submits the remaining rows for formatting and writes all pending batches to the output. If the output has been closed
+		 * due to an error, pending batches are discarded.
+		 */
+		void finish() {
+			try {
+				if (writer != null) {
+					if (count > 0) {
+						submit();
+					}
+					while (!pending.isEmpty() && writer != null) {
+						writeNext();
+					}
+				}
+			} finally {
+				for (Future<FormattedBatch> batch : pending) {
+					batch.cancel(true);
+				}
+				pending.clear();
+				executor.shutdown();
+			}
+		}
+
+		private void writeNext() {
+			FormattedBatch batch;
+			try {
+				batch = pending.removeFirst().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw throwExceptionAndClose("Thread interrupted while waiting for rows to be formatted.", e);
+			} catch (ExecutionException e) {
+				throw throwExceptionAndClose("Error formatting rows.", e.getCause());
+			}
+
+			try {
+				batch.output.writeTo(writer);
+			} catch (Throwable ex) {
+				throw throwExceptionAndClose("Error writing row.", ex);
+			}
+			recordCount += batch.recordCount;
+
+			if (batch.error != null) {
+				throw throwExceptionAndClose("Error writing row.", batch.rows[batch.failedRow], batch.error);
+			}
+		}
+
+		private final class FormattedBatch implements Callable<FormattedBatch> {
+			final Object[][] rows;
+			final int size;
+			final CharArrayWriter output;
+
+			int recordCount;
+			int failedRow = -1;
+			Throwable error;
+
+			FormattedBatch(Object[][] rows, int size) {
+				this.rows = rows;
+				this.size = size;
+				this.output = new CharArrayWriter(size * 64);
+			}
+
+			@Override
+			public FormattedBatch call() throws Exception {
+				AbstractWriter<S> formatter = availableFormatters.take();
+				try {
+					for (int i = 0; i < size; i++) {
+						try {
+							if (formatter.formatRow(rows[i], output)) {
+								recordCount++;
+							}
+						} catch (Throwable ex) {
+							failedRow = i;
+							error = ex;
+							break;
+						}
+					}
+				} finally {
+					availableFormatters.offer(formatter);
+				}
+				return this;
+			}
+		}
+	}
+
 	private Object[] expand(Object[] row, String[] h1, String[] h2) {
 		if (h1 != null && row.length < h1.length) {
 			return Arrays.copyOf(row, h1.length);
@@ -854,7 +1292,8 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 
 	/**
 	 * Closes the {@link java.io.Writer} given in this class constructor.
-	 * <p> An IllegalStateException will be thrown in case of any errors.
+	 * <p> An IllegalStateException will be thrown in case of any errors. If {@link CommonWriterSettings#getWriteOutputOnSeparateThread()} is enabled,
+	 * errors writing the pending output will be reported with a {@link TextWritingException}.
 	 */
 	public final void close() {
 		try {
@@ -864,6 +1303,10 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 				writer = null;
 			}
 		} catch (Throwable ex) {
+			if (writingOnSeparateThread) {
+				writer = null;
+				throw new TextWritingException("Error writing pending output.", recordCount, (String) null, ex);
+			}
 			throw new IllegalStateException("Error closing the output.", ex);
 		}
 		if (this.partialLineIndex != 0) {
@@ -1019,6 +1462,279 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 		}
 	}
 
+	/**
+	 * Writes an {@code int} value to a row in memory, without boxing it. Subsequent calls to this method will add the given values in a new column of the same row,
+	 * until {@link #writeValuesToRow} is called to flush all values accumulated and effectively write a new record to the output
+	 *
+	 * @param value the value to be written
+	 */
+	public final void addValue(int value) {
+		if (partialLineIndex >= partialLine.length) {
+			throw tooManyValues(value);
+		}
+		nextPrimitiveValue().set(PrimitiveValue.INT, value, 0.0);
+	}
+
+	/**
+	 * Writes a {@code long} value to a row in memory, without boxing it. Subsequent calls to this method will add the given values in a new column of the same row,
+	 * until {@link #writeValuesToRow} is called to flush all values accumulated and effectively write a new record to the output
+	 *
+	 * @param value the value to be written
+	 */
+	public final void addValue(long value) {
+		if (partialLineIndex >= partialLine.length) {
+			throw tooManyValues(value);
+		}
+		nextPrimitiveValue().set(PrimitiveValue.LONG, value, 0.0);
+	}
+
+	/**
+	 * Writes a {@code double} value to a row in memory, without boxing it. Subsequent calls to this method will add the given values in a new column of the same row,
+	 * until {@link #writeValuesToRow} is called to flush all values accumulated and effectively write a new record to the output
+	 *
+	 * @param value the value to be written
+	 */
+	public final void addValue(double value) {
+		if (partialLineIndex >= partialLine.length) {
+			throw tooManyValues(value);
+		}
+		nextPrimitiveValue().set(PrimitiveValue.DOUBLE, 0L, value);
+	}
+
+	/**
+	 * Writes a {@code float} value to a row in memory, without boxing it. Subsequent calls to this method will add the given values in a new column of the same row,
+	 * until {@link #writeValuesToRow} is called to flush all values accumulated and effectively write a new record to the output
+	 *
+	 * @param value the value to be written
+	 */
+	public final void addValue(float value) {
+		if (partialLineIndex >= partialLine.length) {
+			throw tooManyValues(value);
+		}
+		nextPrimitiveValue().set(PrimitiveValue.FLOAT, 0L, value);
+	}
+
+	/**
+	 * Writes a {@code char} value to a row in memory, without boxing it. Subsequent calls to this method will add the given values in a new column of the same row,
+	 * until {@link #writeValuesToRow} is called to flush all values accumulated and effectively write a new record to the output
+	 *
+	 * @param value the value to be written
+	 */
+	public final void addValue(char value) {
+		if (partialLineIndex >= partialLine.length) {
+			throw tooManyValues(value);
+		}
+		nextPrimitiveValue().set(PrimitiveValue.CHAR, value, 0.0);
+	}
+
+	/**
+	 * Writes a sequence of characters to a row in memory. The characters are copied, so the given array can be reused after this method returns.
+	 * Subsequent calls to this method will add the given values in a new column of the same row, until {@link #writeValuesToRow} is called to flush
+	 * all values accumulated and effectively write a new record to the output
+	 *
+	 * @param value  the array with the characters to be written
+	 * @param offset the position of the first character to write
+	 * @param length the number of characters to write
+	 */
+	public final void addValue(char[] value, int offset, int length) {
+		if (partialLineIndex >= partialLine.length) {
+			throw tooManyValues(new String(value, offset, length));
+		}
+		nextPrimitiveValue().set(value, offset, length);
+	}
+
+	/**
+	 * Builds the error for a value that doesn't fit in the in-memory row. Primitive values are only boxed here, when the error occurs.
+	 */
+	private TextWritingException tooManyValues(Object value) {
+		return throwExceptionAndClose("Error adding value to in-memory row. Maximum number of columns (" + partialLine.length + ") exceeded.", new Object[]{value}, null);
+	}
+
+	private PrimitiveValue nextPrimitiveValue() {
+		if (primitiveValues == null) {
+			primitiveValues = new PrimitiveValue[partialLine.length];
+		}
+		PrimitiveValue out = primitiveValues[partialLineIndex];
+		if (out == null) {
+			out = new PrimitiveValue();
+			primitiveValues[partialLineIndex] = out;
+		}
+		partialLine[partialLineIndex++] = out;
+		return out;
+	}
+
+	/**
+	 * Appends a number added to the in-memory row with {@link #addValue(int)}, {@link #addValue(long)}, {@link #addValue(float)} or {@link #addValue(double)},
+	 * or an instance of {@link Integer}, {@link Long}, {@link Short}, {@link Byte}, {@link Double} or {@link Float} if {@link CommonWriterSettings#getWriteNumbersDirectly()} is enabled,
+	 * directly to the {@link #appender}, without converting it to a {@code String}. The characters appended are the same produced by {@link #getStringValue(Object)}.
+	 *
+	 * <p>Implementations of {@link #processRow(Object[])} can use this method to skip the processing of values that can only contain digits, signs,
+	 * decimal points and the {@code 'E'} exponent indicator, or the words {@code "NaN"} and {@code "Infinity"}.</p>
+	 *
+	 * @param element an element of the row being processed
+	 *
+	 * @return {@code true} if the element is a number of a supported type and has been appended, otherwise {@code false} and nothing is appended.
+	 */
+	protected final boolean appendNumber(Object element) {
+		if (element instanceof PrimitiveValue) {
+			return ((PrimitiveValue) element).appendNumber(appender);
+		}
+		if (!writeNumbersDirectly) {
+			return false;
+		}
+		if (element instanceof Integer || element instanceof Long || element instanceof Short || element instanceof Byte) {
+			appender.appendNumber(((Number) element).longValue());
+			return true;
+		}
+		if (element instanceof Double) {
+			appender.appendNumber(((Double) element).doubleValue());
+			return true;
+		}
+		if (element instanceof Float) {
+			appender.appendNumber(((Float) element).floatValue());
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Appends a value added to the in-memory row with {@link #addValue(char[], int, int)} directly to the {@link #appender}, without converting it to a {@code String},
+	 * if none of its characters is special.
+	 *
+	 * <p>Implementations of {@link #processRow(Object[])} can use this method to skip the processing of values that don't need to be escaped, quoted or trimmed.
+	 * Values that are empty, or that start or end with a whitespace, are never appended by this method.</p>
+	 *
+	 * @param element      an element of the row being processed
+	 * @param specialChars a table where {@code specialChars[ch]} is {@code true} if {@code ch} requires special processing, as created by
+	 *                     {@link WriterCharAppender#newSpecialCharTable(char...)}
+	 *
+	 * @return {@code true} if the element is a sequence of characters with no special characters and has been appended, otherwise {@code false} and nothing is appended.
+	 */
+	protected final boolean appendChars(Object element, boolean[] specialChars) {
+		if (element instanceof PrimitiveValue) {
+			return ((PrimitiveValue) element).appendChars(appender, specialChars);
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a copy of the in-memory row.
+	 *
+	 * @param box flag indicating whether primitive values should be converted to their wrapper types, so they can be processed by a {@link RowWriterProcessor}.
+	 *
+	 * @return a copy of the values accumulated in the in-memory row.
+	 */
+	private Object[] copyPartialLine(boolean box) {
+		Object[] out = Arrays.copyOf(partialLine, partialLineIndex);
+		if (box && primitiveValues != null) {
+			for (int i = 0; i < out.length; i++) {
+				if (out[i] instanceof PrimitiveValue) {
+					out[i] = ((PrimitiveValue) out[i]).box();
+				}
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * A mutable holder of values added to the in-memory row with the primitive {@code addValue} methods. Instances are reused for every row.
+	 */
+	private static final class PrimitiveValue {
+		static final int INT = 0;
+		static final int LONG = 1;
+		static final int FLOAT = 2;
+		static final int DOUBLE = 3;
+		static final int CHAR = 4;
+		static final int CHARS = 5;
+
+		int type;
+		long longValue;
+		double doubleValue;
+		char[] chars;
+		int length;
+
+		void set(int type, long longValue, double doubleValue) {
+			this.type = type;
+			this.longValue = longValue;
+			this.doubleValue = doubleValue;
+		}
+
+		void set(char[] value, int offset, int length) {
+			if (chars == null || chars.length < length) {
+				chars = new char[Math.max(length, 16)];
+			}
+			System.arraycopy(value, offset, chars, 0, length);
+			this.length = length;
+			this.type = CHARS;
+		}
+
+		boolean appendNumber(WriterCharAppender appender) {
+			switch (type) {
+				case INT:
+				case LONG:
+					appender.appendNumber(longValue);
+					return true;
+				case FLOAT:
+					appender.appendNumber((float) doubleValue);
+					return true;
+				case DOUBLE:
+					appender.appendNumber(doubleValue);
+					return true;
+				default:
+					return false;
+			}
+		}
+
+		boolean appendChars(WriterCharAppender appender, boolean[] specialChars) {
+			if (type != CHARS || length == 0 || chars[0] <= ' ' || chars[length - 1] <= ' ') {
+				return false;
+			}
+			final int max = specialChars.length;
+			for (int i = 0; i < length; i++) {
+				char ch = chars[i];
+				if (ch < max && specialChars[ch]) {
+					return false;
+				}
+			}
+			appender.append(chars, 0, length);
+			return true;
+		}
+
+		Object box() {
+			switch (type) {
+				case INT:
+					return (int) longValue;
+				case LONG:
+					return longValue;
+				case FLOAT:
+					return (float) doubleValue;
+				case DOUBLE:
+					return doubleValue;
+				case CHAR:
+					return (char) longValue;
+				default:
+					return toString();
+			}
+		}
+
+		@Override
+		public String toString() {
+			switch (type) {
+				case INT:
+				case LONG:
+					return String.valueOf(longValue);
+				case FLOAT:
+					return String.valueOf((float) doubleValue);
+				case DOUBLE:
+					return String.valueOf(doubleValue);
+				case CHAR:
+					return String.valueOf((char) longValue);
+				default:
+					return new String(chars, 0, length);
+			}
+		}
+	}
+
 	private void fillPartialLineToMatchHeaders() {
 		if (headers != null && partialLineIndex < headers.length) {
 			while (partialLineIndex < headers.length) {
@@ -1032,7 +1748,15 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 */
 	public final void writeValuesToRow() {
 		fillPartialLineToMatchHeaders();
-		writeRow(Arrays.copyOf(partialLine, partialLineIndex));
+		writeRow(copyPartialLine(false));
+		discardValues();
+	}
+
+	/**
+	 * Writes the values accumulated in the internal in-memory row as they are, without filling the row to match the length of the headers.
+	 */
+	final void writeAddedValues() {
+		writeRow(copyPartialLine(false));
 		discardValues();
 	}
 
@@ -1444,7 +2168,7 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 */
 	public final String writeValuesToString() {
 		fillPartialLineToMatchHeaders();
-		String out = writeRowToString(Arrays.copyOf(partialLine, partialLineIndex));
+		String out = writeRowToString(copyPartialLine(false));
 		discardValues();
 		return out;
 	}
@@ -1457,7 +2181,7 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 */
 	public final void processValuesToRow() {
 		fillPartialLineToMatchHeaders();
-		processRecord(Arrays.copyOf(partialLine, partialLineIndex));
+		processRecord(copyPartialLine(true));
 		discardValues();
 	}
 
@@ -1471,7 +2195,7 @@ public abstract class AbstractWriter<S extends CommonWriterSettings<?>> {
 	 */
 	public final String processValuesToString() {
 		fillPartialLineToMatchHeaders();
-		String out = processRecordToString(Arrays.copyOf(partialLine, partialLineIndex));
+		String out = processRecordToString(copyPartialLine(true));
 		discardValues();
 		return out;
 	}
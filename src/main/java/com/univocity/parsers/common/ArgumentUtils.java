@@ -16,6 +16,7 @@
 package com.univocity.parsers.common;
 
 import com.univocity.parsers.common.fields.*;
+import com.univocity.parsers.conversions.*;
 
 import java.io.*;
 import java.nio.charset.*;
@@ -227,12 +228,17 @@ public class ArgumentUtils {
 	}
 
 	/**
-	 * Creates a {@link java.io.Writer} from an output stream
+	 * Creates a {@link java.io.Writer} from an output stream. If the encoding is UTF-8, US-ASCII or ISO-8859-1, characters
+	 * will be encoded directly into an internal byte buffer, without the overhead of a {@link CharsetEncoder}.
 	 * @param output the output stream
 	 * @param encoding the encoding to use when writing to the output stream
 	 * @return {@link java.io.Writer} wrapping the given output stream
 	 */
 	public static Writer newWriter(OutputStream output, Charset encoding) {
+		Writer writer = ByteEncodingWriter.newWriter(output, encoding);
+		if (writer != null) {
+			return writer;
+		}
 		if (encoding != null) {
 			return new OutputStreamWriter(output, encoding);
 		} else {
@@ -406,4 +412,87 @@ public class ArgumentUtils {
 
 		return out;
 	}
+
+	/**
+	 * Executes a conversion over a given value. Any error other than a {@link DataProcessingException} is wrapped by a
+	 * {@link DataProcessingException} that identifies the conversion and the value being converted.
+	 *
+	 * @param conversion the conversion to execute
+	 * @param input      the value to convert
+	 * @param <I>        the input type of the conversion
+	 * @param <O>        the output type of the conversion
+	 *
+	 * @return the result produced by the given conversion.
+	 */
+	public static <I, O> O executeConversion(Conversion<I, O> conversion, I input) {
+		try {
+			return conversion.execute(input);
+		} catch (DataProcessingException ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			DataProcessingException exception = new DataProcessingException("Error converting value '{value}' using conversion " + conversion.getClass().getName(), ex);
+			exception.setValue(input);
+			throw exception;
+		}
+	}
+
+	/**
+	 * The initial value of a 64-bit hash built with {@link #hash(long, String)} and {@link #hash(long, int)}.
+	 */
+	public static final long HASH_SEED = 0xcbf29ce484222325L;
+
+	/**
+	 * Adds the characters of a {@code String} to a 64-bit FNV-1a hash.
+	 *
+	 * @param hash  the hash built so far, starting from {@link #HASH_SEED}
+	 * @param value the value to add to the hash
+	 *
+	 * @return the updated hash. Use {@link #finishHash(long)} to obtain its final value.
+	 */
+	public static long hash(long hash, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Adds a single value, such as a length or a marker for {@code null}, to a 64-bit FNV-1a hash.
+	 *
+	 * @param hash  the hash built so far, starting from {@link #HASH_SEED}
+	 * @param value the value to add to the hash
+	 *
+	 * @return the updated hash. Use {@link #finishHash(long)} to obtain its final value.
+	 */
+	public static long hash(long hash, int value) {
+		return (hash ^ value) * 0x100000001b3L;
+	}
+
+	/**
+	 * Mixes the bits of a 64-bit FNV-1a hash, so every bit of the result depends on every character added to it.
+	 *
+	 * @param hash the hash built with {@link #hash(long, String)} and {@link #hash(long, int)}
+	 *
+	 * @return the final value of the hash.
+	 */
+	public static long finishHash(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * Computes a 64-bit hash of a {@code String}, for uses where {@link String#hashCode()} is too weak, such as fingerprinting
+	 * values or estimating their cardinality.
+	 *
+	 * @param value the value to hash
+	 *
+	 * @return the 64-bit hash of the given value.
+	 */
+	public static long hash(String value) {
+		return finishHash(hash(HASH_SEED, value));
+	}
 }
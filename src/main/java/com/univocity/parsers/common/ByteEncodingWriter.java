@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import java.io.*;
+import java.nio.charset.*;
+
+/**
+ * A {@link Writer} that encodes characters directly into a large byte buffer, which is written to an {@link OutputStream} in big chunks.
+ * Supports the UTF-8, US-ASCII and ISO-8859-1 encodings only, and produces the same bytes an {@link OutputStreamWriter} would produce,
+ * including the replacement of malformed or unmappable characters with {@code '?'}.
+ *
+ * <p>Used by {@link ArgumentUtils#newWriter(OutputStream, Charset)} to avoid the overhead of a {@link CharsetEncoder}
+ * when writing to files or streams with one of the supported encodings. Characters in the ASCII range are copied with a simple loop.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ */
+final class ByteEncodingWriter extends Writer {
+
+	private static final int UTF_8 = 0;
+	private static final int US_ASCII = 1;
+	private static final int ISO_8859_1 = 2;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final OutputStream output;
+	private final int encoding;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+
+	private char[] chars;
+	private char highSurrogate;
+	private boolean closed;
+
+	private ByteEncodingWriter(OutputStream output, int encoding) {
+		this.output = output;
+		this.encoding = encoding;
+	}
+
+	/**
+	 * Creates a writer that encodes characters directly into bytes, if the given encoding is supported.
+	 *
+	 * @param output   the output stream that will receive the encoded bytes
+	 * @param encoding the encoding to use. If {@code null}, the default charset will be used.
+	 *
+	 * @return a new {@code ByteEncodingWriter}, or {@code null} if the given encoding is not supported.
+	 */
+	static Writer newWriter(OutputStream output, Charset encoding) {
+		if (encoding == null) {
+			encoding = Charset.defaultCharset();
+		}
+		String name = encoding.name();
+		if ("UTF-8".equals(name)) {
+			return new ByteEncodingWriter(output, UTF_8);
+		} else if ("US-ASCII".equals(name)) {
+			return new ByteEncodingWriter(output, US_ASCII);
+		} else if ("ISO-8859-1".equals(name)) {
+			return new ByteEncodingWriter(output, ISO_8859_1);
+		}
+		return null;
+	}
+
+	private static boolean isHighSurrogate(char ch) {
+		return ch >= '\uD800' && ch <= '\uDBFF';
+	}
+
+	private static boolean isLowSurrogate(char ch) {
+		return ch >= '\uDC00' && ch <= '\uDFFF';
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (chars == null) {
+			chars = new char[1024];
+		}
+		chars[0] = (char) c;
+		write(chars, 0, 1);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		if (chars == null) {
+			chars = new char[1024];
+		}
+		final int end = off + len;
+		while (off < end) {
+			int length = Math.min(chars.length, end - off);
+			str.getChars(off, off + length, chars, 0);
+			write(chars, 0, length);
+			off += length;
+		}
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (len <= 0) {
+			return;
+		}
+		int end = off + len;
+		if (highSurrogate != 0) {
+			char pending = highSurrogate;
+			highSurrogate = 0;
+			if (isLowSurrogate(cbuf[off])) {
+				ensureCapacity(4);
+				writeSurrogatePair(pending, cbuf[off]);
+				off++;
+			} else {
+				ensureCapacity(1);
+				buffer[position++] = '?';
+			}
+		}
+		if (encoding == UTF_8) {
+			encodeUtf8(cbuf, off, end);
+		} else {
+			encodeSingleByte(cbuf, off, end, encoding == US_ASCII ? 0x7F : 0xFF);
+		}
+	}
+
+	private void encodeUtf8(char[] cbuf, int i, final int end) throws IOException {
+		while (i < end) {
+			ensureCapacity(4);
+
+			int limit = i + (buffer.length - position);
+			if (limit > end) {
+				limit = end;
+			}
+			while (i < limit && cbuf[i] < 0x80) {
+				buffer[position++] = (byte) cbuf[i++];
+			}
+			if (i == limit) {
+				continue;
+			}
+
+			ensureCapacity(4);
+			char ch = cbuf[i++];
+			if (ch < 0x800) {
+				buffer[position++] = (byte) (0xC0 | (ch >> 6));
+				buffer[position++] = (byte) (0x80 | (ch & 0x3F));
+			} else if (isHighSurrogate(ch)) {
+				if (i == end) {
+					highSurrogate = ch;
+				} else if (isLowSurrogate(cbuf[i])) {
+					writeSurrogatePair(ch, cbuf[i++]);
+				} else {
+					buffer[position++] = '?';
+				}
+			} else if (isLowSurrogate(ch)) {
+				buffer[position++] = '?';
+			} else {
+				buffer[position++] = (byte) (0xE0 | (ch >> 12));
+				buffer[position++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+				buffer[position++] = (byte) (0x80 | (ch & 0x3F));
+			}
+		}
+	}
+
+	private void encodeSingleByte(char[] cbuf, int i, final int end, final int max) throws IOException {
+		while (i < end) {
+			ensureCapacity(1);
+
+			int limit = i + (buffer.length - position);
+			if (limit > end) {
+				limit = end;
+			}
+			while (i < limit && cbuf[i] <= max) {
+				buffer[position++] = (byte) cbuf[i++];
+			}
+			if (i == limit) {
+				continue;
+			}
+
+			ensureCapacity(1);
+			char ch = cbuf[i++];
+			if (isHighSurrogate(ch)) {
+				if (i == end) {
+					highSurrogate = ch;
+					continue;
+				} else if (isLowSurrogate(cbuf[i])) {
+					//a valid pair is a single unmappable character
+					i++;
+				}
+			}
+			buffer[position++] = '?';
+		}
+	}
+
+	private void writeSurrogatePair(char high, char low) {
+		if (encoding == UTF_8) {
+			int codePoint = ((high - 0xD800) << 10) + (low - 0xDC00) + 0x10000;
+			buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+			buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+			buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+			buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+		} else {
+			buffer[position++] = '?';
+		}
+	}
+
+	private void ensureCapacity(int bytes) throws IOException {
+		if (buffer.length - position < bytes) {
+			flushBuffer();
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (position > 0) {
+			output.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		flushBuffer();
+		output.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			if (highSurrogate != 0) {
+				highSurrogate = 0;
+				ensureCapacity(1);
+				buffer[position++] = '?';
+			}
+			flushBuffer();
+		} finally {
+			closed = true;
+			output.close();
+		}
+	}
+}
@@ -61,7 +61,7 @@ import java.util.Map.*;
  * @see com.univocity.parsers.fixed.FixedWidthWriterSettings
  */
 
-public abstract class CommonSettings<F extends Format> {
+public abstract class CommonSettings<F extends Format> implements Cloneable {
 
 	private F format;
 	private String nullValue = null;
@@ -585,4 +585,25 @@ public abstract class CommonSettings<F extends Format> {
 		out.put("Length of content displayed on error", errorContentLength);
 		out.put("Restricting data in exceptions", errorContentLength == 0);
 	}
+
+	/**
+	 * Creates a copy of this configuration object. The format and the headers are copied, while other objects such as field selections,
+	 * processors and error handlers are shared with the copy.
+	 *
+	 * @return a copy of this configuration object.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public CommonSettings<F> clone() {
+		try {
+			CommonSettings<F> out = (CommonSettings<F>) super.clone();
+			out.format = (F) format.clone();
+			if (headers != null) {
+				out.headers = headers.clone();
+			}
+			return out;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException("Error cloning configuration object", e);
+		}
+	}
 }
@@ -49,6 +49,24 @@ public abstract class CommonWriterSettings<F extends Format> extends CommonSetti
 
 	private boolean expandIncompleteRows = false;
 
+	private int parallelFormattingThreads = 1;
+
+	private int parallelFormattingBatchSize = 1000;
+
+	private boolean writeOutputOnSeparateThread = false;
+
+	private boolean writeNumbersDirectly = false;
+
+	private long maxBytesPerFile = -1L;
+
+	private long maxRecordsPerFile = -1L;
+
+	private String outputFileNamePattern;
+
+	private boolean compressRolledFiles = false;
+
+	private OutputFileListener outputFileListener;
+
 	/**
 	 * Returns the String representation of an empty value (defaults to null)
 	 *
@@ -143,12 +161,262 @@ public abstract class CommonWriterSettings<F extends Format> extends CommonSetti
 		this.expandIncompleteRows = expandIncompleteRows;
 	}
 
+	/**
+	 * Returns the number of threads used to format rows in parallel when writing multiple rows at once, i.e. when using
+	 * the {@code writeRows}, {@code writeStringRows} and {@code processRecords} methods of {@link AbstractWriter}.
+	 *
+	 * <p>When greater than 1, each thread formats batches of rows into its own buffer (handling escaping, quoting, padding and the conversion of values to {@code String}),
+	 * and the formatted batches are written to the output in the original order of the input rows. Conversions of the {@link RowWriterProcessor} are still executed
+	 * sequentially, and the output is the same produced when writing rows one by one.</p>
+	 *
+	 * <p>Parallel formatting only applies to writers created with an output, and to writers whose formatting does not depend on previous rows.
+	 * Writers that don't support it (such as a {@link com.univocity.parsers.fixed.FixedWidthWriter} using lookbehind formats) will simply write rows sequentially.</p>
+	 *
+	 * <p>Defaults to {@code 1} (rows are formatted sequentially, in the thread that invokes the writer)</p>
+	 *
+	 * @return the number of threads used to format rows.
+	 */
+	public int getParallelFormattingThreads() {
+		return parallelFormattingThreads;
+	}
+
+	/**
+	 * Defines the number of threads used to format rows in parallel when writing multiple rows at once, i.e. when using
+	 * the {@code writeRows}, {@code writeStringRows} and {@code processRecords} methods of {@link AbstractWriter}.
+	 *
+	 * <p>When greater than 1, each thread formats batches of rows into its own buffer (handling escaping, quoting, padding and the conversion of values to {@code String}),
+	 * and the formatted batches are written to the output in the original order of the input rows. Conversions of the {@link RowWriterProcessor} are still executed
+	 * sequentially, and the output is the same produced when writing rows one by one.</p>
+	 *
+	 * <p>Parallel formatting only applies to writers created with an output, and to writers whose formatting does not depend on previous rows.
+	 * Writers that don't support it (such as a {@link com.univocity.parsers.fixed.FixedWidthWriter} using lookbehind formats) will simply write rows sequentially.</p>
+	 *
+	 * <p>Defaults to {@code 1} (rows are formatted sequentially, in the thread that invokes the writer)</p>
+	 *
+	 * @param parallelFormattingThreads the number of threads used to format rows.
+	 */
+	public void setParallelFormattingThreads(int parallelFormattingThreads) {
+		if (parallelFormattingThreads < 1) {
+			throw new IllegalArgumentException("Number of formatting threads must be 1 or greater");
+		}
+		this.parallelFormattingThreads = parallelFormattingThreads;
+	}
+
+	/**
+	 * Returns the number of rows formatted at once by each thread when {@link #getParallelFormattingThreads()} is greater than 1.
+	 *
+	 * <p>Defaults to {@code 1000}</p>
+	 *
+	 * @return the number of rows in each batch of rows to be formatted in parallel.
+	 */
+	public int getParallelFormattingBatchSize() {
+		return parallelFormattingBatchSize;
+	}
+
+	/**
+	 * Defines the number of rows formatted at once by each thread when {@link #getParallelFormattingThreads()} is greater than 1.
+	 * Larger batches reduce the coordination overhead between threads, at the cost of more memory to hold the rows and the formatted output of each batch.
+	 *
+	 * <p>Defaults to {@code 1000}</p>
+	 *
+	 * @param parallelFormattingBatchSize the number of rows in each batch of rows to be formatted in parallel.
+	 */
+	public void setParallelFormattingBatchSize(int parallelFormattingBatchSize) {
+		if (parallelFormattingBatchSize < 1) {
+			throw new IllegalArgumentException("Batch size of rows to format in parallel must be 1 or greater");
+		}
+		this.parallelFormattingBatchSize = parallelFormattingBatchSize;
+	}
+
+	/**
+	 * Indicates whether or not a separate thread will be used to write the output. (defaults to {@code false})
+	 * <p>When enabled, the characters produced by the writer are accumulated in a fixed number of buffers, which are written to the output
+	 * by a separate thread, while the writer continues to process the next rows. This yields better performance when the output is slow,
+	 * such as files in network-mounted volumes.
+	 * <p>{@link AbstractWriter#flush()} and {@link AbstractWriter#close()} wait until all pending buffers are written. Errors writing to the output
+	 * are reported as a {@link TextWritingException} by the next operation of the writer.
+	 *
+	 * @return true if the output should be written on a separate thread, false otherwise
+	 */
+	public boolean getWriteOutputOnSeparateThread() {
+		return writeOutputOnSeparateThread;
+	}
+
+	/**
+	 * Defines whether or not a separate thread will be used to write the output. (defaults to {@code false})
+	 * <p>When enabled, the characters produced by the writer are accumulated in a fixed number of buffers, which are written to the output
+	 * by a separate thread, while the writer continues to process the next rows. This yields better performance when the output is slow,
+	 * such as files in network-mounted volumes.
+	 * <p>{@link AbstractWriter#flush()} and {@link AbstractWriter#close()} wait until all pending buffers are written. Errors writing to the output
+	 * are reported as a {@link TextWritingException} by the next operation of the writer.
+	 *
+	 * @param writeOutputOnSeparateThread the flag indicating whether or not the output should be written on a separate thread
+	 */
+	public void setWriteOutputOnSeparateThread(boolean writeOutputOnSeparateThread) {
+		this.writeOutputOnSeparateThread = writeOutputOnSeparateThread;
+	}
+
+	/**
+	 * Indicates whether or not values of type {@link Integer}, {@link Long}, {@link Short}, {@link Byte}, {@link Double} and {@link Float} are
+	 * appended directly to the output, without being converted to a {@code String} first. (defaults to {@code false})
+	 * <p>The characters written are the same produced by {@link String#valueOf(Object)}, but {@link AbstractWriter#getStringValue(Object)} is
+	 * not invoked for these values, so writers that override it to customize how numbers are written must keep this disabled.
+	 * <p>Writers that need to quote or escape any of the characters of a number (for example, a {@link com.univocity.parsers.csv.CsvWriter}
+	 * that quotes all fields or uses '.' as its delimiter) write numbers as usual.
+	 *
+	 * @return true if numbers should be appended directly to the output, false otherwise
+	 */
+	public boolean getWriteNumbersDirectly() {
+		return writeNumbersDirectly;
+	}
+
+	/**
+	 * Defines whether or not values of type {@link Integer}, {@link Long}, {@link Short}, {@link Byte}, {@link Double} and {@link Float} are
+	 * appended directly to the output, without being converted to a {@code String} first. (defaults to {@code false})
+	 * <p>The characters written are the same produced by {@link String#valueOf(Object)}, but {@link AbstractWriter#getStringValue(Object)} is
+	 * not invoked for these values, so writers that override it to customize how numbers are written must keep this disabled.
+	 * <p>Writers that need to quote or escape any of the characters of a number (for example, a {@link com.univocity.parsers.csv.CsvWriter}
+	 * that quotes all fields or uses '.' as its delimiter) write numbers as usual.
+	 *
+	 * @param writeNumbersDirectly the flag indicating whether or not numbers should be appended directly to the output
+	 */
+	public void setWriteNumbersDirectly(boolean writeNumbersDirectly) {
+		this.writeNumbersDirectly = writeNumbersDirectly;
+	}
+
+	/**
+	 * Returns the maximum number of bytes written to each output file of a {@link RollingWriter}. Once the next record would exceed this limit,
+	 * the current file is closed and the record is written to a new file. Files only exceed this limit when a single record (plus headers)
+	 * is larger than the limit.
+	 *
+	 * <p>Defaults to {@code -1} (no limit)</p>
+	 *
+	 * @return the maximum size, in bytes, of each output file.
+	 */
+	public long getMaxBytesPerFile() {
+		return maxBytesPerFile;
+	}
+
+	/**
+	 * Defines the maximum number of bytes written to each output file of a {@link RollingWriter}. Once the next record would exceed this limit,
+	 * the current file is closed and the record is written to a new file. Files only exceed this limit when a single record (plus headers)
+	 * is larger than the limit.
+	 *
+	 * <p>Defaults to {@code -1} (no limit)</p>
+	 *
+	 * @param maxBytesPerFile the maximum size, in bytes, of each output file. A negative value indicates there's no limit.
+	 */
+	public void setMaxBytesPerFile(long maxBytesPerFile) {
+		if (maxBytesPerFile == 0) {
+			throw new IllegalArgumentException("Maximum number of bytes per file must be positive, or negative for no limit");
+		}
+		this.maxBytesPerFile = maxBytesPerFile;
+	}
+
+	/**
+	 * Returns the maximum number of records written to each output file of a {@link RollingWriter}, excluding headers.
+	 *
+	 * <p>Defaults to {@code -1} (no limit)</p>
+	 *
+	 * @return the maximum number of records in each output file.
+	 */
+	public long getMaxRecordsPerFile() {
+		return maxRecordsPerFile;
+	}
+
+	/**
+	 * Defines the maximum number of records written to each output file of a {@link RollingWriter}, excluding headers.
+	 *
+	 * <p>Defaults to {@code -1} (no limit)</p>
+	 *
+	 * @param maxRecordsPerFile the maximum number of records in each output file. A negative value indicates there's no limit.
+	 */
+	public void setMaxRecordsPerFile(long maxRecordsPerFile) {
+		if (maxRecordsPerFile == 0) {
+			throw new IllegalArgumentException("Maximum number of records per file must be positive, or negative for no limit");
+		}
+		this.maxRecordsPerFile = maxRecordsPerFile;
+	}
+
+	/**
+	 * Returns the path of the files created by a {@link RollingWriter}, where the {@code {index}} placeholder is replaced by
+	 * the sequential number of each file, starting from 1. For example, {@code "/tmp/extract/part_{index}.csv"}.
+	 *
+	 * @return the naming pattern of output files.
+	 */
+	public String getOutputFileNamePattern() {
+		return outputFileNamePattern;
+	}
+
+	/**
+	 * Defines the path of the files created by a {@link RollingWriter}, where the {@code {index}} placeholder is replaced by
+	 * the sequential number of each file, starting from 1. For example, {@code "/tmp/extract/part_{index}.csv"}.
+	 *
+	 * @param outputFileNamePattern the naming pattern of output files.
+	 */
+	public void setOutputFileNamePattern(String outputFileNamePattern) {
+		if (outputFileNamePattern != null && !outputFileNamePattern.contains("{index}")) {
+			throw new IllegalArgumentException("Output file name pattern must contain the {index} placeholder");
+		}
+		this.outputFileNamePattern = outputFileNamePattern;
+	}
+
+	/**
+	 * Indicates whether the files written by a {@link RollingWriter} are compressed with GZIP once they are closed. (defaults to {@code false})
+	 * <p>Compression happens on a separate thread, so the writer can proceed writing to the next file. Once a file is compressed,
+	 * a {@code .gz} file is created next to it, and the original file is deleted.</p>
+	 *
+	 * @return {@code true} if closed files should be compressed, otherwise {@code false}
+	 */
+	public boolean getCompressRolledFiles() {
+		return compressRolledFiles;
+	}
+
+	/**
+	 * Defines whether the files written by a {@link RollingWriter} are compressed with GZIP once they are closed. (defaults to {@code false})
+	 * <p>Compression happens on a separate thread, so the writer can proceed writing to the next file. Once a file is compressed,
+	 * a {@code .gz} file is created next to it, and the original file is deleted.</p>
+	 *
+	 * @param compressRolledFiles flag indicating whether closed files should be compressed.
+	 */
+	public void setCompressRolledFiles(boolean compressRolledFiles) {
+		this.compressRolledFiles = compressRolledFiles;
+	}
+
+	/**
+	 * Returns the callback notified by a {@link RollingWriter} when each output file is complete.
+	 *
+	 * @return the callback to be notified of each complete output file, or {@code null} if none.
+	 */
+	public OutputFileListener getOutputFileListener() {
+		return outputFileListener;
+	}
+
+	/**
+	 * Defines a callback to be notified by a {@link RollingWriter} when each output file is complete, i.e. once the file is closed
+	 * and, if {@link #getCompressRolledFiles()} is enabled, compressed.
+	 *
+	 * @param outputFileListener the callback to be notified of each complete output file.
+	 */
+	public void setOutputFileListener(OutputFileListener outputFileListener) {
+		this.outputFileListener = outputFileListener;
+	}
+
 	@Override
 	protected void addConfiguration(Map<String, Object> out) {
 		super.addConfiguration(out);
 		out.put("Empty value", emptyValue);
 		out.put("Header writing enabled", headerWritingEnabled);
 		out.put("Row processor", rowWriterProcessor == null ? "none" : rowWriterProcessor.getClass().getName());
+		out.put("Parallel formatting threads", parallelFormattingThreads);
+		out.put("Parallel formatting batch size", parallelFormattingBatchSize);
+		out.put("Output writing on separate thread", writeOutputOnSeparateThread);
+		out.put("Write numbers directly", writeNumbersDirectly);
+		out.put("Maximum bytes per file", maxBytesPerFile);
+		out.put("Maximum records per file", maxRecordsPerFile);
+		out.put("Output file name pattern", outputFileNamePattern);
+		out.put("Compress rolled files", compressRolledFiles);
+		out.put("Output file listener", outputFileListener == null ? "none" : outputFileListener.getClass().getName());
 	}
 
 	@Override
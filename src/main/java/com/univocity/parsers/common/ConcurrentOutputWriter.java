@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * A {@link Writer} that accumulates characters in buffers that are written to another {@link Writer} by a separate thread, so the
+ * thread producing the output doesn't have to wait for slow I/O operations to complete.
+ *
+ * <p>A fixed number of buffers is used: once all buffers are filled and waiting to be written, the producing thread will block until
+ * a buffer becomes available again. {@link #flush()} and {@link #close()} wait until all pending buffers are written.</p>
+ *
+ * <p>Errors that occur in the writing thread are reported by the next operation invoked on this writer. This class is not thread-safe.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see CommonWriterSettings#getWriteOutputOnSeparateThread()
+ */
+final class ConcurrentOutputWriter extends Writer implements Runnable {
+
+	private static final int BUFFER_COUNT = 4;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final int DATA = 0;
+	private static final int FLUSH = 1;
+	private static final int CLOSE = 2;
+
+	private static final class Buffer {
+		final int type;
+		final char[] chars;
+		final CountDownLatch done;
+		int length;
+
+		Buffer(int type, char[] chars) {
+			this.type = type;
+			this.chars = chars;
+			this.done = type == DATA ? null : new CountDownLatch(1);
+		}
+	}
+
+	private final Writer output;
+	private final BlockingQueue<Buffer> available = new ArrayBlockingQueue<Buffer>(BUFFER_COUNT);
+	private final BlockingQueue<Buffer> pending = new ArrayBlockingQueue<Buffer>(BUFFER_COUNT + 1);
+	private final Thread thread;
+
+	private Buffer current;
+	private volatile Throwable error;
+	private boolean closed;
+
+	/**
+	 * Creates a writer that transfers all characters to the given output in a separate thread.
+	 *
+	 * @param output the output that will receive the characters written to this writer.
+	 */
+	ConcurrentOutputWriter(Writer output) {
+		this.output = output;
+		this.current = new Buffer(DATA, new char[BUFFER_SIZE]);
+		for (int i = 1; i < BUFFER_COUNT; i++) {
+			available.add(new Buffer(DATA, new char[BUFFER_SIZE]));
+		}
+		this.thread = new Thread(this, "unVocity-parsers output writing thread");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Writes the filled buffers to the output until the writer is closed.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				Buffer buffer = pending.take();
+				try {
+					if (error == null) {
+						if (buffer.type == DATA) {
+							output.write(buffer.chars, 0, buffer.length);
+						} else if (buffer.type == FLUSH) {
+							output.flush();
+						}
+					}
+					if (buffer.type == CLOSE) {
+						output.close();
+					}
+				} catch (Throwable ex) {
+					if (error == null) {
+						error = ex;
+					}
+				}
+
+				if (buffer.type == DATA) {
+					buffer.length = 0;
+					available.put(buffer);
+				} else {
+					buffer.done.countDown();
+					if (buffer.type == CLOSE) {
+						return;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void checkState() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (error != null) {
+			throw new IOException("Error writing to the output", error);
+		}
+	}
+
+	private void submitCurrent() throws IOException {
+		try {
+			pending.put(current);
+			current = available.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Thread interrupted while waiting for output to be written");
+		}
+	}
+
+	private void submitAndWait(int type) throws IOException {
+		if (current.length > 0) {
+			submitCurrent();
+		}
+		Buffer marker = new Buffer(type, null);
+		try {
+			pending.put(marker);
+			marker.done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Thread interrupted while waiting for output to be written");
+		}
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		checkState();
+		if (current.length == current.chars.length) {
+			submitCurrent();
+		}
+		current.chars[current.length++] = (char) c;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		checkState();
+		while (len > 0) {
+			if (current.length == current.chars.length) {
+				submitCurrent();
+			}
+			int length = Math.min(len, current.chars.length - current.length);
+			System.arraycopy(cbuf, off, current.chars, current.length, length);
+			current.length += length;
+			off += length;
+			len -= length;
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		checkState();
+		while (len > 0) {
+			if (current.length == current.chars.length) {
+				submitCurrent();
+			}
+			int length = Math.min(len, current.chars.length - current.length);
+			str.getChars(off, off + length, current.chars, current.length);
+			current.length += length;
+			off += length;
+			len -= length;
+		}
+	}
+
+	/**
+	 * Submits the characters accumulated so far and waits until all pending buffers are written and the output is flushed.
+	 *
+	 * @throws IOException if any error occurred while writing to the output.
+	 */
+	@Override
+	public void flush() throws IOException {
+		checkState();
+		submitAndWait(FLUSH);
+		checkState();
+	}
+
+	/**
+	 * Submits the characters accumulated so far, waits until all pending buffers are written, then closes the output
+	 * and stops the writing thread.
+	 *
+	 * @throws IOException if any error occurred while writing to or closing the output.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			submitAndWait(CLOSE);
+		} finally {
+			closed = true;
+		}
+		if (error != null) {
+			throw new IOException("Error writing to the output", error);
+		}
+	}
+}
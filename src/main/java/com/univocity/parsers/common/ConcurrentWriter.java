@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A thread-safe facade over an {@link AbstractWriter}, which allows multiple threads to write rows to the same output.
+ *
+ * <p>Each thread that writes rows formats them with its own copy of the writer (as created by {@link AbstractWriter#newFormatter(CommonWriterSettings)}),
+ * into its own buffer. Buffers are handed over to a single thread that writes them to the output of the original writer,
+ * so producer threads don't compete for the output. Rows can be written:</p>
+ * <ul>
+ * <li>in global arrival order: each row is handed over as soon as it is formatted, so rows appear in the output in the order
+ * they were written by all threads. Use {@link #ConcurrentWriter(AbstractWriter)} for this.</li>
+ * <li>in producer order: each thread hands over batches of rows, which keeps the rows of each thread in order, while the batches
+ * of different threads are interleaved. Use {@link #ConcurrentWriter(AbstractWriter, int)} for this.</li>
+ * </ul>
+ *
+ * <p>Rows are written as with {@link AbstractWriter#writeRow(Object...)}: the {@link com.univocity.parsers.common.processor.RowWriterProcessor} is not used. Headers are written
+ * when this facade is created, if header writing is enabled. An error formatting a row is reported to the thread that wrote it, with a
+ * {@link TextWritingException}, and the output remains open. Errors writing to the output are reported by the next operation invoked
+ * on this writer.</p>
+ *
+ * <p>Rows that are waiting in the buffer of a thread are only written to the output once the batch is full, or when {@link #flush()}
+ * or {@link #close()} are invoked. Once this writer is closed, the output of the original writer is closed as well.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractWriter
+ */
+public final class ConcurrentWriter {
+
+	private static final int DATA = 0;
+	private static final int FLUSH = 1;
+	private static final int CLOSE = 2;
+
+	private static final class Batch {
+		final int type;
+		final CharArrayWriter output;
+		final int recordCount;
+		final CountDownLatch done;
+
+		Batch(CharArrayWriter output, int recordCount) {
+			this.type = DATA;
+			this.output = output;
+			this.recordCount = recordCount;
+			this.done = null;
+		}
+
+		Batch(int type) {
+			this.type = type;
+			this.output = null;
+			this.recordCount = 0;
+			this.done = new CountDownLatch(1);
+		}
+	}
+
+	private final class Producer {
+		final AbstractWriter<?> formatter;
+		CharArrayWriter output = new CharArrayWriter();
+		int rowCount;
+		int recordCount;
+
+		Producer(AbstractWriter<?> formatter) {
+			this.formatter = formatter;
+		}
+
+		void submit() {
+			if (rowCount > 0) {
+				Batch batch = new Batch(output, recordCount);
+				output = new CharArrayWriter();
+				rowCount = 0;
+				recordCount = 0;
+				put(batch);
+			}
+		}
+	}
+
+	private final AbstractWriter<?> writer;
+	private final int batchSize;
+	private final BlockingQueue<Batch> pending = new ArrayBlockingQueue<Batch>(1024);
+	private final List<Producer> producers = new ArrayList<Producer>();
+	private final ThreadLocal<Producer> producer = new ThreadLocal<Producer>() {
+		@Override
+		protected Producer initialValue() {
+			Producer out = new Producer(writer.newConcurrentFormatter());
+			synchronized (producers) {
+				producers.add(out);
+			}
+			return out;
+		}
+	};
+	private final Thread thread;
+
+	private final AtomicLong acceptedRecords = new AtomicLong();
+	private volatile long recordCount;
+	private volatile Throwable error;
+	private volatile boolean closed;
+
+	/**
+	 * Creates a thread-safe facade over the given writer. Rows are written to the output in the order they are received from all threads.
+	 *
+	 * @param writer the writer whose output will receive the rows written by multiple threads. It must not be used directly
+	 *               once this facade is created.
+	 */
+	public ConcurrentWriter(AbstractWriter<?> writer) {
+		this(writer, 1);
+	}
+
+	/**
+	 * Creates a thread-safe facade over the given writer. Each thread accumulates formatted rows until the given batch size is reached,
+	 * then the batch is written to the output. Rows written by each thread are kept in order, but rows of different threads are
+	 * interleaved in batches.
+	 *
+	 * @param writer    the writer whose output will receive the rows written by multiple threads. It must not be used directly
+	 *                  once this facade is created.
+	 * @param batchSize the number of rows each thread accumulates before writing them to the output. A batch size of {@code 1}
+	 *                  writes rows in global arrival order.
+	 */
+	public ConcurrentWriter(AbstractWriter<?> writer, int batchSize) {
+		if (writer == null) {
+			throw new IllegalArgumentException("Writer cannot be null");
+		}
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		if (writer.newConcurrentFormatter() == null) {
+			throw new IllegalArgumentException("Rows written with " + writer.getClass().getName() + " can't be formatted independently by multiple threads");
+		}
+		this.writer = writer;
+		this.batchSize = batchSize;
+
+		writer.writeHeadersIfEnabled();
+		this.recordCount = writer.getRecordCount();
+
+		this.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "unVocity-parsers concurrent writer thread");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	private void drain() {
+		try {
+			while (true) {
+				Batch batch = pending.take();
+				if (batch.type == DATA) {
+					if (error == null) {
+						try {
+							writer.writeFormattedRows(batch.output, batch.recordCount);
+							recordCount += batch.recordCount;
+						} catch (Throwable ex) {
+							error = ex;
+						}
+					}
+				} else {
+					try {
+						if (batch.type == FLUSH) {
+							if (error == null) {
+								writer.flush();
+							}
+						} else {
+							writer.close();
+						}
+					} catch (Throwable ex) {
+						if (error == null) {
+							error = ex;
+						}
+					}
+					batch.done.countDown();
+					if (batch.type == CLOSE) {
+						return;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void put(Batch batch) {
+		try {
+			pending.put(batch);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TextWritingException("Thread interrupted while waiting for rows to be written.", recordCount, (Object[]) null, e);
+		}
+	}
+
+	private void checkState() {
+		if (error != null) {
+			throw new TextWritingException("Error writing to the output.", recordCount, (Object[]) null, error);
+		}
+		if (closed) {
+			throw new TextWritingException("Cannot write to a closed output.", recordCount, (Object[]) null, null);
+		}
+	}
+
+	/**
+	 * Writes the data given for an individual record. Can be invoked by multiple threads concurrently.
+	 * <p> If the given data is null or empty, and {@link CommonSettings#getSkipEmptyLines()} is true, the input will be just ignored.</p>
+	 * <p> In case of any errors formatting the row, a {@link TextWritingException} will be thrown and the row will be discarded.</p>
+	 *
+	 * @param row the information of a single record to be written to the output
+	 */
+	public void writeRow(Object... row) {
+		Producer producer = this.producer.get();
+		synchronized (producer) {
+			checkState();
+			try {
+				if (producer.formatter.formatRowTo(row, producer.output)) {
+					producer.recordCount++;
+					acceptedRecords.incrementAndGet();
+				}
+			} catch (Throwable ex) {
+				throw writer.newTextWritingException("Error writing row.", acceptedRecords.get(), row, ex);
+			}
+			producer.rowCount++;
+			if (producer.rowCount >= batchSize) {
+				producer.submit();
+			}
+		}
+	}
+
+	/**
+	 * Writes the data given for an individual record. Can be invoked by multiple threads concurrently.
+	 * <p> In case of any errors formatting the row, a {@link TextWritingException} will be thrown and the row will be discarded.</p>
+	 *
+	 * @param row the information of a single record to be written to the output
+	 */
+	public void writeRow(Collection<?> row) {
+		writeRow(row == null ? null : row.toArray());
+	}
+
+	private void submitAll() {
+		Producer[] all;
+		synchronized (producers) {
+			all = producers.toArray(new Producer[producers.size()]);
+		}
+		for (Producer producer : all) {
+			synchronized (producer) {
+				producer.submit();
+			}
+		}
+	}
+
+	private void submitAndWait(int type) {
+		Batch marker = new Batch(type);
+		put(marker);
+		try {
+			marker.done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TextWritingException("Thread interrupted while waiting for rows to be written.", recordCount, (Object[]) null, e);
+		}
+	}
+
+	/**
+	 * Writes the rows accumulated by all threads to the output, then flushes it. Waits until all rows are written.
+	 */
+	public synchronized void flush() {
+		checkState();
+		submitAll();
+		submitAndWait(FLUSH);
+		checkState();
+	}
+
+	/**
+	 * Writes the rows accumulated by all threads to the output, then closes it. Waits until all rows are written.
+	 * Subsequent attempts to write rows will fail with a {@link TextWritingException}.
+	 */
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		submitAll();
+		submitAndWait(CLOSE);
+		synchronized (producers) {
+			producers.clear();
+		}
+		if (error != null) {
+			throw new TextWritingException("Error writing to the output.", recordCount, (Object[]) null, error);
+		}
+	}
+
+	/**
+	 * Returns the number of records written to the output so far. Records accumulated in the buffers of each thread are not
+	 * included until they are written.
+	 *
+	 * @return the number of records written to the output.
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+}
@@ -35,6 +35,15 @@ public abstract class DefaultConversionProcessor implements ConversionProcessor
 	private int[] fieldIndexes;
 	private boolean fieldsReordered;
 
+	private int planWidth;
+	private int[] planPositions;
+	private int[] planColumns;
+	private int[] planErrorIndexes;
+	private boolean[] convertedPositions;
+
+	private boolean objectRowReuseEnabled;
+	private Object[] reusableRow;
+
 	ProcessorErrorHandler errorHandler = NoopProcessorErrorHandler.instance;
 	Context context;
 
@@ -63,22 +72,113 @@ public abstract class DefaultConversionProcessor implements ConversionProcessor
 		return conversions;
 	}
 
-	private void initializeConversions(String[] row, Context context) {
-		conversionsInitialized = true;
-
-		this.fieldIndexes = null;
-		this.fieldsReordered = false;
-		this.conversionsInitialized = false;
+	/**
+	 * Discards the conversion plan built for the previous input, so it is built again from the headers and field selection
+	 * of the next input. Invoked when the processing of a new input starts.
+	 */
+	protected final void resetConversions() {
+		conversionsInitialized = false;
+	}
 
+	private void initializeConversions(String[] row, Context context) {
 		String[] contextHeaders = context.headers();
-		if (contextHeaders != null && contextHeaders.length > 0) {
-			conversions.prepareExecution(false, contextHeaders);
-		} else {
-			conversions.prepareExecution(false, row);
+		boolean headersAvailable = contextHeaders != null && contextHeaders.length > 0;
+		String[] values = headersAvailable ? contextHeaders : row;
+		if (values.length < row.length) {
+			//rows longer than the headers have their extra values converted by conversions applied to all fields.
+			values = Arrays.copyOf(values, row.length);
 		}
+		conversions.resetExecution();
+		conversions.prepareExecution(false, values);
+		this.planWidth = values.length;
 
 		this.fieldIndexes = context.extractedFieldIndexes();
 		this.fieldsReordered = context.columnsReordered();
+
+		compileConversionPlan();
+
+		//without headers, conversions applied to field names can only be matched once headers become available.
+		this.conversionsInitialized = headersAvailable || planPositions.length > 0;
+	}
+
+	/**
+	 * Builds the sequence of row positions that must be converted, along with the column index whose conversions
+	 * apply to each position, so that each row can be processed with a simple indexed loop.
+	 */
+	private void compileConversionPlan() {
+		int length = fieldIndexes == null ? conversions.getConvertedIndexLimit() : fieldIndexes.length;
+
+		int[] positions = new int[length];
+		int[] columns = new int[length];
+		int[] errorIndexes = new int[length];
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			int position;
+			int column;
+			if (fieldIndexes == null) {
+				position = i;
+				column = i;
+			} else if (fieldsReordered) {
+				position = i;
+				column = fieldIndexes[i];
+			} else {
+				position = fieldIndexes[i];
+				column = position;
+			}
+			if (position >= 0 && conversions.isConverted(column)) {
+				positions[count] = position;
+				columns[count] = column;
+				errorIndexes[count] = i;
+				count++;
+			}
+		}
+
+		this.planPositions = Arrays.copyOf(positions, count);
+		this.planColumns = Arrays.copyOf(columns, count);
+		this.planErrorIndexes = Arrays.copyOf(errorIndexes, count);
+
+		int last = 0;
+		for (int position : planPositions) {
+			if (position >= last) {
+				last = position + 1;
+			}
+		}
+		this.convertedPositions = new boolean[last];
+		for (int position : planPositions) {
+			convertedPositions[position] = true;
+		}
+	}
+
+	/**
+	 * Defines whether the {@code Object[]} produced by {@link #applyConversions(String[], Context)} can be reused to hold the values of the next row.
+	 * This avoids allocating a new array for every row processed, but must only be enabled if the row produced by this processor
+	 * is not stored or referenced anywhere after it has been processed. Disabled by default.
+	 *
+	 * @param objectRowReuseEnabled flag indicating whether the same {@code Object[]} should be used to hold the converted values of each row.
+	 */
+	public final void setObjectRowReuseEnabled(boolean objectRowReuseEnabled) {
+		this.objectRowReuseEnabled = objectRowReuseEnabled;
+		this.reusableRow = null;
+	}
+
+	/**
+	 * Indicates whether the {@code Object[]} produced by {@link #applyConversions(String[], Context)} is reused to hold the values of the next row.
+	 * Disabled by default.
+	 *
+	 * @return flag indicating whether the same {@code Object[]} is used to hold the converted values of each row.
+	 */
+	public final boolean isObjectRowReuseEnabled() {
+		return objectRowReuseEnabled;
+	}
+
+	private Object[] newObjectRow(int length) {
+		if (!objectRowReuseEnabled) {
+			return new Object[length];
+		}
+		if (reusableRow == null || reusableRow.length != length) {
+			reusableRow = new Object[length];
+		}
+		return reusableRow;
 	}
 
 	/**
@@ -86,6 +186,7 @@ public abstract class DefaultConversionProcessor implements ConversionProcessor
 	 *
 	 * <p>Each field will be transformed using the {@link Conversion#execute(Object)} method.
 	 * <p>In general the conversions will process a String and convert it to some object value (such as booleans, dates, etc).
+	 * <p>The sequence of conversions to apply on each column is resolved only once, when the first row is processed.
 	 *
 	 * @param row     the parsed record with its individual records as extracted from the original input.
 	 * @param context the current state of the parsing process.
@@ -95,39 +196,30 @@ public abstract class DefaultConversionProcessor implements ConversionProcessor
 	 */
 	public final Object[] applyConversions(String[] row, Context context) {
 		boolean keepRow = true;
-		Object[] objectRow = new Object[row.length];
-		boolean[] convertedFlags = conversionsByType != null ? new boolean[row.length] : null;
+		Object[] objectRow = newObjectRow(row.length);
 		System.arraycopy(row, 0, objectRow, 0, row.length);
 
 		if (conversions != null) {
-			if (!conversionsInitialized) {
+			if (!conversionsInitialized || fieldIndexes != context.extractedFieldIndexes() || fieldsReordered != context.columnsReordered()
+					|| fieldIndexes == null && row.length > planWidth) {
 				initializeConversions(row, context);
 			}
 
-			final int length = !fieldsReordered && fieldIndexes == null ? objectRow.length : fieldIndexes.length;
-
-			for (int i = 0; i < length; i++) {
-				try {
-					if (!fieldsReordered) {
-						if (fieldIndexes == null) {
-							objectRow[i] = conversions.applyConversions(i, row[i], convertedFlags);
-						} else {
-							int index = fieldIndexes[i];
-							objectRow[index] = conversions.applyConversions(index, row[index], convertedFlags);
-						}
-					} else {
-						objectRow[i] = conversions.applyConversions(fieldIndexes[i], row[i], convertedFlags);
+			for (int i = 0; i < planPositions.length; i++) {
+				int position = planPositions[i];
+				if (position < row.length) {
+					try {
+						objectRow[position] = conversions.applyConversions(planColumns[i], row[position], null);
+					} catch (Throwable ex) {
+						keepRow = false;
+						handleConversionError(ex, objectRow, planErrorIndexes[i]);
 					}
-				} catch (Throwable ex) {
-					keepRow = false;
-					handleConversionError(ex, objectRow, i);
 				}
 			}
-
 		}
 
-		if (keepRow && convertedFlags != null) {
-			keepRow = applyConversionsByType(false, objectRow, convertedFlags);
+		if (keepRow && conversionsByType != null) {
+			keepRow = applyConversionsByType(objectRow, conversions == null ? null : convertedPositions);
 		}
 
 		if (keepRow) {
@@ -184,6 +276,22 @@ public abstract class DefaultConversionProcessor implements ConversionProcessor
 		return keepRow;
 	}
 
+	private boolean applyConversionsByType(Object[] row, boolean[] convertedPositions) {
+		boolean keepRow = true;
+		for (int i = 0; i < row.length; i++) {
+			if (convertedPositions != null && i < convertedPositions.length && convertedPositions[i]) {
+				continue; //conversions already applied. Prevent default type conversion.
+			}
+			try {
+				row[i] = applyTypeConversion(false, row[i]);
+			} catch (Throwable ex) {
+				keepRow = false;
+				handleConversionError(ex, row, i);
+			}
+		}
+		return keepRow;
+	}
+
 	private boolean applyConversionsByType(boolean reverse, Object[] row, boolean[] convertedFlags) {
 		boolean keepRow = true;
 		for (int i = 0; i < row.length; i++) {
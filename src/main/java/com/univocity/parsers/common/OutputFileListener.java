@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright 2015 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import java.io.*;
+
+/**
+ * A callback used by the {@link RollingWriter} to notify that an output file is complete, i.e. it has been closed and, if
+ * {@link CommonWriterSettings#getCompressRolledFiles()} is enabled, compressed. This can be used to hand over each file
+ * to a downstream process while the next files are still being written.
+ *
+ * <p>When files are compressed, this callback is invoked from the thread that compresses them.</p>
+ *
+ * @see RollingWriter
+ * @see CommonWriterSettings#setOutputFileListener(OutputFileListener)
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ */
+public interface OutputFileListener {
+
+	/**
+	 * Notifies that an output file is complete.
+	 *
+	 * @param file        the complete file. If {@link CommonWriterSettings#getCompressRolledFiles()} is enabled, this is the compressed file.
+	 * @param index       the sequential number of the file, starting from 1.
+	 * @param recordCount the number of records written to the file, excluding headers.
+	 */
+	void fileClosed(File file, int index, long recordCount);
+
+}
@@ -80,6 +80,18 @@ public class ParserOutput {
 
 	public boolean trim = false;
 
+	/**
+	 * Row returned by {@link #rowParsed()} when values are kept as character ranges, to be written with {@link #writeValuesTo(AbstractWriter)}.
+	 */
+	static final String[] TRANSCODED_ROW = new String[0];
+
+	private boolean transcoding;
+	private char[] rowChars;
+	private int rowLength;
+	private int[] valueStarts;
+	private int[] valueLengths;
+	private int transcodedColumns;
+
 	/**
 	 * Headers parsed from the input when {@link CommonParserSettings#headerExtractionEnabled} is {@code true},
 	 * irrespective of any user-provided headers in {@link CommonParserSettings#getHeaders()}
@@ -146,6 +158,13 @@ public class ParserOutput {
 			}
 
 			currentRecord++;
+			if (transcoding) {
+				transcodedColumns = column;
+				column = 0;
+				rowLength = 0;
+				this.appender = appenders[0];
+				return TRANSCODED_ROW;
+			}
 			if (columnsReordered) {
 				String[] reorderedValues = new String[selectedIndexes.length];
 				for (int i = 0; i < selectedIndexes.length; i++) {
@@ -260,6 +279,9 @@ public class ParserOutput {
 	 * Adds a nullValue (as specified in {@link CommonSettings#getNullValue()}) to the output and prepares the next position in the record to receive more values.
 	 */
 	public void emptyParsed() {
+		if (transcoding) {
+			valueLengths[column] = -1;
+		}
 		this.parsedValues[column++] = nullValue;
 		this.appender = appenders[column];
 	}
@@ -271,8 +293,113 @@ public class ParserOutput {
 		if(trim){
 			appender.updateWhitespace();
 		}
-		this.parsedValues[column++] = appender.getAndReset();
-		this.appender = appenders[column];
+		if (transcoding) {
+			copyValue();
+		} else {
+			this.parsedValues[column] = appender.getAndReset();
+		}
+		this.appender = appenders[++column];
+	}
+
+	/**
+	 * Keeps the characters of parsed values in a buffer shared by all values of each row, instead of creating a String for each value.
+	 * Rows are then returned by {@link #rowParsed()} as {@link #TRANSCODED_ROW}.
+	 */
+	final void enableTranscoding() {
+		transcoding = true;
+		valueStarts = new int[parsedValues.length];
+		valueLengths = new int[parsedValues.length];
+		rowChars = new char[1024];
+	}
+
+	/**
+	 * Copies the characters accumulated in the appender to the end of the buffer that holds all values of the current row.
+	 * Values of the first row are stored as Strings, as they might be used as headers. Empty values are stored as Strings
+	 * as well, as they are represented by the (shared) empty value instance of the appender.
+	 */
+	private void copyValue() {
+		int length = appender.length();
+		if (length > 0 && columnsToExtractInitialized) {
+			if (rowLength + length > rowChars.length) {
+				rowChars = Arrays.copyOf(rowChars, Math.max(rowChars.length * 2, rowLength + length));
+			}
+			System.arraycopy(appender.getChars(), 0, rowChars, rowLength, length);
+			appender.reset();
+			valueStarts[column] = rowLength;
+			valueLengths[column] = length;
+			rowLength += length;
+		} else {
+			parsedValues[column] = appender.getAndReset();
+			valueLengths[column] = -1;
+		}
+	}
+
+	/**
+	 * Writes the values of the last row returned by {@link #rowParsed()} as {@link #TRANSCODED_ROW}, using
+	 * {@link AbstractWriter#addValue(char[], int, int)} for values stored as character ranges.
+	 *
+	 * @param writer the writer that will receive the values of the row.
+	 */
+	final void writeValuesTo(AbstractWriter<?> writer) {
+		if (columnsReordered) {
+			for (int i = 0; i < selectedIndexes.length; i++) {
+				int index = selectedIndexes[i];
+				if (index >= transcodedColumns || index == -1) {
+					writer.addValue((Object) nullValue);
+				} else {
+					addValueTo(writer, index);
+				}
+			}
+		} else {
+			for (int i = 0; i < transcodedColumns; i++) {
+				addValueTo(writer, i);
+			}
+		}
+		writer.writeAddedValues();
+	}
+
+	/**
+	 * Creates the values of the last row returned by {@link #rowParsed()} as {@link #TRANSCODED_ROW}, for callers that
+	 * need the row as an array of {@code String}.
+	 *
+	 * @return the values of the last transcoded row, with the field selection and column reordering applied.
+	 */
+	final String[] transcodedRow() {
+		if (columnsReordered) {
+			String[] out = new String[selectedIndexes.length];
+			for (int i = 0; i < selectedIndexes.length; i++) {
+				int index = selectedIndexes[i];
+				if (index >= transcodedColumns || index == -1) {
+					out[i] = nullValue;
+				} else {
+					out[i] = transcodedValue(index);
+				}
+			}
+			return out;
+		} else {
+			String[] out = new String[transcodedColumns];
+			for (int i = 0; i < transcodedColumns; i++) {
+				out[i] = transcodedValue(i);
+			}
+			return out;
+		}
+	}
+
+	private String transcodedValue(int index) {
+		int length = valueLengths[index];
+		if (length < 0) {
+			return parsedValues[index];
+		}
+		return new String(rowChars, valueStarts[index], length);
+	}
+
+	private void addValueTo(AbstractWriter<?> writer, int index) {
+		int length = valueLengths[index];
+		if (length < 0) {
+			writer.addValue((Object) parsedValues[index]);
+		} else {
+			writer.addValue(rowChars, valueStarts[index], length);
+		}
 	}
 
 	/**
@@ -289,6 +416,7 @@ public class ParserOutput {
 	 */
 	public final void discardValues() {
 		column = 0;
+		rowLength = 0;
 		this.appender = appenders[0];
 	}
 
@@ -299,6 +427,7 @@ public class ParserOutput {
 		this.columnsToExtractInitialized = false;
 		this.currentRecord = 0;
 		this.column = 0;
+		this.rowLength = 0;
 		this.headers = null;
 	}
 }
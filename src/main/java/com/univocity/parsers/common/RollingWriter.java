@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright 2015 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+/**
+ * Writes rows to a sequence of files, moving on to a new file once the current one reaches the limits defined by
+ * {@link CommonWriterSettings#getMaxBytesPerFile()} and/or {@link CommonWriterSettings#getMaxRecordsPerFile()}. Files are
+ * named according to {@link CommonWriterSettings#getOutputFileNamePattern()}.
+ *
+ * <p>Rows are formatted by a single writer instance created without an output (e.g. {@code new CsvWriter(settings)}), so its
+ * configuration is initialized only once for all files. Files are only switched at record boundaries, and headers (if enabled)
+ * are written at the beginning of each file.</p>
+ *
+ * <p>Once a file is complete, it is compressed on a separate thread if {@link CommonWriterSettings#getCompressRolledFiles()}
+ * is enabled, and the {@link OutputFileListener} given by {@link CommonWriterSettings#getOutputFileListener()} is notified.</p>
+ *
+ * <p>Rows are written as with {@link AbstractWriter#writeRow(Object...)}: the {@link com.univocity.parsers.common.processor.RowWriterProcessor}
+ * is not used. This class is not thread-safe.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see CommonWriterSettings
+ * @see OutputFileListener
+ */
+public final class RollingWriter {
+
+	private static final String INDEX = "{index}";
+
+	private static final class RowBuffer extends CharArrayWriter {
+		char[] chars() {
+			return buf;
+		}
+	}
+
+	private final AbstractWriter<?> writer;
+	private final Charset encoding;
+	private final boolean utf8;
+	private final boolean singleByte;
+
+	private final long maxBytes;
+	private final long maxRecords;
+	private final String pattern;
+	private final boolean compress;
+	private final OutputFileListener listener;
+
+	private final RowBuffer row = new RowBuffer();
+	private final List<File> files = new ArrayList<File>();
+	private ExecutorService compressor;
+	private final List<Future<?>> compressions = new ArrayList<Future<?>>();
+
+	private Writer output;
+	private File file;
+	private long fileBytes;
+	private long fileRecords;
+	private long recordCount;
+	private boolean closed;
+
+	/**
+	 * Creates a rolling writer that writes files using the default encoding.
+	 *
+	 * @param writer the writer used to format rows, created without an output. Its settings define the limits and names of each file.
+	 */
+	public RollingWriter(AbstractWriter<?> writer) {
+		this(writer, null);
+	}
+
+	/**
+	 * Creates a rolling writer.
+	 *
+	 * @param writer   the writer used to format rows, created without an output. Its settings define the limits and names of each file.
+	 * @param encoding the encoding of the files. If {@code null}, the default encoding will be used.
+	 */
+	public RollingWriter(AbstractWriter<?> writer, Charset encoding) {
+		if (writer == null) {
+			throw new IllegalArgumentException("Writer cannot be null");
+		}
+		CommonWriterSettings<?> settings = writer.getSettings();
+		if (settings.getOutputFileNamePattern() == null) {
+			throw new IllegalArgumentException("Output file name pattern not defined in the writer settings");
+		}
+		this.writer = writer;
+		this.encoding = encoding == null ? Charset.defaultCharset() : encoding;
+		this.utf8 = "UTF-8".equals(this.encoding.name());
+		this.singleByte = this.encoding.newEncoder().maxBytesPerChar() == 1.0f;
+
+		this.maxBytes = settings.getMaxBytesPerFile();
+		this.maxRecords = settings.getMaxRecordsPerFile();
+		this.pattern = settings.getOutputFileNamePattern();
+		this.compress = settings.getCompressRolledFiles();
+		this.listener = settings.getOutputFileListener();
+	}
+
+	private long countBytes(char[] chars, int length) {
+		if (singleByte) {
+			return length;
+		}
+		if (utf8) {
+			long out = 0;
+			for (int i = 0; i < length; i++) {
+				char ch = chars[i];
+				if (ch < 0x80) {
+					out++;
+				} else if (ch < 0x800) {
+					out += 2;
+				} else if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+					out += 4;
+					i++;
+				} else {
+					out += 3;
+				}
+			}
+			return out;
+		}
+		return new String(chars, 0, length).getBytes(encoding).length;
+	}
+
+	private void checkState() {
+		if (closed) {
+			throw new TextWritingException("Cannot write to a closed output.", recordCount, (Object[]) null, null);
+		}
+	}
+
+	/**
+	 * Writes the data given for an individual record to the current file, or to a new file if the record would exceed the limits of
+	 * the current one.
+	 * <p> In case of any errors formatting the row, a {@link TextWritingException} will be thrown and the row will be discarded.
+	 * Errors writing to the output close the current file.</p>
+	 *
+	 * @param row the information of a single record to be written to the output
+	 */
+	public void writeRow(Object... row) {
+		checkState();
+		boolean isRecord;
+		try {
+			isRecord = writer.formatRowTo(row, this.row);
+		} catch (Throwable ex) {
+			this.row.reset();
+			throw writer.newTextWritingException("Error writing row.", recordCount, row, ex);
+		}
+		if (this.row.size() == 0) {
+			return;
+		}
+		long bytes = countBytes(this.row.chars(), this.row.size());
+
+		try {
+			if (output != null && fileRecords > 0 && ((maxRecords > 0 && isRecord && fileRecords >= maxRecords) || (maxBytes > 0 && fileBytes + bytes > maxBytes))) {
+				closeFile();
+			}
+			if (output == null) {
+				openFile();
+			}
+			this.row.writeTo(output);
+		} catch (TextWritingException ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			closeAfterError();
+			throw writer.newTextWritingException("Error writing row.", recordCount, row, ex);
+		} finally {
+			this.row.reset();
+		}
+		fileBytes += bytes;
+		if (isRecord) {
+			fileRecords++;
+			recordCount++;
+		}
+	}
+
+	/**
+	 * Writes the data given for an individual record to the current file, or to a new file if the record would exceed the limits of
+	 * the current one.
+	 * <p> In case of any errors formatting the row, a {@link TextWritingException} will be thrown and the row will be discarded.
+	 * Errors writing to the output close the current file.</p>
+	 *
+	 * @param row the information of a single record to be written to the output
+	 */
+	public void writeRow(Collection<?> row) {
+		writeRow(row == null ? null : row.toArray());
+	}
+
+	/**
+	 * Writes the data given for multiple records, rolling over to new files as needed.
+	 *
+	 * @param rows the rows to be written
+	 */
+	public void writeRows(Iterable<Object[]> rows) {
+		for (Object[] row : rows) {
+			writeRow(row);
+		}
+	}
+
+	private void openFile() throws IOException {
+		synchronized (files) {
+			file = new File(pattern.replace(INDEX, String.valueOf(files.size() + 1)));
+			files.add(file);
+		}
+		Writer out = ArgumentUtils.newWriter(file, encoding);
+		output = out instanceof ByteEncodingWriter ? out : new BufferedWriter(out);
+		fileBytes = 0;
+		fileRecords = 0;
+
+		RowBuffer headers = new RowBuffer();
+		if (writer.formatHeadersTo(headers)) {
+			headers.writeTo(output);
+			fileBytes = countBytes(headers.chars(), headers.size());
+		}
+	}
+
+	private void closeFile() throws IOException {
+		Writer out = output;
+		output = null;
+		out.close();
+		fileClosed(file, files.size(), fileRecords);
+	}
+
+	private void closeAfterError() {
+		Writer out = output;
+		output = null;
+		if (out != null) {
+			try {
+				out.close();
+			} catch (Throwable e) {
+				//ignore and report the original error
+			}
+		}
+	}
+
+	private void fileClosed(final File file, final int index, final long records) {
+		if (!compress) {
+			if (listener != null) {
+				listener.fileClosed(file, index, records);
+			}
+			return;
+		}
+		if (compressor == null) {
+			compressor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "unVocity-parsers file compression thread");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		compressions.add(compressor.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				File compressed = compress(file);
+				synchronized (files) {
+					files.set(index - 1, compressed);
+				}
+				if (listener != null) {
+					listener.fileClosed(compressed, index, records);
+				}
+				return null;
+			}
+		}));
+	}
+
+	private static File compress(File file) throws IOException {
+		File out = new File(file.getPath() + ".gz");
+		InputStream input = new FileInputStream(file);
+		try {
+			OutputStream gzip = new GZIPOutputStream(new FileOutputStream(out), 65536);
+			try {
+				byte[] buffer = new byte[65536];
+				int length;
+				while ((length = input.read(buffer)) != -1) {
+					gzip.write(buffer, 0, length);
+				}
+			} finally {
+				gzip.close();
+			}
+		} finally {
+			input.close();
+		}
+		if (!file.delete()) {
+			throw new IOException("Unable to delete file '" + file.getAbsolutePath() + "' after compression");
+		}
+		return out;
+	}
+
+	/**
+	 * Flushes the current file.
+	 */
+	public void flush() {
+		checkState();
+		if (output != null) {
+			try {
+				output.flush();
+			} catch (Throwable ex) {
+				closeAfterError();
+				throw new TextWritingException("Error flushing output.", recordCount, (Object[]) null, ex);
+			}
+		}
+	}
+
+	/**
+	 * Closes the current file, then waits until all files are compressed (if {@link CommonWriterSettings#getCompressRolledFiles()}
+	 * is enabled). Subsequent attempts to write rows will fail with a {@link TextWritingException}.
+	 * <p> An IllegalStateException will be thrown in case of any errors closing or compressing files.</p>
+	 */
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		Throwable error = null;
+		try {
+			if (output != null) {
+				closeFile();
+			}
+		} catch (Throwable ex) {
+			error = ex;
+		}
+		if (compressor != null) {
+			compressor.shutdown();
+			try {
+				for (Future<?> compression : compressions) {
+					try {
+						compression.get();
+					} catch (ExecutionException ex) {
+						if (error == null) {
+							error = ex.getCause();
+						}
+					}
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				compressor.shutdownNow();
+				if (error == null) {
+					error = ex;
+				}
+			}
+			compressions.clear();
+		}
+		if (error != null) {
+			throw new IllegalStateException("Error closing the output.", error);
+		}
+	}
+
+	/**
+	 * Returns the number of records written to all files so far, excluding headers.
+	 *
+	 * @return the number of records written.
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Returns a snapshot of all files created so far, in the order they were written. Files compressed after being closed are
+	 * replaced by a file with the same name followed by the {@code .gz} extension once their compression completes.
+	 *
+	 * @return the files created by this writer.
+	 */
+	public List<File> getFiles() {
+		synchronized (files) {
+			return Collections.unmodifiableList(new ArrayList<File>(files));
+		}
+	}
+}
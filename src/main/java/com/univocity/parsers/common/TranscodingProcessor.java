@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright 2015 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import com.univocity.parsers.common.processor.*;
+
+/**
+ * A {@link RowProcessor} that writes every row parsed from the input with a given {@link AbstractWriter}, to convert data
+ * from one format to another.
+ *
+ * <p>When a parser is created with this processor, the characters of each parsed value are copied into a buffer shared by all
+ * values of the row, and handed over to the writer with {@link AbstractWriter#addValue(char[], int, int)}, instead of creating a
+ * {@code String} for every value. Writers that support it (such as {@link com.univocity.parsers.csv.CsvWriter} and
+ * {@link com.univocity.parsers.tsv.TsvWriter}) copy values that don't need to be escaped or quoted directly into the output row.
+ * Other values are processed as usual.</p>
+ *
+ * <p>The field selection and column reordering of the parser settings are applied to the rows written. The writer is closed once
+ * the parsing process ends. Rows returned by {@link AbstractParser#parseNext()} and received by the {@link ProcessorErrorHandler} are
+ * created as arrays of {@code String}, as usual.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see com.univocity.parsers.common.routine.AbstractRoutines#parseAndWrite(java.io.Reader, java.io.Writer)
+ */
+public final class TranscodingProcessor implements RowProcessor {
+
+	private final AbstractWriter<?> writer;
+
+	/**
+	 * Creates a processor that writes all parsed rows to the given writer.
+	 *
+	 * @param writer the writer that will receive the rows parsed from the input.
+	 */
+	public TranscodingProcessor(AbstractWriter<?> writer) {
+		if (writer == null) {
+			throw new IllegalArgumentException("Writer cannot be null");
+		}
+		this.writer = writer;
+	}
+
+	@Override
+	public void processStarted(ParsingContext context) {
+	}
+
+	@Override
+	public void rowProcessed(String[] row, ParsingContext context) {
+		if (row == ParserOutput.TRANSCODED_ROW) {
+			outputOf(context).writeValuesTo(writer);
+		} else {
+			writer.writeRow(row);
+		}
+	}
+
+	@Override
+	public void processEnded(ParsingContext context) {
+		writer.close();
+	}
+
+	/**
+	 * Returns the output of the parser that produced the current row. The output is obtained from the context of each row,
+	 * so the same processor can be used by different parsers.
+	 *
+	 * @param context the context of the parser that produced the current row
+	 *
+	 * @return the output that holds the values of the current row.
+	 */
+	private static ParserOutput outputOf(ParsingContext context) {
+		if (context instanceof DefaultContext && ((DefaultContext) context).output != null) {
+			return ((DefaultContext) context).output;
+		}
+		throw new IllegalStateException("Transcoded rows can only be processed with the context of the parser that produced them");
+	}
+}
@@ -72,6 +72,24 @@ public class FieldConversionMapping {
 	 */
 	private Map<Integer, List<Conversion<?, ?>>> conversionsByIndex = Collections.emptyMap();
 
+	/**
+	 * The contents of {@link FieldConversionMapping#conversionsByIndex}, flattened into an array indexed by column, where
+	 * each position holds the sequence of conversions to be applied to that column (or {@code null} if the column is not converted).
+	 * Used to avoid map lookups and boxing of column indexes for every value processed.
+	 */
+	@SuppressWarnings("rawtypes")
+	private Conversion[][] conversionPlan = new Conversion[0][];
+
+	/**
+	 * Discards the conversions matched to each field index by {@link #prepareExecution(boolean, String[])}, so the next call
+	 * matches the registered conversions against a new sequence of fields.
+	 */
+	@SuppressWarnings("rawtypes")
+	public void resetExecution() {
+		conversionsByIndex = Collections.emptyMap();
+		conversionPlan = new Conversion[0][];
+	}
+
 	/**
 	 * Prepares the conversions registered in this object to be executed against a given sequence of fields
 	 *
@@ -99,6 +117,48 @@ public class FieldConversionMapping {
 			fieldEnumConversionMapping.prepareExecution(writing, next, conversionsByIndex, values);
 			convertAllMapping.prepareExecution(writing, next, conversionsByIndex, values);
 		}
+
+		conversionPlan = compilePlan(conversionsByIndex);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static Conversion[][] compilePlan(Map<Integer, List<Conversion<?, ?>>> conversionsByIndex) {
+		int length = 0;
+		for (Integer index : conversionsByIndex.keySet()) {
+			if (index >= length) {
+				length = index + 1;
+			}
+		}
+
+		Conversion[][] plan = new Conversion[length][];
+		for (Map.Entry<Integer, List<Conversion<?, ?>>> e : conversionsByIndex.entrySet()) {
+			if (e.getKey() >= 0) {
+				plan[e.getKey()] = e.getValue().toArray(new Conversion[e.getValue().size()]);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Queries whether a sequence of conversions is associated with a given column index. Only meaningful
+	 * after {@link #prepareExecution(boolean, String[])} has been invoked.
+	 *
+	 * @param index the index of the column
+	 *
+	 * @return {@code true} if the values at the given column index will be converted, {@code false} otherwise.
+	 */
+	public boolean isConverted(int index) {
+		return index >= 0 && index < conversionPlan.length && conversionPlan[index] != null;
+	}
+
+	/**
+	 * Returns the highest column index associated with a sequence of conversions, plus one. Only meaningful
+	 * after {@link #prepareExecution(boolean, String[])} has been invoked.
+	 *
+	 * @return the limit of column indexes that might have values converted.
+	 */
+	public int getConvertedIndexLimit() {
+		return conversionPlan.length;
 	}
 
 	/**
@@ -157,7 +217,7 @@ public class FieldConversionMapping {
 	 */
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	public Object reverseConversions(boolean executeInReverseOrder, int index, Object value, boolean[] convertedFlags) {
-		List<Conversion<?, ?>> conversions = conversionsByIndex.get(index);
+		Conversion[] conversions = index >= 0 && index < conversionPlan.length ? conversionPlan[index] : null;
 		if (conversions != null) {
 			if (convertedFlags != null) {
 				convertedFlags[index] = true;
@@ -165,13 +225,13 @@ public class FieldConversionMapping {
 			Conversion conversion = null;
 			try {
 				if (executeInReverseOrder) {
-					for (int i = conversions.size() - 1; i >= 0; i--) {
-						conversion = conversions.get(i);
+					for (int i = conversions.length - 1; i >= 0; i--) {
+						conversion = conversions[i];
 						value = conversion.revert(value);
 					}
 				} else {
-					for (Conversion<?, ?> c : conversions) {
-						conversion = c;
+					for (int i = 0; i < conversions.length; i++) {
+						conversion = conversions[i];
 						value = conversion.revert(value);
 					}
 				}
@@ -208,13 +268,14 @@ public class FieldConversionMapping {
 	 */
 	@SuppressWarnings({"rawtypes", "unchecked"})
 	public Object applyConversions(int index, String stringValue, boolean[] convertedFlags) {
-		List<Conversion<?, ?>> conversions = conversionsByIndex.get(index);
+		Conversion[] conversions = index >= 0 && index < conversionPlan.length ? conversionPlan[index] : null;
 		if (conversions != null) {
 			if (convertedFlags != null) {
 				convertedFlags[index] = true;
 			}
 			Object result = stringValue;
-			for (Conversion conversion : conversions) {
+			for (int i = 0; i < conversions.length; i++) {
+				Conversion conversion = conversions[i];
 				try {
 					result = conversion.execute(result);
 				} catch (DataProcessingException ex) {
@@ -248,6 +248,7 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 
 		try {
 			do {
+				skipToLineSeparator();
 				nextChar();
 			} while (lineCount < expectedLineCount);
 			if (lineCount < lines) {
@@ -258,6 +259,27 @@ public abstract class AbstractCharInputReader implements CharInputReader {
 		}
 	}
 
+	/**
+	 * Moves the current position to the next occurrence of the first character of the line separator, scanning the buffer
+	 * directly instead of reading one character at a time with {@link #nextChar()}. The line separator itself is not consumed.
+	 */
+	private void skipToLineSeparator() {
+		final char separator = lineSeparator1;
+		while (length != -1) {
+			final char[] buffer = this.buffer;
+			final int length = this.length;
+			int i = this.i;
+			while (i < length && buffer[i] != separator) {
+				i++;
+			}
+			this.i = i;
+			if (i < length) {
+				return;
+			}
+			updateBuffer();
+		}
+	}
+
 	@Override
 	public String readComment() {
 		long expectedLineCount = lineCount + 1;
@@ -171,8 +171,9 @@ public class DefaultCharAppender implements CharAppender {
 
 	@Override
 	public void fill(char ch, int length) {
-		for (int i = 0; i < length; i++) {
-			chars[index++] = ch;
+		if (length > 0) {
+			Arrays.fill(chars, index, index + length, ch);
+			index += length;
 		}
 	}
 
@@ -93,12 +93,15 @@ public class ExpandingCharAppender extends DefaultCharAppender {
 
 	@Override
 	public final void fill(char ch, int length) {
-		try {
-			super.fill(ch, length);
-		} catch (ArrayIndexOutOfBoundsException e) {
-			expandAndRetry();
-			super.fill(ch, length);
+		if (index + length > chars.length) {
+			if ((index + 1) * 2 >= index + length) {
+				//same growth as appending a single character to a full buffer
+				expand(1, 2.0);
+			} else {
+				expand(length);
+			}
 		}
+		super.fill(ch, length);
 	}
 
 	final void expandAndRetry() {
@@ -197,4 +197,173 @@ public class WriterCharAppender extends ExpandingCharAppender {
 		}
 		index += to - from;
 	}
+
+	/**
+	 * Appends a sequence of characters to this appender
+	 *
+	 * @param chars the array with the characters to be appended.
+	 * @param from  the index of the first character to append
+	 * @param to    the index after the last character to append
+	 */
+	public final void append(char[] chars, int from, int to) {
+		try {
+			System.arraycopy(chars, from, this.chars, index, to - from);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			expand(to - from);
+			System.arraycopy(chars, from, this.chars, index, to - from);
+		}
+		index += to - from;
+	}
+
+	/**
+	 * Creates a lookup table that identifies special characters, to be used by {@link #appendUntil(String, int, boolean[])}.
+	 *
+	 * @param specialChars the characters to be marked as special.
+	 *
+	 * @return a table where {@code table[ch]} is {@code true} if {@code ch} is one of the given characters. Characters
+	 * beyond the length of the table are not special.
+	 */
+	public static boolean[] newSpecialCharTable(char... specialChars) {
+		int max = 0;
+		for (int i = 0; i < specialChars.length; i++) {
+			if (max < specialChars[i]) {
+				max = specialChars[i];
+			}
+		}
+		boolean[] table = new boolean[max + 1];
+		for (int i = 0; i < specialChars.length; i++) {
+			table[specialChars[i]] = true;
+		}
+		return table;
+	}
+
+	/**
+	 * Appends the contents of a String to this appender, stopping at the first special character found.
+	 *
+	 * <p>The remaining characters of the String are copied to this appender in a single bulk operation, then scanned in place, so
+	 * values without special characters are processed with a single lookup per character.</p>
+	 *
+	 * @param string       the string whose characters will be appended.
+	 * @param from         the index of the first character to append
+	 * @param specialChars a table that identifies special characters, created with {@link #newSpecialCharTable(char...)}
+	 *
+	 * @return the index of the first special character found in the given String, which is not appended, or the length of the String
+	 * if no special characters were found.
+	 */
+	public final int appendUntil(String string, int from, boolean[] specialChars) {
+		return appendUntil(string, from, string.length(), specialChars);
+	}
+
+	/**
+	 * Appends a sequence of characters of a String to this appender, stopping at the first special character found.
+	 *
+	 * <p>The characters are copied to this appender in a single bulk operation, then scanned in place, so
+	 * values without special characters are processed with a single lookup per character.</p>
+	 *
+	 * @param string       the string whose characters will be appended.
+	 * @param from         the index of the first character to append
+	 * @param to           the index after the last character to append
+	 * @param specialChars a table that identifies special characters, created with {@link #newSpecialCharTable(char...)}
+	 *
+	 * @return the index of the first special character found in the given sequence, which is not appended, or {@code to}
+	 * if no special characters were found.
+	 */
+	public final int appendUntil(String string, int from, int to, boolean[] specialChars) {
+		final int length = to - from;
+		if (length <= 0) {
+			return from;
+		}
+		if (index + length > chars.length) {
+			expand(length);
+		}
+		string.getChars(from, to, chars, index);
+
+		final char[] chars = this.chars;
+		final int max = specialChars.length;
+		final int start = index;
+		final int end = start + length;
+		for (int i = start; i < end; i++) {
+			char ch = chars[i];
+			if (ch < max && specialChars[ch]) {
+				index = i;
+				return from + (i - start);
+			}
+		}
+		index = end;
+		return to;
+	}
+
+	/**
+	 * Appends the decimal representation of a {@code long} value, as produced by {@link Long#toString(long)}, without creating intermediate objects.
+	 *
+	 * @param value the value to append
+	 */
+	public final void appendNumber(long value) {
+		if (index + 20 >= chars.length) {
+			expand(20);
+		}
+		if (value == Long.MIN_VALUE) {
+			append("-9223372036854775808", 0, 20);
+			return;
+		}
+		if (value < 0) {
+			chars[index++] = '-';
+			value = -value;
+		}
+
+		int digits = 1;
+		for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+			digits++;
+		}
+
+		int end = index + digits;
+		int position = end;
+		while (value >= 10) {
+			long quotient = value / 10;
+			chars[--position] = (char) ('0' + (int) (value - quotient * 10));
+			value = quotient;
+		}
+		chars[--position] = (char) ('0' + (int) value);
+		index = end;
+	}
+
+	/**
+	 * Appends the representation of a {@code double} value, as produced by {@link Double#toString(double)}. Integral values
+	 * with magnitude lower than 10<sup>7</sup> are appended without creating intermediate objects.
+	 *
+	 * @param value the value to append
+	 */
+	public final void appendNumber(double value) {
+		if (value > -1.0E7 && value < 1.0E7 && value == (long) value && (value != 0.0 || 1.0 / value > 0)) {
+			appendNumber((long) value);
+			appendFractionZero();
+		} else {
+			String string = Double.toString(value);
+			append(string, 0, string.length());
+		}
+	}
+
+	/**
+	 * Appends the representation of a {@code float} value, as produced by {@link Float#toString(float)}. Integral values
+	 * with magnitude lower than 10<sup>7</sup> are appended without creating intermediate objects.
+	 *
+	 * @param value the value to append
+	 */
+	public final void appendNumber(float value) {
+		if (value > -1.0E7f && value < 1.0E7f && value == (long) value && (value != 0.0f || 1.0f / value > 0)) {
+			appendNumber((long) value);
+			appendFractionZero();
+		} else {
+			String string = Float.toString(value);
+			append(string, 0, string.length());
+		}
+	}
+
+	private void appendFractionZero() {
+		if (index + 2 >= chars.length) {
+			expand(2);
+		}
+		chars[index++] = '.';
+		chars[index++] = '0';
+	}
 }
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor;
+
+import com.univocity.parsers.common.processor.core.*;
+
+/**
+ * An aggregate function computed over the rows of each group by an {@link AggregationProcessor}.
+ *
+ * <p>Use the static methods of this class to create aggregates, for example:</p>
+ *
+ * <pre>{@code
+ * processor.aggregate(Aggregate.count(), Aggregate.sum("amount").as("total"), Aggregate.max(3));
+ * }</pre>
+ *
+ * <p>Values of aggregated columns are parsed as numbers, except for {@link #count(String)}. {@code null} values are ignored.
+ * Sums, minimums and maximums produce a {@code Long} if all values are integers (and the sum doesn't overflow), or a {@code Double}
+ * otherwise. Averages always produce a {@code Double}. Functions over a group with no values produce {@code null}, except counts.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractAggregationProcessor
+ */
+public final class Aggregate {
+
+	/**
+	 * The functions supported by {@link Aggregate}.
+	 */
+	public enum Function {
+		/**
+		 * Counts the rows of each group, or the non-null values of a column.
+		 */
+		COUNT,
+		/**
+		 * Sums the values of a column.
+		 */
+		SUM,
+		/**
+		 * Finds the minimum value of a column.
+		 */
+		MIN,
+		/**
+		 * Finds the maximum value of a column.
+		 */
+		MAX,
+		/**
+		 * Computes the average value of a column.
+		 */
+		AVG
+	}
+
+	private final Function function;
+	private final String fieldName;
+	private final int fieldIndex;
+	private String alias;
+
+	private Aggregate(Function function, String fieldName, int fieldIndex) {
+		if (fieldName != null && fieldName.trim().isEmpty()) {
+			throw new IllegalArgumentException("Field name cannot be empty");
+		}
+		this.function = function;
+		this.fieldName = fieldName;
+		this.fieldIndex = fieldIndex;
+	}
+
+	private static Aggregate of(Function function, String fieldName) {
+		if (fieldName == null) {
+			throw new IllegalArgumentException("Field name cannot be null");
+		}
+		return new Aggregate(function, fieldName, -1);
+	}
+
+	private static Aggregate of(Function function, int fieldIndex) {
+		if (fieldIndex < 0) {
+			throw new IllegalArgumentException("Field index cannot be negative");
+		}
+		return new Aggregate(function, null, fieldIndex);
+	}
+
+	/**
+	 * Counts the rows of each group.
+	 *
+	 * @return an aggregate that counts rows.
+	 */
+	public static Aggregate count() {
+		return new Aggregate(Function.COUNT, null, -1);
+	}
+
+	/**
+	 * Counts the non-null values of a column in each group.
+	 *
+	 * @param fieldName the name of the column
+	 *
+	 * @return an aggregate that counts values.
+	 */
+	public static Aggregate count(String fieldName) {
+		return of(Function.COUNT, fieldName);
+	}
+
+	/**
+	 * Counts the non-null values of a column in each group.
+	 *
+	 * @param fieldIndex the index of the column
+	 *
+	 * @return an aggregate that counts values.
+	 */
+	public static Aggregate count(int fieldIndex) {
+		return of(Function.COUNT, fieldIndex);
+	}
+
+	/**
+	 * Sums the values of a column in each group.
+	 *
+	 * @param fieldName the name of the column
+	 *
+	 * @return an aggregate that sums values.
+	 */
+	public static Aggregate sum(String fieldName) {
+		return of(Function.SUM, fieldName);
+	}
+
+	/**
+	 * Sums the values of a column in each group.
+	 *
+	 * @param fieldIndex the index of the column
+	 *
+	 * @return an aggregate that sums values.
+	 */
+	public static Aggregate sum(int fieldIndex) {
+		return of(Function.SUM, fieldIndex);
+	}
+
+	/**
+	 * Finds the minimum value of a column in each group.
+	 *
+	 * @param fieldName the name of the column
+	 *
+	 * @return an aggregate that finds the minimum value.
+	 */
+	public static Aggregate min(String fieldName) {
+		return of(Function.MIN, fieldName);
+	}
+
+	/**
+	 * Finds the minimum value of a column in each group.
+	 *
+	 * @param fieldIndex the index of the column
+	 *
+	 * @return an aggregate that finds the minimum value.
+	 */
+	public static Aggregate min(int fieldIndex) {
+		return of(Function.MIN, fieldIndex);
+	}
+
+	/**
+	 * Finds the maximum value of a column in each group.
+	 *
+	 * @param fieldName the name of the column
+	 *
+	 * @return an aggregate that finds the maximum value.
+	 */
+	public static Aggregate max(String fieldName) {
+		return of(Function.MAX, fieldName);
+	}
+
+	/**
+	 * Finds the maximum value of a column in each group.
+	 *
+	 * @param fieldIndex the index of the column
+	 *
+	 * @return an aggregate that finds the maximum value.
+	 */
+	public static Aggregate max(int fieldIndex) {
+		return of(Function.MAX, fieldIndex);
+	}
+
+	/**
+	 * Computes the average value of a column in each group.
+	 *
+	 * @param fieldName the name of the column
+	 *
+	 * @return an aggregate that computes the average value.
+	 */
+	public static Aggregate avg(String fieldName) {
+		return of(Function.AVG, fieldName);
+	}
+
+	/**
+	 * Computes the average value of a column in each group.
+	 *
+	 * @param fieldIndex the index of the column
+	 *
+	 * @return an aggregate that computes the average value.
+	 */
+	public static Aggregate avg(int fieldIndex) {
+		return of(Function.AVG, fieldIndex);
+	}
+
+	/**
+	 * Defines the header of the column that holds the results of this aggregate. By default, headers are
+	 * the name of the function followed by the aggregated column, e.g. {@code "sum(amount)"}.
+	 *
+	 * @param alias the header of the results of this aggregate.
+	 *
+	 * @return this aggregate, for convenience.
+	 */
+	public Aggregate as(String alias) {
+		this.alias = alias;
+		return this;
+	}
+
+	/**
+	 * Returns the function computed by this aggregate.
+	 *
+	 * @return the aggregate function.
+	 */
+	public Function getFunction() {
+		return function;
+	}
+
+	/**
+	 * Returns the name of the aggregated column, if defined.
+	 *
+	 * @return the column name, or {@code null} if this aggregate was created with a column index, or counts rows.
+	 */
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	/**
+	 * Returns the index of the aggregated column, if defined.
+	 *
+	 * @return the column index, or {@code -1} if this aggregate was created with a column name, or counts rows.
+	 */
+	public int getFieldIndex() {
+		return fieldIndex;
+	}
+
+	/**
+	 * Returns the header of the column that holds the results of this aggregate.
+	 *
+	 * @param headers the headers of the input, if available.
+	 *
+	 * @return the header of the results of this aggregate.
+	 */
+	public String getHeader(String[] headers) {
+		if (alias != null) {
+			return alias;
+		}
+		String column;
+		if (fieldName != null) {
+			column = fieldName;
+		} else if (fieldIndex == -1) {
+			column = "*";
+		} else if (headers != null && fieldIndex < headers.length && headers[fieldIndex] != null) {
+			column = headers[fieldIndex];
+		} else {
+			column = String.valueOf(fieldIndex);
+		}
+		return function.name().toLowerCase() + "(" + column + ")";
+	}
+
+	@Override
+	public String toString() {
+		return getHeader(null);
+	}
+}
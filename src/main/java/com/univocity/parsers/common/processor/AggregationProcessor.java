@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.core.*;
+
+/**
+ * A {@link RowProcessor} implementation that groups rows by the values of one or more columns and computes {@link Aggregate} functions
+ * over each group. Results are available once the parsing process ends.
+ *
+ * <p>Use {@link #groupBy(String...)} or {@link #groupByIndexes(Integer...)} to define the grouping columns, and {@link #aggregate(Aggregate...)}
+ * to define the functions to compute.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractParser
+ * @see RowProcessor
+ * @see Aggregate
+ */
+public class AggregationProcessor extends AbstractAggregationProcessor<ParsingContext> implements RowProcessor {
+
+	/**
+	 * Creates an {@code AggregationProcessor} that processes all rows in the parsing thread.
+	 */
+	public AggregationProcessor() {
+		super();
+	}
+
+	/**
+	 * Creates an {@code AggregationProcessor} that distributes groups among the given number of partitions, each one processed in a separate thread.
+	 *
+	 * @param partitionCount the number of partitions that process rows in parallel.
+	 */
+	public AggregationProcessor(int partitionCount) {
+		super(partitionCount);
+	}
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.core.*;
+
+/**
+ * A {@link RowProcessor} implementation that distributes rows among partitions processed in parallel, while preserving the
+ * order of rows that share the same values in the partitioning columns. Each partition is handled by its own {@link RowProcessor}
+ * in a separate thread.
+ *
+ * <p>Use {@link #partitionBy(String...)} or {@link #partitionByIndexes(Integer...)} to define which columns identify the partition of each row.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ * @see AbstractParser
+ * @see RowProcessor
+ * @see ConcurrentRowProcessor
+ */
+public class PartitionedRowProcessor extends AbstractPartitionedProcessor<ParsingContext> implements RowProcessor {
+
+	/**
+	 * Creates a {@code PartitionedRowProcessor} with one partition for each of the given row processors.
+	 * Each partition can hold up to 1024 rows before blocking the parsing process.
+	 *
+	 * @param rowProcessors the row processors that will handle each partition. Must not contain duplicate instances.
+	 */
+	public PartitionedRowProcessor(RowProcessor... rowProcessors) {
+		super(rowProcessors);
+	}
+
+	/**
+	 * Creates a {@code PartitionedRowProcessor} with one partition for each of the given row processors.
+	 *
+	 * @param capacity      the maximum number of rows kept in memory by each partition before blocking the parsing process.
+	 * @param rowProcessors the row processors that will handle each partition. Must not contain duplicate instances.
+	 */
+	public PartitionedRowProcessor(int capacity, RowProcessor... rowProcessors) {
+		super(capacity, rowProcessors);
+	}
+}
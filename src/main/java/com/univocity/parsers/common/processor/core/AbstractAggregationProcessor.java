@@ -0,0 +1,587 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor.core;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.*;
+
+import java.util.*;
+
+/**
+ * A {@link Processor} implementation that groups rows by the values of one or more columns, and computes {@link Aggregate} functions
+ * over the rows of each group, such as counts, sums, minimums, maximums and averages.
+ *
+ * <p>Rows are not kept in memory: only the values of the grouping columns of each group are stored, in a hash table, and the state
+ * of each aggregate is kept in primitive arrays indexed by group. Values of aggregated columns are parsed directly into {@code long}
+ * or {@code double} primitives.</p>
+ *
+ * <p>Groups can be processed in parallel by multiple partitions (see {@link #AbstractAggregationProcessor(int)}), each one running in a separate
+ * thread with its own hash table, as in {@link AbstractPartitionedProcessor}. Results of each partition are merged once the input is fully processed.
+ * Results of separate processors with the same definitions can also be combined with {@link #merge(AbstractAggregationProcessor)}.</p>
+ *
+ * <p>Results are available after the parsing process ends, with {@link #getRows()} and {@link #getResultHeaders()}, or can be written
+ * to an output using {@link #writeResultsAndClose(AbstractWriter)}.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see Aggregate
+ * @see AbstractParser
+ * @see Processor
+ */
+public abstract class AbstractAggregationProcessor<T extends Context> implements Processor<T> {
+
+	private final int partitionCount;
+
+	private String[] groupFields;
+	private Integer[] groupIndexes;
+	private Aggregate[] aggregates = new Aggregate[0];
+
+	private String[] inputHeaders;
+	private int[] groupPositions;
+	private Accumulator[] accumulators;
+
+	private int groupCount;
+	private String[][] groupValues;
+	private int[] groupHashes;
+	private int[] slots;
+
+	private AbstractPartitionedProcessor<T> partitioned;
+	private List<AbstractAggregationProcessor<T>> partitions;
+
+	/**
+	 * Creates an aggregation processor that processes all rows in the parsing thread.
+	 */
+	public AbstractAggregationProcessor() {
+		this(1);
+	}
+
+	/**
+	 * Creates an aggregation processor that distributes rows among the given number of partitions, each one processed in a separate thread.
+	 * Rows are assigned to partitions by the values of their grouping columns. If no grouping columns are defined, all rows are
+	 * processed in the parsing thread.
+	 *
+	 * @param partitionCount the number of partitions that process rows in parallel.
+	 */
+	public AbstractAggregationProcessor(int partitionCount) {
+		if (partitionCount <= 0) {
+			throw new IllegalArgumentException("Number of partitions must be positive");
+		}
+		this.partitionCount = partitionCount;
+		reset();
+	}
+
+	/**
+	 * Defines the names of the columns whose values identify the group of each row.
+	 *
+	 * @param fieldNames the names of the columns used to group rows.
+	 */
+	public final void groupBy(String... fieldNames) {
+		ArgumentUtils.noNulls("Grouping columns", fieldNames);
+		this.groupFields = fieldNames.clone();
+		this.groupIndexes = null;
+	}
+
+	/**
+	 * Defines the indexes of the columns whose values identify the group of each row.
+	 *
+	 * @param indexes the indexes of the columns used to group rows, relative to their original position in the input.
+	 */
+	public final void groupByIndexes(Integer... indexes) {
+		ArgumentUtils.noNulls("Grouping column indexes", indexes);
+		this.groupIndexes = indexes.clone();
+		this.groupFields = null;
+	}
+
+	/**
+	 * Defines the aggregate functions to compute over the rows of each group.
+	 *
+	 * @param aggregates the aggregate functions, whose results will follow the values of the grouping columns in each row of results.
+	 */
+	public final void aggregate(Aggregate... aggregates) {
+		ArgumentUtils.noNulls("Aggregates", aggregates);
+		this.aggregates = aggregates.clone();
+		reset();
+	}
+
+	private void reset() {
+		groupCount = 0;
+		groupValues = new String[256][];
+		groupHashes = new int[256];
+		slots = new int[512];
+		groupPositions = null;
+		accumulators = new Accumulator[aggregates.length];
+		for (int i = 0; i < aggregates.length; i++) {
+			accumulators[i] = new Accumulator(aggregates[i].getFunction(), groupValues.length);
+		}
+	}
+
+	@Override
+	public final void processStarted(T context) {
+		reset();
+		inputHeaders = null;
+		partitioned = null;
+		partitions = null;
+
+		if (partitionCount > 1 && (groupFields != null || groupIndexes != null)) {
+			partitions = new ArrayList<AbstractAggregationProcessor<T>>(partitionCount);
+			for (int i = 0; i < partitionCount; i++) {
+				AbstractAggregationProcessor<T> partition = new AbstractAggregationProcessor<T>() {
+				};
+				partition.groupFields = groupFields;
+				partition.groupIndexes = groupIndexes;
+				partition.aggregates = aggregates;
+				partitions.add(partition);
+			}
+			partitioned = new AbstractPartitionedProcessor<T>(1024, partitions) {
+			};
+			if (groupFields != null) {
+				partitioned.partitionBy(groupFields);
+			} else {
+				partitioned.partitionByIndexes(groupIndexes);
+			}
+			partitioned.processStarted(context);
+		}
+	}
+
+	@Override
+	public final void rowProcessed(String[] row, T context) {
+		if (partitioned != null) {
+			partitioned.rowProcessed(row, context);
+			return;
+		}
+		if (groupPositions == null) {
+			identifyPositions(context);
+		}
+		int group = findGroup(row, groupPositions, true);
+		for (int i = 0; i < accumulators.length; i++) {
+			Accumulator accumulator = accumulators[i];
+			int position = accumulator.position;
+			try {
+				accumulator.add(group, position == -1 ? "" : position < row.length ? row[position] : null);
+			} catch (NumberFormatException e) {
+				DataProcessingException exception = new DataProcessingException("Unable to aggregate '{value}' with " + aggregates[i].getHeader(context.headers()) + ". Value is not a number.", position, row, e);
+				exception.setValue(row[position]);
+				throw exception;
+			}
+		}
+	}
+
+	@Override
+	public final void processEnded(T context) {
+		inputHeaders = context.headers();
+		if (partitioned != null) {
+			try {
+				partitioned.processEnded(context);
+			} finally {
+				List<AbstractAggregationProcessor<T>> partitions = this.partitions;
+				this.partitioned = null;
+				this.partitions = null;
+				for (AbstractAggregationProcessor<T> partition : partitions) {
+					merge(partition);
+				}
+			}
+		}
+	}
+
+	private void identifyPositions(T context) {
+		inputHeaders = context.headers();
+		int groupColumns = groupFields != null ? groupFields.length : groupIndexes != null ? groupIndexes.length : 0;
+		int[] positions = new int[groupColumns];
+		for (int i = 0; i < groupColumns; i++) {
+			positions[i] = groupFields != null ? positionOf(groupFields[i], -1, context) : positionOf(null, groupIndexes[i], context);
+		}
+		for (int i = 0; i < aggregates.length; i++) {
+			Aggregate aggregate = aggregates[i];
+			if (aggregate.getFieldName() == null && aggregate.getFieldIndex() == -1) {
+				accumulators[i].position = -1;
+			} else {
+				accumulators[i].position = positionOf(aggregate.getFieldName(), aggregate.getFieldIndex(), context);
+			}
+		}
+		groupPositions = positions;
+	}
+
+	private int positionOf(String fieldName, int fieldIndex, T context) {
+		int index = fieldIndex;
+		if (fieldName != null) {
+			index = context.indexOf(fieldName);
+			if (index == -1) {
+				throw new DataProcessingException("Column '" + fieldName + "' used for aggregation not found. Available columns are: " + Arrays.toString(context.headers()));
+			}
+		}
+
+		int[] extracted = context.extractedFieldIndexes();
+		if (context.columnsReordered() && extracted != null) {
+			for (int j = 0; j < extracted.length; j++) {
+				if (extracted[j] == index) {
+					return j;
+				}
+			}
+			throw new DataProcessingException("Column at index " + index + " used for aggregation is not among the selected fields.");
+		}
+		return index;
+	}
+
+	private int findGroup(String[] values, int[] positions, boolean copy) {
+		int length = positions == null ? values.length : positions.length;
+		int hash = 1;
+		for (int i = 0; i < length; i++) {
+			int position = positions == null ? i : positions[i];
+			String value = position < values.length ? values[position] : null;
+			hash = 31 * hash + (value == null ? 0 : value.hashCode());
+		}
+		hash ^= (hash >>> 16);
+
+		int mask = slots.length - 1;
+		int slot = hash & mask;
+		while (true) {
+			int group = slots[slot] - 1;
+			if (group == -1) {
+				break;
+			}
+			if (groupHashes[group] == hash && sameGroup(groupValues[group], values, positions)) {
+				return group;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		String[] key;
+		if (positions == null && !copy) {
+			key = values;
+		} else {
+			key = new String[length];
+			for (int i = 0; i < length; i++) {
+				int position = positions == null ? i : positions[i];
+				key[i] = position < values.length ? values[position] : null;
+			}
+		}
+		return newGroup(slot, hash, key);
+	}
+
+	private static boolean sameGroup(String[] group, String[] values, int[] positions) {
+		for (int i = 0; i < group.length; i++) {
+			int position = positions == null ? i : positions[i];
+			String value = position < values.length ? values[position] : null;
+			if (group[i] == null ? value != null : !group[i].equals(value)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int newGroup(int slot, int hash, String[] key) {
+		if (groupCount == groupValues.length) {
+			int length = groupCount * 2;
+			groupValues = Arrays.copyOf(groupValues, length);
+			groupHashes = Arrays.copyOf(groupHashes, length);
+			for (Accumulator accumulator : accumulators) {
+				accumulator.grow(length);
+			}
+		}
+		int group = groupCount++;
+		groupValues[group] = key;
+		groupHashes[group] = hash;
+		slots[slot] = group + 1;
+		if (groupCount * 2 > slots.length) {
+			slots = new int[slots.length * 2];
+			int mask = slots.length - 1;
+			for (int i = 0; i < groupCount; i++) {
+				int s = groupHashes[i] & mask;
+				while (slots[s] != 0) {
+					s = (s + 1) & mask;
+				}
+				slots[s] = i + 1;
+			}
+		}
+		return group;
+	}
+
+	/**
+	 * Merges the results of another aggregation processor into the results of this processor. Both processors must have the same
+	 * grouping columns and aggregates.
+	 *
+	 * @param other the processor whose results will be combined with the results of this processor.
+	 */
+	public final void merge(AbstractAggregationProcessor<?> other) {
+		if (other.accumulators.length != accumulators.length) {
+			throw new IllegalArgumentException("Cannot merge the results of processors with different aggregates");
+		}
+		for (int i = 0; i < accumulators.length; i++) {
+			if (other.accumulators[i].function != accumulators[i].function) {
+				throw new IllegalArgumentException("Cannot merge the results of processors with different aggregates");
+			}
+		}
+		if (inputHeaders == null) {
+			inputHeaders = other.inputHeaders;
+		}
+		for (int otherGroup = 0; otherGroup < other.groupCount; otherGroup++) {
+			int group = findGroup(other.groupValues[otherGroup], null, false);
+			for (int i = 0; i < accumulators.length; i++) {
+				accumulators[i].merge(group, other.accumulators[i], otherGroup);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of groups found in the input.
+	 *
+	 * @return the number of groups, which is also the number of rows of results.
+	 */
+	public final int getGroupCount() {
+		return groupCount;
+	}
+
+	/**
+	 * Returns the headers of the results: the names of the grouping columns followed by the headers of each aggregate.
+	 *
+	 * @return the headers of the rows returned by {@link #getRows()}.
+	 */
+	public final String[] getResultHeaders() {
+		int groupColumns = groupFields != null ? groupFields.length : groupIndexes != null ? groupIndexes.length : 0;
+		String[] out = new String[groupColumns + aggregates.length];
+		for (int i = 0; i < groupColumns; i++) {
+			if (groupFields != null) {
+				out[i] = groupFields[i];
+			} else {
+				int index = groupIndexes[i];
+				out[i] = inputHeaders != null && index < inputHeaders.length ? inputHeaders[index] : null;
+			}
+		}
+		for (int i = 0; i < aggregates.length; i++) {
+			out[groupColumns + i] = aggregates[i].getHeader(inputHeaders);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the results of the aggregation: one row per group, with the values of the grouping columns followed by the result of each aggregate.
+	 * Groups are returned in the order they were first found in the input, unless they were processed by multiple partitions.
+	 *
+	 * @return the rows of results.
+	 */
+	public final List<Object[]> getRows() {
+		List<Object[]> out = new ArrayList<Object[]>(groupCount);
+		for (int group = 0; group < groupCount; group++) {
+			String[] values = groupValues[group];
+			Object[] row = new Object[values.length + accumulators.length];
+			System.arraycopy(values, 0, row, 0, values.length);
+			for (int i = 0; i < accumulators.length; i++) {
+				row[values.length + i] = accumulators[i].result(group);
+			}
+			out.add(row);
+		}
+		return out;
+	}
+
+	/**
+	 * Writes the headers and rows of results to the given writer, then closes it.
+	 *
+	 * @param writer the writer of results.
+	 */
+	public final void writeResultsAndClose(AbstractWriter<?> writer) {
+		try {
+			writer.writeHeaders(getResultHeaders());
+			for (Object[] row : getRows()) {
+				writer.writeRow(row);
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * The state of an aggregate function for each group, stored in primitive arrays indexed by group.
+	 */
+	private static final class Accumulator {
+		final Aggregate.Function function;
+		int position;
+
+		long[] counts;
+		long[] longs;
+		double[] doubles;
+		boolean[] decimal;
+
+		private boolean integral;
+		private long longValue;
+		private double doubleValue;
+
+		Accumulator(Aggregate.Function function, int capacity) {
+			this.function = function;
+			counts = new long[capacity];
+			if (function != Aggregate.Function.COUNT) {
+				doubles = new double[capacity];
+				if (function != Aggregate.Function.AVG) {
+					longs = new long[capacity];
+					decimal = new boolean[capacity];
+				}
+			}
+		}
+
+		void grow(int capacity) {
+			counts = Arrays.copyOf(counts, capacity);
+			if (doubles != null) {
+				doubles = Arrays.copyOf(doubles, capacity);
+			}
+			if (longs != null) {
+				longs = Arrays.copyOf(longs, capacity);
+				decimal = Arrays.copyOf(decimal, capacity);
+			}
+		}
+
+		private boolean parse(String value) {
+			int length = value.length();
+			if (length == 0) {
+				return false;
+			}
+			int i = 0;
+			boolean negative = false;
+			char ch = value.charAt(0);
+			if (ch == '-' || ch == '+') {
+				negative = ch == '-';
+				i = 1;
+			}
+			if (i < length && length - i <= 18) {
+				long out = 0;
+				for (; i < length; i++) {
+					ch = value.charAt(i);
+					if (ch < '0' || ch > '9') {
+						break;
+					}
+					out = out * 10 + (ch - '0');
+				}
+				if (i == length) {
+					integral = true;
+					longValue = negative ? -out : out;
+					doubleValue = longValue;
+					return true;
+				}
+			}
+			integral = false;
+			doubleValue = Double.parseDouble(value);
+			return true;
+		}
+
+		void add(int group, String value) {
+			if (function == Aggregate.Function.COUNT) {
+				if (value != null) {
+					counts[group]++;
+				}
+				return;
+			}
+			if (value == null || !parse(value)) {
+				return;
+			}
+			long count = counts[group]++;
+			switch (function) {
+				case AVG:
+					doubles[group] += doubleValue;
+					break;
+				case SUM:
+					doubles[group] += doubleValue;
+					if (integral) {
+						addLong(group, longValue);
+					} else {
+						decimal[group] = true;
+					}
+					break;
+				case MIN:
+				case MAX:
+					boolean min = function == Aggregate.Function.MIN;
+					if (count == 0) {
+						doubles[group] = doubleValue;
+						longs[group] = longValue;
+						decimal[group] = !integral;
+					} else {
+						if (min ? doubleValue < doubles[group] : doubleValue > doubles[group]) {
+							doubles[group] = doubleValue;
+						}
+						if (!integral) {
+							decimal[group] = true;
+						} else if (min ? longValue < longs[group] : longValue > longs[group]) {
+							longs[group] = longValue;
+						}
+					}
+					break;
+			}
+		}
+
+		private void addLong(int group, long value) {
+			long current = longs[group];
+			long result = current + value;
+			if (((current ^ result) & (value ^ result)) < 0) {
+				decimal[group] = true;
+			}
+			longs[group] = result;
+		}
+
+		void merge(int group, Accumulator other, int otherGroup) {
+			long otherCount = other.counts[otherGroup];
+			if (otherCount == 0) {
+				return;
+			}
+			long count = counts[group];
+			counts[group] += otherCount;
+			switch (function) {
+				case COUNT:
+					break;
+				case AVG:
+					doubles[group] += other.doubles[otherGroup];
+					break;
+				case SUM:
+					doubles[group] += other.doubles[otherGroup];
+					decimal[group] |= other.decimal[otherGroup];
+					addLong(group, other.longs[otherGroup]);
+					break;
+				case MIN:
+				case MAX:
+					boolean min = function == Aggregate.Function.MIN;
+					double otherDouble = other.doubles[otherGroup];
+					long otherLong = other.longs[otherGroup];
+					if (count == 0) {
+						doubles[group] = otherDouble;
+						longs[group] = otherLong;
+						decimal[group] = other.decimal[otherGroup];
+					} else {
+						if (min ? otherDouble < doubles[group] : otherDouble > doubles[group]) {
+							doubles[group] = otherDouble;
+						}
+						if (other.decimal[otherGroup]) {
+							decimal[group] = true;
+						} else if (min ? otherLong < longs[group] : otherLong > longs[group]) {
+							longs[group] = otherLong;
+						}
+					}
+					break;
+			}
+		}
+
+		Object result(int group) {
+			long count = counts[group];
+			if (function == Aggregate.Function.COUNT) {
+				return count;
+			}
+			if (count == 0) {
+				return null;
+			}
+			if (function == Aggregate.Function.AVG) {
+				return doubles[group] / count;
+			}
+			if (decimal[group]) {
+				return doubles[group];
+			}
+			return longs[group];
+		}
+	}
+}
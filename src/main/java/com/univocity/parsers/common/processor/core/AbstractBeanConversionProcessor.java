@@ -15,6 +15,7 @@ import com.univocity.parsers.conversions.*;
 
 import java.lang.annotation.*;
 import java.lang.reflect.*;
+import java.math.*;
 import java.util.*;
 
 /**
@@ -36,6 +37,7 @@ public abstract class AbstractBeanConversionProcessor<T> extends DefaultConversi
 	boolean strictHeaderValidationEnabled = false;
 	private String[] syntheticHeaders = null;
 	private Object[] row;
+	SharedConversions sharedConversions;
 
 	/**
 	 * Initializes the BeanConversionProcessor with the annotated bean class
@@ -160,16 +162,19 @@ public abstract class AbstractBeanConversionProcessor<T> extends DefaultConversi
 	 * @param field   the field annotated with {@link Parsed} that must be associated with one or more {@link Conversion} objects
 	 * @param mapping a helper class to store information how the field is mapped to a parsed record.
 	 */
-	@SuppressWarnings("rawtypes")
+	@SuppressWarnings({"rawtypes", "unchecked"})
 	private void setupConversions(Field field, FieldMapping mapping) {
 		List<Annotation> annotations = AnnotationHelper.findAllAnnotationsInPackage(field, Parsed.class.getPackage());
+		List<Object> chain = new ArrayList<Object>(annotations.size() + 2);
+		List<Conversion> conversions = new ArrayList<Conversion>(annotations.size() + 1);
 
 		Conversion lastConversion = null;
 		for (Annotation annotation : annotations) {
 			try {
 				Conversion conversion = AnnotationHelper.getConversion(field, annotation);
 				if (conversion != null) {
-					addConversion(conversion, mapping);
+					chain.add(annotation);
+					conversions.add(conversion);
 					lastConversion = conversion;
 
 				}
@@ -182,8 +187,57 @@ public abstract class AbstractBeanConversionProcessor<T> extends DefaultConversi
 		if (AnnotationHelper.findAnnotation(field, Parsed.class).applyDefaultConversion()) {
 			Conversion defaultConversion = AnnotationHelper.getDefaultConversion(field);
 			if (applyDefaultConversion(lastConversion, defaultConversion)) {
-				addConversion(defaultConversion, mapping);
+				chain.add(SharedConversions.DEFAULT_CONVERSION);
+				conversions.add(defaultConversion);
+			}
+		}
+
+		Cached cached = AnnotationHelper.findAnnotation(field, Cached.class);
+		if (cached != null && !conversions.isEmpty()) {
+			if (!isImmutable(field.getType())) {
+				throw new DataProcessingException("Invalid annotation: Field " + field.getName() + " of class " + beanClass.getName() + " has type " + field.getType().getName() + ". Annotation " + Cached.class.getSimpleName() + " can only be used on fields of immutable types.");
+			}
+			Conversion conversion = conversions.size() == 1 ? conversions.get(0) : new ConversionSequence(conversions);
+			chain.add(cached);
+			addConversion(new CachedConversion<Object, Object>(conversion, cached.size()), mapping, chain);
+		} else {
+			for (int i = 0; i < conversions.size(); i++) {
+				addConversion(conversions.get(i), mapping, chain.subList(0, i + 1));
+			}
+		}
+	}
+
+	static boolean isImmutable(Class<?> type) {
+		return type.isPrimitive() || type.isEnum() || type == String.class || type == Boolean.class || type == Character.class
+				|| type == Byte.class || type == Short.class || type == Integer.class || type == Long.class || type == Float.class || type == Double.class
+				|| type == BigDecimal.class || type == BigInteger.class;
+	}
+
+	/**
+	 * Executes a sequence of conversions as a single conversion. Values are reverted in the opposite order.
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static final class ConversionSequence implements Conversion<Object, Object> {
+		private final Conversion[] conversions;
+
+		ConversionSequence(List<Conversion> conversions) {
+			this.conversions = conversions.toArray(new Conversion[conversions.size()]);
+		}
+
+		@Override
+		public Object execute(Object input) {
+			for (int i = 0; i < conversions.length; i++) {
+				input = conversions[i].execute(input);
 			}
+			return input;
+		}
+
+		@Override
+		public Object revert(Object input) {
+			for (int i = conversions.length - 1; i >= 0; i--) {
+				input = conversions[i].revert(input);
+			}
+			return input;
 		}
 	}
 
@@ -234,13 +288,18 @@ public abstract class AbstractBeanConversionProcessor<T> extends DefaultConversi
 	 *
 	 * @param conversion The conversion object that must be executed against the given field
 	 * @param mapping    the helper object that contains information about how a field is mapped.
+	 * @param chain      the annotations that produced each conversion associated with the given field so far.
 	 */
 	@SuppressWarnings("rawtypes")
-	private void addConversion(Conversion conversion, FieldMapping mapping) {
+	private void addConversion(Conversion conversion, FieldMapping mapping, List<Object> chain) {
 		if (conversion == null) {
 			return;
 		}
 
+		if (sharedConversions != null) {
+			conversion = sharedConversions.share(conversion, mapping, chain);
+		}
+
 		if (mapping.isMappedToIndex()) {
 			this.convertIndexes(conversion).add(mapping.getIndex());
 		} else {
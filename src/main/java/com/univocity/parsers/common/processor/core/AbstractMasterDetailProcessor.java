@@ -79,6 +79,7 @@ public abstract class AbstractMasterDetailProcessor<T extends Context> extends A
 
 	@Override
 	public void processStarted(T context) {
+		super.processStarted(context);
 		detailProcessor.processStarted(context);
 	}
 
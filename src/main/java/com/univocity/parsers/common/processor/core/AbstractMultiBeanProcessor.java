@@ -31,6 +31,9 @@ import java.util.*;
  * <p> For each row processed, one or more java bean instances of any given class will be created with their fields populated.
  * <p> Each individual instance will then be sent to the {@link AbstractMultiBeanProcessor#beanProcessed(Class, Object, C)} method, where the user can access the
  * beans parsed for each row.
+ * <p> Columns mapped to fields of the same type and with the same conversion annotations in different classes are converted only once per row,
+ * and the result is assigned to the fields of all beans. This only applies to fields of immutable types, such as {@code String}, numbers or enumerations:
+ * mutable values such as {@link java.util.Date} or {@link java.util.Calendar} instances are converted separately for each bean.
  *
  * @see AbstractParser
  * @see Processor
@@ -43,6 +46,7 @@ public abstract class AbstractMultiBeanProcessor<C extends Context> implements P
 
 	private final AbstractBeanProcessor<?,C>[] beanProcessors;
 	private final Map<Class, AbstractBeanProcessor> processorMap = new HashMap<Class, AbstractBeanProcessor>();
+	private final SharedConversions sharedConversions = new SharedConversions();
 
 	/**
 	 * Creates a processor for java beans of multiple types
@@ -60,6 +64,7 @@ public abstract class AbstractMultiBeanProcessor<C extends Context> implements P
 					AbstractMultiBeanProcessor.this.beanProcessed(type, bean, context);
 				}
 			};
+			beanProcessors[i].sharedConversions = sharedConversions;
 
 			processorMap.put(type, beanProcessors[i]);
 		}
@@ -97,6 +102,7 @@ public abstract class AbstractMultiBeanProcessor<C extends Context> implements P
 
 	@Override
 	public final void rowProcessed(String[] row, C context) {
+		sharedConversions.nextRow();
 		for(int i = 0; i < beanProcessors.length; i++){
 			beanProcessors[i].rowProcessed(row, context);
 		}
@@ -63,6 +63,7 @@ public abstract class AbstractObjectProcessor<T extends Context> extends Default
 
 	@Override
 	public void processStarted(T context) {
+		resetConversions();
 	}
 
 	@Override
@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor.core;
+
+import com.univocity.parsers.common.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A {@link Processor} implementation that distributes rows among a fixed number of partitions, each one handled by its own
+ * {@link Processor} running in a separate thread.
+ *
+ * <p>The partition of each row is determined by the hash of the values in the columns given to {@link #partitionBy(String...)} or
+ * {@link #partitionByIndexes(Integer...)}. Rows with the same values in these columns will always be sent to the same partition, in the
+ * order they were parsed from the input, while rows of different partitions are processed in parallel.</p>
+ *
+ * <p>Each partition keeps a bounded queue of rows. The parsing process will block once the queue of a partition is full.</p>
+ *
+ * <p>Errors thrown by the processor of a partition stop the processing of that partition only. Subsequent rows sent to the failed
+ * partition are discarded, and once the input is fully processed, all errors are reported in a {@link DataProcessingException}
+ * thrown from {@link #processEnded(Context)}.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ *
+ * @see AbstractParser
+ * @see Processor
+ * @see AbstractConcurrentProcessor
+ */
+public abstract class AbstractPartitionedProcessor<T extends Context> implements Processor<T> {
+
+	private static final Node END = new Node(null, -1L);
+
+	private static final class Node {
+		final String[] row;
+		final long record;
+
+		Node(String[] row, long record) {
+			this.row = row;
+			this.record = record;
+		}
+	}
+
+	private final List<Processor<T>> processors;
+	private final int capacity;
+
+	private String[] keyFields;
+	private Integer[] keyIndexes;
+	private int[] keyPositions;
+
+	private List<Partition> partitions;
+
+	/**
+	 * Creates a partitioned processor that distributes rows among the given processors, one for each partition.
+	 * Each partition can hold up to 1024 rows before blocking the parsing process.
+	 *
+	 * @param processors the processors that will handle each partition. Must not contain duplicate instances.
+	 */
+	public AbstractPartitionedProcessor(Processor<T>[] processors) {
+		this(1024, processors);
+	}
+
+	/**
+	 * Creates a partitioned processor that distributes rows among the given processors, one for each partition.
+	 *
+	 * @param capacity   the maximum number of rows kept in memory by each partition before blocking the parsing process.
+	 * @param processors the processors that will handle each partition. Must not contain duplicate instances.
+	 */
+	public AbstractPartitionedProcessor(int capacity, Processor<T>[] processors) {
+		this(capacity, processors == null ? null : Arrays.asList(processors));
+	}
+
+	/**
+	 * Creates a partitioned processor that distributes rows among the given processors, one for each partition.
+	 *
+	 * @param capacity   the maximum number of rows kept in memory by each partition before blocking the parsing process.
+	 * @param processors the processors that will handle each partition. Must not contain duplicate instances.
+	 */
+	public AbstractPartitionedProcessor(int capacity, Collection<? extends Processor<T>> processors) {
+		if (processors == null || processors.isEmpty()) {
+			throw new IllegalArgumentException("At least one partition processor must be provided");
+		}
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity of each partition must be positive");
+		}
+		Set<Processor<T>> distinct = Collections.newSetFromMap(new IdentityHashMap<Processor<T>, Boolean>());
+		for (Processor<T> processor : processors) {
+			if (processor == null) {
+				throw new IllegalArgumentException("Partition processors must not contain nulls");
+			}
+			if (!distinct.add(processor)) {
+				throw new IllegalArgumentException("Each partition must have its own processor instance");
+			}
+		}
+		this.processors = new ArrayList<Processor<T>>(processors);
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Defines the names of the columns whose values identify the partition of each row.
+	 *
+	 * @param fieldNames the names of the columns used to partition rows.
+	 */
+	public final void partitionBy(String... fieldNames) {
+		ArgumentUtils.noNulls("Partition columns", fieldNames);
+		this.keyFields = fieldNames.clone();
+		this.keyIndexes = null;
+	}
+
+	/**
+	 * Defines the indexes of the columns whose values identify the partition of each row.
+	 *
+	 * @param indexes the indexes of the columns used to partition rows, relative to their original position in the input.
+	 */
+	public final void partitionByIndexes(Integer... indexes) {
+		ArgumentUtils.noNulls("Partition column indexes", indexes);
+		this.keyIndexes = indexes.clone();
+		this.keyFields = null;
+	}
+
+	/**
+	 * Returns the number of partitions used by this processor.
+	 *
+	 * @return the number of partitions
+	 */
+	public final int getPartitionCount() {
+		return processors.size();
+	}
+
+	/**
+	 * Returns the {@link Processor} responsible for handling the rows of a given partition.
+	 *
+	 * @param partition the partition index
+	 *
+	 * @return the processor associated with the given partition.
+	 */
+	public final Processor<T> getProcessor(int partition) {
+		return processors.get(partition);
+	}
+
+	/**
+	 * Returns the number of rows processed by a given partition in the last (or current) parsing process.
+	 *
+	 * @param partition the partition index
+	 *
+	 * @return the number of rows processed by the partition.
+	 */
+	public final long getRecordCount(int partition) {
+		return partitions == null ? 0L : partitions.get(partition).processed;
+	}
+
+	/**
+	 * Determines the partition of a given row. Only invoked after the columns used for partitioning are identified.
+	 *
+	 * @param row            the row parsed from the input
+	 * @param keyPositions   the positions of the partitioning columns in the given row.
+	 * @param partitionCount the number of partitions available
+	 *
+	 * @return the index of the partition that must process the given row, between {@code 0} and {@code partitionCount - 1}
+	 */
+	protected int partitionOf(String[] row, int[] keyPositions, int partitionCount) {
+		int hash = 1;
+		for (int i = 0; i < keyPositions.length; i++) {
+			int position = keyPositions[i];
+			String value = position < row.length ? row[position] : null;
+			hash = 31 * hash + (value == null ? 0 : value.hashCode());
+		}
+		hash ^= (hash >>> 16);
+		return (hash & Integer.MAX_VALUE) % partitionCount;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void processStarted(T context) {
+		if (keyFields == null && keyIndexes == null) {
+			throw new IllegalStateException("No columns defined to partition rows. Use partitionBy() or partitionByIndexes() to define which columns identify each partition.");
+		}
+		keyPositions = null;
+		partitions = new ArrayList<Partition>(processors.size());
+		for (int i = 0; i < processors.size(); i++) {
+			partitions.add(new Partition(i, processors.get(i), context));
+		}
+		for (Partition partition : partitions) {
+			partition.processor.processStarted((T) partition.context);
+		}
+		for (Partition partition : partitions) {
+			partition.thread.start();
+		}
+	}
+
+	@Override
+	public final void rowProcessed(String[] row, T context) {
+		if (keyPositions == null) {
+			keyPositions = identifyKeyPositions(context);
+		}
+		int partition = partitionOf(row, keyPositions, partitions.size());
+		try {
+			partitions.get(partition).queue.put(new Node(row, context.currentRecord()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			context.stop();
+		}
+	}
+
+	private int[] identifyKeyPositions(T context) {
+		int[] out;
+		if (keyFields != null) {
+			out = new int[keyFields.length];
+			for (int i = 0; i < keyFields.length; i++) {
+				out[i] = context.indexOf(keyFields[i]);
+				if (out[i] == -1) {
+					throw new DataProcessingException("Column '" + keyFields[i] + "' used to partition rows not found. Available columns are: " + Arrays.toString(context.headers()));
+				}
+			}
+		} else {
+			out = new int[keyIndexes.length];
+			for (int i = 0; i < keyIndexes.length; i++) {
+				out[i] = keyIndexes[i];
+			}
+		}
+
+		int[] extracted = context.extractedFieldIndexes();
+		if (context.columnsReordered() && extracted != null) {
+			for (int i = 0; i < out.length; i++) {
+				int position = -1;
+				for (int j = 0; j < extracted.length; j++) {
+					if (extracted[j] == out[i]) {
+						position = j;
+						break;
+					}
+				}
+				if (position == -1) {
+					throw new DataProcessingException("Column at index " + out[i] + " used to partition rows is not among the selected fields.");
+				}
+				out[i] = position;
+			}
+		}
+		return out;
+	}
+
+	@Override
+	public final void processEnded(T context) {
+		if (partitions == null) {
+			return;
+		}
+		for (Partition partition : partitions) {
+			partition.end();
+		}
+
+		boolean interrupted = false;
+		for (Partition partition : partitions) {
+			try {
+				partition.thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		StringBuilder failed = null;
+		Throwable firstError = null;
+		for (int i = 0; i < partitions.size(); i++) {
+			Throwable error = partitions.get(i).error;
+			if (error != null) {
+				if (failed == null) {
+					failed = new StringBuilder();
+					firstError = error;
+				} else {
+					failed.append(", ");
+				}
+				failed.append(i).append(" (").append(error.getClass().getName());
+				if (error.getMessage() != null) {
+					failed.append(": ").append(error.getMessage());
+				}
+				failed.append(')');
+			}
+		}
+
+		if (failed != null) {
+			DataProcessingException exception = new DataProcessingException("Error processing rows of partitions {partitions}", firstError);
+			exception.setValue("partitions", failed.toString());
+			throw exception;
+		}
+	}
+
+	/**
+	 * Returns the error that interrupted the processing of a given partition in the last (or current) parsing process.
+	 *
+	 * @param partition the partition index
+	 *
+	 * @return the error thrown by the processor of the given partition, or {@code null} if no errors occurred.
+	 */
+	public final Throwable getError(int partition) {
+		return partitions == null ? null : partitions.get(partition).error;
+	}
+
+	private final class Partition implements Runnable {
+		final BlockingQueue<Node> queue;
+		final Processor<T> processor;
+		final ParsingContext context;
+		final Thread thread;
+
+		volatile long processed;
+		volatile Throwable error;
+		private long currentRecord;
+
+		Partition(int index, Processor<T> processor, Context parentContext) {
+			this.queue = new ArrayBlockingQueue<Node>(capacity);
+			this.processor = processor;
+			this.context = new ParsingContextWrapper(parentContext) {
+				@Override
+				public long currentRecord() {
+					return currentRecord;
+				}
+			};
+			this.thread = new Thread(this, "unVocity-parsers partition #" + index);
+			this.thread.setDaemon(true);
+		}
+
+		void end() {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					queue.put(END);
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void run() {
+			try {
+				Node node;
+				while ((node = queue.take()) != END) {
+					if (error == null) {
+						currentRecord = node.record;
+						try {
+							processor.rowProcessed(node.row, (T) context);
+							processed++;
+						} catch (Throwable ex) {
+							error = ex;
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				try {
+					processor.processEnded((T) context);
+				} catch (Throwable ex) {
+					if (error == null) {
+						error = ex;
+					}
+				}
+			}
+		}
+	}
+}
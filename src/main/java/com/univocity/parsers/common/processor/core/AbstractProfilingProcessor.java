@@ -0,0 +1,396 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor.core;
+
+import com.univocity.parsers.common.*;
+
+import java.util.*;
+
+/**
+ * A {@link Processor} implementation that collects statistics of every column of the input in a single pass, such as counts of values and
+ * {@code null}s, minimums and maximums, lengths, the number of distinct values and the most frequent values.
+ *
+ * <p>Rows are not kept in memory. The state of each column has a fixed size regardless of the number of rows processed: distinct values
+ * are counted with a HyperLogLog sketch, the most frequent values are tracked with a bounded number of space-saving counters, and lengths
+ * are counted in a histogram of power-of-2 buckets.</p>
+ *
+ * <p>Rows can be processed in parallel by multiple partitions (see {@link #AbstractProfilingProcessor(int)}), each one running in a separate
+ * thread with its own state, as in {@link AbstractPartitionedProcessor}. Rows are distributed among partitions in turns, and the state of
+ * each partition is merged once the input is fully processed. Processors used with separate parsers, for example to process chunks of an
+ * input in parallel, can also be combined with {@link #merge(AbstractProfilingProcessor)}.</p>
+ *
+ * <p>Results are available after the parsing process ends, with {@link #getReport()}.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see ProfileReport
+ * @see AbstractParser
+ * @see Processor
+ */
+public abstract class AbstractProfilingProcessor<T extends Context> implements Processor<T> {
+
+	private final int partitionCount;
+	private int topValueCount = 10;
+
+	private ColumnState[] columns;
+	private int columnCount;
+	private long rowCount;
+	private String[] headers;
+
+	private AbstractPartitionedProcessor<T> partitioned;
+	private List<AbstractProfilingProcessor<T>> partitions;
+	private int nextPartition;
+
+	/**
+	 * Creates a profiling processor that processes all rows in the parsing thread.
+	 */
+	public AbstractProfilingProcessor() {
+		this(1);
+	}
+
+	/**
+	 * Creates a profiling processor that distributes rows among the given number of partitions, each one processed in a separate thread.
+	 *
+	 * @param partitionCount the number of partitions that process rows in parallel.
+	 */
+	public AbstractProfilingProcessor(int partitionCount) {
+		if (partitionCount <= 0) {
+			throw new IllegalArgumentException("Number of partitions must be positive");
+		}
+		this.partitionCount = partitionCount;
+		reset();
+	}
+
+	/**
+	 * Defines how many of the most frequent values of each column are reported. Defaults to {@code 10}.
+	 *
+	 * <p>Ten times as many values are tracked for each column. Counts are exact while a column has no more distinct values than that,
+	 * otherwise they can be overestimated by up to the number of rows divided by the number of values tracked.</p>
+	 *
+	 * @param topValueCount the number of most frequent values to report for each column.
+	 */
+	public final void setTopValueCount(int topValueCount) {
+		if (topValueCount <= 0) {
+			throw new IllegalArgumentException("Number of top values must be positive");
+		}
+		this.topValueCount = topValueCount;
+		reset();
+	}
+
+	/**
+	 * Returns how many of the most frequent values of each column are reported.
+	 *
+	 * @return the number of most frequent values to report for each column.
+	 */
+	public final int getTopValueCount() {
+		return topValueCount;
+	}
+
+	private void reset() {
+		columns = new ColumnState[16];
+		columnCount = 0;
+		rowCount = 0;
+		headers = null;
+	}
+
+	@Override
+	public final void processStarted(T context) {
+		reset();
+		partitioned = null;
+		partitions = null;
+		nextPartition = 0;
+	}
+
+	@Override
+	public final void rowProcessed(String[] row, T context) {
+		if (partitionCount > 1) {
+			if (partitioned == null) {
+				partitions = new ArrayList<AbstractProfilingProcessor<T>>(partitionCount);
+				for (int i = 0; i < partitionCount; i++) {
+					AbstractProfilingProcessor<T> partition = new AbstractProfilingProcessor<T>() {
+					};
+					partition.topValueCount = topValueCount;
+					partitions.add(partition);
+				}
+				partitioned = new AbstractPartitionedProcessor<T>(1024, partitions) {
+					@Override
+					protected int partitionOf(String[] row, int[] keyPositions, int partitionCount) {
+						int partition = nextPartition;
+						nextPartition = partition + 1 == partitionCount ? 0 : partition + 1;
+						return partition;
+					}
+				};
+				int[] extracted = context.extractedFieldIndexes();
+				partitioned.partitionByIndexes(context.columnsReordered() && extracted != null && extracted.length > 0 ? extracted[0] : 0);
+				partitioned.processStarted(context);
+			}
+			partitioned.rowProcessed(row, context);
+			return;
+		}
+
+		rowCount++;
+		if (row.length > columnCount) {
+			addColumns(row.length, rowCount - 1);
+		}
+		for (int i = 0; i < row.length; i++) {
+			columns[i].add(row[i]);
+		}
+		for (int i = row.length; i < columnCount; i++) {
+			columns[i].nullCount++;
+		}
+	}
+
+	private void addColumns(int count, long missingRows) {
+		if (count > columns.length) {
+			columns = Arrays.copyOf(columns, Math.max(count, columns.length * 2));
+		}
+		for (int i = columnCount; i < count; i++) {
+			columns[i] = new ColumnState(topValueCount * 10);
+			columns[i].nullCount = missingRows;
+		}
+		columnCount = count;
+	}
+
+	@Override
+	public final void processEnded(T context) {
+		headers = selectedHeaders(context);
+		if (partitioned != null) {
+			try {
+				partitioned.processEnded(context);
+			} finally {
+				List<AbstractProfilingProcessor<T>> partitions = this.partitions;
+				this.partitioned = null;
+				this.partitions = null;
+				for (AbstractProfilingProcessor<T> partition : partitions) {
+					merge(partition);
+				}
+			}
+		}
+	}
+
+	private static String[] selectedHeaders(Context context) {
+		String[] headers = context.headers();
+		if (headers == null) {
+			return null;
+		}
+		int[] extracted = context.extractedFieldIndexes();
+		if (context.columnsReordered() && extracted != null) {
+			String[] out = new String[extracted.length];
+			for (int i = 0; i < extracted.length; i++) {
+				out[i] = extracted[i] < headers.length ? headers[extracted[i]] : null;
+			}
+			return out;
+		}
+		return headers.clone();
+	}
+
+	/**
+	 * Merges the statistics collected by another profiling processor into the statistics of this processor. Columns are matched by position.
+	 * Headers of columns that only the other processor has seen are added to the headers of this processor.
+	 *
+	 * @param other the processor whose statistics will be combined with the statistics of this processor.
+	 */
+	public final void merge(AbstractProfilingProcessor<?> other) {
+		if (headers == null) {
+			headers = other.headers;
+		} else if (other.headers != null && other.headers.length > headers.length) {
+			String[] extended = other.headers.clone();
+			System.arraycopy(headers, 0, extended, 0, headers.length);
+			headers = extended;
+		}
+		if (other.columnCount > columnCount) {
+			addColumns(other.columnCount, rowCount);
+		}
+		for (int i = 0; i < columnCount; i++) {
+			if (i < other.columnCount) {
+				columns[i].merge(other.columns[i]);
+			} else {
+				columns[i].nullCount += other.rowCount;
+			}
+		}
+		rowCount += other.rowCount;
+	}
+
+	/**
+	 * Returns the number of rows processed.
+	 *
+	 * @return the number of rows profiled.
+	 */
+	public final long getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the statistics of each column of the input.
+	 *
+	 * @return a report with the profile of each column.
+	 */
+	public final ProfileReport getReport() {
+		List<ColumnProfile> out = new ArrayList<ColumnProfile>(columnCount);
+		for (int i = 0; i < columnCount; i++) {
+			String name = headers != null && i < headers.length ? headers[i] : null;
+			out.add(columns[i].toProfile(i, name, topValueCount));
+		}
+		return new ProfileReport(headers, out, rowCount);
+	}
+
+	/**
+	 * The statistics of a column, with a fixed size regardless of the number of values added.
+	 */
+	private static final class ColumnState {
+		long valueCount;
+		long nullCount;
+
+		int minLength = Integer.MAX_VALUE;
+		int maxLength;
+		long totalLength;
+		long[] lengthHistogram = new long[31];
+
+		String minString;
+		String maxString;
+
+		long numericCount;
+		boolean integral = true;
+		long minLong = Long.MAX_VALUE;
+		long maxLong = Long.MIN_VALUE;
+		double minDouble = Double.POSITIVE_INFINITY;
+		double maxDouble = Double.NEGATIVE_INFINITY;
+
+		final HyperLogLog distinct = new HyperLogLog();
+		final TopValues top;
+
+		ColumnState(int capacity) {
+			top = new TopValues(capacity);
+		}
+
+		void add(String value) {
+			if (value == null || value.length() == 0) {
+				nullCount++;
+				return;
+			}
+			int length = value.length();
+			if (numericCount == valueCount) {
+				addNumber(value);
+			}
+			valueCount++;
+			totalLength += length;
+			if (length < minLength) {
+				minLength = length;
+			}
+			if (length > maxLength) {
+				maxLength = length;
+			}
+			lengthHistogram[31 - Integer.numberOfLeadingZeros(length)]++;
+			if (minString == null || value.compareTo(minString) < 0) {
+				minString = value;
+			}
+			if (maxString == null || value.compareTo(maxString) > 0) {
+				maxString = value;
+			}
+			distinct.add(value);
+			top.add(value);
+		}
+
+		private void addNumber(String value) {
+			int length = value.length();
+			int i = 0;
+			boolean negative = false;
+			char ch = value.charAt(0);
+			if (ch == '-' || ch == '+') {
+				negative = ch == '-';
+				i = 1;
+			}
+			if (i < length && length - i <= 18) {
+				long number = 0;
+				for (; i < length; i++) {
+					ch = value.charAt(i);
+					if (ch < '0' || ch > '9') {
+						break;
+					}
+					number = number * 10 + (ch - '0');
+				}
+				if (i == length) {
+					number = negative ? -number : number;
+					numericCount++;
+					minLong = Math.min(minLong, number);
+					maxLong = Math.max(maxLong, number);
+					minDouble = Math.min(minDouble, number);
+					maxDouble = Math.max(maxDouble, number);
+					return;
+				}
+			}
+			for (i = 0; i < length; i++) {
+				ch = value.charAt(i);
+				if ((ch < '0' || ch > '9') && ch != '.' && ch != '-' && ch != '+' && ch != 'e' && ch != 'E') {
+					return;
+				}
+			}
+			double number;
+			try {
+				number = Double.parseDouble(value);
+			} catch (NumberFormatException e) {
+				return;
+			}
+			numericCount++;
+			integral = false;
+			minDouble = Math.min(minDouble, number);
+			maxDouble = Math.max(maxDouble, number);
+		}
+
+		void merge(ColumnState other) {
+			nullCount += other.nullCount;
+			if (other.valueCount == 0) {
+				return;
+			}
+			valueCount += other.valueCount;
+			numericCount += other.numericCount;
+			integral &= other.integral;
+			minLong = Math.min(minLong, other.minLong);
+			maxLong = Math.max(maxLong, other.maxLong);
+			minDouble = Math.min(minDouble, other.minDouble);
+			maxDouble = Math.max(maxDouble, other.maxDouble);
+
+			totalLength += other.totalLength;
+			minLength = Math.min(minLength, other.minLength);
+			maxLength = Math.max(maxLength, other.maxLength);
+			for (int i = 0; i < lengthHistogram.length; i++) {
+				lengthHistogram[i] += other.lengthHistogram[i];
+			}
+			if (minString == null || other.minString.compareTo(minString) < 0) {
+				minString = other.minString;
+			}
+			if (maxString == null || other.maxString.compareTo(maxString) > 0) {
+				maxString = other.maxString;
+			}
+			distinct.merge(other.distinct);
+			top.merge(other.top);
+		}
+
+		ColumnProfile toProfile(int index, String name, int topValueCount) {
+			if (valueCount == 0) {
+				return new ColumnProfile(index, name, 0L, nullCount, 0L, null, null, false, 0, 0, 0L, new long[0], Collections.<String, Long>emptyMap());
+			}
+			boolean numeric = numericCount == valueCount;
+			Object minimum = minString;
+			Object maximum = maxString;
+			if (numeric) {
+				minimum = integral ? (Object) minLong : (Object) minDouble;
+				maximum = integral ? (Object) maxLong : (Object) maxDouble;
+			}
+			long[] histogram = Arrays.copyOf(lengthHistogram, 32 - Integer.numberOfLeadingZeros(maxLength));
+			return new ColumnProfile(index, name, valueCount, nullCount, distinct.estimate(), minimum, maximum, numeric, minLength, maxLength, totalLength, histogram, top.top(topValueCount));
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor.core;
+
+import java.util.*;
+
+/**
+ * The statistics of a column, as collected by an {@link AbstractProfilingProcessor}.
+ *
+ * <p>Counts of values and {@code null}s, lengths, minimums and maximums are exact. The number of distinct values is estimated with a standard
+ * error of about 1.6%, and the counts of the most frequent values are exact only if the column has few distinct values (see
+ * {@link AbstractProfilingProcessor#setTopValueCount(int)}). Otherwise they can be overestimated.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see ProfileReport
+ */
+public final class ColumnProfile {
+
+	private final int index;
+	private final String name;
+	private final long valueCount;
+	private final long nullCount;
+	private final long distinctCount;
+	private final Object minimum;
+	private final Object maximum;
+	private final boolean numeric;
+	private final int minLength;
+	private final int maxLength;
+	private final long totalLength;
+	private final long[] lengthHistogram;
+	private final Map<String, Long> topValues;
+
+	ColumnProfile(int index, String name, long valueCount, long nullCount, long distinctCount, Object minimum, Object maximum, boolean numeric,
+				  int minLength, int maxLength, long totalLength, long[] lengthHistogram, Map<String, Long> topValues) {
+		this.index = index;
+		this.name = name;
+		this.valueCount = valueCount;
+		this.nullCount = nullCount;
+		this.distinctCount = distinctCount;
+		this.minimum = minimum;
+		this.maximum = maximum;
+		this.numeric = numeric;
+		this.minLength = minLength;
+		this.maxLength = maxLength;
+		this.totalLength = totalLength;
+		this.lengthHistogram = lengthHistogram;
+		this.topValues = Collections.unmodifiableMap(topValues);
+	}
+
+	/**
+	 * Returns the position of this column in the rows produced by the parser.
+	 *
+	 * @return the index of the column.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the header of this column.
+	 *
+	 * @return the name of the column, or {@code null} if the input has no headers.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the number of non-null values found in this column.
+	 *
+	 * @return the number of values.
+	 */
+	public long getValueCount() {
+		return valueCount;
+	}
+
+	/**
+	 * Returns the number of {@code null} or empty values found in this column, including rows with fewer columns than this column's index.
+	 *
+	 * @return the number of {@code null} values.
+	 */
+	public long getNullCount() {
+		return nullCount;
+	}
+
+	/**
+	 * Returns the estimated number of distinct non-null values of this column.
+	 *
+	 * @return the approximate number of distinct values.
+	 */
+	public long getDistinctCount() {
+		return distinctCount;
+	}
+
+	/**
+	 * Indicates whether all non-null values of this column are numbers.
+	 *
+	 * @return {@code true} if the column has values and all of them are numbers.
+	 */
+	public boolean isNumeric() {
+		return numeric;
+	}
+
+	/**
+	 * Returns the minimum value of this column. If all values are integers, the minimum is a {@code Long}. If all values are numbers,
+	 * the minimum is a {@code Double}. Otherwise, the minimum is the first {@code String} in lexicographic order.
+	 *
+	 * @return the minimum value, or {@code null} if the column has no values.
+	 */
+	public Object getMinimum() {
+		return minimum;
+	}
+
+	/**
+	 * Returns the maximum value of this column, with the same type as {@link #getMinimum()}.
+	 *
+	 * @return the maximum value, or {@code null} if the column has no values.
+	 */
+	public Object getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * Returns the length of the shortest non-null value of this column.
+	 *
+	 * @return the minimum length, or {@code 0} if the column has no values.
+	 */
+	public int getMinLength() {
+		return minLength;
+	}
+
+	/**
+	 * Returns the length of the longest value of this column.
+	 *
+	 * @return the maximum length, or {@code 0} if the column has no values.
+	 */
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * Returns the average length of the non-null values of this column.
+	 *
+	 * @return the average length, or {@code 0} if the column has no values.
+	 */
+	public double getAverageLength() {
+		return valueCount == 0 ? 0.0 : (double) totalLength / valueCount;
+	}
+
+	/**
+	 * Returns the number of non-null values of this column grouped by length, in buckets whose bounds are powers of 2: the count at position {@code i}
+	 * is the number of values with at least 2<sup>i</sup> and less than 2<sup>i+1</sup> characters. The histogram ends at the bucket of the longest value.
+	 *
+	 * @return the length histogram of this column.
+	 */
+	public long[] getLengthHistogram() {
+		return lengthHistogram.clone();
+	}
+
+	/**
+	 * Returns the most frequent values of this column, with their counts.
+	 *
+	 * @return a map of values to their counts, ordered from the most to the least frequent.
+	 */
+	public Map<String, Long> getTopValues() {
+		return topValues;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		out.append(name == null ? String.valueOf(index) : name).append(": ");
+		out.append(valueCount).append(" values, ").append(nullCount).append(" nulls, ~").append(distinctCount).append(" distinct");
+		if (valueCount > 0) {
+			out.append(", range ").append(minimum).append("..").append(maximum);
+			out.append(", length ").append(minLength).append("..").append(maxLength);
+			out.append(", top ").append(topValues);
+		}
+		return out.toString();
+	}
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor.core;
+
+import java.util.*;
+
+/**
+ * The statistics of each column of an input, as collected by an {@link AbstractProfilingProcessor}.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see ColumnProfile
+ */
+public final class ProfileReport {
+
+	private final String[] headers;
+	private final List<ColumnProfile> columns;
+	private final long rowCount;
+
+	ProfileReport(String[] headers, List<ColumnProfile> columns, long rowCount) {
+		this.headers = headers;
+		this.columns = Collections.unmodifiableList(columns);
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * Returns the headers of the profiled columns, if available.
+	 *
+	 * @return the headers of the input, or {@code null} if it has no headers.
+	 */
+	public String[] getHeaders() {
+		return headers == null ? null : headers.clone();
+	}
+
+	/**
+	 * Returns the statistics of each column, in order.
+	 *
+	 * @return the profiles of all columns.
+	 */
+	public List<ColumnProfile> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the statistics of a column.
+	 *
+	 * @param index the position of the column
+	 *
+	 * @return the profile of the column at the given position.
+	 */
+	public ColumnProfile getColumn(int index) {
+		return columns.get(index);
+	}
+
+	/**
+	 * Returns the statistics of a column.
+	 *
+	 * @param name the header of the column
+	 *
+	 * @return the profile of the column with the given header, or {@code null} if no column has the given header.
+	 */
+	public ColumnProfile getColumn(String name) {
+		for (ColumnProfile column : columns) {
+			if (column.getName() != null && column.getName().equals(name)) {
+				return column;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of rows profiled.
+	 *
+	 * @return the number of rows.
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder("Profile of ").append(rowCount).append(" rows:");
+		for (ColumnProfile column : columns) {
+			out.append("\n\t").append(column);
+		}
+		return out.toString();
+	}
+}
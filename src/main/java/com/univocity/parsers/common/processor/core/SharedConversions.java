@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016 uniVocity Software Pty Ltd. All rights reserved.
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ *
+ */
+package com.univocity.parsers.common.processor.core;
+
+import com.univocity.parsers.annotations.*;
+import com.univocity.parsers.annotations.helpers.*;
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.conversions.*;
+
+import java.util.*;
+
+/**
+ * Keeps track of equivalent sequences of conversions declared in the annotations of different java beans, so that
+ * a value shared by multiple beans is converted only once per row.
+ *
+ * <p>Conversions are considered equivalent when they are applied to the same column, to fields of the same type, and are
+ * produced by the same sequence of annotations. Each distinct conversion is wrapped by a {@link SharedConversion}, which
+ * stores the result produced for the last input of the current row. If the annotations of two beans differ,
+ * their conversions are kept separate.</p>
+ *
+ * <p>Only conversions of fields whose type is immutable, such as {@code String}, primitives and their wrappers, {@code BigDecimal},
+ * {@code BigInteger} and enumerations, are shared. Fields of any other type, such as {@link java.util.Date}, {@link java.util.Calendar}
+ * or arrays, receive their own instance in each bean, so that modifying one bean doesn't affect the others.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractMultiBeanProcessor
+ */
+final class SharedConversions {
+
+	static final Object DEFAULT_CONVERSION = new Object();
+
+	private final Map<List<Object>, SharedConversion> conversions = new HashMap<List<Object>, SharedConversion>();
+	private long row;
+
+	/**
+	 * Notifies that a new row is about to be processed, invalidating any result stored for the previous row.
+	 */
+	void nextRow() {
+		row++;
+	}
+
+	/**
+	 * Returns the shared instance of a conversion associated with a field of a java bean.
+	 *
+	 * @param conversion the conversion produced for the given field
+	 * @param mapping    the field that will have its values converted
+	 * @param chain      the annotations (or {@link #DEFAULT_CONVERSION}) that produced each conversion associated with the field so far,
+	 *                   where the last element identifies the given conversion.
+	 *
+	 * @return a conversion that can be safely shared among all beans that declare an equivalent sequence of conversions, or the given
+	 * conversion if the field type is mutable.
+	 */
+	@SuppressWarnings("rawtypes")
+	Conversion share(Conversion conversion, FieldMapping mapping, List<Object> chain) {
+		if (!AbstractBeanConversionProcessor.isImmutable(mapping.getFieldType())) {
+			return conversion;
+		}
+		Parsed parsed = AnnotationHelper.findAnnotation(mapping.getField(), Parsed.class);
+
+		List<Object> key = new ArrayList<Object>(chain.size() + 4);
+		key.add(mapping.isMappedToIndex() ? (Object) mapping.getIndex() : ArgumentUtils.normalize(mapping.getFieldName()));
+		key.add(mapping.getFieldType());
+		key.add(parsed == null ? null : parsed.defaultNullRead());
+		key.add(parsed == null ? null : parsed.defaultNullWrite());
+		key.addAll(chain);
+
+		SharedConversion shared = conversions.get(key);
+		if (shared == null) {
+			shared = new SharedConversion(conversion);
+			conversions.put(key, shared);
+		}
+		return shared;
+	}
+
+	/**
+	 * A {@link Conversion} wrapper that reuses the result of the last input converted in the current row.
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private final class SharedConversion implements Conversion<Object, Object> {
+
+		private final Conversion conversion;
+
+		private long convertedRow = -1;
+		private Object input;
+		private Object output;
+
+		SharedConversion(Conversion conversion) {
+			this.conversion = conversion;
+		}
+
+		@Override
+		public Object execute(Object input) {
+			if (convertedRow == row && this.input == input) {
+				return output;
+			}
+
+			Object result = ArgumentUtils.executeConversion(conversion, input);
+
+			this.convertedRow = row;
+			this.input = input;
+			this.output = result;
+			return result;
+		}
+
+		@Override
+		public Object revert(Object input) {
+			return conversion.revert(input);
+		}
+	}
+}
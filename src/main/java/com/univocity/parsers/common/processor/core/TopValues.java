@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor.core;
+
+import java.util.*;
+
+/**
+ * Tracks the most frequent values added to it using the space-saving algorithm, keeping at most a fixed number of counters.
+ *
+ * <p>While the number of distinct values does not exceed the number of counters, all counts are exact. Once counters are
+ * exhausted, each new value replaces the least frequent value tracked, inheriting its count. Counts can then be overestimated
+ * by at most the total number of values divided by the number of counters, but values more frequent than that are never lost.</p>
+ *
+ * <p>Counters are kept in a min-heap ordered by count, so each value is added in logarithmic time.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ */
+final class TopValues {
+
+	private static final class Counter {
+		String value;
+		long count;
+		int position;
+
+		Counter(String value, long count) {
+			this.value = value;
+			this.count = count;
+		}
+	}
+
+	private static final Comparator<Counter> MOST_FREQUENT_FIRST = new Comparator<Counter>() {
+		@Override
+		public int compare(Counter o1, Counter o2) {
+			if (o1.count != o2.count) {
+				return o1.count > o2.count ? -1 : 1;
+			}
+			return o1.value.compareTo(o2.value);
+		}
+	};
+
+	private final int capacity;
+	private final Map<String, Counter> counters;
+	private final Counter[] heap;
+	private int size;
+
+	TopValues(int capacity) {
+		this.capacity = capacity;
+		this.counters = new HashMap<String, Counter>(capacity * 2);
+		this.heap = new Counter[capacity];
+	}
+
+	void add(String value) {
+		Counter counter = counters.get(value);
+		if (counter != null) {
+			counter.count++;
+			siftDown(counter.position);
+		} else if (size < capacity) {
+			counter = new Counter(value, 1L);
+			counters.put(value, counter);
+			counter.position = size;
+			heap[size++] = counter;
+			siftUp(counter.position);
+		} else {
+			counter = heap[0];
+			counters.remove(counter.value);
+			counter.value = value;
+			counter.count++;
+			counters.put(value, counter);
+			siftDown(0);
+		}
+	}
+
+	/**
+	 * Combines the counters of another instance into this one. Values tracked by only one instance are assumed to occur in the other
+	 * as often as its least frequent value, if its counters are exhausted, so counts remain an upper bound of the actual frequencies.
+	 *
+	 * @param other the instance whose counters will be combined with the counters of this instance.
+	 */
+	void merge(TopValues other) {
+		long thisFloor = size == capacity ? heap[0].count : 0L;
+		long otherFloor = other.size == other.capacity ? other.heap[0].count : 0L;
+
+		List<Counter> merged = new ArrayList<Counter>(size + other.size);
+		for (int i = 0; i < size; i++) {
+			Counter counter = heap[i];
+			Counter otherCounter = other.counters.get(counter.value);
+			merged.add(new Counter(counter.value, counter.count + (otherCounter == null ? otherFloor : otherCounter.count)));
+		}
+		for (int i = 0; i < other.size; i++) {
+			Counter otherCounter = other.heap[i];
+			if (!counters.containsKey(otherCounter.value)) {
+				merged.add(new Counter(otherCounter.value, otherCounter.count + thisFloor));
+			}
+		}
+		Collections.sort(merged, MOST_FREQUENT_FIRST);
+
+		counters.clear();
+		size = 0;
+		for (int i = 0; i < merged.size() && size < capacity; i++) {
+			Counter counter = merged.get(i);
+			counters.put(counter.value, counter);
+			counter.position = size;
+			heap[size++] = counter;
+			siftUp(counter.position);
+		}
+	}
+
+	/**
+	 * Returns the most frequent values tracked, with their counts.
+	 *
+	 * @param count the maximum number of values to return.
+	 *
+	 * @return a map of values to their counts, ordered from the most to the least frequent.
+	 */
+	Map<String, Long> top(int count) {
+		Counter[] sorted = Arrays.copyOf(heap, size);
+		Arrays.sort(sorted, MOST_FREQUENT_FIRST);
+		Map<String, Long> out = new LinkedHashMap<String, Long>();
+		for (int i = 0; i < sorted.length && i < count; i++) {
+			out.put(sorted[i].value, sorted[i].count);
+		}
+		return out;
+	}
+
+	private void siftUp(int position) {
+		Counter counter = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (heap[parent].count <= counter.count) {
+				break;
+			}
+			place(heap[parent], position);
+			position = parent;
+		}
+		place(counter, position);
+	}
+
+	private void siftDown(int position) {
+		Counter counter = heap[position];
+		int half = size >>> 1;
+		while (position < half) {
+			int child = (position << 1) + 1;
+			int right = child + 1;
+			if (right < size && heap[right].count < heap[child].count) {
+				child = right;
+			}
+			if (counter.count <= heap[child].count) {
+				break;
+			}
+			place(heap[child], position);
+			position = child;
+		}
+		place(counter, position);
+	}
+
+	private void place(Counter counter, int position) {
+		heap[position] = counter;
+		counter.position = position;
+	}
+}
@@ -68,6 +68,13 @@ public abstract class AbstractRoutines<P extends CommonParserSettings<?>, W exte
 	private final String routineDescription;
 	private P parserSettings;
 	private W writerSettings;
+	private int resultSetFetchSize = 0;
+	private boolean readResultSetOnSeparateThread = false;
+	private long sortMemoryBudget = 64L * 1024L * 1024L;
+	private int sortThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+	private File temporaryDirectory;
+	private long joinMemoryBudget = 64L * 1024L * 1024L;
+	private boolean storeKeysOffHeap = false;
 
 	/**
 	 * Creates a new instance of this routine class.
@@ -159,6 +166,186 @@ public abstract class AbstractRoutines<P extends CommonParserSettings<?>, W exte
 		this.writerSettings = writerSettings;
 	}
 
+	/**
+	 * Returns the number of rows fetched from the database at once when dumping a {@link java.sql.ResultSet} with the {@code write} methods of
+	 * this class. Rows are also read from the {@link java.sql.ResultSet} in batches of this size (or 1000 rows, if no fetch size is defined).
+	 *
+	 * <p>Defaults to {@code 0} (the fetch size of the {@link java.sql.ResultSet} is not changed)</p>
+	 *
+	 * @return the fetch size used to read rows from a {@link java.sql.ResultSet}
+	 */
+	public final int getResultSetFetchSize() {
+		return resultSetFetchSize;
+	}
+
+	/**
+	 * Defines the number of rows fetched from the database at once when dumping a {@link java.sql.ResultSet} with the {@code write} methods of
+	 * this class. Rows are also read from the {@link java.sql.ResultSet} in batches of this size (or 1000 rows, if no fetch size is defined).
+	 *
+	 * <p>Defaults to {@code 0} (the fetch size of the {@link java.sql.ResultSet} is not changed)</p>
+	 *
+	 * @param resultSetFetchSize the fetch size used to read rows from a {@link java.sql.ResultSet}. Use {@code 0} to keep the fetch size given by the JDBC driver.
+	 */
+	public final void setResultSetFetchSize(int resultSetFetchSize) {
+		if (resultSetFetchSize < 0) {
+			throw new IllegalArgumentException("Result set fetch size cannot be negative");
+		}
+		this.resultSetFetchSize = resultSetFetchSize;
+	}
+
+	/**
+	 * Indicates whether rows of a {@link java.sql.ResultSet} are fetched on a separate thread when dumping its contents with the {@code write}
+	 * methods of this class. (defaults to {@code false})
+	 * <p>When enabled, the next batches of rows are fetched from the database while the current batch is formatted and written to the output.
+	 * At most 3 batches of rows are kept in memory.</p>
+	 *
+	 * @return {@code true} if rows should be fetched on a separate thread, otherwise {@code false}
+	 */
+	public final boolean getReadResultSetOnSeparateThread() {
+		return readResultSetOnSeparateThread;
+	}
+
+	/**
+	 * Defines whether rows of a {@link java.sql.ResultSet} are fetched on a separate thread when dumping its contents with the {@code write}
+	 * methods of this class. (defaults to {@code false})
+	 * <p>When enabled, the next batches of rows are fetched from the database while the current batch is formatted and written to the output.
+	 * At most 3 batches of rows are kept in memory.</p>
+	 *
+	 * @param readResultSetOnSeparateThread flag indicating whether rows should be fetched on a separate thread
+	 */
+	public final void setReadResultSetOnSeparateThread(boolean readResultSetOnSeparateThread) {
+		this.readResultSetOnSeparateThread = readResultSetOnSeparateThread;
+	}
+
+	/**
+	 * Returns the approximate amount of memory, in bytes, used to hold rows when sorting an input with the {@code sort} methods of this class.
+	 * Inputs that don't fit in this budget are sorted in parts, which are stored in temporary files and merged into the output.
+	 *
+	 * <p>Defaults to 64 MB</p>
+	 *
+	 * @return the memory budget for sorting rows, in bytes.
+	 */
+	public final long getSortMemoryBudget() {
+		return sortMemoryBudget;
+	}
+
+	/**
+	 * Defines the approximate amount of memory, in bytes, used to hold rows when sorting an input with the {@code sort} methods of this class.
+	 * Inputs that don't fit in this budget are sorted in parts, which are stored in temporary files and merged into the output.
+	 *
+	 * <p>Defaults to 64 MB</p>
+	 *
+	 * @param sortMemoryBudget the memory budget for sorting rows, in bytes.
+	 */
+	public final void setSortMemoryBudget(long sortMemoryBudget) {
+		if (sortMemoryBudget <= 0) {
+			throw new IllegalArgumentException("Sort memory budget must be positive");
+		}
+		this.sortMemoryBudget = sortMemoryBudget;
+	}
+
+	/**
+	 * Returns the number of threads used to sort and merge the parts of an input that doesn't fit in the memory budget,
+	 * when sorting it with the {@code sort} methods of this class.
+	 *
+	 * <p>Defaults to the number of available processors, up to 4.</p>
+	 *
+	 * @return the number of threads used to sort rows.
+	 */
+	public final int getSortThreads() {
+		return sortThreads;
+	}
+
+	/**
+	 * Defines the number of threads used to sort and merge the parts of an input that doesn't fit in the memory budget,
+	 * when sorting it with the {@code sort} methods of this class.
+	 *
+	 * <p>Defaults to the number of available processors, up to 4.</p>
+	 *
+	 * @param sortThreads the number of threads used to sort rows.
+	 */
+	public final void setSortThreads(int sortThreads) {
+		if (sortThreads <= 0) {
+			throw new IllegalArgumentException("Number of sort threads must be positive");
+		}
+		this.sortThreads = sortThreads;
+	}
+
+	/**
+	 * Returns the approximate amount of memory, in bytes, used to hold the rows of the right input when joining two inputs with
+	 * the {@code join} methods of this class. If the right input doesn't fit in this budget, both inputs are sorted by their keys
+	 * and merged instead.
+	 *
+	 * <p>Defaults to 64 MB</p>
+	 *
+	 * @return the memory budget for joining rows, in bytes.
+	 */
+	public final long getJoinMemoryBudget() {
+		return joinMemoryBudget;
+	}
+
+	/**
+	 * Defines the approximate amount of memory, in bytes, used to hold the rows of the right input when joining two inputs with
+	 * the {@code join} methods of this class. If the right input doesn't fit in this budget, both inputs are sorted by their keys
+	 * and merged instead.
+	 *
+	 * <p>Defaults to 64 MB</p>
+	 *
+	 * @param joinMemoryBudget the memory budget for joining rows, in bytes.
+	 */
+	public final void setJoinMemoryBudget(long joinMemoryBudget) {
+		if (joinMemoryBudget <= 0) {
+			throw new IllegalArgumentException("Join memory budget must be positive");
+		}
+		this.joinMemoryBudget = joinMemoryBudget;
+	}
+
+	/**
+	 * Indicates whether the fingerprints of the keys of each row are stored off the heap when removing duplicate rows with the
+	 * {@code distinct} methods of this class. (defaults to {@code false})
+	 * <p>Each distinct key uses 32 bytes, which are allocated in direct buffers when this option is enabled, reducing the pressure
+	 * on the garbage collector for inputs with many distinct keys.</p>
+	 *
+	 * @return {@code true} if fingerprints of keys are stored off the heap, otherwise {@code false}
+	 */
+	public final boolean getStoreKeysOffHeap() {
+		return storeKeysOffHeap;
+	}
+
+	/**
+	 * Defines whether the fingerprints of the keys of each row are stored off the heap when removing duplicate rows with the
+	 * {@code distinct} methods of this class. (defaults to {@code false})
+	 * <p>Each distinct key uses 32 bytes, which are allocated in direct buffers when this option is enabled, reducing the pressure
+	 * on the garbage collector for inputs with many distinct keys.</p>
+	 *
+	 * @param storeKeysOffHeap flag indicating whether fingerprints of keys should be stored off the heap
+	 */
+	public final void setStoreKeysOffHeap(boolean storeKeysOffHeap) {
+		this.storeKeysOffHeap = storeKeysOffHeap;
+	}
+
+	/**
+	 * Returns the directory where temporary files are created by the routines of this class.
+	 *
+	 * <p>Defaults to {@code null} (the directory given by the {@code java.io.tmpdir} system property is used)</p>
+	 *
+	 * @return the directory for temporary files.
+	 */
+	public final File getTemporaryDirectory() {
+		return temporaryDirectory;
+	}
+
+	/**
+	 * Defines the directory where temporary files are created by the routines of this class.
+	 *
+	 * <p>Defaults to {@code null} (the directory given by the {@code java.io.tmpdir} system property is used)</p>
+	 *
+	 * @param temporaryDirectory the directory for temporary files.
+	 */
+	public final void setTemporaryDirectory(File temporaryDirectory) {
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
 	/**
 	 * Allows writers of any given format to adjust its settings to take into account column headers and lengths
 	 * prior to writing data in any routine.
@@ -170,6 +357,18 @@ public abstract class AbstractRoutines<P extends CommonParserSettings<?>, W exte
 
 	}
 
+	/**
+	 * Returns the characters used by the parser format to quote values, so {@link #countRecords(Reader)} can identify line separators
+	 * that are part of a quoted value. Formats that support quoted values must override this method.
+	 *
+	 * @param parserSettings the parser configuration
+	 *
+	 * @return the delimiter, quote and quote escape characters, in that order, or {@code null} if values can't be quoted.
+	 */
+	protected char[] getQuotingCharacters(P parserSettings) {
+		return null;
+	}
+
 	/**
 	 * Dumps the content of a {@link java.sql.ResultSet} into a file.
 	 *
@@ -243,6 +442,14 @@ public abstract class AbstractRoutines<P extends CommonParserSettings<?>, W exte
 	/**
 	 * Dumps the content of a {@link java.sql.ResultSet}.
 	 *
+	 * <p>Values of numeric and text columns are read with the typed getters of the {@link java.sql.ResultSet} (such as {@link ResultSet#getLong(int)}),
+	 * and written without being converted to objects, unless a {@link RowWriterProcessor} is defined or
+	 * {@link CommonWriterSettings#getParallelFormattingThreads()} is greater than 1. In these cases, each row is converted to an array of objects and
+	 * written with {@link AbstractWriter#processRecords(Iterable)} or {@link AbstractWriter#writeRows(Collection)}, respectively.</p>
+	 *
+	 * <p>Use {@link #setResultSetFetchSize(int)} and {@link #setReadResultSetOnSeparateThread(boolean)} to control how rows are fetched
+	 * from the database.</p>
+	 *
 	 * @param rs     the {@link java.sql.ResultSet} whose contents should be read and written to a given output
 	 * @param output the output that will store the data in the given {@link java.sql.ResultSet}
 	 *               in the format specified by concrete implementations of this class.
@@ -252,9 +459,8 @@ public abstract class AbstractRoutines<P extends CommonParserSettings<?>, W exte
 		boolean hasWriterProcessor = writerSettings.getRowWriterProcessor() != null;
 
 		AbstractWriter<W> writer = null;
-		long rowCount = 0L;
+		ResultSetReader reader = null;
 
-		Object[] row = null;
 		try {
 			try {
 				ResultSetMetaData md = rs.getMetaData();
@@ -285,23 +491,44 @@ public abstract class AbstractRoutines<P extends CommonParserSettings<?>, W exte
 					writer.writeHeaders();
 				}
 
-				row = new Object[columns];
-				while (rs.next()) {
-					for (int i = 1; i <= columns; i++) {
-						row[i - 1] = rs.getObject(i);
+				if (resultSetFetchSize > 0) {
+					rs.setFetchSize(resultSetFetchSize);
+				}
+				int batchSize = resultSetFetchSize > 0 ? resultSetFetchSize : 1000;
+				reader = new ResultSetReader(rs, md, batchSize, readResultSetOnSeparateThread);
+
+				if (hasWriterProcessor) {
+					writer.processRecords(reader.rows());
+				} else if (writerSettings.getParallelFormattingThreads() > 1) {
+					int chunkSize = writerSettings.getParallelFormattingThreads() * writerSettings.getParallelFormattingBatchSize();
+					List<Object[]> rows = new ArrayList<Object[]>(chunkSize);
+					for (Object[] row : reader.rows()) {
+						rows.add(row);
+						if (rows.size() == chunkSize) {
+							writer.writeRows(rows);
+							rows.clear();
+						}
 					}
-					if (hasWriterProcessor) {
-						writer.processRecord(row);
-					} else {
-						writer.writeRow(row);
+					if (!rows.isEmpty()) {
+						writer.writeRows(rows);
+					}
+				} else {
+					ResultSetReader.Batch batch;
+					while ((batch = reader.nextBatch()) != null) {
+						for (int i = 0; i < batch.size; i++) {
+							reader.addValues(batch, i, writer);
+							writer.writeValuesToRow();
+						}
 					}
-					rowCount++;
 				}
 			} finally {
+				if (reader != null) {
+					reader.stop();
+				}
 				rs.close();
 			}
 		} catch (Exception e) {
-			throw new TextWritingException("Error writing data from result set", rowCount, row, e);
+			throw new TextWritingException("Error writing data from result set", writer == null ? 0L : writer.getRecordCount(), (Object[]) null, e);
 		} finally {
 			if (writer != null) {
 				writer.close();
@@ -312,50 +539,442 @@ public abstract class AbstractRoutines<P extends CommonParserSettings<?>, W exte
 	/**
 	 * Reads all data from a given input and writes it to an output.
 	 *
+	 * <p>Values parsed from the input are handed over to the writer as sequences of characters, with a {@link TranscodingProcessor},
+	 * so no {@code String} is created for values that the writer can copy to the output without changes.</p>
+	 *
 	 * @param input  the input data to be parsed using the settings provided in {@link #getParserSettings()}
 	 * @param output the output into where the input data should be written, using the format provided in {@link #getWriterSettings()}
 	 */
 	public final void parseAndWrite(Reader input, Writer output) {
-
 		setRowWriterProcessor(null);
-		setRowProcessor(createWritingRowProcessor(output));
+		AbstractWriter<W> writer = createWriter(output, writerSettings);
+		setRowProcessor(new TranscodingProcessor(writer));
+		AbstractParser<P> parser = null;
 		try {
-			AbstractParser<P> parser = createParser(parserSettings);
+			parser = createParser(parserSettings);
 			parser.parse(input);
 		} finally {
 			parserSettings.setRowProcessor(null);
+			if (parser == null) {
+				writer.close();
+			}
 		}
 	}
 
-	private void setRowWriterProcessor(RowWriterProcessor rowWriterProcessor) {
-		validateWriterSettings();
-		writerSettings.setRowWriterProcessor(rowWriterProcessor);
+	/**
+	 * Reads all rows of a given file, sorts them by the given columns, and writes them to an output file.
+	 *
+	 * @param input    the input data to be parsed using the settings provided in {@link #getParserSettings()}
+	 * @param output   the output file that will receive the sorted rows, written using the format provided in {@link #getWriterSettings()}
+	 * @param encoding the encoding of both input and output files
+	 * @param sortKeys the columns used to sort the rows
+	 *
+	 * @see #sort(Reader, Writer, SortKey...)
+	 */
+	public final void sort(File input, File output, Charset encoding, SortKey... sortKeys) {
+		sort(ArgumentUtils.newReader(input, encoding), ArgumentUtils.newWriter(output, encoding), sortKeys);
 	}
 
-	private void setRowProcessor(RowProcessor rowProcessor) {
-		validateParserSettings();
-		parserSettings.setRowProcessor(rowProcessor);
+	/**
+	 * Reads all rows of a given input, sorts them by the given columns, and writes them to an output.
+	 *
+	 * <p>Rows are kept in memory until the budget given by {@link #getSortMemoryBudget()} is reached. Larger inputs are sorted in parts, which are
+	 * stored in temporary files (in the {@link #getTemporaryDirectory()}) while the input is parsed, then merged into the output.
+	 * Parts are sorted and merged by {@link #getSortThreads()} threads. Temporary files are deleted once the process ends.</p>
+	 *
+	 * <p>Rows with equal values in the sort columns are written in the order they appear in the input. If headers are extracted from the input,
+	 * they are written to the output as well.</p>
+	 *
+	 * @param input    the input data to be parsed using the settings provided in {@link #getParserSettings()}
+	 * @param output   the output into where the sorted rows will be written, using the format provided in {@link #getWriterSettings()}
+	 * @param sortKeys the columns used to sort the rows
+	 */
+	public final void sort(Reader input, Writer output, SortKey... sortKeys) {
+		ArgumentUtils.noNulls("Sort keys", sortKeys);
+		setRowWriterProcessor(null);
+		setRowProcessor(null);
+
+		AbstractParser<P> parser = createParser(parserSettings);
+		AbstractWriter<W> writer = null;
+		try {
+			parser.beginParsing(input);
+			String[] first = parser.parseNext();
+
+			String[] headers = parser.getContext().headers();
+			ExternalSorter sorter = new ExternalSorter(sortKeys, headers, sortMemoryBudget, sortThreads, temporaryDirectory);
+
+			writer = createWriter(output, writerSettings);
+			if (parserSettings.isHeaderExtractionEnabled() && headers != null) {
+				writer.writeHeaders(headers);
+			}
+			sorter.sort(parser, first, writer);
+		} finally {
+			parser.stopParsing();
+			if (writer == null) {
+				try {
+					output.close();
+				} catch (IOException e) {
+					//ignore
+				}
+			}
+		}
 	}
 
-	private RowProcessor createWritingRowProcessor(final Writer output) {
-		return new RowProcessor() {
-			private AbstractWriter<W> writer;
+	/**
+	 * Joins the rows of two inputs by the values of the given key columns, and writes the result to an output. Columns are identified
+	 * by the headers of each input.
+	 *
+	 * @param left      the left input, parsed using the settings provided in {@link #getParserSettings()}
+	 * @param right     the right input, parsed using the settings provided in {@link #getParserSettings()}
+	 * @param output    the output into where the joined rows will be written, using the format provided in {@link #getWriterSettings()}
+	 * @param joinType  the type of join to perform
+	 * @param leftKeys  the names of the key columns of the left input
+	 * @param rightKeys the names of the key columns of the right input, in the same order of the left key columns.
+	 *
+	 * @see #join(Reader, Reader, Writer, JoinType, int[], int[])
+	 */
+	public final void join(Reader left, Reader right, Writer output, JoinType joinType, String[] leftKeys, String[] rightKeys) {
+		ArgumentUtils.noNulls("Left key columns", leftKeys);
+		ArgumentUtils.noNulls("Right key columns", rightKeys);
+		join(left, right, output, joinType, toSortKeys(leftKeys, null), toSortKeys(rightKeys, null));
+	}
 
-			@Override
-			public void processStarted(ParsingContext context) {
-				writer = createWriter(output, writerSettings);
+	/**
+	 * Joins the rows of two inputs by the values of the given key columns, and writes the result to an output.
+	 *
+	 * <p>The rows of the right input are loaded into memory in a compact form, where each distinct key is stored only once, then
+	 * each row of the left input is matched against them as it is parsed (a hash join). If the right input doesn't fit in the memory budget given
+	 * by {@link #getJoinMemoryBudget()}, the left input is loaded into memory instead, and the rows of the right input are matched against it.
+	 * In this case, the joined rows are written in the order of the right input, followed by the left rows without a match (for left and anti joins).
+	 * If neither input fits in the memory budget, both inputs are sorted by their keys (as in {@link #sort(Reader, Writer, SortKey...)}) and then
+	 * merged (a sort-merge join), and the joined rows are written in the order of their keys.</p>
+	 *
+	 * <p>Each joined row has the values of the left row, followed by the values of the matching right row that are not part of its key.
+	 * Keys are compared as {@code String}s, and rows with {@code null} in any of the key columns never match. If headers are extracted
+	 * from the inputs, the headers of the joined rows are written to the output as well.</p>
+	 *
+	 * @param left            the left input, parsed using the settings provided in {@link #getParserSettings()}
+	 * @param right           the right input, parsed using the settings provided in {@link #getParserSettings()}
+	 * @param output          the output into where the joined rows will be written, using the format provided in {@link #getWriterSettings()}
+	 * @param joinType        the type of join to perform
+	 * @param leftKeyIndexes  the positions of the key columns of the left input
+	 * @param rightKeyIndexes the positions of the key columns of the right input, in the same order of the left key columns.
+	 */
+	public final void join(Reader left, Reader right, Writer output, JoinType joinType, int[] leftKeyIndexes, int[] rightKeyIndexes) {
+		if (leftKeyIndexes == null || rightKeyIndexes == null || leftKeyIndexes.length == 0) {
+			throw new IllegalArgumentException("Key columns must not be null or empty");
+		}
+		join(left, right, output, joinType, toSortKeys(null, leftKeyIndexes), toSortKeys(null, rightKeyIndexes));
+	}
+
+	private static SortKey[] toSortKeys(String[] names, int[] indexes) {
+		SortKey[] out = new SortKey[names != null ? names.length : indexes.length];
+		for (int i = 0; i < out.length; i++) {
+			out[i] = names != null ? new SortKey(names[i]) : new SortKey(indexes[i]);
+		}
+		return out;
+	}
+
+	private void join(Reader left, Reader right, Writer output, JoinType joinType, SortKey[] leftKeys, SortKey[] rightKeys) {
+		if (joinType == null) {
+			throw new IllegalArgumentException("Join type cannot be null");
+		}
+		if (leftKeys.length != rightKeys.length) {
+			throw new IllegalArgumentException("Number of key columns of left and right inputs must match. Left: " + Arrays.toString(leftKeys) + ", right: " + Arrays.toString(rightKeys));
+		}
+		setRowWriterProcessor(null);
+		setRowProcessor(null);
+
+		AbstractParser<P> leftParser = createParser(parserSettings);
+		AbstractParser<P> rightParser = createParser(parserSettings);
+		AbstractWriter<W> writer = null;
+		try {
+			rightParser.beginParsing(right);
+			String[] firstRight = rightParser.parseNext();
+			String[] rightHeaders = rightParser.getContext().headers();
+
+			leftParser.beginParsing(left);
+			String[] firstLeft = leftParser.parseNext();
+			String[] leftHeaders = leftParser.getContext().headers();
+
+			int[] leftIndexes = new int[leftKeys.length];
+			int[] rightIndexes = new int[rightKeys.length];
+			for (int i = 0; i < leftKeys.length; i++) {
+				leftIndexes[i] = leftKeys[i].identifyIndex(leftHeaders);
+				rightIndexes[i] = rightKeys[i].identifyIndex(rightHeaders);
 			}
 
-			@Override
-			public void rowProcessed(String[] row, ParsingContext context) {
-				writer.writeRow(row);
+			RowJoiner joiner = new RowJoiner(joinType, leftIndexes, rightIndexes,
+					leftHeaders == null ? -1 : leftHeaders.length, rightHeaders == null ? -1 : rightHeaders.length,
+					joinMemoryBudget, sortMemoryBudget, sortThreads, temporaryDirectory);
+
+			writer = createWriter(output, writerSettings);
+			if (parserSettings.isHeaderExtractionEnabled() && leftHeaders != null) {
+				List<String> headers = new ArrayList<String>(Arrays.asList(leftHeaders));
+				if (joinType != JoinType.ANTI && rightHeaders != null) {
+					Set<Integer> keys = new HashSet<Integer>();
+					for (int index : rightIndexes) {
+						keys.add(index);
+					}
+					for (int i = 0; i < rightHeaders.length; i++) {
+						if (!keys.contains(i)) {
+							headers.add(rightHeaders[i]);
+						}
+					}
+				}
+				writer.writeHeaders(headers);
+			}
+			joiner.join(leftParser, firstLeft, rightParser, firstRight, writer);
+		} finally {
+			leftParser.stopParsing();
+			rightParser.stopParsing();
+			if (writer == null) {
+				try {
+					output.close();
+				} catch (IOException e) {
+					//ignore
+				}
 			}
+		}
+	}
 
-			@Override
-			public void processEnded(ParsingContext context) {
-				writer.close();
+	/**
+	 * Writes the rows of a given input to an output, discarding rows whose values in the given key columns were already found in other rows.
+	 * Columns are identified by the headers of the input. If no key columns are given, rows are compared using all their values.
+	 *
+	 * @param input                the input data to be parsed using the settings provided in {@link #getParserSettings()}
+	 * @param output               the output into where the unique rows will be written, using the format provided in {@link #getWriterSettings()}
+	 * @param duplicateRowHandling which of the rows with the same key should be written to the output.
+	 * @param keyColumns           the names of the columns that identify duplicate rows
+	 *
+	 * @return the number of duplicate rows discarded.
+	 *
+	 * @see #distinct(Reader, Writer, DuplicateRowHandling, int[])
+	 */
+	public final long distinct(Reader input, Writer output, DuplicateRowHandling duplicateRowHandling, String... keyColumns) {
+		SortKey[] keys = null;
+		if (keyColumns != null && keyColumns.length > 0) {
+			ArgumentUtils.noNulls("Key columns", keyColumns);
+			keys = toSortKeys(keyColumns, null);
+		}
+		return distinct(input, output, duplicateRowHandling, keys);
+	}
+
+	/**
+	 * Writes the rows of a given input to an output, discarding rows whose values in the given key columns were already found in other rows.
+	 *
+	 * <p>Rows are streamed from the input to the output, and only a 64-bit fingerprint of the key of each row is kept in memory, in a compact
+	 * hash table that can be stored off the heap (see {@link #setStoreKeysOffHeap(boolean)}), along with the position of the key in a
+	 * temporary file (in the {@link #getTemporaryDirectory()}). When a fingerprint is found again, the stored key is read back and
+	 * compared to the key of the row, so rows are never discarded because different keys happen to have the same fingerprint.</p>
+	 *
+	 * <p>When the last row of each key is kept, parsed rows are stored in the temporary file and written to the output once the input is
+	 * exhausted. If headers are extracted from the input, they are written to the output as well.</p>
+	 *
+	 * @param input                the input data to be parsed using the settings provided in {@link #getParserSettings()}
+	 * @param output               the output into where the unique rows will be written, using the format provided in {@link #getWriterSettings()}
+	 * @param duplicateRowHandling which of the rows with the same key should be written to the output.
+	 * @param keyIndexes           the positions of the columns that identify duplicate rows. If {@code null} or empty, all values of each row are used.
+	 *
+	 * @return the number of duplicate rows discarded.
+	 */
+	public final long distinct(Reader input, Writer output, DuplicateRowHandling duplicateRowHandling, int[] keyIndexes) {
+		SortKey[] keys = null;
+		if (keyIndexes != null && keyIndexes.length > 0) {
+			keys = toSortKeys(null, keyIndexes);
+		}
+		return distinct(input, output, duplicateRowHandling, keys);
+	}
+
+	private long distinct(Reader input, Writer output, DuplicateRowHandling duplicateRowHandling, SortKey[] keys) {
+		if (duplicateRowHandling == null) {
+			throw new IllegalArgumentException("Duplicate row handling cannot be null");
+		}
+		setRowWriterProcessor(null);
+		setRowProcessor(null);
+
+		AbstractParser<P> parser = createParser(parserSettings);
+		AbstractWriter<W> writer = null;
+		try {
+			parser.beginParsing(input);
+			String[] first = parser.parseNext();
+			String[] headers = parser.getContext().headers();
+
+			int[] keyIndexes = null;
+			if (keys != null) {
+				keyIndexes = new int[keys.length];
+				for (int i = 0; i < keys.length; i++) {
+					keyIndexes[i] = keys[i].identifyIndex(headers);
+				}
 			}
-		};
+			RowDeduplicator deduplicator = new RowDeduplicator(keyIndexes, duplicateRowHandling, storeKeysOffHeap, temporaryDirectory);
+
+			writer = createWriter(output, writerSettings);
+			if (parserSettings.isHeaderExtractionEnabled() && headers != null) {
+				writer.writeHeaders(headers);
+			}
+			return deduplicator.distinct(parser, first, writer);
+		} finally {
+			parser.stopParsing();
+			if (writer == null) {
+				try {
+					output.close();
+				} catch (IOException e) {
+					//ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the records of a given file, without parsing any value.
+	 *
+	 * <p>Files in encodings such as UTF-8, US-ASCII and ISO-8859-*, where line separators and quotes are always represented by a single byte,
+	 * are split into chunks that are counted in parallel. Files in other encodings are counted sequentially with {@link #countRecords(Reader)}.</p>
+	 *
+	 * @param input    the input file whose records will be counted, using the settings provided in {@link #getParserSettings()}
+	 * @param encoding the encoding of the file
+	 *
+	 * @return the number of records in the file.
+	 *
+	 * @see #countRecords(Reader)
+	 */
+	public final long countRecords(File input, Charset encoding) {
+		if (input == null) {
+			throw new IllegalArgumentException("Input file cannot be null");
+		}
+		if (encoding == null) {
+			encoding = Charset.defaultCharset();
+		}
+		validateParserSettings();
+		long records = createRecordCounter().count(input, encoding, Runtime.getRuntime().availableProcessors());
+		return excludeHeaders(records);
+	}
+
+	/**
+	 * Counts the records of a given input, without parsing any value.
+	 *
+	 * <p>The input is scanned in bulk for line separators. The only state kept is whether the current position is inside a quoted value,
+	 * so line separators inside quoted values don't end a record. Empty lines and comment lines are not counted, unless the parser is
+	 * configured to not skip empty lines. Lines with only whitespace are considered empty if leading whitespaces are ignored.
+	 * The header row is not counted if headers are extracted from the input. Lines skipped with {@link CommonParserSettings#setNumberOfRowsToSkip(long)}
+	 * are counted. If {@link CommonParserSettings#isLineSeparatorDetectionEnabled()} is set, the line separator is detected from the beginning of the input,
+	 * as the parser would do.</p>
+	 *
+	 * @param input the input whose records will be counted, using the settings provided in {@link #getParserSettings()}. It will be closed at the end.
+	 *
+	 * @return the number of records in the input.
+	 */
+	public final long countRecords(Reader input) {
+		if (input == null) {
+			throw new IllegalArgumentException("Input cannot be null");
+		}
+		validateParserSettings();
+		try {
+			return excludeHeaders(createRecordCounter().count(input));
+		} finally {
+			try {
+				input.close();
+			} catch (IOException e) {
+				//ignore
+			}
+		}
+	}
+
+	private RecordCounter createRecordCounter() {
+		Format format = parserSettings.getFormat();
+		boolean detectLineSeparator = parserSettings.isLineSeparatorDetectionEnabled();
+		char[] lineSeparator = detectLineSeparator ? Format.getSystemLineSeparator() : format.getLineSeparator();
+		return new RecordCounter(lineSeparator[lineSeparator.length - 1], detectLineSeparator, format.getComment(), getQuotingCharacters(parserSettings),
+				parserSettings.getSkipEmptyLines(), parserSettings.getIgnoreLeadingWhitespaces());
+	}
+
+	private long excludeHeaders(long records) {
+		if (records > 0 && parserSettings.isHeaderExtractionEnabled()) {
+			return records - 1;
+		}
+		return records;
+	}
+
+	/**
+	 * Samples the rows of a given input to infer the type of each column, along with its nullability and the minimum and maximum length of its values.
+	 *
+	 * <p>Columns are identified as {@link ColumnType#INTEGER}, {@link ColumnType#LONG}, {@link ColumnType#DECIMAL} (with the maximum scale found),
+	 * {@link ColumnType#DATE} (with one of a set of common patterns matched by all values), {@link ColumnType#BOOLEAN}, {@link ColumnType#ENUM}
+	 * (up to 20 distinct values, each occurring three times on average) or {@link ColumnType#TEXT}. Numbers with leading zeros are considered text.
+	 * {@code null} and empty values only affect the nullability of a column.</p>
+	 *
+	 * <p>The resulting {@link InputSchema} can configure the conversions of a processor with {@link InputSchema#applyConversions(DefaultConversionProcessor)},
+	 * and provides the lengths of fixed-width fields with {@link InputSchema#getFieldLengths()}.</p>
+	 *
+	 * @param input      the input data to be parsed using the settings provided in {@link #getParserSettings()}
+	 * @param sampleSize the maximum number of rows to sample from the start of the input, or {@code 0} to sample all rows.
+	 *
+	 * @return the schema inferred from the sampled rows.
+	 */
+	public final InputSchema inferSchema(Reader input, int sampleSize) {
+		setRowProcessor(null);
+		AbstractParser<P> parser = createParser(parserSettings);
+		try {
+			parser.beginParsing(input);
+			String[] first = parser.parseNext();
+			SchemaInferrer inferrer = new SchemaInferrer();
+			inferrer.sample(parser, first, sampleSize);
+			return inferrer.toSchema(parser.getContext().headers());
+		} finally {
+			parser.stopParsing();
+		}
+	}
+
+	/**
+	 * Samples the rows of a given file to infer the type of each column, as described in {@link #inferSchema(Reader, int)}.
+	 *
+	 * <p>Files of at least 8MB in encodings such as UTF-8, US-ASCII and ISO-8859-*, where line separators are always represented by a single byte,
+	 * are split into chunks sampled in parallel, one for each available processor. Rows are sampled from the start of each chunk, so samples
+	 * are spread over the file. Chunks start at the beginning of a record, as identified with the line separator and quoting rules of the
+	 * format, so line separators inside quoted values don't split a record.</p>
+	 *
+	 * @param input      the input file to be parsed using the settings provided in {@link #getParserSettings()}
+	 * @param encoding   the encoding of the file
+	 * @param sampleSize the maximum number of rows to sample, or {@code 0} to sample all rows.
+	 *
+	 * @return the schema inferred from the sampled rows.
+	 */
+	public final InputSchema inferSchema(File input, Charset encoding, int sampleSize) {
+		return inferSchema(input, encoding, sampleSize, Runtime.getRuntime().availableProcessors());
+	}
+
+	final InputSchema inferSchema(File input, Charset encoding, int sampleSize, int threads) {
+		if (input == null) {
+			throw new IllegalArgumentException("Input file cannot be null");
+		}
+		if (encoding == null) {
+			encoding = Charset.defaultCharset();
+		}
+		setRowProcessor(null);
+		long[] chunks = {0, input.length()};
+		long firstRecord = 0;
+		int chunkCount = SchemaInferrer.getChunkCount(input, encoding, threads);
+		if (chunkCount > 1) {
+			RecordCounter counter = createRecordCounter();
+			firstRecord = counter.findFirstRecord(input, encoding, parserSettings.getNumberOfRowsToSkip(), parserSettings.isHeaderExtractionEnabled());
+			chunks = counter.split(input, encoding, chunkCount, firstRecord);
+		}
+		List<AbstractParser<P>> parsers = new ArrayList<AbstractParser<P>>(chunks.length - 1);
+		for (int i = 1; i < chunks.length; i++) {
+			parsers.add(createParser(parserSettings));
+		}
+		return SchemaInferrer.infer(input, encoding, sampleSize, chunks, firstRecord, parsers);
+	}
+
+	private void setRowWriterProcessor(RowWriterProcessor rowWriterProcessor) {
+		validateWriterSettings();
+		writerSettings.setRowWriterProcessor(rowWriterProcessor);
+	}
+
+	private void setRowProcessor(RowProcessor rowProcessor) {
+		validateParserSettings();
+		parserSettings.setRowProcessor(rowProcessor);
 	}
 
 	/**
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.conversions.*;
+
+import java.util.*;
+
+/**
+ * The type and statistics of a column, as inferred from a sample of the values of the column by {@link AbstractRoutines#inferSchema(java.io.Reader, int)}.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see InputSchema
+ */
+public final class ColumnSchema {
+
+	private final int index;
+	private final String name;
+	private final ColumnType type;
+	private final int scale;
+	private final String datePattern;
+	private final long valueCount;
+	private final long nullCount;
+	private final int minLength;
+	private final int maxLength;
+	private final List<String> values;
+
+	ColumnSchema(int index, String name, ColumnType type, int scale, String datePattern, long valueCount, long nullCount, int minLength, int maxLength, List<String> values) {
+		this.index = index;
+		this.name = name;
+		this.type = type;
+		this.scale = scale;
+		this.datePattern = datePattern;
+		this.valueCount = valueCount;
+		this.nullCount = nullCount;
+		this.minLength = minLength;
+		this.maxLength = maxLength;
+		this.values = values == null ? Collections.<String>emptyList() : Collections.unmodifiableList(values);
+	}
+
+	/**
+	 * Returns the position of this column in the rows produced by the parser.
+	 *
+	 * @return the index of the column.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the header of this column.
+	 *
+	 * @return the name of the column, or {@code null} if the input has no headers.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the type inferred from the values of this column.
+	 *
+	 * @return the column type.
+	 */
+	public ColumnType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the maximum number of digits after the decimal point found in the values of a {@link ColumnType#DECIMAL} column.
+	 *
+	 * @return the scale of the column, or {@code 0} if the column is not decimal.
+	 */
+	public int getScale() {
+		return scale;
+	}
+
+	/**
+	 * Returns the pattern, as used by {@link java.text.SimpleDateFormat}, matched by all values of a {@link ColumnType#DATE} column.
+	 *
+	 * @return the date pattern, or {@code null} if the column is not a date.
+	 */
+	public String getDatePattern() {
+		return datePattern;
+	}
+
+	/**
+	 * Indicates whether {@code null} or empty values were found in this column.
+	 *
+	 * @return {@code true} if the column can be {@code null}.
+	 */
+	public boolean isNullable() {
+		return nullCount > 0;
+	}
+
+	/**
+	 * Returns the number of non-null values sampled from this column.
+	 *
+	 * @return the number of values.
+	 */
+	public long getValueCount() {
+		return valueCount;
+	}
+
+	/**
+	 * Returns the number of {@code null} or empty values sampled from this column.
+	 *
+	 * @return the number of {@code null} values.
+	 */
+	public long getNullCount() {
+		return nullCount;
+	}
+
+	/**
+	 * Returns the length of the shortest non-null value sampled from this column.
+	 *
+	 * @return the minimum length, or {@code 0} if all values are {@code null}.
+	 */
+	public int getMinLength() {
+		return minLength;
+	}
+
+	/**
+	 * Returns the length of the longest value sampled from this column.
+	 *
+	 * @return the maximum length, or {@code 0} if all values are {@code null}.
+	 */
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * Returns the distinct values of an {@link ColumnType#ENUM} column, or the words used for {@code true} and {@code false}
+	 * in a {@link ColumnType#BOOLEAN} column, with the words for {@code true} first.
+	 *
+	 * @return the values of the column, sorted, or an empty list for other column types.
+	 */
+	public List<String> getValues() {
+		return values;
+	}
+
+	/**
+	 * Returns the conversion from {@code String} to the Java type of this column.
+	 *
+	 * @return the conversion to apply to the values of this column, or {@code null} if values should be kept as {@code String}s.
+	 */
+	public Conversion<String, ?> getConversion() {
+		switch (type) {
+			case INTEGER:
+				return Conversions.toInteger();
+			case LONG:
+				return Conversions.toLong();
+			case DECIMAL:
+				return Conversions.toBigDecimal();
+			case DATE:
+				return Conversions.toDate(datePattern);
+			case BOOLEAN:
+				List<String> trueValues = new ArrayList<String>();
+				List<String> falseValues = new ArrayList<String>();
+				for (String value : values) {
+					if (SchemaInferrer.isTrue(value)) {
+						trueValues.add(value);
+					} else {
+						falseValues.add(value);
+					}
+				}
+				if (falseValues.isEmpty()) {
+					for (String value : trueValues) {
+						falseValues.add(SchemaInferrer.opposite(value));
+					}
+				} else if (trueValues.isEmpty()) {
+					for (String value : falseValues) {
+						trueValues.add(SchemaInferrer.opposite(value));
+					}
+				}
+				return Conversions.toBoolean(trueValues.toArray(new String[0]), falseValues.toArray(new String[0]));
+			default:
+				return null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		out.append(name == null ? String.valueOf(index) : name).append(": ").append(type);
+		if (type == ColumnType.DECIMAL) {
+			out.append('(').append(scale).append(')');
+		} else if (type == ColumnType.DATE) {
+			out.append('(').append(datePattern).append(')');
+		} else if (!values.isEmpty()) {
+			out.append(values);
+		}
+		if (isNullable()) {
+			out.append(", nullable");
+		}
+		out.append(", length ").append(minLength).append("..").append(maxLength);
+		return out.toString();
+	}
+}
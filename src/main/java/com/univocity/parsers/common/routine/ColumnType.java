@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+/**
+ * The types of column identified by {@link AbstractRoutines#inferSchema(java.io.Reader, int)}.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see ColumnSchema
+ */
+public enum ColumnType {
+	/**
+	 * Whole numbers within the range of an {@code int}, converted to {@link Integer}.
+	 */
+	INTEGER(Integer.class),
+	/**
+	 * Whole numbers within the range of a {@code long}, converted to {@link Long}.
+	 */
+	LONG(Long.class),
+	/**
+	 * Numbers with a decimal point, or whole numbers too large for a {@code long}, converted to {@link java.math.BigDecimal}.
+	 */
+	DECIMAL(java.math.BigDecimal.class),
+	/**
+	 * Dates, all in the same pattern, converted to {@link java.util.Date}.
+	 */
+	DATE(java.util.Date.class),
+	/**
+	 * Words that represent {@code true} or {@code false}, such as "yes" and "no", converted to {@link Boolean}.
+	 */
+	BOOLEAN(Boolean.class),
+	/**
+	 * Text with few distinct values, which repeat across rows.
+	 */
+	ENUM(String.class),
+	/**
+	 * Any other text.
+	 */
+	TEXT(String.class);
+
+	private final Class<?> javaType;
+
+	ColumnType(Class<?> javaType) {
+		this.javaType = javaType;
+	}
+
+	/**
+	 * Returns the Java type of the values of this column type, once converted.
+	 *
+	 * @return the type of converted values.
+	 */
+	public Class<?> getJavaType() {
+		return javaType;
+	}
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+/**
+ * This enumeration is used to determine which of the rows with the same key is kept when removing duplicates with
+ * {@link AbstractRoutines#distinct(java.io.Reader, java.io.Writer, DuplicateRowHandling, String...)}.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractRoutines
+ */
+public enum DuplicateRowHandling {
+
+	/**
+	 * Keeps the first row of each key. Rows are written as soon as they are parsed, in the order they appear in the input.
+	 */
+	KEEP_FIRST,
+
+	/**
+	 * Keeps the last row of each key. The input is read in full before any row is written, and the rows kept are written in
+	 * the order they appear in the input.
+	 */
+	KEEP_LAST
+}
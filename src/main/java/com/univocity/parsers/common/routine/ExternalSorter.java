@@ -0,0 +1,611 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.*;
+
+import java.io.*;
+import java.math.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Sorts the rows produced by a parser with an external merge sort: rows are accumulated in memory until the memory budget
+ * is reached, then sorted and stored in a temporary file (a "run"). Once the input is exhausted, all runs are merged into the output.
+ *
+ * <p>Runs are sorted and stored by a pool of threads while the parser keeps reading the input. When there are too many runs to be merged
+ * at once, groups of runs are merged in parallel into larger runs before the final merge. Runs are stored in a compact binary
+ * format, so they don't need to be parsed again.</p>
+ *
+ * <p>The keys of each row are stored in the runs along with the row, so the conversions of the {@link SortKey}s are executed only once
+ * for each row, as it is added, and never by the threads that merge runs. Only keys of types that can't be stored
+ * (i.e. anything other than {@code String}, primitive wrappers, {@link BigDecimal}, {@link BigInteger} and {@link Date}) are
+ * converted again when runs are read, while holding a lock on their {@link SortKey}.</p>
+ *
+ * <p>The sort is stable: rows with equal keys are written in the order they were read from the input.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractRoutines#sort(Reader, Writer, SortKey...)
+ */
+final class ExternalSorter {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final int MAX_RUNS_PER_MERGE = 64;
+	private static final int RUN_BUFFER_SIZE = 64 * 1024;
+	private static final int END_OF_RUN = -2;
+
+	private static final byte KEY_VALUE = 0;
+	private static final byte KEY_CONVERTED = 1;
+	private static final byte KEY_NULL = 2;
+	private static final byte KEY_STRING = 3;
+	private static final byte KEY_INTEGER = 4;
+	private static final byte KEY_LONG = 5;
+	private static final byte KEY_SHORT = 6;
+	private static final byte KEY_BYTE = 7;
+	private static final byte KEY_DOUBLE = 8;
+	private static final byte KEY_FLOAT = 9;
+	private static final byte KEY_BOOLEAN = 10;
+	private static final byte KEY_CHARACTER = 11;
+	private static final byte KEY_BIG_DECIMAL = 12;
+	private static final byte KEY_BIG_INTEGER = 13;
+	private static final byte KEY_DATE = 14;
+
+	/**
+	 * A row with the values of its sort keys, as produced by the conversions of each {@link SortKey}.
+	 */
+	private static final class Entry {
+		final String[] row;
+		final Object[] keys;
+
+		Entry(String[] row, Object[] keys) {
+			this.row = row;
+			this.keys = keys;
+		}
+	}
+
+	/**
+	 * Reads a run back from its temporary file, one row at a time.
+	 */
+	private final class RunReader {
+		final int position;
+		final DataInputStream input;
+		Entry current;
+
+		RunReader(File run, int position) throws IOException {
+			this.position = position;
+			this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(run), RUN_BUFFER_SIZE));
+			synchronized (openReaders) {
+				openReaders.add(this);
+			}
+		}
+
+		boolean next() throws IOException {
+			String[] row = readRow(input);
+			if (row == null) {
+				current = null;
+				close();
+				return false;
+			}
+			current = new Entry(row, readKeys(input, row));
+			return true;
+		}
+
+		void close() {
+			try {
+				input.close();
+			} catch (IOException e) {
+				//ignore
+			}
+		}
+	}
+
+	private final SortKey[] sortKeys;
+	private final int[] keyIndexes;
+	private final long memoryBudget;
+	private final int threads;
+	private final File temporaryDirectory;
+
+	private final Comparator<Entry> entryComparator = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			return compareKeys(e1.keys, e2.keys);
+		}
+	};
+
+	private List<Entry> chunk = new ArrayList<Entry>();
+	private long chunkSize;
+	private List<File> runs = new ArrayList<File>();
+	private final List<RunReader> openReaders = new ArrayList<RunReader>();
+	private final Set<File> temporaryFiles = Collections.synchronizedSet(new HashSet<File>());
+	private ExecutorService executor;
+	private Semaphore pendingRuns;
+	private final List<Future<File>> runsInProgress = new ArrayList<Future<File>>();
+
+	/**
+	 * Creates an external sorter.
+	 *
+	 * @param sortKeys           the columns used to sort the rows.
+	 * @param headers            the headers of the input, used to find the columns of sort keys defined by name.
+	 * @param memoryBudget       the approximate number of bytes to be used to keep rows in memory.
+	 * @param threads            the number of threads used to sort, store and merge runs.
+	 * @param temporaryDirectory the directory where runs are stored. If {@code null}, the default temporary directory will be used.
+	 */
+	ExternalSorter(SortKey[] sortKeys, String[] headers, long memoryBudget, int threads, File temporaryDirectory) {
+		this.sortKeys = sortKeys;
+		this.keyIndexes = new int[sortKeys.length];
+		for (int i = 0; i < sortKeys.length; i++) {
+			keyIndexes[i] = sortKeys[i].identifyIndex(headers);
+		}
+		this.memoryBudget = memoryBudget;
+		this.threads = threads;
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
+	private Entry newEntry(String[] row) {
+		Object[] keys = new Object[keyIndexes.length];
+		for (int i = 0; i < keyIndexes.length; i++) {
+			int index = keyIndexes[i];
+			keys[i] = sortKeys[i].keyOf(index < row.length ? row[index] : null);
+		}
+		return new Entry(row, keys);
+	}
+
+	private int compareKeys(Object[] k1, Object[] k2) {
+		for (int i = 0; i < k1.length; i++) {
+			int out = sortKeys[i].compare(k1[i], k2[i]);
+			if (out != 0) {
+				return out;
+			}
+		}
+		return 0;
+	}
+
+	private static long estimateSize(String[] row) {
+		long out = 64 + 8L * row.length;
+		for (int i = 0; i < row.length; i++) {
+			if (row[i] != null) {
+				out += 48 + 2L * row[i].length();
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Adds a row to be sorted. Once the rows kept in memory exceed the memory budget, they are sorted and stored in a temporary
+	 * file by another thread.
+	 *
+	 * @param row the row to be sorted
+	 */
+	void add(String[] row) {
+		chunk.add(newEntry(row));
+		chunkSize += estimateSize(row);
+		if (chunkSize >= memoryBudget / (threads + 1)) {
+			spill(chunk);
+			chunk = new ArrayList<Entry>();
+			chunkSize = 0;
+		}
+	}
+
+	/**
+	 * Returns all rows added so far, in order. If rows were stored in temporary files, they are merged as the returned iterator is
+	 * consumed. No more rows can be added after this method is invoked.
+	 *
+	 * @return an iterator over the sorted rows.
+	 */
+	Iterator<String[]> sorted() {
+		if (runs.isEmpty() && runsInProgress.isEmpty()) {
+			Collections.sort(chunk, entryComparator);
+			final Iterator<Entry> entries = chunk.iterator();
+			chunk = Collections.emptyList();
+			return new Iterator<String[]>() {
+				@Override
+				public boolean hasNext() {
+					return entries.hasNext();
+				}
+
+				@Override
+				public String[] next() {
+					return entries.next().row;
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException("Can't remove rows");
+				}
+			};
+		}
+
+		if (!chunk.isEmpty()) {
+			spill(chunk);
+		}
+		chunk = Collections.emptyList();
+		collectRuns();
+		reduceRuns();
+
+		try {
+			final PriorityQueue<RunReader> queue = openRuns(runs);
+			return new Iterator<String[]>() {
+				@Override
+				public boolean hasNext() {
+					return !queue.isEmpty();
+				}
+
+				@Override
+				public String[] next() {
+					RunReader reader = queue.poll();
+					if (reader == null) {
+						throw new NoSuchElementException();
+					}
+					String[] row = reader.current.row;
+					try {
+						if (reader.next()) {
+							queue.add(reader);
+						}
+					} catch (IOException e) {
+						throw new IllegalStateException("Error merging sorted rows", e);
+					}
+					return row;
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException("Can't remove rows");
+				}
+			};
+		} catch (IOException e) {
+			throw new IllegalStateException("Error merging sorted rows", e);
+		}
+	}
+
+	/**
+	 * Stops all threads and deletes all temporary files created by this sorter.
+	 */
+	void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		synchronized (openReaders) {
+			for (RunReader reader : openReaders) {
+				reader.close();
+			}
+			openReaders.clear();
+		}
+		for (File file : temporaryFiles.toArray(new File[0])) {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Sorts all rows produced by the given parser and writes them to the given writer. Both parser and writer are closed at the end
+	 * of the process.
+	 *
+	 * @param parser the parser that produces the rows to sort. Parsing must have been started already.
+	 * @param first  the first row produced by the parser, or {@code null} if there are no rows.
+	 * @param writer the writer of the sorted rows
+	 */
+	void sort(AbstractParser<?> parser, String[] first, AbstractWriter<?> writer) {
+		try {
+			String[] row = first;
+			while (row != null) {
+				add(row);
+				row = parser.parseNext();
+			}
+			Iterator<String[]> rows = sorted();
+			while (rows.hasNext()) {
+				writer.writeRow(rows.next());
+			}
+		} finally {
+			parser.stopParsing();
+			close();
+			writer.close();
+		}
+	}
+
+	private void spill(final List<Entry> chunk) {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "unVocity-parsers external sort thread");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			pendingRuns = new Semaphore(threads);
+		}
+
+		try {
+			pendingRuns.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Thread interrupted while sorting rows", e);
+		}
+		runsInProgress.add(executor.submit(new Callable<File>() {
+			@Override
+			public File call() throws Exception {
+				try {
+					Collections.sort(chunk, entryComparator);
+					File run = createRunFile();
+					DataOutputStream out = openRun(run);
+					try {
+						for (Entry entry : chunk) {
+							writeEntry(out, entry);
+						}
+						out.writeInt(END_OF_RUN);
+					} finally {
+						out.close();
+					}
+					return run;
+				} finally {
+					pendingRuns.release();
+				}
+			}
+		}));
+	}
+
+	private void collectRuns() {
+		for (Future<File> run : runsInProgress) {
+			runs.add(await(run));
+		}
+		runsInProgress.clear();
+	}
+
+	private File await(Future<File> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Thread interrupted while sorting rows", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Error sorting rows", cause);
+		}
+	}
+
+	private void reduceRuns() {
+		while (runs.size() > MAX_RUNS_PER_MERGE) {
+			List<Future<File>> merged = new ArrayList<Future<File>>();
+			for (int i = 0; i < runs.size(); i += MAX_RUNS_PER_MERGE) {
+				final List<File> group = runs.subList(i, Math.min(i + MAX_RUNS_PER_MERGE, runs.size()));
+				merged.add(executor.submit(new Callable<File>() {
+					@Override
+					public File call() throws Exception {
+						File run = createRunFile();
+						DataOutputStream out = openRun(run);
+						try {
+							merge(group, out);
+							out.writeInt(END_OF_RUN);
+						} finally {
+							out.close();
+						}
+						return run;
+					}
+				}));
+			}
+			List<File> next = new ArrayList<File>(merged.size());
+			for (Future<File> run : merged) {
+				next.add(await(run));
+			}
+			for (File run : runs) {
+				run.delete();
+				temporaryFiles.remove(run);
+			}
+			runs = next;
+		}
+	}
+
+	private PriorityQueue<RunReader> openRuns(List<File> runs) throws IOException {
+		PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(runs.size(), new Comparator<RunReader>() {
+			@Override
+			public int compare(RunReader r1, RunReader r2) {
+				int out = compareKeys(r1.current.keys, r2.current.keys);
+				return out != 0 ? out : r1.position - r2.position;
+			}
+		});
+		for (int i = 0; i < runs.size(); i++) {
+			RunReader reader = new RunReader(runs.get(i), i);
+			if (reader.next()) {
+				queue.add(reader);
+			}
+		}
+		return queue;
+	}
+
+	private void merge(List<File> runs, DataOutputStream out) throws IOException {
+		PriorityQueue<RunReader> queue = openRuns(runs);
+		while (!queue.isEmpty()) {
+			RunReader reader = queue.poll();
+			writeEntry(out, reader.current);
+			if (reader.next()) {
+				queue.add(reader);
+			}
+		}
+	}
+
+	private File createRunFile() throws IOException {
+		File run = File.createTempFile("univocity-sort-", ".run", temporaryDirectory);
+		run.deleteOnExit();
+		temporaryFiles.add(run);
+		return run;
+	}
+
+	private static DataOutputStream openRun(File run) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), RUN_BUFFER_SIZE));
+	}
+
+	private void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+		writeRow(out, entry.row);
+		for (int i = 0; i < entry.keys.length; i++) {
+			if (!sortKeys[i].isConverted()) {
+				out.writeByte(KEY_VALUE);
+			} else {
+				writeKey(out, entry.keys[i]);
+			}
+		}
+	}
+
+	private static void writeKey(DataOutputStream out, Object key) throws IOException {
+		if (key == null) {
+			out.writeByte(KEY_NULL);
+			return;
+		}
+		Class<?> type = key.getClass();
+		if (type == String.class) {
+			out.writeByte(KEY_STRING);
+			writeBytes(out, ((String) key).getBytes(UTF_8));
+		} else if (type == Integer.class) {
+			out.writeByte(KEY_INTEGER);
+			out.writeInt((Integer) key);
+		} else if (type == Long.class) {
+			out.writeByte(KEY_LONG);
+			out.writeLong((Long) key);
+		} else if (type == Short.class) {
+			out.writeByte(KEY_SHORT);
+			out.writeShort((Short) key);
+		} else if (type == Byte.class) {
+			out.writeByte(KEY_BYTE);
+			out.writeByte((Byte) key);
+		} else if (type == Double.class) {
+			out.writeByte(KEY_DOUBLE);
+			out.writeDouble((Double) key);
+		} else if (type == Float.class) {
+			out.writeByte(KEY_FLOAT);
+			out.writeFloat((Float) key);
+		} else if (type == Boolean.class) {
+			out.writeByte(KEY_BOOLEAN);
+			out.writeBoolean((Boolean) key);
+		} else if (type == Character.class) {
+			out.writeByte(KEY_CHARACTER);
+			out.writeChar((Character) key);
+		} else if (type == BigDecimal.class) {
+			out.writeByte(KEY_BIG_DECIMAL);
+			out.writeInt(((BigDecimal) key).scale());
+			writeBytes(out, ((BigDecimal) key).unscaledValue().toByteArray());
+		} else if (type == BigInteger.class) {
+			out.writeByte(KEY_BIG_INTEGER);
+			writeBytes(out, ((BigInteger) key).toByteArray());
+		} else if (type == Date.class) {
+			out.writeByte(KEY_DATE);
+			out.writeLong(((Date) key).getTime());
+		} else {
+			out.writeByte(KEY_CONVERTED);
+		}
+	}
+
+	private Object[] readKeys(DataInputStream in, String[] row) throws IOException {
+		Object[] keys = new Object[keyIndexes.length];
+		for (int i = 0; i < keyIndexes.length; i++) {
+			byte type = in.readByte();
+			switch (type) {
+				case KEY_VALUE:
+				case KEY_CONVERTED:
+					int index = keyIndexes[i];
+					String value = index < row.length ? row[index] : null;
+					keys[i] = type == KEY_VALUE ? value : sortKeys[i].keyOf(value);
+					break;
+				case KEY_NULL:
+					keys[i] = null;
+					break;
+				case KEY_STRING:
+					keys[i] = new String(readBytes(in), UTF_8);
+					break;
+				case KEY_INTEGER:
+					keys[i] = in.readInt();
+					break;
+				case KEY_LONG:
+					keys[i] = in.readLong();
+					break;
+				case KEY_SHORT:
+					keys[i] = in.readShort();
+					break;
+				case KEY_BYTE:
+					keys[i] = in.readByte();
+					break;
+				case KEY_DOUBLE:
+					keys[i] = in.readDouble();
+					break;
+				case KEY_FLOAT:
+					keys[i] = in.readFloat();
+					break;
+				case KEY_BOOLEAN:
+					keys[i] = in.readBoolean();
+					break;
+				case KEY_CHARACTER:
+					keys[i] = in.readChar();
+					break;
+				case KEY_BIG_DECIMAL:
+					int scale = in.readInt();
+					keys[i] = new BigDecimal(new BigInteger(readBytes(in)), scale);
+					break;
+				case KEY_BIG_INTEGER:
+					keys[i] = new BigInteger(readBytes(in));
+					break;
+				case KEY_DATE:
+					keys[i] = new Date(in.readLong());
+					break;
+				default:
+					throw new IllegalStateException("Invalid sort key type " + type + " in temporary file");
+			}
+		}
+		return keys;
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	static void writeRow(DataOutputStream out, String[] row) throws IOException {
+		out.writeInt(row.length);
+		for (int i = 0; i < row.length; i++) {
+			if (row[i] == null) {
+				out.writeInt(-1);
+			} else {
+				writeBytes(out, row[i].getBytes(UTF_8));
+			}
+		}
+	}
+
+	static String[] readRow(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length == END_OF_RUN) {
+			return null;
+		}
+		String[] row = new String[length];
+		byte[] bytes = null;
+		for (int i = 0; i < length; i++) {
+			int size = in.readInt();
+			if (size >= 0) {
+				if (bytes == null || bytes.length < size) {
+					bytes = new byte[Math.max(size, 256)];
+				}
+				in.readFully(bytes, 0, size);
+				row[i] = new String(bytes, 0, size, UTF_8);
+			}
+		}
+		return row;
+	}
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.*;
+
+import java.nio.*;
+
+/**
+ * An open-addressing hash table of 64-bit fingerprints, optionally associated with a {@code long} value. Slots are stored in
+ * segments of primitive {@code long}s, either on the heap or in direct (off-heap) buffers, so the table can hold more than
+ * 2<sup>31</sup> entries and doesn't create any object per entry.
+ *
+ * <p>Each entry uses 8 bytes for the fingerprint and, if values are stored, 8 bytes for the value. The table is resized when
+ * it is half full.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see RowDeduplicator
+ */
+final class FingerprintTable {
+
+	private static final int SEGMENT_BITS = 22;
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private final boolean offHeap;
+	private final boolean storeValues;
+
+	private long capacity;
+	private long mask;
+	private long size;
+
+	private long[][] heapKeys;
+	private long[][] heapValues;
+	private LongBuffer[] directKeys;
+	private LongBuffer[] directValues;
+
+	/**
+	 * Creates a fingerprint table.
+	 *
+	 * @param initialCapacity the initial number of slots of the table. Will be rounded to a power of two.
+	 * @param storeValues     flag indicating whether a value is stored along with each fingerprint.
+	 * @param offHeap         flag indicating whether the slots of the table are stored off the heap.
+	 */
+	FingerprintTable(long initialCapacity, boolean storeValues, boolean offHeap) {
+		this.offHeap = offHeap;
+		this.storeValues = storeValues;
+		long capacity = 16;
+		while (capacity < initialCapacity) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	private void allocate(long capacity) {
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		int segmentCount = (int) ((capacity + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+		int segmentSize = (int) Math.min(capacity, SEGMENT_SIZE);
+		if (offHeap) {
+			directKeys = new LongBuffer[segmentCount];
+			directValues = storeValues ? new LongBuffer[segmentCount] : null;
+			for (int i = 0; i < segmentCount; i++) {
+				directKeys[i] = ByteBuffer.allocateDirect(segmentSize * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+				if (storeValues) {
+					directValues[i] = ByteBuffer.allocateDirect(segmentSize * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+				}
+			}
+		} else {
+			heapKeys = new long[segmentCount][segmentSize];
+			heapValues = storeValues ? new long[segmentCount][segmentSize] : null;
+		}
+	}
+
+	private long key(long slot) {
+		if (offHeap) {
+			return directKeys[(int) (slot >>> SEGMENT_BITS)].get((int) (slot & SEGMENT_MASK));
+		}
+		return heapKeys[(int) (slot >>> SEGMENT_BITS)][(int) (slot & SEGMENT_MASK)];
+	}
+
+	private long value(long slot) {
+		if (offHeap) {
+			return directValues[(int) (slot >>> SEGMENT_BITS)].get((int) (slot & SEGMENT_MASK));
+		}
+		return heapValues[(int) (slot >>> SEGMENT_BITS)][(int) (slot & SEGMENT_MASK)];
+	}
+
+	private void set(long slot, long key, long value) {
+		int segment = (int) (slot >>> SEGMENT_BITS);
+		int index = (int) (slot & SEGMENT_MASK);
+		if (offHeap) {
+			directKeys[segment].put(index, key);
+			if (storeValues) {
+				directValues[segment].put(index, value);
+			}
+		} else {
+			heapKeys[segment][index] = key;
+			if (storeValues) {
+				heapValues[segment][index] = value;
+			}
+		}
+	}
+
+	private long findSlot(long fingerprint) {
+		long slot = fingerprint & mask;
+		while (true) {
+			long key = key(slot);
+			if (key == 0 || key == fingerprint) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Adds a fingerprint to this table, associating it with a given value if values are stored. The value of a fingerprint already
+	 * in the table is replaced.
+	 *
+	 * @param fingerprint the fingerprint to add.
+	 * @param value       the value to associate with the fingerprint.
+	 *
+	 * @return {@code true} if the fingerprint wasn't in the table, {@code false} otherwise.
+	 */
+	boolean put(long fingerprint, long value) {
+		if (fingerprint == 0) {
+			fingerprint = 1;
+		}
+		long slot = findSlot(fingerprint);
+		boolean added = key(slot) == 0;
+		set(slot, fingerprint, value);
+		if (added && ++size * 2 > capacity) {
+			resize();
+		}
+		return added;
+	}
+
+	/**
+	 * Returns the value associated with a fingerprint.
+	 *
+	 * @param fingerprint the fingerprint to look for.
+	 *
+	 * @return the value associated with the fingerprint, or {@code -1} if it's not in the table.
+	 */
+	long get(long fingerprint) {
+		if (fingerprint == 0) {
+			fingerprint = 1;
+		}
+		long slot = findSlot(fingerprint);
+		return key(slot) == 0 ? -1 : value(slot);
+	}
+
+	/**
+	 * Returns the number of fingerprints in this table.
+	 *
+	 * @return the number of entries of the table.
+	 */
+	long size() {
+		return size;
+	}
+
+	private void resize() {
+		long oldCapacity = capacity;
+		long[][] oldHeapKeys = heapKeys;
+		long[][] oldHeapValues = heapValues;
+		LongBuffer[] oldDirectKeys = directKeys;
+		LongBuffer[] oldDirectValues = directValues;
+
+		allocate(capacity << 1);
+		for (long slot = 0; slot < oldCapacity; slot++) {
+			int segment = (int) (slot >>> SEGMENT_BITS);
+			int index = (int) (slot & SEGMENT_MASK);
+			long key = offHeap ? oldDirectKeys[segment].get(index) : oldHeapKeys[segment][index];
+			if (key != 0) {
+				long value = 0;
+				if (storeValues) {
+					value = offHeap ? oldDirectValues[segment].get(index) : oldHeapValues[segment][index];
+				}
+				set(findSlot(key), key, value);
+			}
+		}
+	}
+
+	/**
+	 * Computes the 64-bit fingerprint of the values in the given columns of a row. The probability of two different keys having
+	 * the same fingerprint is about 2<sup>-64</sup>, but it is not zero: users of this table must compare the actual keys when
+	 * a fingerprint is found.
+	 *
+	 * @param row     the row whose key will be computed.
+	 * @param columns the indexes of the columns that form the key, or {@code null} to use all values of the row.
+	 *
+	 * @return the fingerprint of the key values of the row.
+	 */
+	static long fingerprint(String[] row, int[] columns) {
+		long hash = ArgumentUtils.HASH_SEED;
+		int length = columns == null ? row.length : columns.length;
+		for (int i = 0; i < length; i++) {
+			int column = columns == null ? i : columns[i];
+			String value = column < row.length ? row[column] : null;
+			if (value == null) {
+				hash = ArgumentUtils.hash(hash, 0xFFFFF);
+			} else {
+				hash = ArgumentUtils.hash(hash, value);
+				hash = ArgumentUtils.hash(hash, value.length() | 0x10000);
+			}
+		}
+		return ArgumentUtils.finishHash(hash);
+	}
+}
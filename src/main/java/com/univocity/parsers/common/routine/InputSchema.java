@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.conversions.*;
+
+import java.util.*;
+
+/**
+ * The columns of an input, with their types and statistics, as inferred by {@link AbstractRoutines#inferSchema(java.io.Reader, int)}.
+ *
+ * <p>The inferred types can be applied to any {@link DefaultConversionProcessor}, such as an {@code ObjectRowProcessor}, with
+ * {@link #applyConversions(DefaultConversionProcessor)}. The maximum length of each column can be used to define the fields of
+ * a fixed-width input or output, for example:</p>
+ *
+ * <pre>{@code
+ * FixedWidthFields fields = new FixedWidthFields(schema.getHeaders(), schema.getFieldLengths());
+ * }</pre>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see ColumnSchema
+ */
+public final class InputSchema {
+
+	private final String[] headers;
+	private final List<ColumnSchema> columns;
+	private final long rowCount;
+
+	InputSchema(String[] headers, List<ColumnSchema> columns, long rowCount) {
+		this.headers = headers;
+		this.columns = Collections.unmodifiableList(columns);
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * Returns the headers of the input, if available.
+	 *
+	 * @return the headers of the input, or {@code null} if it has no headers.
+	 */
+	public String[] getHeaders() {
+		return headers == null ? null : headers.clone();
+	}
+
+	/**
+	 * Returns the schema of each column of the input, in order.
+	 *
+	 * @return the columns of the input.
+	 */
+	public List<ColumnSchema> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the schema of a column.
+	 *
+	 * @param index the position of the column
+	 *
+	 * @return the schema of the column at the given position.
+	 */
+	public ColumnSchema getColumn(int index) {
+		return columns.get(index);
+	}
+
+	/**
+	 * Returns the schema of a column.
+	 *
+	 * @param name the header of the column
+	 *
+	 * @return the schema of the column with the given header, or {@code null} if no column has the given header.
+	 */
+	public ColumnSchema getColumn(String name) {
+		for (ColumnSchema column : columns) {
+			if (column.getName() != null && column.getName().equals(name)) {
+				return column;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of rows sampled to infer this schema.
+	 *
+	 * @return the number of rows sampled.
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the length of each column, to be used as the length of fixed-width fields. The length of each column is the maximum length of
+	 * its values, or of its header, whichever is longer, and at least {@code 1}.
+	 *
+	 * @return the lengths of each column.
+	 */
+	public int[] getFieldLengths() {
+		int[] out = new int[columns.size()];
+		for (int i = 0; i < out.length; i++) {
+			ColumnSchema column = columns.get(i);
+			int length = Math.max(1, column.getMaxLength());
+			if (column.getName() != null) {
+				length = Math.max(length, column.getName().length());
+			}
+			out[i] = length;
+		}
+		return out;
+	}
+
+	/**
+	 * Configures a processor to convert the values of each column to the type inferred for the column. Columns with headers are
+	 * identified by name. Columns of type {@link ColumnType#TEXT} and {@link ColumnType#ENUM} are not converted.
+	 *
+	 * @param processor the processor that will convert the values of each row.
+	 */
+	public void applyConversions(DefaultConversionProcessor processor) {
+		for (ColumnSchema column : columns) {
+			Conversion<String, ?> conversion = column.getConversion();
+			if (conversion != null) {
+				if (column.getName() != null) {
+					processor.convertFields(conversion).set(column.getName());
+				} else {
+					processor.convertIndexes(conversion).set(column.getIndex());
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder("Schema of ").append(rowCount).append(" rows:");
+		for (ColumnSchema column : columns) {
+			out.append("\n\t").append(column);
+		}
+		return out.toString();
+	}
+}
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import java.util.*;
+
+/**
+ * The build side of a hash join. Rows are stored in a compact form: each distinct key is stored once, and the characters of all keys
+ * and values are packed into a single {@code char[]} arena, so no {@code String} or array is kept for each row.
+ *
+ * <p>Rows added to this table must have the values of the key columns first, followed by the other values of the row.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see RowJoiner
+ */
+final class JoinTable {
+
+	private final int keyCount;
+
+	private char[] arena = new char[8192];
+	private int arenaLength;
+
+	private int[] keyStart = new int[256];
+	private int[] keyLength = new int[256];
+	private int[] keyHash = new int[256];
+	private int[] firstRow = new int[256];
+	private int[] lastRow = new int[256];
+	private int keys;
+
+	private int[] slots = new int[512];
+
+	/**
+	 * Rows are stored as sequences of ints: the position of the next row with the same key, the number of values of the row,
+	 * then the start and length of each value in the arena. A length of {@code -1} represents a {@code null} value.
+	 */
+	private int[] rowData = new int[4096];
+	private int rowDataLength;
+	private long rowCount;
+
+	private char[] lookup = new char[256];
+	private int lookupLength;
+
+	/**
+	 * Creates a table for rows with the given number of key columns.
+	 *
+	 * @param keyCount the number of values at the beginning of each row that form its key.
+	 */
+	JoinTable(int keyCount) {
+		this.keyCount = keyCount;
+	}
+
+	/**
+	 * Returns the approximate number of bytes used by this table.
+	 *
+	 * @return the memory used by this table.
+	 */
+	long getMemoryUsage() {
+		return arena.length * 2L + rowData.length * 4L + slots.length * 4L + keyStart.length * 20L;
+	}
+
+	/**
+	 * Returns the number of rows in this table.
+	 *
+	 * @return the number of rows added so far.
+	 */
+	long getRowCount() {
+		return rowCount;
+	}
+
+	private boolean encodeKey(String[] row, int[] keyIndexes) {
+		lookupLength = 0;
+		for (int i = 0; i < keyCount; i++) {
+			int index = keyIndexes == null ? i : keyIndexes[i];
+			String value = index < row.length ? row[index] : null;
+			if (value == null) {
+				return false;
+			}
+			int length = value.length();
+			if (lookupLength + length + 2 > lookup.length) {
+				lookup = Arrays.copyOf(lookup, (lookupLength + length + 2) * 2);
+			}
+			lookup[lookupLength++] = (char) (length >>> 16);
+			lookup[lookupLength++] = (char) length;
+			value.getChars(0, length, lookup, lookupLength);
+			lookupLength += length;
+		}
+		return true;
+	}
+
+	private int hashKey() {
+		int hash = 0;
+		for (int i = 0; i < lookupLength; i++) {
+			hash = 31 * hash + lookup[i];
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	private int findSlot(int hash) {
+		int mask = slots.length - 1;
+		int slot = hash & mask;
+		while (true) {
+			int key = slots[slot] - 1;
+			if (key == -1) {
+				return slot;
+			}
+			if (keyHash[key] == hash && keyLength[key] == lookupLength && equalsLookup(keyStart[key])) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private boolean equalsLookup(int start) {
+		for (int i = 0; i < lookupLength; i++) {
+			if (arena[start + i] != lookup[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int append(String value) {
+		int length = value.length();
+		ensureArenaCapacity(length);
+		int start = arenaLength;
+		value.getChars(0, length, arena, arenaLength);
+		arenaLength += length;
+		return start;
+	}
+
+	private void ensureArenaCapacity(int length) {
+		if (arenaLength + length > arena.length) {
+			arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLength + length));
+		}
+	}
+
+	private void ensureRowDataCapacity(int length) {
+		if (rowDataLength + length > rowData.length) {
+			rowData = Arrays.copyOf(rowData, Math.max(rowData.length * 2, rowDataLength + length));
+		}
+	}
+
+	/**
+	 * Adds a row to this table. Rows with {@code null} in any of the key columns are discarded as they can't match any other row.
+	 *
+	 * @param row the row to add, with the key values first.
+	 */
+	void add(String[] row) {
+		if (!encodeKey(row, null)) {
+			return;
+		}
+		int hash = hashKey();
+		int slot = findSlot(hash);
+		int key = slots[slot] - 1;
+		if (key == -1) {
+			key = newKey(hash);
+			slots[slot] = key + 1;
+			if (keys * 2 > slots.length) {
+				rehash();
+			}
+		}
+
+		int valueCount = Math.max(0, row.length - keyCount);
+		ensureRowDataCapacity(2 + valueCount * 2);
+		int position = rowDataLength;
+		rowData[rowDataLength++] = -1;
+		rowData[rowDataLength++] = valueCount;
+		for (int i = keyCount; i < row.length; i++) {
+			if (row[i] == null) {
+				rowData[rowDataLength++] = 0;
+				rowData[rowDataLength++] = -1;
+			} else {
+				rowData[rowDataLength++] = append(row[i]);
+				rowData[rowDataLength++] = row[i].length();
+			}
+		}
+
+		if (firstRow[key] == -1) {
+			firstRow[key] = position;
+		} else {
+			rowData[lastRow[key]] = position;
+		}
+		lastRow[key] = position;
+		rowCount++;
+	}
+
+	private int newKey(int hash) {
+		if (keys == keyStart.length) {
+			int length = keys * 2;
+			keyStart = Arrays.copyOf(keyStart, length);
+			keyLength = Arrays.copyOf(keyLength, length);
+			keyHash = Arrays.copyOf(keyHash, length);
+			firstRow = Arrays.copyOf(firstRow, length);
+			lastRow = Arrays.copyOf(lastRow, length);
+		}
+		ensureArenaCapacity(lookupLength);
+		System.arraycopy(lookup, 0, arena, arenaLength, lookupLength);
+		keyStart[keys] = arenaLength;
+		keyLength[keys] = lookupLength;
+		arenaLength += lookupLength;
+		keyHash[keys] = hash;
+		firstRow[keys] = -1;
+		lastRow[keys] = -1;
+		return keys++;
+	}
+
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for (int key = 0; key < keys; key++) {
+			int slot = keyHash[key] & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = key + 1;
+		}
+	}
+
+	/**
+	 * Finds the first row whose key matches the values of the given columns of a row.
+	 *
+	 * @param row        the row to be matched
+	 * @param keyIndexes the positions of the key values in the given row.
+	 *
+	 * @return the position of the first matching row, or {@code -1} if no row matches.
+	 */
+	int find(String[] row, int[] keyIndexes) {
+		if (!encodeKey(row, keyIndexes)) {
+			return -1;
+		}
+		int key = slots[findSlot(hashKey())] - 1;
+		return key == -1 ? -1 : firstRow[key];
+	}
+
+	/**
+	 * Returns the next row with the same key of a given row.
+	 *
+	 * @param row the position of a row
+	 *
+	 * @return the position of the next row with the same key, or {@code -1} if there are no more rows.
+	 */
+	int nextRow(int row) {
+		return rowData[row];
+	}
+
+	/**
+	 * Returns the row added after a given row.
+	 *
+	 * @param row the position of a row
+	 *
+	 * @return the position of the row added after the given row, or {@code -1} if it is the last row.
+	 */
+	int rowAfter(int row) {
+		int next = row + 2 + rowData[row + 1] * 2;
+		return next < rowDataLength ? next : -1;
+	}
+
+	/**
+	 * Returns the number of values of a given row, excluding key values.
+	 *
+	 * @param row the position of a row
+	 *
+	 * @return the number of values stored for the given row.
+	 */
+	int getValueCount(int row) {
+		return rowData[row + 1];
+	}
+
+	/**
+	 * Returns a value of a given row, excluding key values.
+	 *
+	 * @param row   the position of a row
+	 * @param index the index of the value, where {@code 0} is the first value after the key values.
+	 *
+	 * @return the value at the given index.
+	 */
+	String getValue(int row, int index) {
+		int offset = row + 2 + index * 2;
+		int length = rowData[offset + 1];
+		return length == -1 ? null : new String(arena, rowData[offset], length);
+	}
+
+	/**
+	 * Rebuilds all rows of this table, grouped by key, with the key values first.
+	 *
+	 * @return an iterator over the rows in this table.
+	 */
+	Iterator<String[]> rows() {
+		return new Iterator<String[]>() {
+			int key = 0;
+			int row = keys > 0 ? firstRow[0] : -1;
+			String[] keyValues;
+
+			@Override
+			public boolean hasNext() {
+				return row != -1;
+			}
+
+			@Override
+			public String[] next() {
+				if (row == -1) {
+					throw new NoSuchElementException();
+				}
+				if (keyValues == null) {
+					keyValues = decodeKey(key);
+				}
+				int valueCount = getValueCount(row);
+				String[] out = new String[keyCount + valueCount];
+				System.arraycopy(keyValues, 0, out, 0, keyCount);
+				for (int i = 0; i < valueCount; i++) {
+					out[keyCount + i] = getValue(row, i);
+				}
+				row = nextRow(row);
+				if (row == -1 && ++key < keys) {
+					row = firstRow[key];
+					keyValues = null;
+				}
+				return out;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("Can't remove rows");
+			}
+		};
+	}
+
+	private String[] decodeKey(int key) {
+		String[] out = new String[keyCount];
+		int position = keyStart[key];
+		for (int i = 0; i < keyCount; i++) {
+			int length = (arena[position] << 16) | arena[position + 1];
+			out[i] = new String(arena, position + 2, length);
+			position += 2 + length;
+		}
+		return out;
+	}
+}
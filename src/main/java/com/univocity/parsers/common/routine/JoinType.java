@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+/**
+ * The types of join supported by {@link AbstractRoutines#join(java.io.Reader, java.io.Reader, java.io.Writer, JoinType, String[], String[])}.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ */
+public enum JoinType {
+	/**
+	 * Writes a row for each pair of left and right rows with the same key.
+	 */
+	INNER,
+	/**
+	 * Writes a row for each pair of left and right rows with the same key, and each left row without a matching right row,
+	 * with {@code null} in place of the right values.
+	 */
+	LEFT,
+	/**
+	 * Writes only the left rows without a matching right row.
+	 */
+	ANTI
+}
@@ -0,0 +1,431 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Writes rows to multiple files, one for each partition key. The partition of each row is determined by the values of the columns
+ * given to {@link #partitionBy(String...)} or {@link #partitionByIndexes(Integer...)}, or by a custom implementation of
+ * {@link #partitionKey(Object[])}.
+ *
+ * <p>Files are created from a path template, where the {@code {key}} placeholder is replaced by the partition key, for example
+ * {@code "/tmp/extracts/customer_{key}.csv"}. Characters of the key that are not letters, digits, {@code '-'}, {@code '_'} or
+ * {@code '.'} are replaced by {@code '_'}. If the file name of a key is already used by another key (for example, {@code "a/b"} and {@code "a_b"},
+ * or keys that differ only in case), a counter is appended to the name, as in {@code "customer_a_b_2.csv"}. Use {@link #getFile(String)} to find
+ * the file of each partition.</p>
+ *
+ * <p>To limit the number of open file handles and the memory used by output buffers, at most {@link #getMaxOpenFiles()} files are kept
+ * open at any time. When this limit is reached, the least recently used file is closed, and it will be reopened in append mode if more
+ * rows of its partition are written. Headers (if enabled in the writer settings) are written only once to each file.</p>
+ *
+ * <p>Rows are written as with {@link AbstractWriter#writeRow(Object...)}: the
+ * {@link com.univocity.parsers.common.processor.RowWriterProcessor} of the writer settings is not used. This class is not thread-safe.</p>
+ *
+ * @param <W> the type of writer settings used by the given routines.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractRoutines
+ */
+public class PartitionedWriter<W extends CommonWriterSettings<?>> {
+
+	private static final String KEY = "{key}";
+
+	private static final class Partition {
+		final File file;
+		long recordCount;
+
+		Partition(File file) {
+			this.file = file;
+		}
+	}
+
+	private final AbstractRoutines<?, W> routines;
+	private final W settings;
+	private final String pathTemplate;
+	private final Charset encoding;
+	private final int maxOpenFiles;
+
+	private final Map<String, Partition> partitions = new LinkedHashMap<String, Partition>();
+	private final Set<String> usedPaths = new HashSet<String>();
+	private final LinkedHashMap<String, AbstractWriter<W>> openWriters;
+
+	private String[] keyFields;
+	private Integer[] keyIndexes;
+	private int[] keyPositions;
+	private long recordCount;
+
+	/**
+	 * Creates a partitioned writer that keeps up to 100 files open, using the default encoding.
+	 *
+	 * @param routines     the routines of the format to write, whose writer settings will be used to create the writer of each file.
+	 * @param pathTemplate the path of the file of each partition, with a {@code {key}} placeholder for the partition key.
+	 */
+	public PartitionedWriter(AbstractRoutines<?, W> routines, String pathTemplate) {
+		this(routines, pathTemplate, null, 100);
+	}
+
+	/**
+	 * Creates a partitioned writer.
+	 *
+	 * @param routines     the routines of the format to write, whose writer settings will be used to create the writer of each file.
+	 * @param pathTemplate the path of the file of each partition, with a {@code {key}} placeholder for the partition key.
+	 * @param encoding     the encoding of the files. If {@code null}, the default encoding will be used.
+	 * @param maxOpenFiles the maximum number of files kept open at any given time.
+	 */
+	public PartitionedWriter(AbstractRoutines<?, W> routines, String pathTemplate, Charset encoding, int maxOpenFiles) {
+		if (routines == null) {
+			throw new IllegalArgumentException("Routines cannot be null");
+		}
+		if (pathTemplate == null || !pathTemplate.contains(KEY)) {
+			throw new IllegalArgumentException("Path template must contain the " + KEY + " placeholder");
+		}
+		if (maxOpenFiles <= 0) {
+			throw new IllegalArgumentException("Maximum number of open files must be positive");
+		}
+		W settings = routines.getWriterSettings();
+		if (settings == null) {
+			settings = routines.createDefaultWriterSettings();
+		}
+		this.routines = routines;
+		this.settings = settings;
+		this.pathTemplate = pathTemplate;
+		this.encoding = encoding;
+		this.maxOpenFiles = maxOpenFiles;
+
+		this.openWriters = new LinkedHashMap<String, AbstractWriter<W>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, AbstractWriter<W>> eldest) {
+				if (size() > PartitionedWriter.this.maxOpenFiles) {
+					eldest.getValue().close();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Defines the names of the columns whose values identify the partition of each row. Names are matched against the headers
+	 * defined in the writer settings.
+	 *
+	 * @param fieldNames the names of the columns used to partition rows.
+	 */
+	public final void partitionBy(String... fieldNames) {
+		ArgumentUtils.noNulls("Partition columns", fieldNames);
+		this.keyFields = fieldNames.clone();
+		this.keyIndexes = null;
+		this.keyPositions = null;
+	}
+
+	/**
+	 * Defines the indexes of the columns whose values identify the partition of each row.
+	 *
+	 * @param indexes the indexes of the columns used to partition rows.
+	 */
+	public final void partitionByIndexes(Integer... indexes) {
+		ArgumentUtils.noNulls("Partition column indexes", indexes);
+		this.keyIndexes = indexes.clone();
+		this.keyFields = null;
+		this.keyPositions = null;
+	}
+
+	/**
+	 * Returns the maximum number of files kept open at any given time.
+	 *
+	 * @return the maximum number of open files.
+	 */
+	public final int getMaxOpenFiles() {
+		return maxOpenFiles;
+	}
+
+	/**
+	 * Determines the partition key of a given row. By default, the values in the columns given to {@link #partitionBy(String...)}
+	 * or {@link #partitionByIndexes(Integer...)} are joined with a {@code '_'}. To keep the keys of distinct values distinct, {@code null}
+	 * values are represented by {@code \N}, and any {@code '\'} (or {@code '_'}, when there are multiple partitioning columns) in a value is
+	 * preceded by a {@code '\'}.
+	 *
+	 * @param row the row to be written
+	 *
+	 * @return the partition key of the given row. Must not be {@code null}.
+	 */
+	protected String partitionKey(Object[] row) {
+		if (keyPositions == null) {
+			keyPositions = identifyKeyPositions();
+		}
+		if (keyPositions.length == 1) {
+			return keyValue(row, keyPositions[0], false);
+		}
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < keyPositions.length; i++) {
+			if (i > 0) {
+				out.append('_');
+			}
+			out.append(keyValue(row, keyPositions[i], true));
+		}
+		return out.toString();
+	}
+
+	private static String keyValue(Object[] row, int position, boolean escapeSeparator) {
+		Object value = position < row.length ? row[position] : null;
+		if (value == null) {
+			return "\\N";
+		}
+		String string = String.valueOf(value);
+		if (string.indexOf('\\') == -1 && (!escapeSeparator || string.indexOf('_') == -1)) {
+			return string;
+		}
+		StringBuilder out = new StringBuilder(string.length() + 4);
+		for (int i = 0; i < string.length(); i++) {
+			char ch = string.charAt(i);
+			if (ch == '\\' || (escapeSeparator && ch == '_')) {
+				out.append('\\');
+			}
+			out.append(ch);
+		}
+		return out.toString();
+	}
+
+	private int[] identifyKeyPositions() {
+		if (keyIndexes != null) {
+			int[] out = new int[keyIndexes.length];
+			for (int i = 0; i < keyIndexes.length; i++) {
+				out[i] = keyIndexes[i];
+			}
+			return out;
+		}
+		if (keyFields == null) {
+			throw new IllegalStateException("No columns defined to partition rows. Use partitionBy() or partitionByIndexes() to define which columns identify each partition.");
+		}
+		String[] headers = settings.getHeaders();
+		if (headers == null) {
+			throw new IllegalStateException("Cannot partition rows by column name with no headers defined");
+		}
+		int[] out = new int[keyFields.length];
+		for (int i = 0; i < keyFields.length; i++) {
+			out[i] = ArgumentUtils.indexOf(ArgumentUtils.normalize(headers), ArgumentUtils.normalize(keyFields[i]));
+			if (out[i] == -1) {
+				throw new IllegalArgumentException("Column '" + keyFields[i] + "' used to partition rows not found. Available columns are: " + Arrays.toString(headers));
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the file that stores the rows of a given partition. For keys that were not written yet, returns the file given by the path template,
+	 * which may still change if its name is already used by another partition when the first row of the key is written.
+	 *
+	 * @param key the partition key
+	 *
+	 * @return the file associated with the given key.
+	 */
+	public File getFile(String key) {
+		Partition partition = partitions.get(key);
+		if (partition != null) {
+			return partition.file;
+		}
+		return new File(pathTemplate.replace(KEY, fileName(key)));
+	}
+
+	private static String fileName(String key) {
+		StringBuilder name = new StringBuilder(key.length());
+		for (int i = 0; i < key.length(); i++) {
+			char ch = key.charAt(i);
+			if (Character.isLetterOrDigit(ch) || ch == '-' || ch == '_' || ch == '.') {
+				name.append(ch);
+			} else {
+				name.append('_');
+			}
+		}
+		if (name.length() == 0 || name.toString().replace(".", "").length() == 0) {
+			name.insert(0, '_');
+		}
+		return name.toString();
+	}
+
+	private File newFile(String key) {
+		String name = fileName(key);
+		File file = new File(pathTemplate.replace(KEY, name));
+		for (int i = 2; !usedPaths.add(normalizedPath(file)); i++) {
+			file = new File(pathTemplate.replace(KEY, name + '_' + i));
+		}
+		return file;
+	}
+
+	private static String normalizedPath(File file) {
+		String path;
+		try {
+			path = file.getCanonicalPath();
+		} catch (IOException e) {
+			path = file.getAbsolutePath();
+		}
+		// conservatively treats paths as case-insensitive, so partitions don't overwrite each other on file systems such as NTFS and APFS.
+		return path.toLowerCase(Locale.ENGLISH);
+	}
+
+	private AbstractWriter<W> getWriter(String key) {
+		AbstractWriter<W> writer = openWriters.get(key);
+		if (writer == null) {
+			Partition partition = partitions.get(key);
+			boolean append = partition != null;
+			if (partition == null) {
+				partition = new Partition(newFile(key));
+				partitions.put(key, partition);
+			}
+			writer = openWriter(partition.file, append);
+			openWriters.put(key, writer);
+		}
+		return writer;
+	}
+
+	@SuppressWarnings("unchecked")
+	private AbstractWriter<W> openWriter(File file, boolean append) {
+		Writer output;
+		if (append) {
+			try {
+				output = ArgumentUtils.newWriter(new FileOutputStream(file, true), encoding);
+			} catch (FileNotFoundException e) {
+				throw new IllegalStateException("Unable to reopen file '" + file.getAbsolutePath() + "'", e);
+			}
+		} else {
+			output = ArgumentUtils.newWriter(file, encoding);
+		}
+
+		W fileSettings = (W) settings.clone();
+		fileSettings.setHeaderWritingEnabled(false);
+		AbstractWriter<W> writer = routines.createWriter(output, fileSettings);
+		if (!append && settings.isHeaderWritingEnabled() && settings.getHeaders() != null) {
+			writer.writeHeaders();
+		}
+		return writer;
+	}
+
+	/**
+	 * Writes a row to the file of its partition.
+	 * <p> In case of any errors, a {@link TextWritingException} will be thrown and the file of the partition will be closed.</p>
+	 *
+	 * @param row the information of a single record to be written to the output
+	 */
+	public void writeRow(Object... row) {
+		if (row == null) {
+			return;
+		}
+		String key = partitionKey(row);
+		if (key == null) {
+			throw new IllegalStateException("Partition key cannot be null");
+		}
+		AbstractWriter<W> writer = getWriter(key);
+		long count = writer.getRecordCount();
+		try {
+			writer.writeRow(row);
+		} catch (TextWritingException ex) {
+			openWriters.remove(key);
+			throw ex;
+		}
+		count = writer.getRecordCount() - count;
+		partitions.get(key).recordCount += count;
+		recordCount += count;
+	}
+
+	/**
+	 * Writes a row to the file of its partition.
+	 * <p> In case of any errors, a {@link TextWritingException} will be thrown and the file of the partition will be closed.</p>
+	 *
+	 * @param row the information of a single record to be written to the output
+	 */
+	public void writeRow(Collection<?> row) {
+		if (row == null) {
+			return;
+		}
+		writeRow(row.toArray());
+	}
+
+	/**
+	 * Writes all rows of the given input to the files of their partitions.
+	 *
+	 * @param rows the rows to be written
+	 */
+	public void writeRows(Iterable<Object[]> rows) {
+		for (Object[] row : rows) {
+			writeRow(row);
+		}
+	}
+
+	/**
+	 * Returns the keys of all partitions written so far, in the order they were first written.
+	 *
+	 * @return the partition keys
+	 */
+	public Set<String> getPartitions() {
+		return Collections.unmodifiableSet(partitions.keySet());
+	}
+
+	/**
+	 * Returns the number of records written to the file of a given partition, excluding headers.
+	 *
+	 * @param key the partition key
+	 *
+	 * @return the number of records written to the partition.
+	 */
+	public long getRecordCount(String key) {
+		Partition partition = partitions.get(key);
+		return partition == null ? 0L : partition.recordCount;
+	}
+
+	/**
+	 * Returns the number of records written to all partitions, excluding headers.
+	 *
+	 * @return the total number of records written.
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Returns the number of files currently open.
+	 *
+	 * @return the number of open files.
+	 */
+	public int getOpenFileCount() {
+		return openWriters.size();
+	}
+
+	/**
+	 * Closes all open files.
+	 */
+	public void close() {
+		IllegalStateException error = null;
+		for (AbstractWriter<W> writer : openWriters.values()) {
+			try {
+				writer.close();
+			} catch (IllegalStateException ex) {
+				if (error == null) {
+					error = ex;
+				}
+			}
+		}
+		openWriters.clear();
+		if (error != null) {
+			throw error;
+		}
+	}
+}
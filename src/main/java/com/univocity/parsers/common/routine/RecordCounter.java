@@ -0,0 +1,583 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Counts the records of an input without parsing any value. Buffers of characters are scanned in bulk for line separators, and
+ * only the minimum state required to tell whether a line separator is part of a quoted value is kept.
+ *
+ * <p>Files in encodings where line separators and quotes can only be represented by a single byte (such as UTF-8 and ISO-8859-1)
+ * are split into chunks that are counted in parallel, without decoding any character. As the quoting state at the beginning of a chunk
+ * is only known after all previous chunks are counted, each chunk is counted twice: assuming it starts at the beginning of a line, and assuming
+ * it starts inside a quoted value. Both counts run over the same buffers and are reduced to one as soon as they reach the same state, which
+ * usually happens at the first line separator. Chunk results are then combined in order.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractRoutines#countRecords(File, Charset)
+ */
+final class RecordCounter {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final long MIN_CHUNK_SIZE = 8L * 1024L * 1024L;
+
+	private char newLine;
+	private final boolean detectLineSeparator;
+	private final char comment;
+	private final char delimiter;
+	private final char quote;
+	private final char quoteEscape;
+	private final boolean skipEmptyLines;
+	private final boolean ignoreLeadingWhitespaces;
+
+	/**
+	 * Creates a record counter.
+	 *
+	 * @param newLine                  the character that ends each line. With two-character line separators, this is the last character of the sequence.
+	 *                                 When the line separator is detected, this character is used if no line separator is found at the beginning of the input.
+	 * @param detectLineSeparator      flag indicating whether the line separator should be detected from the beginning of the input.
+	 * @param comment                  the character that identifies comment lines, or {@code '\0'} if comments are not supported.
+	 * @param quoting                  the delimiter, quote and quote escape characters of the format, or {@code null} if values can't be quoted.
+	 * @param skipEmptyLines           flag indicating whether empty lines are ignored.
+	 * @param ignoreLeadingWhitespaces flag indicating whether lines with only whitespace are considered empty.
+	 */
+	RecordCounter(char newLine, boolean detectLineSeparator, char comment, char[] quoting, boolean skipEmptyLines, boolean ignoreLeadingWhitespaces) {
+		this.newLine = newLine;
+		this.detectLineSeparator = detectLineSeparator;
+		this.comment = comment;
+		this.delimiter = quoting == null ? '\0' : quoting[0];
+		this.quote = quoting == null ? '\0' : quoting[1];
+		this.quoteEscape = quoting == null ? '\0' : quoting[2];
+		this.skipEmptyLines = skipEmptyLines;
+		this.ignoreLeadingWhitespaces = ignoreLeadingWhitespaces;
+	}
+
+	/**
+	 * Counts the records of a file.
+	 *
+	 * @param file     the file to count
+	 * @param encoding the encoding of the file
+	 * @param threads  the maximum number of threads used to count chunks of the file in parallel.
+	 *
+	 * @return the number of records in the file.
+	 */
+	long count(File file, Charset encoding, int threads) {
+		detectLineSeparator(file, encoding);
+		long size = file.length();
+		int chunks = (int) Math.min(threads, size / MIN_CHUNK_SIZE);
+		if (chunks <= 1 || !isSingleByteCompatible(encoding)) {
+			Reader reader = new InputStreamReader(openFile(file), encoding);
+			try {
+				return count(reader);
+			} finally {
+				close(reader);
+			}
+		}
+		return countInParallel(file, size, chunks);
+	}
+
+	/**
+	 * Counts the records of an input.
+	 *
+	 * @param input the input to count. It will be read to the end but not closed.
+	 *
+	 * @return the number of records in the input.
+	 */
+	long count(Reader input) {
+		State state = new State(false);
+		char[] buffer = new char[BUFFER_SIZE];
+		try {
+			int length = fill(input, buffer);
+			if (detectLineSeparator) {
+				detectLineSeparator(buffer, length);
+			}
+			while (length != -1) {
+				state.scan(buffer, 0, length);
+				length = input.read(buffer);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading input to count records", e);
+		}
+		return state.records + (state.hasContent ? 1 : 0);
+	}
+
+	/**
+	 * Finds the position of the first record of a file, after the lines skipped with {@link com.univocity.parsers.common.CommonParserSettings#setNumberOfRowsToSkip(long)}
+	 * and the header row. Lines are skipped without considering quotes, and the header row is the first record counted, in the same way as the parser does.
+	 *
+	 * @param file        the file to scan
+	 * @param encoding    the encoding of the file
+	 * @param linesToSkip the number of lines to skip from the beginning of the file.
+	 * @param header      flag indicating whether the first record after the skipped lines is a header row.
+	 *
+	 * @return the position of the first byte after the skipped lines and the header row.
+	 */
+	long findFirstRecord(File file, Charset encoding, long linesToSkip, boolean header) {
+		if (linesToSkip <= 0 && !header) {
+			return 0;
+		}
+		detectLineSeparator(file, encoding);
+		InputStream in = new BufferedInputStream(openFile(file), BUFFER_SIZE);
+		try {
+			byte lineEnd = (byte) newLine;
+			long position = 0;
+			int b = 0;
+			while (linesToSkip > 0 && (b = in.read()) != -1) {
+				position++;
+				if ((byte) b == lineEnd) {
+					linesToSkip--;
+				}
+			}
+			if (header) {
+				State state = new State(false);
+				char[] chars = new char[1];
+				while (state.records == 0 && (b = in.read()) != -1) {
+					position++;
+					chars[0] = (char) b;
+					state.scan(chars, 0, 1);
+				}
+			}
+			return position;
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading file to find its first record", e);
+		} finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Splits a file into chunks that start at the beginning of a record, so each chunk can be parsed separately. The split points
+	 * are evenly spaced over the file and moved forward to the start of the next record. As the quoting state at a split point is unknown,
+	 * the file is scanned from the next line separator assuming it is at the beginning of a line, and assuming it is inside a quoted value.
+	 * The chunk starts after the first line separator that ends a line in both cases. A split point is discarded if no such line separator
+	 * is found before the next split point.
+	 *
+	 * @param file        the file to split
+	 * @param encoding    the encoding of the file
+	 * @param chunks      the maximum number of chunks.
+	 * @param firstRecord the position of the first record of the file, as given by {@link #findFirstRecord(File, Charset, long, boolean)}.
+	 *                    Chunks other than the first start after this position.
+	 *
+	 * @return the position where each chunk starts, followed by the size of the file. There is a single chunk if the encoding of the file
+	 * doesn't allow it to be scanned without decoding its characters.
+	 */
+	long[] split(File file, Charset encoding, int chunks, long firstRecord) {
+		long size = file.length();
+		if (chunks <= 1 || !isSingleByteCompatible(encoding)) {
+			return new long[]{0, size};
+		}
+		detectLineSeparator(file, encoding);
+		long[] starts = new long[chunks + 1];
+		int count = 1;
+		try {
+			for (int i = 1; i < chunks; i++) {
+				long from = Math.max(size * i / chunks, Math.max(firstRecord, starts[count - 1]));
+				long start = findRecordStart(file, from, size * (i + 1) / chunks);
+				if (start != -1 && start < size) {
+					starts[count++] = start;
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading file to split it into chunks", e);
+		}
+		starts[count++] = size;
+		return Arrays.copyOf(starts, count);
+	}
+
+	/**
+	 * Finds the position of the first record that starts after a given position, regardless of whether the given position is inside a quoted value.
+	 *
+	 * @return the position of the record, or {@code -1} if it isn't found before the limit.
+	 */
+	private long findRecordStart(File file, long from, long limit) throws IOException {
+		FileInputStream in = openFile(file);
+		try {
+			FileChannel channel = in.getChannel();
+			ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+			char[] chars = new char[1];
+			byte lineEnd = (byte) newLine;
+
+			State outside = null;
+			State inside = null;
+			long position = from;
+			while (position < limit) {
+				bytes.clear();
+				int read = channel.read(bytes, position);
+				if (read <= 0) {
+					break;
+				}
+				byte[] array = bytes.array();
+				for (int i = 0; i < read && position < limit; i++) {
+					position++;
+					if (outside == null) {
+						if (array[i] == lineEnd) {
+							outside = new State(false);
+							inside = new State(true);
+						}
+						continue;
+					}
+					chars[0] = (char) (array[i] & 0xFF);
+					outside.scan(chars, 0, 1);
+					inside.scan(chars, 0, 1);
+					if (array[i] == lineEnd && !outside.inQuotes && outside.sameAs(inside)) {
+						return position;
+					}
+				}
+			}
+			return -1;
+		} finally {
+			close(in);
+		}
+	}
+
+	private void detectLineSeparator(File file, Charset encoding) {
+		if (!detectLineSeparator) {
+			return;
+		}
+		Reader reader = new InputStreamReader(openFile(file), encoding);
+		try {
+			char[] buffer = new char[BUFFER_SIZE];
+			detectLineSeparator(buffer, fill(reader, buffer));
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading input to detect its line separator", e);
+		} finally {
+			close(reader);
+		}
+	}
+
+	/**
+	 * Reads characters until the buffer is full or the end of the input is reached.
+	 *
+	 * @return the number of characters read, or {@code -1} if the input is empty.
+	 */
+	private static int fill(Reader input, char[] buffer) throws IOException {
+		int length = 0;
+		int read;
+		while (length < buffer.length && (read = input.read(buffer, length, buffer.length - length)) != -1) {
+			length += read;
+		}
+		return length == 0 ? -1 : length;
+	}
+
+	/**
+	 * Identifies the line separator from the first line separator characters found in the given buffer, in the same way as
+	 * the parser does when {@link com.univocity.parsers.common.CommonParserSettings#isLineSeparatorDetectionEnabled()} is set.
+	 * Only the last character of the line separator is kept, as it is the one that ends each line.
+	 */
+	private void detectLineSeparator(char[] buffer, int length) {
+		for (int i = 0; i < length; i++) {
+			char ch = buffer[i];
+			if (ch == '\n') {
+				newLine = '\n';
+				return;
+			} else if (ch == '\r') {
+				newLine = i + 1 < length && buffer[i + 1] == '\n' ? '\n' : '\r';
+				return;
+			}
+		}
+	}
+
+	private boolean isSingleByteCompatible(Charset encoding) {
+		return isAsciiCompatible(encoding) && newLine < 128 && comment < 128 && delimiter < 128 && quote < 128 && quoteEscape < 128;
+	}
+
+	/**
+	 * Tests whether an encoding represents ASCII characters with a single byte, which never occurs as part of the representation of another character.
+	 *
+	 * @param encoding the encoding to test
+	 *
+	 * @return {@code true} if bytes of ASCII characters can be searched for in the input without decoding it.
+	 */
+	static boolean isAsciiCompatible(Charset encoding) {
+		String name = encoding.name().toUpperCase();
+		return name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-") || name.startsWith("WINDOWS-125");
+	}
+
+	private long countInParallel(final File file, final long size, final int chunks) {
+		ExecutorService executor = Executors.newFixedThreadPool(chunks, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "unVocity-parsers record counting thread");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			List<Future<State[]>> results = new ArrayList<Future<State[]>>(chunks);
+			for (int i = 0; i < chunks; i++) {
+				final long start = size * i / chunks;
+				final long end = size * (i + 1) / chunks;
+				final boolean first = i == 0;
+				results.add(executor.submit(new Callable<State[]>() {
+					@Override
+					public State[] call() throws Exception {
+						return countChunk(file, start, end, size, first);
+					}
+				}));
+			}
+
+			long records = 0;
+			boolean inQuotes = false;
+			boolean hasContent = false;
+			for (Future<State[]> result : results) {
+				State[] states = result.get();
+				State state = inQuotes ? states[1] : states[0];
+				if (state == null) {
+					continue;
+				}
+				records += state.records;
+				inQuotes = state.inQuotes;
+				hasContent = state.hasContent;
+			}
+			return records + (hasContent ? 1 : 0);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Error reading file to count records", cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Thread interrupted while counting records", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Counts the records of the lines that start in a chunk of a file. A line starts in a chunk if the line separator that precedes it
+	 * is at a position between the start (inclusive) and the end (exclusive) of the chunk. The first chunk also includes the
+	 * first line of the file. Consecutive chunks therefore cover the file without gaps or overlaps.
+	 *
+	 * @return the state after counting the chunk starting at the beginning of a line, and starting inside a quoted value.
+	 * A {@code null} array element indicates no line starts in the chunk.
+	 */
+	private State[] countChunk(File file, long start, long end, long size, boolean first) throws IOException {
+		FileInputStream in = openFile(file);
+		try {
+			FileChannel channel = in.getChannel();
+			ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+			char[] chars = new char[BUFFER_SIZE];
+			byte lineEnd = (byte) newLine;
+
+			long position = start;
+			if (!first) {
+				boolean found = false;
+				while (!found && position < end) {
+					bytes.clear();
+					int read = channel.read(bytes, position);
+					if (read <= 0) {
+						return new State[2];
+					}
+					byte[] array = bytes.array();
+					for (int i = 0; i < read && position < end; i++, position++) {
+						if (array[i] == lineEnd) {
+							found = true;
+							position++;
+							break;
+						}
+					}
+				}
+				if (!found) {
+					return new State[2];
+				}
+			}
+
+			State outside = new State(false);
+			State inside = first ? null : new State(true);
+			long insideOffset = 0;
+			boolean done = false;
+			while (!done && position < size) {
+				bytes.clear();
+				int read = channel.read(bytes, position);
+				if (read <= 0) {
+					break;
+				}
+				byte[] array = bytes.array();
+				int length = read;
+				if (position + read > end) {
+					int i = (int) Math.max(0, end - position);
+					while (i < read && array[i] != lineEnd) {
+						i++;
+					}
+					if (i < read) {
+						length = i + 1;
+						done = true;
+					}
+				}
+				for (int i = 0; i < length; i++) {
+					chars[i] = (char) (array[i] & 0xFF);
+				}
+				outside.scan(chars, 0, length);
+				if (inside != null) {
+					inside.scan(chars, 0, length);
+					if (inside.sameAs(outside)) {
+						// both states will count the same records from this point onwards.
+						insideOffset = inside.records - outside.records;
+						inside = null;
+					}
+				}
+				position += length;
+			}
+			if (inside == null) {
+				inside = outside.copy();
+				inside.records += insideOffset;
+			}
+			return new State[]{outside, inside};
+		} finally {
+			close(in);
+		}
+	}
+
+	private static FileInputStream openFile(File file) {
+		try {
+			return new FileInputStream(file);
+		} catch (FileNotFoundException e) {
+			throw new IllegalArgumentException("Unable to read file '" + file.getAbsolutePath() + "'", e);
+		}
+	}
+
+	private static void close(Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			//ignore
+		}
+	}
+
+	/**
+	 * The scanning state of a sequence of characters. Counts the number of records ended by a line separator.
+	 */
+	private final class State {
+		long records;
+		boolean inQuotes;
+		boolean hasContent;
+		boolean fieldStart;
+		boolean lineStart;
+		boolean inComment;
+		boolean afterQuote;
+		boolean escaping;
+
+		State(boolean inQuotes) {
+			this.inQuotes = inQuotes;
+			this.hasContent = inQuotes;
+			this.fieldStart = !inQuotes;
+			this.lineStart = !inQuotes;
+		}
+
+		State copy() {
+			State out = new State(inQuotes);
+			out.records = records;
+			out.hasContent = hasContent;
+			out.fieldStart = fieldStart;
+			out.lineStart = lineStart;
+			out.inComment = inComment;
+			out.afterQuote = afterQuote;
+			out.escaping = escaping;
+			return out;
+		}
+
+		boolean sameAs(State o) {
+			return inQuotes == o.inQuotes && hasContent == o.hasContent && fieldStart == o.fieldStart && lineStart == o.lineStart
+					&& inComment == o.inComment && afterQuote == o.afterQuote && escaping == o.escaping;
+		}
+
+		void scan(char[] buffer, int from, int to) {
+			final char newLine = RecordCounter.this.newLine;
+			final char quote = RecordCounter.this.quote;
+
+			for (int i = from; i < to; i++) {
+				char ch = buffer[i];
+				if (inQuotes) {
+					if (escaping) {
+						escaping = false;
+					} else if (ch == quote) {
+						inQuotes = false;
+						afterQuote = true;
+					} else if (ch == quoteEscape && quoteEscape != quote) {
+						escaping = true;
+					}
+					continue;
+				}
+
+				if (inComment) {
+					if (ch == newLine) {
+						inComment = false;
+						lineStart = true;
+						fieldStart = true;
+					} else {
+						// skips the rest of the comment line in bulk
+						while (i + 1 < to && buffer[i + 1] != newLine) {
+							i++;
+						}
+					}
+					continue;
+				}
+
+				if (ch == newLine) {
+					if (hasContent || !skipEmptyLines) {
+						records++;
+					}
+					hasContent = false;
+					fieldStart = true;
+					lineStart = true;
+					afterQuote = false;
+					continue;
+				}
+
+				if (lineStart && ch == comment && comment != '\0') {
+					inComment = true;
+					lineStart = false;
+					i--;
+					continue;
+				}
+				lineStart = false;
+
+				if (quote == '\0') {
+					if (ch > ' ' || !ignoreLeadingWhitespaces) {
+						hasContent = true;
+						// no quoting: skips to the next line separator in bulk
+						while (i + 1 < to && buffer[i + 1] != newLine) {
+							i++;
+						}
+					}
+					continue;
+				}
+
+				if (ch == quote && (fieldStart || afterQuote && quoteEscape == quote)) {
+					inQuotes = true;
+					hasContent = true;
+					fieldStart = false;
+					afterQuote = false;
+				} else if (ch == delimiter) {
+					hasContent = true;
+					fieldStart = true;
+					afterQuote = false;
+				} else if (ch > ' ' || !ignoreLeadingWhitespaces) {
+					hasContent = true;
+					fieldStart = false;
+					afterQuote = false;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import java.io.*;
+
+/**
+ * A temporary file of records that are appended in sequence and can be read back from any position, even while the file is
+ * being written. Each record is stored as its length followed by its bytes. The most recent records are kept in a buffer,
+ * so reading them back doesn't require any access to the file.
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see RowDeduplicator
+ */
+final class RecordFile {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final File file;
+	private final RandomAccessFile access;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferLength;
+	private long flushedLength;
+
+	/**
+	 * Creates a temporary file of records.
+	 *
+	 * @param prefix             the prefix of the name of the temporary file.
+	 * @param temporaryDirectory the directory where the file will be created. If {@code null}, the default temporary directory will be used.
+	 *
+	 * @throws IOException if the file can't be created.
+	 */
+	RecordFile(String prefix, File temporaryDirectory) throws IOException {
+		this.file = File.createTempFile(prefix, ".records", temporaryDirectory);
+		try {
+			this.access = new RandomAccessFile(file, "rw");
+		} catch (IOException e) {
+			file.delete();
+			throw e;
+		}
+	}
+
+	/**
+	 * Appends a record to the end of this file.
+	 *
+	 * @param record the array with the bytes of the record.
+	 * @param length the number of bytes of the record.
+	 *
+	 * @return the position of the record, to be used with {@link #read(long)}.
+	 *
+	 * @throws IOException if the record can't be written.
+	 */
+	long append(byte[] record, int length) throws IOException {
+		long position = flushedLength + bufferLength;
+		if (bufferLength + 4 + length > buffer.length) {
+			flush();
+			if (4 + length > buffer.length) {
+				access.writeInt(length);
+				access.write(record, 0, length);
+				flushedLength += 4 + length;
+				return position;
+			}
+		}
+		buffer[bufferLength++] = (byte) (length >>> 24);
+		buffer[bufferLength++] = (byte) (length >>> 16);
+		buffer[bufferLength++] = (byte) (length >>> 8);
+		buffer[bufferLength++] = (byte) length;
+		System.arraycopy(record, 0, buffer, bufferLength, length);
+		bufferLength += length;
+		return position;
+	}
+
+	/**
+	 * Reads a record from this file.
+	 *
+	 * @param position the position of the record, as returned by {@link #append(byte[], int)}.
+	 *
+	 * @return the bytes of the record.
+	 *
+	 * @throws IOException if the record can't be read.
+	 */
+	byte[] read(long position) throws IOException {
+		if (position >= flushedLength) {
+			int start = (int) (position - flushedLength);
+			int length = ((buffer[start] & 0xFF) << 24) | ((buffer[start + 1] & 0xFF) << 16) | ((buffer[start + 2] & 0xFF) << 8) | (buffer[start + 3] & 0xFF);
+			byte[] out = new byte[length];
+			System.arraycopy(buffer, start + 4, out, 0, length);
+			return out;
+		}
+		access.seek(position);
+		byte[] out = new byte[access.readInt()];
+		access.readFully(out);
+		access.seek(flushedLength);
+		return out;
+	}
+
+	private void flush() throws IOException {
+		access.write(buffer, 0, bufferLength);
+		flushedLength += bufferLength;
+		bufferLength = 0;
+	}
+
+	/**
+	 * Opens the records written so far for sequential reading. Each record can be read with {@link #readRecord(DataInputStream)}.
+	 *
+	 * @return the input stream of all records in this file.
+	 *
+	 * @throws IOException if the file can't be opened.
+	 */
+	DataInputStream openRecords() throws IOException {
+		flush();
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+	}
+
+	/**
+	 * Reads the next record from the input returned by {@link #openRecords()}.
+	 *
+	 * @param in the input with the records of this file.
+	 *
+	 * @return the bytes of the record.
+	 *
+	 * @throws IOException if the record can't be read.
+	 */
+	static byte[] readRecord(DataInputStream in) throws IOException {
+		byte[] out = new byte[in.readInt()];
+		in.readFully(out);
+		return out;
+	}
+
+	/**
+	 * Closes and deletes this file.
+	 */
+	void delete() {
+		try {
+			access.close();
+		} catch (IOException e) {
+			//ignore
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,380 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.*;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Reads the rows of a {@link ResultSet} in batches, using the typed getter that matches the SQL type of each column
+ * (e.g. {@link ResultSet#getLong(int)} for integer columns) to avoid creating an object for every numeric value.
+ *
+ * <p>Batches can be fetched on a separate thread, so the next rows are fetched from the database while the current
+ * rows are formatted and written.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractRoutines#write(ResultSet, java.io.Writer)
+ */
+final class ResultSetReader {
+
+	private static final int OBJECT = 0;
+	private static final int LONG = 1;
+	private static final int DOUBLE = 2;
+	private static final int FLOAT = 3;
+	private static final int STRING = 4;
+	private static final int BOOLEAN = 5;
+
+	/**
+	 * Values of a batch of rows, stored by column. Numeric columns are stored in primitive arrays.
+	 */
+	static final class Batch {
+		final long[][] longs;
+		final double[][] doubles;
+		final Object[][] objects;
+		final boolean[][] nulls;
+		int size;
+		boolean last;
+		Throwable error;
+
+		Batch(int[] types, int capacity) {
+			longs = new long[types.length][];
+			doubles = new double[types.length][];
+			objects = new Object[types.length][];
+			nulls = new boolean[types.length][];
+			for (int i = 0; i < types.length; i++) {
+				switch (types[i]) {
+					case LONG:
+						longs[i] = new long[capacity];
+						nulls[i] = new boolean[capacity];
+						break;
+					case DOUBLE:
+					case FLOAT:
+						doubles[i] = new double[capacity];
+						nulls[i] = new boolean[capacity];
+						break;
+					default:
+						objects[i] = new Object[capacity];
+				}
+			}
+		}
+	}
+
+	private final ResultSet rs;
+	private final int[] types;
+	private final int capacity;
+
+	private Batch batch;
+
+	private BlockingQueue<Batch> free;
+	private BlockingQueue<Batch> filled;
+	private Thread thread;
+	private volatile boolean stopped;
+
+	/**
+	 * Creates a reader for the given result set.
+	 *
+	 * @param rs        the result set to read
+	 * @param md        the metadata of the result set
+	 * @param batchSize the number of rows in each batch
+	 * @param separateThread flag indicating whether batches should be fetched on a separate thread
+	 *
+	 * @throws SQLException if the metadata of the result set can't be read
+	 */
+	ResultSetReader(ResultSet rs, ResultSetMetaData md, int batchSize, boolean separateThread) throws SQLException {
+		this.rs = rs;
+		this.capacity = batchSize;
+		this.types = new int[md.getColumnCount()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = getType(md, i + 1);
+		}
+
+		if (separateThread) {
+			free = new ArrayBlockingQueue<Batch>(3);
+			filled = new ArrayBlockingQueue<Batch>(3);
+			for (int i = 0; i < 3; i++) {
+				free.add(new Batch(types, capacity));
+			}
+			thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					fetch();
+				}
+			}, "unVocity-parsers result set reader thread");
+			thread.setDaemon(true);
+			thread.start();
+		} else {
+			batch = new Batch(types, capacity);
+		}
+	}
+
+	private static int getType(ResultSetMetaData md, int column) throws SQLException {
+		switch (md.getColumnType(column)) {
+			case Types.BIGINT:
+				//unsigned BIGINT values may not fit in a long
+				return md.isSigned(column) ? LONG : OBJECT;
+			case Types.INTEGER:
+			case Types.SMALLINT:
+			case Types.TINYINT:
+				return LONG;
+			case Types.DOUBLE:
+			case Types.FLOAT:
+				return DOUBLE;
+			case Types.REAL:
+				return FLOAT;
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+				return STRING;
+			case Types.BOOLEAN:
+				return BOOLEAN;
+			default:
+				return OBJECT;
+		}
+	}
+
+	private void read(Batch batch) throws SQLException {
+		batch.size = 0;
+		while (batch.size < capacity) {
+			if (!rs.next()) {
+				batch.last = true;
+				return;
+			}
+			int row = batch.size;
+			for (int i = 0; i < types.length; i++) {
+				int column = i + 1;
+				switch (types[i]) {
+					case LONG:
+						batch.longs[i][row] = rs.getLong(column);
+						batch.nulls[i][row] = rs.wasNull();
+						break;
+					case DOUBLE:
+						batch.doubles[i][row] = rs.getDouble(column);
+						batch.nulls[i][row] = rs.wasNull();
+						break;
+					case FLOAT:
+						batch.doubles[i][row] = rs.getFloat(column);
+						batch.nulls[i][row] = rs.wasNull();
+						break;
+					case STRING:
+						batch.objects[i][row] = rs.getString(column);
+						break;
+					case BOOLEAN:
+						boolean value = rs.getBoolean(column);
+						batch.objects[i][row] = rs.wasNull() ? null : Boolean.valueOf(value);
+						break;
+					default:
+						batch.objects[i][row] = rs.getObject(column);
+				}
+			}
+			batch.size++;
+		}
+	}
+
+	private void fetch() {
+		try {
+			while (!stopped) {
+				Batch batch = free.take();
+				try {
+					read(batch);
+				} catch (Throwable ex) {
+					batch.error = ex;
+					batch.last = true;
+				}
+				filled.put(batch);
+				if (batch.last) {
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the next batch of rows. The batch returned previously must not be used after this method is invoked.
+	 *
+	 * @return the next batch of rows, or {@code null} if all rows have been read.
+	 *
+	 * @throws SQLException if the rows can't be read from the result set.
+	 */
+	Batch nextBatch() throws SQLException {
+		if (thread == null) {
+			if (batch.last) {
+				return null;
+			}
+			read(batch);
+			return batch;
+		}
+
+		if (batch != null) {
+			if (batch.last) {
+				return null;
+			}
+			free.add(batch);
+		}
+		try {
+			batch = filled.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Thread interrupted while waiting for rows of the result set", e);
+		}
+		if (batch.error != null) {
+			if (batch.error instanceof SQLException) {
+				throw (SQLException) batch.error;
+			}
+			throw new IllegalStateException("Error reading rows of the result set", batch.error);
+		}
+		return batch;
+	}
+
+	/**
+	 * Adds the values of a row to the given writer with {@link AbstractWriter#addValue(long)} and its variants, so numeric
+	 * values are not converted to objects.
+	 *
+	 * @param batch  the batch that contains the row
+	 * @param row    the index of the row in the batch
+	 * @param writer the writer that will receive the values of the row
+	 */
+	void addValues(Batch batch, int row, AbstractWriter<?> writer) {
+		for (int i = 0; i < types.length; i++) {
+			switch (types[i]) {
+				case LONG:
+					if (batch.nulls[i][row]) {
+						writer.addValue(null);
+					} else {
+						writer.addValue(batch.longs[i][row]);
+					}
+					break;
+				case DOUBLE:
+					if (batch.nulls[i][row]) {
+						writer.addValue(null);
+					} else {
+						writer.addValue(batch.doubles[i][row]);
+					}
+					break;
+				case FLOAT:
+					if (batch.nulls[i][row]) {
+						writer.addValue(null);
+					} else {
+						writer.addValue((float) batch.doubles[i][row]);
+					}
+					break;
+				default:
+					writer.addValue(batch.objects[i][row]);
+			}
+		}
+	}
+
+	/**
+	 * Copies the values of a row into a new array.
+	 *
+	 * @param batch the batch that contains the row
+	 * @param row   the index of the row in the batch
+	 *
+	 * @return the values of the given row.
+	 */
+	Object[] toRow(Batch batch, int row) {
+		Object[] out = new Object[types.length];
+		for (int i = 0; i < types.length; i++) {
+			switch (types[i]) {
+				case LONG:
+					out[i] = batch.nulls[i][row] ? null : (Object) batch.longs[i][row];
+					break;
+				case DOUBLE:
+					out[i] = batch.nulls[i][row] ? null : (Object) batch.doubles[i][row];
+					break;
+				case FLOAT:
+					out[i] = batch.nulls[i][row] ? null : (Object) (float) batch.doubles[i][row];
+					break;
+				default:
+					out[i] = batch.objects[i][row];
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the remaining rows as an iterable of arrays, to be written by methods that process multiple rows at once.
+	 * Rows can be iterated only once. Errors reading the result set are reported as an {@link IllegalStateException}.
+	 *
+	 * @return an iterable over the remaining rows.
+	 */
+	Iterable<Object[]> rows() {
+		return new Iterable<Object[]>() {
+			@Override
+			public Iterator<Object[]> iterator() {
+				return new Iterator<Object[]>() {
+					private Batch current;
+					private int index;
+
+					@Override
+					public boolean hasNext() {
+						while (current == null || index >= current.size) {
+							if (current != null && current.last) {
+								return false;
+							}
+							try {
+								current = nextBatch();
+							} catch (SQLException e) {
+								throw new IllegalStateException("Error reading rows of the result set", e);
+							}
+							index = 0;
+							if (current == null) {
+								return false;
+							}
+						}
+						return true;
+					}
+
+					@Override
+					public Object[] next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						return toRow(current, index++);
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Stops the thread that fetches rows (if any) and waits until it finishes reading the current batch, so the result set
+	 * can be closed safely.
+	 */
+	void stop() {
+		if (thread != null) {
+			stopped = true;
+			thread.interrupt();
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.*;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Removes rows with duplicate keys from the rows produced by a parser. Only a 64-bit fingerprint of the key of each row, and the position
+ * of a record in a temporary file, are kept in memory, in a {@link FingerprintTable}.
+ *
+ * <p>When the first row of each key is kept, the key of each new fingerprint is stored in a temporary file and rows are written as soon
+ * as they are parsed. When the last row is kept, all parsed rows are stored in a temporary file, and the table records the position of the
+ * last row of each key. The stored rows are then read back and only rows at the recorded positions are written.</p>
+ *
+ * <p>Whenever the fingerprint of a row is already in the table, the key of the row is compared against the key stored at the recorded
+ * position, so different keys with the same fingerprint are never taken as duplicates. Such keys are kept in a separate (and, in
+ * practice, always tiny) map.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractRoutines#distinct(Reader, Writer, DuplicateRowHandling, String...)
+ */
+class RowDeduplicator {
+
+	/**
+	 * A byte array output stream that gives access to its buffer without copying it.
+	 */
+	private static final class Bytes extends ByteArrayOutputStream {
+		byte[] buffer() {
+			return buf;
+		}
+	}
+
+	private final int[] keyIndexes;
+	private final DuplicateRowHandling duplicateRowHandling;
+	private final boolean offHeap;
+	private final File temporaryDirectory;
+
+	private final Bytes bytes = new Bytes();
+	private final DataOutputStream bytesOut = new DataOutputStream(bytes);
+
+	/**
+	 * Creates a deduplicator.
+	 *
+	 * @param keyIndexes           the positions of the columns that form the key of each row, or {@code null} to use all values of each row.
+	 * @param duplicateRowHandling which of the rows with the same key should be kept.
+	 * @param offHeap              flag indicating whether fingerprints should be stored off the heap.
+	 * @param temporaryDirectory   the directory where keys or rows are stored.
+	 */
+	RowDeduplicator(int[] keyIndexes, DuplicateRowHandling duplicateRowHandling, boolean offHeap, File temporaryDirectory) {
+		this.keyIndexes = keyIndexes;
+		this.duplicateRowHandling = duplicateRowHandling;
+		this.offHeap = offHeap;
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
+	/**
+	 * Writes the rows produced by the given parser without duplicates. Both parser and writer are closed at the end of the process.
+	 *
+	 * @param parser the parser that produces the rows. Parsing must have been started already.
+	 * @param first  the first row produced by the parser, or {@code null} if there are no rows.
+	 * @param writer the writer of the unique rows
+	 *
+	 * @return the number of duplicate rows discarded.
+	 */
+	long distinct(AbstractParser<?> parser, String[] first, AbstractWriter<?> writer) {
+		try {
+			if (duplicateRowHandling == DuplicateRowHandling.KEEP_FIRST) {
+				return keepFirst(parser, first, writer);
+			} else {
+				return keepLast(parser, first, writer);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Error storing rows in temporary file", e);
+		} finally {
+			parser.stopParsing();
+			writer.close();
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of the key of a row.
+	 *
+	 * @param row the row whose fingerprint will be computed
+	 *
+	 * @return the 64-bit fingerprint of the key of the row.
+	 */
+	long fingerprint(String[] row) {
+		return FingerprintTable.fingerprint(row, keyIndexes);
+	}
+
+	private String[] keyOf(String[] row) {
+		if (keyIndexes == null) {
+			return row;
+		}
+		String[] out = new String[keyIndexes.length];
+		for (int i = 0; i < keyIndexes.length; i++) {
+			out[i] = keyIndexes[i] < row.length ? row[keyIndexes[i]] : null;
+		}
+		return out;
+	}
+
+	private void encode(String[] values) throws IOException {
+		bytes.reset();
+		ExternalSorter.writeRow(bytesOut, values);
+	}
+
+	private boolean isEncoded(byte[] record) {
+		if (record.length != bytes.size()) {
+			return false;
+		}
+		byte[] encoded = bytes.buffer();
+		for (int i = 0; i < record.length; i++) {
+			if (record[i] != encoded[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private ByteBuffer copyEncoded() {
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+	private long keepFirst(AbstractParser<?> parser, String[] first, AbstractWriter<?> writer) throws IOException {
+		FingerprintTable table = new FingerprintTable(1 << 16, true, offHeap);
+		Set<ByteBuffer> collisions = new HashSet<ByteBuffer>();
+		RecordFile keys = new RecordFile("univocity-distinct-", temporaryDirectory);
+		try {
+			long duplicates = 0;
+			for (String[] row = first; row != null; row = parser.parseNext()) {
+				long fingerprint = fingerprint(row);
+				encode(keyOf(row));
+				long position = table.get(fingerprint);
+
+				boolean unique;
+				if (position == -1) {
+					table.put(fingerprint, keys.append(bytes.buffer(), bytes.size()));
+					unique = true;
+				} else if (isEncoded(keys.read(position))) {
+					unique = false;
+				} else {
+					unique = collisions.add(copyEncoded());
+				}
+
+				if (unique) {
+					writer.writeRow(row);
+				} else {
+					duplicates++;
+				}
+			}
+			return duplicates;
+		} finally {
+			keys.delete();
+		}
+	}
+
+	private long keepLast(AbstractParser<?> parser, String[] first, AbstractWriter<?> writer) throws IOException {
+		FingerprintTable table = new FingerprintTable(1 << 16, true, offHeap);
+		Map<ByteBuffer, Long> collisions = new HashMap<ByteBuffer, Long>();
+		RecordFile rows = new RecordFile("univocity-distinct-", temporaryDirectory);
+		try {
+			long rowCount = 0;
+			for (String[] row = first; row != null; row = parser.parseNext()) {
+				long fingerprint = fingerprint(row);
+				bytes.reset();
+				bytesOut.writeLong(fingerprint);
+				ExternalSorter.writeRow(bytesOut, row);
+				long position = rows.append(bytes.buffer(), bytes.size());
+				rowCount++;
+
+				long previous = table.get(fingerprint);
+				if (previous == -1 || Arrays.equals(keyOf(row), keyOf(decodeRow(rows.read(previous))))) {
+					table.put(fingerprint, position);
+				} else {
+					encode(keyOf(row));
+					collisions.put(copyEncoded(), position);
+				}
+			}
+
+			DataInputStream in = rows.openRecords();
+			try {
+				long position = 0;
+				for (long i = 0; i < rowCount; i++) {
+					byte[] record = RecordFile.readRecord(in);
+					String[] row = decodeRow(record);
+					Long last = null;
+					if (!collisions.isEmpty()) {
+						encode(keyOf(row));
+						last = collisions.get(ByteBuffer.wrap(bytes.buffer(), 0, bytes.size()));
+					}
+					if (last == null) {
+						last = table.get(ByteBuffer.wrap(record).getLong());
+					}
+					if (last == position) {
+						writer.writeRow(row);
+					}
+					position += 4 + record.length;
+				}
+			} finally {
+				in.close();
+			}
+			return rowCount - table.size() - collisions.size();
+		} finally {
+			rows.delete();
+		}
+	}
+
+	private static String[] decodeRow(byte[] record) throws IOException {
+		return ExternalSorter.readRow(new DataInputStream(new ByteArrayInputStream(record, 8, record.length - 8)));
+	}
+}
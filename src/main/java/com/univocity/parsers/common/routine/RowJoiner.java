@@ -0,0 +1,392 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Joins the rows of two inputs by the values of their key columns. The right input is loaded into a {@link JoinTable} and the
+ * rows of the left input are matched against it as they are parsed (hash join). If the right input doesn't fit in the memory
+ * budget, the rows loaded so far are stored in a temporary file and the left input is loaded into the table instead, so the table is
+ * built from the smaller input whenever one of them fits. The right rows are then matched against it, and left rows without
+ * a match are written at the end. If neither input fits, both are sorted by their keys with an {@link ExternalSorter} and then
+ * merged (sort-merge join).
+ *
+ * <p>Each joined row has the values of the left row followed by the values of the right row that are not part of its key.
+ * Rows with {@code null} in any key column never match.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractRoutines#join(Reader, Reader, Writer, JoinType, String[], String[])
+ */
+final class RowJoiner {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final JoinType joinType;
+	private final int[] leftKeys;
+	private final int[] rightKeys;
+	private final int leftWidth;
+	private int rightWidth;
+	private final long memoryBudget;
+	private final long sortMemoryBudget;
+	private final int sortThreads;
+	private final File temporaryDirectory;
+
+	/**
+	 * Creates a joiner.
+	 *
+	 * @param joinType           the type of join to perform
+	 * @param leftKeys           the positions of the key columns in the left rows
+	 * @param rightKeys          the positions of the key columns in the right rows
+	 * @param leftWidth          the number of columns of the left input, or {@code -1} if unknown.
+	 * @param rightWidth         the number of columns of the right input, or {@code -1} if unknown.
+	 * @param memoryBudget       the approximate number of bytes that can be used to hold the rows of either input in memory
+	 * @param sortMemoryBudget   the approximate number of bytes used to sort rows, if they don't fit the memory budget.
+	 * @param sortThreads        the number of threads used to sort rows.
+	 * @param temporaryDirectory the directory where sorted rows are stored.
+	 */
+	RowJoiner(JoinType joinType, int[] leftKeys, int[] rightKeys, int leftWidth, int rightWidth, long memoryBudget, long sortMemoryBudget, int sortThreads, File temporaryDirectory) {
+		this.joinType = joinType;
+		this.leftKeys = leftKeys;
+		this.rightKeys = rightKeys;
+		this.leftWidth = leftWidth;
+		this.rightWidth = Math.max(0, rightWidth - rightKeys.length);
+		this.memoryBudget = memoryBudget;
+		this.sortMemoryBudget = sortMemoryBudget;
+		this.sortThreads = sortThreads;
+		this.temporaryDirectory = temporaryDirectory;
+	}
+
+	/**
+	 * Moves the key values of a right row to the beginning of the row, followed by the other values.
+	 */
+	private String[] normalize(String[] row) {
+		String[] out = new String[rightKeys.length + Math.max(0, row.length - countKeysIn(row))];
+		for (int i = 0; i < rightKeys.length; i++) {
+			out[i] = rightKeys[i] < row.length ? row[rightKeys[i]] : null;
+		}
+		int position = rightKeys.length;
+		for (int i = 0; i < row.length; i++) {
+			if (!isRightKey(i)) {
+				out[position++] = row[i];
+			}
+		}
+		rightWidth = Math.max(rightWidth, position - rightKeys.length);
+		return out;
+	}
+
+	private int countKeysIn(String[] row) {
+		int out = 0;
+		for (int i = 0; i < rightKeys.length; i++) {
+			if (rightKeys[i] < row.length) {
+				out++;
+			}
+		}
+		return out;
+	}
+
+	private boolean isRightKey(int index) {
+		for (int i = 0; i < rightKeys.length; i++) {
+			if (rightKeys[i] == index) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasNullKey(String[] row, int[] keys) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] >= row.length || row[keys[i]] == null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Joins the rows produced by the given parsers, and writes the result to the given writer. Parsers and writer are closed at the end of the process.
+	 *
+	 * @param left       the parser of the left input. Parsing must have been started already.
+	 * @param firstLeft  the first row produced by the left parser, or {@code null} if there are no rows.
+	 * @param right      the parser of the right input. Parsing must have been started already.
+	 * @param firstRight the first row produced by the right parser, or {@code null} if there are no rows.
+	 * @param writer     the writer of the joined rows
+	 */
+	void join(AbstractParser<?> left, String[] firstLeft, AbstractParser<?> right, String[] firstRight, AbstractWriter<?> writer) {
+		ExternalSorter rightSorter = null;
+		ExternalSorter leftSorter = null;
+		File rightFile = null;
+		try {
+			JoinTable rightTable = new JoinTable(rightKeys.length);
+			String[] rightRow = firstRight;
+			while (rightRow != null && rightTable.getMemoryUsage() <= memoryBudget) {
+				if (!hasNullKey(rightRow, rightKeys)) {
+					rightTable.add(normalize(rightRow));
+				}
+				rightRow = right.parseNext();
+			}
+
+			if (rightRow == null) {
+				probeRightTable(rightTable, left, firstLeft, writer);
+				return;
+			}
+
+			//the right input doesn't fit in memory. Stores the rows loaded so far and tries to load the left input instead.
+			long storedRows = rightTable.getRowCount();
+			rightFile = storeRows(rightTable.rows());
+			rightTable = null;
+
+			JoinTable leftTable = new JoinTable(leftKeys.length);
+			String[] leftRow = firstLeft;
+			while (leftRow != null && leftTable.getMemoryUsage() <= memoryBudget) {
+				if (hasNullKey(leftRow, leftKeys)) {
+					writeUnmatched(leftRow, writer);
+				} else {
+					leftTable.add(withKeysFirst(leftRow));
+				}
+				leftRow = left.parseNext();
+			}
+
+			if (leftRow == null) {
+				probeLeftTable(leftTable, rightFile, storedRows, right, rightRow, writer);
+				return;
+			}
+
+			//neither input fits in memory: sorts both inputs and merges them.
+			rightSorter = newSorter(null);
+			DataInputStream in = openRows(rightFile);
+			try {
+				for (long i = 0; i < storedRows; i++) {
+					rightSorter.add(ExternalSorter.readRow(in));
+				}
+			} finally {
+				in.close();
+			}
+			for (; rightRow != null; rightRow = right.parseNext()) {
+				if (!hasNullKey(rightRow, rightKeys)) {
+					rightSorter.add(normalize(rightRow));
+				}
+			}
+
+			leftSorter = newSorter(leftKeys);
+			Iterator<String[]> loaded = leftTable.rows();
+			leftTable = null;
+			while (loaded.hasNext()) {
+				String[] row = loaded.next();
+				leftSorter.add(Arrays.copyOfRange(row, leftKeys.length, row.length));
+			}
+			for (; leftRow != null; leftRow = left.parseNext()) {
+				leftSorter.add(leftRow);
+			}
+			mergeJoin(leftSorter.sorted(), rightSorter.sorted(), writer);
+		} catch (IOException e) {
+			throw new IllegalStateException("Error storing rows in temporary file", e);
+		} finally {
+			left.stopParsing();
+			right.stopParsing();
+			if (rightSorter != null) {
+				rightSorter.close();
+			}
+			if (leftSorter != null) {
+				leftSorter.close();
+			}
+			if (rightFile != null) {
+				rightFile.delete();
+			}
+			writer.close();
+		}
+	}
+
+	/**
+	 * Hash join with the table built from the right input: each left row is matched against the table as it is parsed.
+	 */
+	private void probeRightTable(JoinTable table, AbstractParser<?> left, String[] firstLeft, AbstractWriter<?> writer) {
+		for (String[] row = firstLeft; row != null; row = left.parseNext()) {
+			int match = table.find(row, leftKeys);
+			if (match == -1) {
+				writeUnmatched(row, writer);
+			} else if (joinType != JoinType.ANTI) {
+				do {
+					String[] out = newOutputRow(row);
+					int offset = out.length - rightWidth;
+					int valueCount = table.getValueCount(match);
+					for (int i = 0; i < valueCount; i++) {
+						out[offset + i] = table.getValue(match, i);
+					}
+					writer.writeRow(out);
+					match = table.nextRow(match);
+				} while (match != -1);
+			}
+		}
+	}
+
+	/**
+	 * Hash join with the table built from the left input: the stored right rows, then the rest of the right input, are matched against
+	 * the table. Left rows that didn't match any right row are written at the end.
+	 */
+	private void probeLeftTable(JoinTable table, File rightFile, long storedRows, AbstractParser<?> right, String[] rightRow, AbstractWriter<?> writer) throws IOException {
+		BitSet matched = new BitSet();
+		DataInputStream in = openRows(rightFile);
+		try {
+			for (long i = 0; i < storedRows; i++) {
+				probe(table, ExternalSorter.readRow(in), matched, writer);
+			}
+		} finally {
+			in.close();
+		}
+		for (; rightRow != null; rightRow = right.parseNext()) {
+			if (!hasNullKey(rightRow, rightKeys)) {
+				probe(table, normalize(rightRow), matched, writer);
+			}
+		}
+
+		if (joinType != JoinType.INNER) {
+			for (int row = table.getRowCount() > 0 ? 0 : -1; row != -1; row = table.rowAfter(row)) {
+				if (!matched.get(row)) {
+					writeUnmatched(leftRowOf(table, row), writer);
+				}
+			}
+		}
+	}
+
+	private void probe(JoinTable table, String[] rightRow, BitSet matched, AbstractWriter<?> writer) {
+		for (int match = table.find(rightRow, null); match != -1; match = table.nextRow(match)) {
+			matched.set(match);
+			if (joinType != JoinType.ANTI) {
+				String[] out = newOutputRow(leftRowOf(table, match));
+				System.arraycopy(rightRow, rightKeys.length, out, out.length - rightWidth, rightRow.length - rightKeys.length);
+				writer.writeRow(out);
+			}
+		}
+	}
+
+	/**
+	 * Copies the key values of a left row to the beginning of a new row, followed by all values of the left row.
+	 */
+	private String[] withKeysFirst(String[] row) {
+		String[] out = new String[leftKeys.length + row.length];
+		for (int i = 0; i < leftKeys.length; i++) {
+			out[i] = row[leftKeys[i]];
+		}
+		System.arraycopy(row, 0, out, leftKeys.length, row.length);
+		return out;
+	}
+
+	private static String[] leftRowOf(JoinTable table, int row) {
+		String[] out = new String[table.getValueCount(row)];
+		for (int i = 0; i < out.length; i++) {
+			out[i] = table.getValue(row, i);
+		}
+		return out;
+	}
+
+	private File storeRows(Iterator<String[]> rows) throws IOException {
+		File file = File.createTempFile("univocity-join-", ".rows", temporaryDirectory);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+		try {
+			while (rows.hasNext()) {
+				ExternalSorter.writeRow(out, rows.next());
+			}
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private static DataInputStream openRows(File file) throws IOException {
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+	}
+
+	private ExternalSorter newSorter(int[] keyIndexes) {
+		SortKey[] keys = new SortKey[rightKeys.length];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = new SortKey(keyIndexes == null ? i : keyIndexes[i]);
+		}
+		return new ExternalSorter(keys, null, sortMemoryBudget, sortThreads, temporaryDirectory);
+	}
+
+	private int compare(String[] leftRow, String[] rightRow) {
+		for (int i = 0; i < leftKeys.length; i++) {
+			int out = leftRow[leftKeys[i]].compareTo(rightRow[i]);
+			if (out != 0) {
+				return out;
+			}
+		}
+		return 0;
+	}
+
+	private boolean sameKey(String[] leftRow, String[] previous) {
+		for (int i = 0; i < leftKeys.length; i++) {
+			if (!leftRow[leftKeys[i]].equals(previous[leftKeys[i]])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void mergeJoin(Iterator<String[]> lefts, Iterator<String[]> rights, AbstractWriter<?> writer) {
+		String[] right = rights.hasNext() ? rights.next() : null;
+		List<String[]> matches = new ArrayList<String[]>();
+		String[] previous = null;
+
+		while (lefts.hasNext()) {
+			String[] row = lefts.next();
+			if (hasNullKey(row, leftKeys)) {
+				writeUnmatched(row, writer);
+				continue;
+			}
+			if (previous == null || !sameKey(row, previous)) {
+				matches.clear();
+				while (right != null && compare(row, right) > 0) {
+					right = rights.hasNext() ? rights.next() : null;
+				}
+				while (right != null && compare(row, right) == 0) {
+					matches.add(right);
+					right = rights.hasNext() ? rights.next() : null;
+				}
+				previous = row;
+			}
+
+			if (matches.isEmpty()) {
+				writeUnmatched(row, writer);
+			} else if (joinType != JoinType.ANTI) {
+				for (String[] match : matches) {
+					String[] out = newOutputRow(row);
+					System.arraycopy(match, rightKeys.length, out, out.length - rightWidth, match.length - rightKeys.length);
+					writer.writeRow(out);
+				}
+			}
+		}
+	}
+
+	private String[] newOutputRow(String[] leftRow) {
+		int width = Math.max(leftWidth, leftRow.length);
+		String[] out = new String[width + rightWidth];
+		System.arraycopy(leftRow, 0, out, 0, leftRow.length);
+		return out;
+	}
+
+	private void writeUnmatched(String[] row, AbstractWriter<?> writer) {
+		if (joinType == JoinType.LEFT) {
+			writer.writeRow(newOutputRow(row));
+		} else if (joinType == JoinType.ANTI) {
+			writer.writeRow(row);
+		}
+	}
+}
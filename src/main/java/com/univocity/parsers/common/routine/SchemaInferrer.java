@@ -0,0 +1,558 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.text.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Infers the type of each column from the rows produced by a parser. The statistics collected for each column can be merged
+ * with the statistics collected from other rows, so separate parts of an input can be sampled in parallel.
+ *
+ * <p>Files in encodings such as UTF-8 and ISO-8859-1, where line separators are always represented by a single byte, are split into chunks
+ * that start at the beginning of a record, found by {@link RecordCounter#split(File, Charset, int, long)} using the line separator and quoting rules
+ * of the format. Each chunk is parsed by a separate parser, in a separate thread. Lines that precede the first record of the file, such as headers,
+ * are prepended to each chunk so all parsers handle their input in the same way.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractRoutines#inferSchema(File, Charset, int)
+ */
+final class SchemaInferrer {
+
+	private static final long MIN_CHUNK_SIZE = 4L * 1024L * 1024L;
+
+	/**
+	 * The maximum number of distinct values of an {@link ColumnType#ENUM} column.
+	 */
+	static final int ENUM_LIMIT = 20;
+
+	private static final String[] TRUE_VALUES = {"true", "yes", "y", "t"};
+	private static final String[] FALSE_VALUES = {"false", "no", "n", "f"};
+
+	private static final String[] DATE_PATTERNS = {
+			"yyyy-MM-dd",
+			"yyyy-MM-dd HH:mm:ss",
+			"yyyy-MM-dd'T'HH:mm:ss",
+			"yyyy-MM-dd HH:mm",
+			"yyyy/MM/dd",
+			"dd/MM/yyyy",
+			"MM/dd/yyyy",
+			"dd/MM/yyyy HH:mm:ss",
+			"MM/dd/yyyy HH:mm:ss",
+			"dd-MM-yyyy",
+			"MM-dd-yyyy",
+			"dd.MM.yyyy",
+			"dd-MMM-yyyy",
+			"dd MMM yyyy",
+	};
+
+	/**
+	 * The shape of values of each date pattern: {@code 9} for digits, {@code a} for letters, and the separators of the pattern.
+	 */
+	private static final String[] DATE_SHAPES = {
+			"9999-99-99",
+			"9999-99-99 99:99:99",
+			"9999-99-99T99:99:99",
+			"9999-99-99 99:99",
+			"9999/99/99",
+			"99/99/9999",
+			"99/99/9999",
+			"99/99/9999 99:99:99",
+			"99/99/9999 99:99:99",
+			"99-99-9999",
+			"99-99-9999",
+			"99.99.9999",
+			"99-aaa-9999",
+			"99 aaa 9999",
+	};
+
+	private static final int ALL_DATES = (1 << DATE_PATTERNS.length) - 1;
+
+	private final List<ColumnStats> columns = new ArrayList<ColumnStats>();
+	private long rowCount;
+
+	/**
+	 * Collects the statistics of the values of a row.
+	 *
+	 * @param row the row to sample
+	 */
+	void add(String[] row) {
+		rowCount++;
+		while (columns.size() < row.length) {
+			ColumnStats column = new ColumnStats();
+			column.nullCount = rowCount - 1;
+			columns.add(column);
+		}
+		for (int i = 0; i < columns.size(); i++) {
+			columns.get(i).add(i < row.length ? row[i] : null);
+		}
+	}
+
+	/**
+	 * Collects the statistics of the rows produced by a parser.
+	 *
+	 * @param parser  the parser that produces the rows. Parsing must have been started already.
+	 * @param first   the first row produced by the parser, or {@code null} if there are no rows.
+	 * @param maxRows the maximum number of rows to sample, or {@code 0} to sample all rows.
+	 */
+	void sample(AbstractParser<?> parser, String[] first, long maxRows) {
+		long count = 0;
+		for (String[] row = first; row != null && (maxRows <= 0 || count < maxRows); row = parser.parseNext()) {
+			add(row);
+			count++;
+		}
+	}
+
+	/**
+	 * Combines the statistics collected by another inferrer with the statistics of this inferrer.
+	 *
+	 * @param other the inferrer whose statistics will be merged into this one.
+	 */
+	void merge(SchemaInferrer other) {
+		while (columns.size() < other.columns.size()) {
+			ColumnStats column = new ColumnStats();
+			column.nullCount = rowCount;
+			columns.add(column);
+		}
+		for (int i = 0; i < columns.size(); i++) {
+			if (i < other.columns.size()) {
+				columns.get(i).merge(other.columns.get(i));
+			} else {
+				columns.get(i).nullCount += other.rowCount;
+			}
+		}
+		rowCount += other.rowCount;
+	}
+
+	/**
+	 * Builds the schema of the sampled rows.
+	 *
+	 * @param headers the headers of the input, if available.
+	 *
+	 * @return the inferred schema.
+	 */
+	InputSchema toSchema(String[] headers) {
+		int columnCount = Math.max(columns.size(), headers == null ? 0 : headers.length);
+		List<ColumnSchema> out = new ArrayList<ColumnSchema>(columnCount);
+		for (int i = 0; i < columnCount; i++) {
+			ColumnStats column;
+			if (i < columns.size()) {
+				column = columns.get(i);
+			} else {
+				column = new ColumnStats();
+				column.nullCount = rowCount;
+			}
+			String name = headers != null && i < headers.length ? headers[i] : null;
+			out.add(column.toSchema(i, name));
+		}
+		return new InputSchema(headers, out, rowCount);
+	}
+
+	/**
+	 * Tests whether a value is one of the words that represent {@code true}.
+	 *
+	 * @param value the value to test, in lower case.
+	 *
+	 * @return {@code true} if the value represents {@code true}, {@code false} otherwise.
+	 */
+	static boolean isTrue(String value) {
+		for (String word : TRUE_VALUES) {
+			if (word.equals(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the word that represents the opposite boolean value of a given word, e.g. "no" for "yes".
+	 *
+	 * @param value a word that represents {@code true} or {@code false}, in lower case.
+	 *
+	 * @return the opposite word.
+	 */
+	static String opposite(String value) {
+		for (int i = 0; i < TRUE_VALUES.length; i++) {
+			if (TRUE_VALUES[i].equals(value)) {
+				return FALSE_VALUES[i];
+			}
+			if (FALSE_VALUES[i].equals(value)) {
+				return TRUE_VALUES[i];
+			}
+		}
+		return null;
+	}
+
+	private static boolean isBoolean(String value) {
+		return opposite(value) != null;
+	}
+
+	/**
+	 * Returns the number of chunks a file should be split into, so each chunk can be sampled by a separate parser.
+	 *
+	 * @param file     the file to sample
+	 * @param encoding the encoding of the file
+	 * @param threads  the maximum number of threads used to sample the file.
+	 *
+	 * @return the number of chunks, which is {@code 1} if the file is small or its encoding doesn't allow it to be split.
+	 */
+	static int getChunkCount(File file, Charset encoding, int threads) {
+		int chunks = (int) Math.min(threads, file.length() / MIN_CHUNK_SIZE);
+		if (chunks <= 1 || !RecordCounter.isAsciiCompatible(encoding)) {
+			return 1;
+		}
+		return chunks;
+	}
+
+	/**
+	 * Infers the schema of a file, sampling each chunk of the file with a separate parser.
+	 *
+	 * @param file        the file to sample
+	 * @param encoding    the encoding of the file
+	 * @param sampleSize  the maximum number of rows to sample, or {@code 0} to sample all rows. Rows are sampled from the start of each chunk.
+	 * @param chunks      the position where each chunk of the file starts, followed by the size of the file, as given by
+	 *                    {@link RecordCounter#split(File, Charset, int, long)}.
+	 * @param firstRecord the position of the first record of the file, as given by {@link RecordCounter#findFirstRecord(File, Charset, long, boolean)}.
+	 *                    The bytes before this position are prepended to every chunk but the first.
+	 * @param parsers     one parser for each chunk of the file.
+	 *
+	 * @return the inferred schema.
+	 */
+	static InputSchema infer(final File file, final Charset encoding, int sampleSize, final long[] chunks, final long firstRecord, List<? extends AbstractParser<?>> parsers) {
+		final int chunkCount = chunks.length - 1;
+		final long rowsPerChunk = sampleSize <= 0 ? 0 : (sampleSize + chunkCount - 1) / chunkCount;
+
+		ExecutorService executor = null;
+		try {
+			final AbstractParser<?> firstParser = parsers.get(0);
+			firstParser.beginParsing(new InputStreamReader(new ChunkInputStream(file, 0, chunks[1]), encoding));
+			final String[] first = firstParser.parseNext();
+			String[] headers = firstParser.getContext().headers();
+			if (chunkCount == 1) {
+				SchemaInferrer inferrer = new SchemaInferrer();
+				inferrer.sample(firstParser, first, rowsPerChunk);
+				return inferrer.toSchema(headers);
+			}
+
+			executor = Executors.newFixedThreadPool(chunkCount, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "unVocity-parsers schema inference thread");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			List<Future<SchemaInferrer>> results = new ArrayList<Future<SchemaInferrer>>(chunkCount);
+			for (int i = 0; i < chunkCount; i++) {
+				final AbstractParser<?> parser = parsers.get(i);
+				final int chunk = i;
+				results.add(executor.submit(new Callable<SchemaInferrer>() {
+					@Override
+					public SchemaInferrer call() {
+						SchemaInferrer inferrer = new SchemaInferrer();
+						try {
+							String[] row = first;
+							if (chunk > 0) {
+								InputStream prefix = new ChunkInputStream(file, 0, firstRecord);
+								InputStream in = new ChunkInputStream(file, chunks[chunk], chunks[chunk + 1]);
+								parser.beginParsing(new InputStreamReader(new SequenceInputStream(prefix, in), encoding));
+								row = parser.parseNext();
+							}
+							inferrer.sample(parser, row, rowsPerChunk);
+						} finally {
+							parser.stopParsing();
+						}
+						return inferrer;
+					}
+				}));
+			}
+
+			SchemaInferrer out = new SchemaInferrer();
+			for (Future<SchemaInferrer> result : results) {
+				out.merge(result.get());
+			}
+			return out.toSchema(headers);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Error sampling file to infer its schema", cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Thread interrupted while inferring schema", e);
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+			for (AbstractParser<?> parser : parsers) {
+				parser.stopParsing();
+			}
+		}
+	}
+
+	/**
+	 * Reads the bytes of a file between a start (inclusive) and an end (exclusive) position.
+	 */
+	private static final class ChunkInputStream extends InputStream {
+		private final RandomAccessFile file;
+		private final long end;
+		private long position;
+
+		ChunkInputStream(File file, long start, long end) {
+			try {
+				this.file = new RandomAccessFile(file, "r");
+			} catch (FileNotFoundException e) {
+				throw new IllegalArgumentException("Unable to read file '" + file.getAbsolutePath() + "'", e);
+			}
+			this.end = end;
+			this.position = start;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			file.seek(position);
+			int read = file.read(b, off, (int) Math.min(len, end - position));
+			if (read <= 0) {
+				position = end;
+				return -1;
+			}
+			position += read;
+			return read;
+		}
+
+		@Override
+		public void close() throws IOException {
+			position = end;
+			file.close();
+		}
+	}
+
+	/**
+	 * The statistics of the values of a column.
+	 */
+	private static final class ColumnStats {
+		long valueCount;
+		long nullCount;
+		int minLength = Integer.MAX_VALUE;
+		int maxLength;
+
+		boolean numeric = true;
+		boolean integral = true;
+		boolean overflow;
+		int scale;
+		long minLong = Long.MAX_VALUE;
+		long maxLong = Long.MIN_VALUE;
+
+		Set<String> booleanValues = new TreeSet<String>();
+		int dateCandidates = ALL_DATES;
+		private SimpleDateFormat[] dateFormats;
+		Set<String> distinct = new HashSet<String>();
+
+		void add(String value) {
+			if (value == null || value.isEmpty()) {
+				nullCount++;
+				return;
+			}
+			valueCount++;
+			int length = value.length();
+			if (length < minLength) {
+				minLength = length;
+			}
+			if (length > maxLength) {
+				maxLength = length;
+			}
+
+			if (numeric) {
+				checkNumber(value);
+			}
+			if (booleanValues != null) {
+				String normalized = value.trim().toLowerCase();
+				if (isBoolean(normalized)) {
+					booleanValues.add(normalized);
+				} else {
+					booleanValues = null;
+				}
+			}
+			if (dateCandidates != 0) {
+				checkDate(value);
+			}
+			if (distinct != null) {
+				distinct.add(value);
+				if (distinct.size() > ENUM_LIMIT) {
+					distinct = null;
+				}
+			}
+		}
+
+		private void checkNumber(String value) {
+			int length = value.length();
+			int i = value.charAt(0) == '-' ? 1 : 0;
+			int start = i;
+			while (i < length && Character.isDigit(value.charAt(i))) {
+				i++;
+			}
+			int digits = i - start;
+			if (digits == 0 || (digits > 1 && value.charAt(start) == '0')) { // leading zeros are kept as text, e.g. codes such as "007"
+				numeric = false;
+				return;
+			}
+			if (i < length && value.charAt(i) == '.') {
+				int fractionStart = ++i;
+				while (i < length && Character.isDigit(value.charAt(i))) {
+					i++;
+				}
+				int fraction = i - fractionStart;
+				if (fraction == 0 || i != length) {
+					numeric = false;
+					return;
+				}
+				integral = false;
+				if (fraction > scale) {
+					scale = fraction;
+				}
+				return;
+			}
+			if (i != length) {
+				numeric = false;
+			} else if (digits > 18) {
+				overflow = true;
+			} else {
+				long number = Long.parseLong(value);
+				if (number < minLong) {
+					minLong = number;
+				}
+				if (number > maxLong) {
+					maxLong = number;
+				}
+			}
+		}
+
+		private void checkDate(String value) {
+			if (dateFormats == null) {
+				dateFormats = new SimpleDateFormat[DATE_PATTERNS.length];
+			}
+			for (int i = 0; i < DATE_PATTERNS.length; i++) {
+				int bit = 1 << i;
+				if ((dateCandidates & bit) != 0 && !isDate(i, value)) {
+					dateCandidates &= ~bit;
+				}
+			}
+		}
+
+		private boolean isDate(int pattern, String value) {
+			String shape = DATE_SHAPES[pattern];
+			if (shape.length() != value.length()) {
+				return false;
+			}
+			for (int i = 0; i < shape.length(); i++) {
+				char expected = shape.charAt(i);
+				char ch = value.charAt(i);
+				if (expected == '9' ? ch < '0' || ch > '9' : expected == 'a' ? !Character.isLetter(ch) : ch != expected) {
+					return false;
+				}
+			}
+			SimpleDateFormat format = dateFormats[pattern];
+			if (format == null) {
+				format = new SimpleDateFormat(DATE_PATTERNS[pattern], Locale.ENGLISH);
+				format.setLenient(false);
+				dateFormats[pattern] = format;
+			}
+			ParsePosition position = new ParsePosition(0);
+			return format.parse(value, position) != null && position.getIndex() == value.length();
+		}
+
+		void merge(ColumnStats other) {
+			valueCount += other.valueCount;
+			nullCount += other.nullCount;
+			minLength = Math.min(minLength, other.minLength);
+			maxLength = Math.max(maxLength, other.maxLength);
+
+			numeric &= other.numeric;
+			integral &= other.integral;
+			overflow |= other.overflow;
+			scale = Math.max(scale, other.scale);
+			minLong = Math.min(minLong, other.minLong);
+			maxLong = Math.max(maxLong, other.maxLong);
+
+			if (booleanValues != null && other.booleanValues != null) {
+				booleanValues.addAll(other.booleanValues);
+			} else {
+				booleanValues = null;
+			}
+			dateCandidates &= other.dateCandidates;
+			if (distinct != null && other.distinct != null) {
+				distinct.addAll(other.distinct);
+				if (distinct.size() > ENUM_LIMIT) {
+					distinct = null;
+				}
+			} else {
+				distinct = null;
+			}
+		}
+
+		ColumnSchema toSchema(int index, String name) {
+			ColumnType type = ColumnType.TEXT;
+			String datePattern = null;
+			List<String> values = null;
+
+			if (valueCount > 0) {
+				if (numeric && integral && !overflow) {
+					type = minLong >= Integer.MIN_VALUE && maxLong <= Integer.MAX_VALUE ? ColumnType.INTEGER : ColumnType.LONG;
+				} else if (numeric) {
+					type = ColumnType.DECIMAL;
+				} else if (booleanValues != null) {
+					type = ColumnType.BOOLEAN;
+					values = new ArrayList<String>();
+					for (String value : booleanValues) {
+						if (isTrue(value)) {
+							values.add(value);
+						}
+					}
+					for (String value : booleanValues) {
+						if (!isTrue(value)) {
+							values.add(value);
+						}
+					}
+				} else if (dateCandidates != 0) {
+					type = ColumnType.DATE;
+					datePattern = DATE_PATTERNS[Integer.numberOfTrailingZeros(dateCandidates)];
+				} else if (distinct != null && valueCount >= distinct.size() * 3L) {
+					type = ColumnType.ENUM;
+					values = new ArrayList<String>(distinct);
+					Collections.sort(values);
+				}
+			}
+
+			return new ColumnSchema(index, name, type, type == ColumnType.DECIMAL ? scale : 0, datePattern, valueCount, nullCount,
+					valueCount == 0 ? 0 : minLength, maxLength, values);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.conversions.*;
+
+import java.util.*;
+
+/**
+ * A column used to sort rows with {@link AbstractRoutines#sort(java.io.Reader, java.io.Writer, SortKey...)}.
+ *
+ * <p>Values are compared as {@code String}s by default. To sort numbers, dates or any other type in their natural order,
+ * provide a {@link Conversion} that produces {@link Comparable} values, for example:</p>
+ *
+ * <pre>{@code
+ * new SortKey("amount").convertWith(Conversions.toBigDecimal()).descending()
+ * }</pre>
+ *
+ * <p>{@code null} values come before any other value in ascending order.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see AbstractRoutines#sort(java.io.Reader, java.io.Writer, SortKey...)
+ */
+public final class SortKey {
+
+	private final String fieldName;
+	private final int fieldIndex;
+	private boolean descending;
+	private Conversion<String, ?> conversion;
+
+	/**
+	 * Creates a sort key on the column with the given name. Names are matched against the headers extracted from the input,
+	 * or the headers defined in the parser settings.
+	 *
+	 * @param fieldName the name of the column whose values will be used to sort the rows.
+	 */
+	public SortKey(String fieldName) {
+		if (fieldName == null || fieldName.trim().isEmpty()) {
+			throw new IllegalArgumentException("Field name cannot be null or empty");
+		}
+		this.fieldName = fieldName;
+		this.fieldIndex = -1;
+	}
+
+	/**
+	 * Creates a sort key on the column at the given position.
+	 *
+	 * @param fieldIndex the index of the column whose values will be used to sort the rows.
+	 */
+	public SortKey(int fieldIndex) {
+		if (fieldIndex < 0) {
+			throw new IllegalArgumentException("Field index cannot be negative");
+		}
+		this.fieldName = null;
+		this.fieldIndex = fieldIndex;
+	}
+
+	/**
+	 * Sorts the values of this column in descending order.
+	 *
+	 * @return this sort key, for convenience.
+	 */
+	public SortKey descending() {
+		this.descending = true;
+		return this;
+	}
+
+	/**
+	 * Defines a conversion to be applied to the values of this column before they are compared. The conversion must
+	 * produce {@link Comparable} values (or {@code null}).
+	 *
+	 * @param conversion the conversion to be applied to each value of this column.
+	 *
+	 * @return this sort key, for convenience.
+	 */
+	public SortKey convertWith(Conversion<String, ?> conversion) {
+		this.conversion = conversion;
+		return this;
+	}
+
+	/**
+	 * Returns the name of the column whose values are used to sort the rows, if defined.
+	 *
+	 * @return the column name, or {@code null} if this key was created with a column index.
+	 */
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	/**
+	 * Returns the position of the column whose values are used to sort the rows, if defined.
+	 *
+	 * @return the column index, or {@code -1} if this key was created with a column name.
+	 */
+	public int getFieldIndex() {
+		return fieldIndex;
+	}
+
+	/**
+	 * Indicates whether the values of this column are sorted in descending order.
+	 *
+	 * @return {@code true} for descending order, {@code false} for ascending order.
+	 */
+	public boolean isDescending() {
+		return descending;
+	}
+
+	int identifyIndex(String[] headers) {
+		if (fieldName == null) {
+			return fieldIndex;
+		}
+		if (headers == null) {
+			throw new IllegalStateException("Cannot sort rows by column name with no headers available. Enable header extraction or define the headers in the parser settings.");
+		}
+		int index = ArgumentUtils.indexOf(ArgumentUtils.normalize(headers), ArgumentUtils.normalize(fieldName));
+		if (index == -1) {
+			throw new IllegalArgumentException("Column '" + fieldName + "' used to sort rows not found. Available columns are: " + Arrays.toString(headers));
+		}
+		return index;
+	}
+
+	boolean isConverted() {
+		return conversion != null;
+	}
+
+	/**
+	 * Converts a value of this column into a key. Conversions are not required to be thread-safe, so they are never
+	 * executed by more than one thread at a time.
+	 *
+	 * @param value the value of this column in a row
+	 *
+	 * @return the key to be compared with the keys of other rows.
+	 */
+	synchronized Object keyOf(String value) {
+		if (conversion == null) {
+			return value;
+		}
+		return conversion.execute(value);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	int compare(Object k1, Object k2) {
+		int out;
+		if (k1 == k2) {
+			out = 0;
+		} else if (k1 == null) {
+			out = -1;
+		} else if (k2 == null) {
+			out = 1;
+		} else {
+			out = ((Comparable) k1).compareTo(k2);
+		}
+		return descending ? -out : out;
+	}
+
+	@Override
+	public String toString() {
+		return (fieldName == null ? "column " + fieldIndex : fieldName) + (descending ? " desc" : " asc");
+	}
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.conversions;
+
+import com.univocity.parsers.common.*;
+
+import java.util.*;
+
+/**
+ * A {@link Conversion} that memoizes the results produced by another conversion, so that repeated input values are
+ * converted only once. Useful for columns with a small number of distinct values, such as dates, currency codes or status flags.
+ *
+ * <p>Results are kept in a least-recently-used cache with a bounded number of entries. The {@link #revert(Object)} method is not cached.
+ *
+ * <p><strong>Important:</strong> the same result instance is returned for every occurrence of an input value, therefore this conversion must
+ * only be used with conversions that produce immutable objects (such as {@code String}, {@code BigDecimal}, {@code Integer} or enumerations).
+ * Mutable results such as {@code java.util.Date} would be shared among all records that contain the same input value.
+ *
+ * <p>Errors thrown by the wrapped conversion are never cached. This class is not thread-safe.
+ *
+ * @param <I> The input type to be converted to the output type O
+ * @param <O> The type of outputs produced by the wrapped conversion
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see Conversions#cache(Conversion)
+ * @see com.univocity.parsers.annotations.Cached
+ */
+public class CachedConversion<I, O> implements Conversion<I, O> {
+
+	/**
+	 * The default maximum number of results kept in the cache.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
+	private final Conversion<I, O> conversion;
+	private final int maxSize;
+	private final LinkedHashMap<I, O> cache;
+
+	private long hits;
+	private long misses;
+
+	/**
+	 * Creates a memoizing wrapper over the given conversion, keeping up to {@link #DEFAULT_CACHE_SIZE} results in memory.
+	 *
+	 * @param conversion the conversion whose results will be cached.
+	 */
+	public CachedConversion(Conversion<I, O> conversion) {
+		this(conversion, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Creates a memoizing wrapper over the given conversion.
+	 *
+	 * @param conversion the conversion whose results will be cached.
+	 * @param maxSize    the maximum number of results to keep in memory. Once the limit is reached, the least recently used result is discarded.
+	 */
+	public CachedConversion(Conversion<I, O> conversion, final int maxSize) {
+		if (conversion == null) {
+			throw new IllegalArgumentException("Conversion to cache must not be null");
+		}
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Maximum cache size must be positive");
+		}
+		this.conversion = conversion;
+		this.maxSize = maxSize;
+		this.cache = new LinkedHashMap<I, O>(Math.min(maxSize, 256), 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<I, O> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the result of the wrapped conversion for the given input, executing the conversion only if the result
+	 * is not already available in the cache.
+	 *
+	 * @param input the input to be converted
+	 *
+	 * @return the (possibly cached) result of the wrapped conversion.
+	 */
+	@Override
+	public O execute(I input) {
+		O out = cache.get(input);
+		if (out != null || (input == null ? cache.containsKey(null) : cache.containsKey(input))) {
+			hits++;
+			return out;
+		}
+
+		out = ArgumentUtils.executeConversion(conversion, input);
+		misses++;
+		cache.put(input, out);
+		return out;
+	}
+
+	/**
+	 * Reverts the given input using the wrapped conversion. Results are not cached.
+	 *
+	 * @param input the input to be reverted
+	 *
+	 * @return the result of {@link Conversion#revert(Object)} of the wrapped conversion.
+	 */
+	@Override
+	public I revert(O input) {
+		return conversion.revert(input);
+	}
+
+	/**
+	 * Returns the conversion whose results are cached by this class.
+	 *
+	 * @return the wrapped conversion
+	 */
+	public Conversion<I, O> getConversion() {
+		return conversion;
+	}
+
+	/**
+	 * Returns the maximum number of results kept in the cache.
+	 *
+	 * @return the maximum cache size.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the number of results currently in the cache.
+	 *
+	 * @return the current cache size.
+	 */
+	public int getSize() {
+		return cache.size();
+	}
+
+	/**
+	 * Returns the number of conversions served from the cache.
+	 *
+	 * @return the number of cache hits.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of conversions that had to be executed by the wrapped conversion.
+	 *
+	 * @return the number of cache misses.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the ratio of conversions served from the cache, between {@code 0.0} and {@code 1.0}.
+	 *
+	 * @return the cache hit ratio, or {@code 0.0} if no conversions were executed.
+	 */
+	public double getHitRatio() {
+		long total = hits + misses;
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+
+	/**
+	 * Discards all cached results and resets the hit and miss counters.
+	 */
+	public void clear() {
+		cache.clear();
+		hits = 0;
+		misses = 0;
+	}
+}
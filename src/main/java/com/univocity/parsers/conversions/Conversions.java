@@ -461,4 +461,33 @@ public class Conversions {
 	public static <T extends Enum<T>> EnumConversion<T> toEnum(Class<T> enumType, T valueIfStringIsNull, String valueIfEnumIsNull, String customEnumElement, EnumSelector... selectors) {
 		return new EnumConversion<T>(enumType, valueIfStringIsNull, valueIfEnumIsNull, customEnumElement, selectors);
 	}
+
+	/**
+	 * Returns a new instance of {@link CachedConversion}, which memoizes the results of the given conversion.
+	 * Only use it with conversions that produce immutable results.
+	 *
+	 * @param <I>        the input type of the conversion
+	 * @param <O>        the output type of the conversion
+	 * @param conversion the conversion whose results should be cached
+	 *
+	 * @return new instance of {@link CachedConversion} with up to {@link CachedConversion#DEFAULT_CACHE_SIZE} cached results.
+	 */
+	public static <I, O> CachedConversion<I, O> cache(Conversion<I, O> conversion) {
+		return new CachedConversion<I, O>(conversion);
+	}
+
+	/**
+	 * Returns a new instance of {@link CachedConversion}, which memoizes the results of the given conversion.
+	 * Only use it with conversions that produce immutable results.
+	 *
+	 * @param <I>        the input type of the conversion
+	 * @param <O>        the output type of the conversion
+	 * @param conversion the conversion whose results should be cached
+	 * @param maxSize    the maximum number of results to keep in the cache
+	 *
+	 * @return new instance of {@link CachedConversion}
+	 */
+	public static <I, O> CachedConversion<I, O> cache(Conversion<I, O> conversion, int maxSize) {
+		return new CachedConversion<I, O>(conversion, maxSize);
+	}
 }
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.conversions;
+
+import java.math.*;
+import java.text.*;
+
+/**
+ * Parses numbers directly from the characters of a String, producing the same result {@link DecimalFormat#parse(String, ParsePosition)}
+ * would produce for the common numeric patterns: plain integers, numbers with a fixed or variable number of decimal places, grouping
+ * separators and locale-specific decimal separators.
+ *
+ * <p>Only inputs that match the simple form {@code [-]digits[grouping digits]*[decimal digits]} entirely are handled. For anything else,
+ * {@link #parse(String)} returns {@code null} and the caller is expected to fall back to the {@link DecimalFormat} itself.
+ * Formats with prefixes, suffixes, multipliers (such as percentages), exponents or non-ASCII digits are not supported, and
+ * {@link #compile(DecimalFormat)} will return {@code null} for them.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ * @see NumericConversion
+ */
+final class DecimalParser {
+
+	private static final int MAX_LONG_DIGITS = 18;
+
+	private final char decimalSeparator;
+	private final char groupingSeparator;
+	private final char minusSign;
+	private final boolean groupingUsed;
+	private final boolean parseBigDecimal;
+
+	private char[] digits = new char[32];
+
+	private DecimalParser(DecimalFormat format) {
+		DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+		this.decimalSeparator = symbols.getDecimalSeparator();
+		this.groupingSeparator = symbols.getGroupingSeparator();
+		this.minusSign = symbols.getMinusSign();
+		this.groupingUsed = format.isGroupingUsed();
+		this.parseBigDecimal = format.isParseBigDecimal();
+	}
+
+	/**
+	 * Creates a parser for each one of the given formatters.
+	 *
+	 * @param formats the formatters whose behavior should be reproduced
+	 *
+	 * @return an array with a parser for each formatter. Elements will be {@code null} for formatters that can't be handled.
+	 */
+	static DecimalParser[] compile(DecimalFormat[] formats) {
+		DecimalParser[] out = new DecimalParser[formats.length];
+		for (int i = 0; i < formats.length; i++) {
+			out[i] = compile(formats[i]);
+		}
+		return out;
+	}
+
+	/**
+	 * Creates a parser that reproduces the behavior of a {@link DecimalFormat} when parsing simple numeric values.
+	 *
+	 * @param format the formatter whose behavior should be reproduced
+	 *
+	 * @return a parser for the given format, or {@code null} if the format has features not supported by this class.
+	 */
+	static DecimalParser compile(DecimalFormat format) {
+		if (format == null || format.getMultiplier() != 1 || format.isParseIntegerOnly()) {
+			return null;
+		}
+		DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+		if (symbols.getZeroDigit() != '0' || format.toPattern().indexOf('E') != -1) {
+			return null;
+		}
+		if (!format.getPositivePrefix().isEmpty() || !format.getPositiveSuffix().isEmpty() || !format.getNegativeSuffix().isEmpty()) {
+			return null;
+		}
+		if (!format.getNegativePrefix().equals(String.valueOf(symbols.getMinusSign()))) {
+			return null;
+		}
+
+		char decimal = symbols.getDecimalSeparator();
+		char grouping = symbols.getGroupingSeparator();
+		char minus = symbols.getMinusSign();
+		if (isDigit(decimal) || isDigit(grouping) || isDigit(minus) || decimal == grouping || decimal == minus || grouping == minus) {
+			return null;
+		}
+		return new DecimalParser(format);
+	}
+
+	private static boolean isDigit(char ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+	/**
+	 * Parses the given input.
+	 *
+	 * @param input the String to be parsed
+	 *
+	 * @return the number represented by the input: a {@link BigDecimal} if the original format is configured to parse BigDecimals,
+	 * otherwise a {@link Long} or {@link Double}. Returns {@code null} if the input is not a simple number that can be parsed by this class.
+	 */
+	Number parse(String input) {
+		final int length = input.length();
+		if (length == 0) {
+			return null;
+		}
+
+		if (digits.length < length + 1) {
+			digits = new char[length + 1];
+		}
+
+		int i = 0;
+		boolean negative = false;
+		if (input.charAt(0) == minusSign) {
+			negative = true;
+			digits[0] = '-';
+			i = 1;
+		}
+
+		int count = i;
+		int integerEnd = -1;
+		int integerDigits = 0;
+		int fractionDigits = 0;
+		int significantDigits = 0;
+		int integerSignificantDigits = 0;
+		boolean fractionIsZero = true;
+		boolean inFraction = false;
+		long unscaled = 0;
+		long integerValue = 0;
+
+		for (; i < length; i++) {
+			char ch = input.charAt(i);
+			if (ch >= '0' && ch <= '9') {
+				digits[count++] = ch;
+				if (significantDigits > 0 || ch != '0') {
+					significantDigits++;
+					if (significantDigits <= MAX_LONG_DIGITS) {
+						unscaled = unscaled * 10 + (ch - '0');
+					}
+				}
+				if (inFraction) {
+					fractionDigits++;
+					if (ch != '0') {
+						fractionIsZero = false;
+					}
+				} else {
+					integerDigits++;
+					if (integerSignificantDigits > 0 || ch != '0') {
+						integerSignificantDigits++;
+						if (integerSignificantDigits <= MAX_LONG_DIGITS) {
+							integerValue = integerValue * 10 + (ch - '0');
+						}
+					}
+				}
+			} else if (ch == groupingSeparator && groupingUsed && !inFraction) {
+				if (integerDigits == 0 || i + 1 == length || !isDigit(input.charAt(i + 1))) {
+					return null;
+				}
+			} else if (ch == decimalSeparator && !inFraction) {
+				if (integerDigits == 0 || i + 1 == length || !isDigit(input.charAt(i + 1))) {
+					return null;
+				}
+				inFraction = true;
+				integerEnd = count;
+				digits[count++] = '.';
+			} else {
+				return null;
+			}
+		}
+
+		if (integerDigits == 0) {
+			return null;
+		}
+
+		if (parseBigDecimal) {
+			if (significantDigits <= MAX_LONG_DIGITS) {
+				return BigDecimal.valueOf(negative ? -unscaled : unscaled, fractionDigits);
+			}
+			return new BigDecimal(digits, 0, count);
+		}
+
+		if (fractionIsZero) {
+			if (integerSignificantDigits == 0) {
+				return negative ? (Number) (-0.0) : (Number) 0L;
+			}
+			if (integerSignificantDigits <= MAX_LONG_DIGITS) {
+				return negative ? -integerValue : integerValue;
+			}
+			if (integerSignificantDigits == MAX_LONG_DIGITS + 1) {
+				try {
+					return Long.parseLong(new String(digits, 0, integerEnd == -1 ? count : integerEnd));
+				} catch (NumberFormatException ex) {
+					//overflow, produces a double.
+				}
+			}
+		}
+		return Double.parseDouble(new String(digits, 0, count));
+	}
+}
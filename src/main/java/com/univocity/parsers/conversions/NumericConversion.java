@@ -42,6 +42,7 @@ public abstract class NumericConversion<T extends Number> extends ObjectConversi
 	private String[] formats = new String[0];
 	private final ParsePosition position = new ParsePosition(0);
 	private Class<? extends Number> numberType = Number.class;
+	private DecimalParser[] parsers;
 
 	/**
 	 * Defines a conversion from String to {@link java.lang.Number} using a sequence of acceptable numeric patterns.
@@ -142,6 +143,7 @@ public abstract class NumericConversion<T extends Number> extends ObjectConversi
 
 	@Override
 	public DecimalFormat[] getFormatterObjects() {
+		parsers = null; //formatters might be modified externally
 		return formatters;
 	}
 
@@ -155,6 +157,8 @@ public abstract class NumericConversion<T extends Number> extends ObjectConversi
 	/**
 	 * Converts a formatted numeric String to an instance of Number.
 	 * <p>The pattern in the formatted input must match one of the numeric patterns provided in the constructor of this class.
+	 * <p>Simple numeric values (digits with optional minus sign, grouping and decimal separators) are parsed directly from the input characters,
+	 * without going through {@link DecimalFormat}, which is only used for more elaborate patterns and inputs.
 	 *
 	 * @param input the String containing a formatted number which must be converted to a number
 	 *
@@ -163,9 +167,17 @@ public abstract class NumericConversion<T extends Number> extends ObjectConversi
 	@SuppressWarnings("unchecked")
 	@Override
 	protected T fromString(String input) {
+		if (parsers == null) {
+			parsers = DecimalParser.compile(formatters);
+		}
 		for (int i = 0; i < formatters.length; i++) {
-			position.setIndex(0);
-			T out = (T) formatters[i].parse(input, position);
+			T out = parsers[i] == null ? null : (T) parsers[i].parse(input);
+			if (out == null) {
+				position.setIndex(0);
+				out = (T) formatters[i].parse(input, position);
+			} else {
+				position.setIndex(input.length());
+			}
 			if (formatters.length == 1 || position.getIndex() == input.length()) {
 				if (out == null || numberType == Number.class) {
 					return out;
@@ -242,5 +254,6 @@ public abstract class NumericConversion<T extends Number> extends ObjectConversi
 
 		formats[formats.length - 1] = format;
 		formatters[formatters.length - 1] = formatter;
+		parsers = null;
 	}
 }
@@ -17,25 +17,55 @@ package com.univocity.parsers.csv;
 
 import com.univocity.parsers.common.input.*;
 
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
 import java.util.*;
-import java.util.Map.*;
 
 /**
  * An {@link InputAnalysisProcess} to detect column delimiters, quotes and quote escapes in a CSV input.
  *
+ * <p>Besides the first buffer of the input, multiple regions of a file can be sampled with {@link #sample(File, Charset, int, int)}. Rows are collected
+ * from each region, up to the maximum number of row samples per region, so the detection runs in bounded time regardless of the size of the input.
+ * Symbols are counted in primitive arrays, indexed by a slot assigned to each distinct character found.</p>
+ *
  * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
  *
  */
 abstract class CsvFormatDetector implements InputAnalysisProcess {
 
+	/**
+	 * Symbols preferred as delimiters when more than one symbol occurs consistently in all rows. The comma comes last as it is also
+	 * commonly used as a decimal separator. Other symbols come after these, in character order.
+	 */
+	private static final String DELIMITER_PREFERENCE = "\t;|,";
+
 	private final int MAX_ROW_SAMPLES;
 	private final char comment;
 	private final char suggestedDelimiter;
 	private final char normalizedNewLine;
 
+	private int[] slots;
+	private char[] symbols;
+	private boolean[] rowSymbols;
+	private int[] escapes;
+	private int[] counts;
+	private int symbolCount;
+
+	private int[][] rows;
+	private int rowCount;
+
+	private int doubleQuoteCount;
+	private int singleQuoteCount;
+
+	private int crlfCount;
+	private int lfCount;
+	private int crCount;
+
 	/**
 	 * Builds a new {@code CsvFormatDetector}
-	 * @param maxRowSamples the number of row samples to collect before analyzing the statistics
+	 * @param maxRowSamples the number of row samples to collect before analyzing the statistics. When multiple regions of the input are sampled,
+	 *                      this is the number of rows collected from each region.
 	 * @param settings the configuration provided by the user with potential defaults in case the detection is unable to discover the proper column delimiter or quote character.
 	 */
 	CsvFormatDetector(int maxRowSamples, CsvParserSettings settings) {
@@ -47,26 +77,134 @@ abstract class CsvFormatDetector implements InputAnalysisProcess {
 
 	@Override
 	public void execute(char[] characters, int length) {
+		reset();
+		sample(characters, 0, length, true);
+		analyze();
+	}
 
-		Set<Character> allSymbols = new HashSet<Character>();
-		Map<Character, Integer> symbols = new HashMap<Character, Integer>();
-		Map<Character, Integer> escape = new HashMap<Character, Integer>();
-		List<Map<Character, Integer>> symbolsPerRow = new ArrayList<Map<Character, Integer>>();
+	/**
+	 * Samples regions of a file evenly distributed over its length, always including its start and end, and applies the detected format.
+	 * Files smaller than the total size of all regions are sampled entirely as a single region.
+	 *
+	 * @param file       the file to sample
+	 * @param encoding   the encoding of the file
+	 * @param regions    the number of regions to sample
+	 * @param regionSize the number of bytes read from each region
+	 *
+	 * @throws IOException if the file can't be read
+	 */
+	final void sample(File file, Charset encoding, int regions, int regionSize) throws IOException {
+		reset();
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			long size = in.length();
+			if (size <= (long) regions * regionSize || regions == 1) {
+				regions = 1;
+				regionSize = (int) Math.min(size, regionSize);
+			}
+
+			byte[] bytes = new byte[regionSize];
+			CharsetDecoder decoder = encoding.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+			for (int region = 0; region < regions; region++) {
+				long position = region == 0 ? 0 : (size - regionSize) * region / (regions - 1);
+				position -= position % 4; // keeps multi-byte encodings such as UTF-16 aligned
+				int length = (int) Math.min(regionSize, size - position);
+
+				in.seek(position);
+				in.readFully(bytes, 0, length);
+
+				decoder.reset();
+				CharBuffer chars = decoder.decode(ByteBuffer.wrap(bytes, 0, length));
+				sample(chars.array(), chars.arrayOffset() + chars.position(), chars.arrayOffset() + chars.limit(), region == 0);
+			}
+		} finally {
+			in.close();
+		}
+		analyze();
+	}
+
+	private void reset() {
+		if (slots == null) {
+			slots = new int[Character.MAX_VALUE + 1];
+		} else {
+			for (int i = 0; i < symbolCount; i++) {
+				slots[symbols[i]] = 0;
+			}
+		}
+		symbols = new char[32];
+		rowSymbols = new boolean[32];
+		escapes = new int[32];
+		counts = new int[32];
+		symbolCount = 0;
+
+		rows = new int[MAX_ROW_SAMPLES][];
+		rowCount = 0;
+
+		doubleQuoteCount = 0;
+		singleQuoteCount = 0;
+		crlfCount = 0;
+		lfCount = 0;
+		crCount = 0;
+	}
+
+	/**
+	 * Returns the slot of a symbol in the arrays of counts, assigning a new slot if the symbol has not been found before.
+	 * @param symbol the symbol whose slot will be returned
+	 * @return the position of the symbol in the arrays of counts.
+	 */
+	private int slotOf(char symbol) {
+		int slot = slots[symbol] - 1;
+		if (slot == -1) {
+			if (symbolCount == symbols.length) {
+				int length = symbolCount * 2;
+				symbols = Arrays.copyOf(symbols, length);
+				rowSymbols = Arrays.copyOf(rowSymbols, length);
+				escapes = Arrays.copyOf(escapes, length);
+				counts = Arrays.copyOf(counts, length);
+			}
+			slot = symbolCount++;
+			symbols[slot] = symbol;
+			slots[symbol] = slot + 1;
+		}
+		return slot;
+	}
+
+	private boolean isNewLine(char ch) {
+		return ch == '\r' || ch == '\n' || ch == normalizedNewLine;
+	}
+
+	/**
+	 * Collects row samples from a region of the input.
+	 * @param characters the characters of the region
+	 * @param from the position of the first character of the region
+	 * @param to the position after the last character of the region
+	 * @param inputStart flag indicating whether the region is at the beginning of the input. If not, the region is sampled from its first new line.
+	 */
+	private void sample(char[] characters, int from, int to, boolean inputStart) {
+		int i = from;
+		if (!inputStart) {
+			while (i < to && !isNewLine(characters[i])) {
+				i++;
+			}
+		}
 
-		int doubleQuoteCount = 0;
-		int singleQuoteCount = 0;
+		int firstRow = rowCount;
+		int maxRows = rowCount + MAX_ROW_SAMPLES;
+		if (maxRows > rows.length) {
+			rows = Arrays.copyOf(rows, maxRows);
+		}
 
-		int i;
 		char inQuote = '\0';
 		boolean afterNewLine = true;
-		for (i = 0; i < length; i++) {
+		boolean rowHasSymbols = false;
+		for (; i < to; i++) {
 
 			char ch = characters[i];
 
 			if (afterNewLine && ch == comment) {
-				while (++i < length) {
+				while (++i < to) {
 					ch = characters[i];
-					if (ch == '\r' || ch == '\n' || ch == normalizedNewLine) {
+					if (isNewLine(ch)) {
 						break;
 					}
 				}
@@ -81,13 +219,13 @@ abstract class CsvFormatDetector implements InputAnalysisProcess {
 						singleQuoteCount++;
 					}
 
-					if (i + 1 < length) {
+					if (i + 1 < to) {
 						char next = characters[i + 1];
 						if (Character.isLetterOrDigit(next) || next <= ' ') { //no special characters after quote, might be escaping
 							//special character before (potentially) closing quote, might be an escape
 							char prev = characters[i - 1];
 							if (!Character.isLetterOrDigit(prev)) {
-								increment(escape, prev);
+								escapes[slotOf(prev)]++;
 							}
 						}
 					}
@@ -106,116 +244,133 @@ abstract class CsvFormatDetector implements InputAnalysisProcess {
 			afterNewLine = false;
 
 			if (!Character.isLetterOrDigit(ch) && (ch == '\t' || ch > ' ')) { //counts all symbols. Skips letters, digits and white spaces (except the tab character)
-				allSymbols.add(ch);
-				increment(symbols, ch);
-			} else if ((ch == '\r' || ch == '\n' || ch == normalizedNewLine) && symbols.size() > 0) { //got a newline and collected some symbols? Good!
-				afterNewLine = true;
-				symbolsPerRow.add(symbols);
-				if (symbolsPerRow.size() == MAX_ROW_SAMPLES) {
-					break;
+				int slot = slotOf(ch);
+				rowSymbols[slot] = true;
+				counts[slot]++;
+				rowHasSymbols = true;
+			} else if (isNewLine(ch)) {
+				if (ch == '\r') {
+					if (i + 1 < to && characters[i + 1] == '\n') {
+						crlfCount++;
+					} else {
+						crCount++;
+					}
+				} else if (ch == '\n' && (i == from || characters[i - 1] != '\r')) {
+					lfCount++;
+				}
+
+				if (rowHasSymbols) { //got a newline and collected some symbols? Good!
+					afterNewLine = true;
+					rowHasSymbols = false;
+					rows[rowCount++] = Arrays.copyOf(counts, symbolCount);
+					Arrays.fill(counts, 0, symbolCount, 0);
+					if (rowCount == maxRows) {
+						break;
+					}
 				}
-				symbols = new HashMap<Character, Integer>();
 			}
 		}
+		Arrays.fill(counts, 0, symbolCount, 0);
 
-		if (i >= length && symbolsPerRow.size() > 1) { // if got to the end of the buffer, discard last row. It's probably incomplete anyway.
-			symbolsPerRow.remove(symbolsPerRow.size() - 1);
+		if (i >= to && rowCount - firstRow > 1) { // if got to the end of the region, discard last row. It's probably incomplete anyway.
+			rows[--rowCount] = null;
 		}
+	}
 
-		Map<Character, Integer> sums = new HashMap<Character, Integer>();
-		Set<Character> toRemove = new HashSet<Character>();
+	/**
+	 * Analyzes the collected row samples and applies the detected format.
+	 */
+	private void analyze() {
+		int[] sums = new int[symbolCount];
+		boolean[] summed = new boolean[symbolCount];
+		boolean[] removed = new boolean[symbolCount];
 
 		//combines the number of symbols found in each row and sums the difference.
-		for (Map<Character, Integer> previous : symbolsPerRow) {
-			for (Map<Character, Integer> current : symbolsPerRow) {
-				for (Character symbol : allSymbols) {
-					Integer previousCount = previous.get(symbol);
-					Integer currentCount = current.get(symbol);
-
-					if (previousCount == null && currentCount == null) { // got a symbol that does not appear in all rows? Discard it.
-						toRemove.add(symbol);
+		for (int p = 0; p < rowCount; p++) {
+			int[] previous = rows[p];
+			for (int c = 0; c < rowCount; c++) {
+				int[] current = rows[c];
+				for (int symbol = 0; symbol < symbolCount; symbol++) {
+					if (!rowSymbols[symbol]) {
+						continue;
 					}
+					int previousCount = symbol < previous.length ? previous[symbol] : 0;
+					int currentCount = symbol < current.length ? current[symbol] : 0;
 
-					if (previousCount == null || currentCount == null) {
+					if (previousCount == 0 && currentCount == 0) { // got a symbol that does not appear in all rows? Discard it.
+						removed[symbol] = true;
+					}
+
+					if (previousCount == 0 || currentCount == 0) {
 						continue;
 					}
 
-					increment(sums, symbol, Math.abs(previousCount - currentCount)); // we expect to always get 0 or close to 0 here, so the symbol occurs in all rows
+					summed[symbol] = true;
+					sums[symbol] += Math.abs(previousCount - currentCount); // we expect to always get 0 or close to 0 here, so the symbol occurs in all rows
 				}
 			}
 		}
 
-		sums.keySet().removeAll(toRemove);
+		char delimiter = suggestedDelimiter;
+		int min = Integer.MAX_VALUE;
+		for (int symbol = 0; symbol < symbolCount; symbol++) {
+			if (summed[symbol] && !removed[symbol]) {
+				int sum = sums[symbol];
+				if (sum < min || (sum == min && isPreferred(symbols[symbol], delimiter))) {
+					min = sum;
+					delimiter = symbols[symbol];
+				}
+			}
+		}
 
-		char delimiter = min(sums, suggestedDelimiter);
 		char quote = doubleQuoteCount >= singleQuoteCount ? '"' : '\'';
 
-		escape.remove(delimiter);
-		char quoteEscape = max(escape, quote);
-		apply(delimiter, quote, quoteEscape);
-	}
-
-	/**
-	 * Increments the number associated with a character in a map by 1
-	 * @param map the map of characters and their numbers
-	 * @param symbol the character whose number should be increment
-	 */
-	private static void increment(Map<Character, Integer> map, char symbol) {
-		increment(map, symbol, 1);
-	}
-
-	/**
-	 * Increments the number associated with a character in a map
-	 * @param map the map of characters and their numbers
-	 * @param symbol the character whose number should be increment
-	 * @param incrementSize the size of the increment
-	 */
-	private static void increment(Map<Character, Integer> map, char symbol, int incrementSize) {
-		Integer count = map.get(symbol);
-		if (count == null) {
-			count = 0;
+		char quoteEscape = quote;
+		int max = Integer.MIN_VALUE;
+		for (int symbol = 0; symbol < symbolCount; symbol++) {
+			char ch = symbols[symbol];
+			if (escapes[symbol] > 0 && ch != delimiter) {
+				int count = escapes[symbol];
+				if (count > max || (count == max && ch < quoteEscape)) {
+					max = count;
+					quoteEscape = ch;
+				}
+			}
 		}
-		map.put(symbol, count + incrementSize);
-	}
 
-	/**
-	 * Returns the character with the lowest associated number.
-	 * @param map the map of characters and their numbers
-	 * @param defaultChar the default character to return in case the map is empty
-	 * @return the character with the lowest number associated.
-	 */
-	private static char min(Map<Character, Integer> map, char defaultChar) {
-		return getChar(map, defaultChar, true);
+		apply(delimiter, quote, quoteEscape);
 	}
 
 	/**
-	 * Returns the character with the highest associated number.
-	 * @param map the map of characters and their numbers
-	 * @param defaultChar the default character to return in case the map is empty
-	 * @return the character with the highest number associated.
+	 * Tests whether a symbol should be chosen as the delimiter instead of another, when both occur consistently in all rows.
+	 * @param symbol the candidate symbol
+	 * @param current the symbol currently chosen
+	 * @return {@code true} if the candidate symbol is preferred.
 	 */
-	private static char max(Map<Character, Integer> map, char defaultChar) {
-		return getChar(map, defaultChar, false);
+	private static boolean isPreferred(char symbol, char current) {
+		int symbolRank = DELIMITER_PREFERENCE.indexOf(symbol);
+		int currentRank = DELIMITER_PREFERENCE.indexOf(current);
+		if (symbolRank == -1 || currentRank == -1) {
+			return symbolRank != currentRank ? symbolRank != -1 : symbol < current;
+		}
+		return symbolRank < currentRank;
 	}
 
 	/**
-	 * Returns the character with the highest or lowest associated number.
-	 * @param map the map of characters and their numbers
-	 * @param defaultChar the default character to return in case the map is empty
-	 * @param min a flag indicating whether to return the character associated with the lowest number in the map.
-	 * 		If {@code false} then the character associated with the highest number found will be returned.
-	 * @return the character with the highest/lowest number associated.
+	 * Returns the line separator used in most rows sampled by the last detection process.
+	 * @return the detected line separator, or {@code null} if no line separator was found.
 	 */
-	private static char getChar(Map<Character, Integer> map, char defaultChar, boolean min) {
-		int val = min ? Integer.MAX_VALUE : Integer.MIN_VALUE;
-		for (Entry<Character, Integer> e : map.entrySet()) {
-			int sum = e.getValue();
-			if ((min && sum < val) || (!min && sum > val)) {
-				val = sum;
-				defaultChar = e.getKey();
-			}
+	final char[] getDetectedLineSeparator() {
+		if (crlfCount > 0 && crlfCount >= lfCount && crlfCount >= crCount) {
+			return new char[]{'\r', '\n'};
+		}
+		if (lfCount > 0 && lfCount >= crCount) {
+			return new char[]{'\n'};
+		}
+		if (crCount > 0) {
+			return new char[]{'\r'};
 		}
-		return defaultChar;
+		return null;
 	}
 
 	/**
@@ -19,6 +19,7 @@ package com.univocity.parsers.csv;
 import com.univocity.parsers.common.routine.*;
 
 import java.io.*;
+import java.nio.charset.*;
 
 /**
  * A collection of common routines involving the processing of CSV data.
@@ -70,6 +71,75 @@ public class CsvRoutines extends AbstractRoutines<CsvParserSettings, CsvWriterSe
 		return new CsvWriter(output, writerSettings);
 	}
 
+	/**
+	 * Detects the format of a CSV file by sampling its start, middle and end.
+	 *
+	 * @param input    the file whose format will be detected
+	 * @param encoding the encoding of the file
+	 *
+	 * @return the detected format.
+	 *
+	 * @see #detectFormat(File, Charset, int)
+	 */
+	public final CsvFormat detectFormat(File input, Charset encoding) {
+		return detectFormat(input, encoding, 3);
+	}
+
+	/**
+	 * Detects the column delimiter, quote, quote escape and line separator of a CSV file by sampling regions evenly distributed
+	 * over its length, always including its start and end.
+	 *
+	 * <p>Each region has the size given by {@link CsvParserSettings#getInputBufferSize()}, and up to 20 rows are analyzed from each region,
+	 * so the time taken to detect the format doesn't depend on the size of the file. Files smaller than the total size of all regions are
+	 * analyzed entirely. Characters of the format that can't be detected are copied from the format of the {@link #getParserSettings()}.</p>
+	 *
+	 * @param input    the file whose format will be detected
+	 * @param encoding the encoding of the file
+	 * @param regions  the number of regions to sample
+	 *
+	 * @return the detected format.
+	 */
+	public final CsvFormat detectFormat(File input, Charset encoding, int regions) {
+		if (input == null) {
+			throw new IllegalArgumentException("Input file cannot be null");
+		}
+		if (regions <= 0) {
+			throw new IllegalArgumentException("Number of regions to sample must be positive");
+		}
+		if (encoding == null) {
+			encoding = Charset.defaultCharset();
+		}
+		CsvParserSettings settings = getParserSettings();
+		if (settings == null) {
+			settings = createDefaultParserSettings();
+		}
+		final CsvFormat format = settings.getFormat().clone();
+		CsvFormatDetector detector = new CsvFormatDetector(20, settings) {
+			@Override
+			void apply(char delimiter, char quote, char quoteEscape) {
+				format.setDelimiter(delimiter);
+				format.setQuote(quote);
+				format.setQuoteEscape(quoteEscape);
+			}
+		};
+		try {
+			detector.sample(input, encoding, regions, settings.getInputBufferSize());
+		} catch (IOException e) {
+			throw new IllegalStateException("Error reading file '" + input.getAbsolutePath() + "' to detect its format", e);
+		}
+		char[] lineSeparator = detector.getDetectedLineSeparator();
+		if (lineSeparator != null) {
+			format.setLineSeparator(lineSeparator);
+		}
+		return format;
+	}
+
+	@Override
+	protected char[] getQuotingCharacters(CsvParserSettings parserSettings) {
+		CsvFormat format = parserSettings.getFormat();
+		return new char[]{format.getDelimiter(), format.getQuote(), format.getQuoteEscape()};
+	}
+
 	@Override
 	protected CsvParserSettings createDefaultParserSettings() {
 		return new CsvParserSettings();
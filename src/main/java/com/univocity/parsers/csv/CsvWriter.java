@@ -16,6 +16,8 @@
 package com.univocity.parsers.csv;
 
 import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.fields.*;
+import com.univocity.parsers.common.input.*;
 
 import java.io.*;
 import java.nio.charset.*;
@@ -45,6 +47,16 @@ public class CsvWriter extends AbstractWriter<CsvWriterSettings> {
 	private boolean dontProcessNormalizedNewLines;
 	private boolean[] quotationTriggers;
 	private char maxTrigger;
+	private boolean appendNumbersDirectly;
+
+	private boolean[] charsToEscape;
+	private boolean[] charsToEscapeWithinQuotes;
+	private boolean[] charsToQuote;
+
+	private FieldSelector trustedFieldSelector;
+	private String[] headers;
+	private boolean[] trustedColumns;
+	private CsvWriter parent;
 
 	/**
 	 * The CsvWriter supports all settings provided by {@link CsvWriterSettings}, and requires this configuration to be properly initialized.
@@ -173,20 +185,107 @@ public class CsvWriter extends AbstractWriter<CsvWriterSettings> {
 				quotationTriggers[tmp[i]] = true;
 			}
 		}
+
+		char[] specialChars = Arrays.copyOf(tmp, tmp.length + 4);
+		specialChars[tmp.length] = separator;
+		specialChars[tmp.length + 1] = newLine;
+		this.charsToQuote = WriterCharAppender.newSpecialCharTable(Arrays.copyOf(specialChars, tmp.length + 2));
+		specialChars[tmp.length + 2] = quoteChar;
+		specialChars[tmp.length + 3] = escapeChar;
+		this.charsToEscape = WriterCharAppender.newSpecialCharTable(specialChars);
+		this.charsToEscapeWithinQuotes = WriterCharAppender.newSpecialCharTable(quoteChar, newLine, escapeChar);
+
+		this.trustedFieldSelector = settings.getTrustedFieldSelector();
+		this.headers = settings.getHeaders();
+		this.trustedColumns = null;
+
+		this.appendNumbersDirectly = !quoteAllFields;
+		String numericChars = "0123456789-.EInfinityNaN";
+		for (int i = 0; i < numericChars.length() && appendNumbersDirectly; i++) {
+			char ch = numericChars.charAt(i);
+			if (ch == separator || ch == quoteChar || ch == escapeChar || ch == newLine || (ch < maxTrigger && quotationTriggers[ch])) {
+				appendNumbersDirectly = false;
+			}
+		}
+	}
+
+	@Override
+	protected AbstractWriter<CsvWriterSettings> newFormatter(CsvWriterSettings settings) {
+		CsvWriter formatter = new CsvWriter(settings);
+		formatter.parent = this;
+		return formatter;
+	}
+
+	private boolean[] identifyTrustedColumns() {
+		String[] headers = parent == null ? this.headers : parent.headers;
+		int[] indexes = trustedFieldSelector.getFieldIndexes(headers);
+		if (indexes == null) {
+			return new boolean[0];
+		}
+		int max = -1;
+		for (int i = 0; i < indexes.length; i++) {
+			if (max < indexes[i]) {
+				max = indexes[i];
+			}
+		}
+		boolean[] out = new boolean[max + 1];
+		for (int i = 0; i < indexes.length; i++) {
+			if (indexes[i] >= 0) {
+				out[indexes[i]] = true;
+			}
+		}
+		return out;
 	}
 
 	@Override
 	protected void processRow(Object[] row) {
+		boolean[] trusted = null;
+		if (trustedFieldSelector != null) {
+			if (writingHeaders) {
+				this.headers = new String[row.length];
+				for (int i = 0; i < row.length; i++) {
+					headers[i] = row[i] == null ? null : String.valueOf(row[i]);
+				}
+				trustedColumns = null;
+			} else {
+				if (trustedColumns == null) {
+					trustedColumns = identifyTrustedColumns();
+				}
+				trusted = trustedColumns;
+			}
+		}
+
 		for (int i = 0; i < row.length; i++) {
 			if (i != 0) {
 				appendToRow(separator);
 			}
 
+			if (appendNumbersDirectly && appendNumber(row[i])) {
+				appendValueToRow();
+				continue;
+			}
+
+			if (appendChars(row[i], quoteAllFields ? charsToEscapeWithinQuotes : charsToEscape)) {
+				if (quoteAllFields) {
+					appendToRow(quoteChar);
+					appendValueToRow();
+					appendToRow(quoteChar);
+				} else {
+					appendValueToRow();
+				}
+				continue;
+			}
+
+			String nextElement = getStringValue(row[i]);
+
+			if (trusted != null && i < trusted.length && trusted[i] && nextElement != null && nextElement.length() > 0 && appendTrusted(nextElement)) {
+				continue;
+			}
+
 			if (dontProcessNormalizedNewLines) {
 				appender.enableDenormalizedLineEndings(false);
 			}
 
-			String nextElement = getStringValue(row[i]);
 			int originalLength = appender.length();
 			boolean isElementQuoted = append(quoteAllFields, nextElement);
 
@@ -217,24 +316,40 @@ public class CsvWriter extends AbstractWriter<CsvWriterSettings> {
 	}
 
 
-	private boolean quoteElement(int start, String element) {
+	private boolean appendTrusted(String element) {
+		int start = 0;
+		if (this.ignoreLeading) {
+			start = skipLeadingWhitespace(element);
+		}
 		final int length = element.length();
-		if (maxTrigger == 0) {
-			for (int i = start; i < length; i++) {
-				char nextChar = element.charAt(i);
-				if (nextChar == separator || nextChar == newLine) {
-					return true;
-				}
-			}
+		if (start == length) {
+			//blank value, processed as usual
+			return false;
+		}
+		appender.append(element, start, length);
+		if (ignoreTrailing && element.charAt(length - 1) <= ' ') {
+			appender.updateWhitespace();
+		}
+
+		if (quoteAllFields) {
+			appendToRow(quoteChar);
+			appendValueToRow();
+			appendToRow(quoteChar);
 		} else {
-			for (int i = start; i < length; i++) {
-				char nextChar = element.charAt(i);
-				if (nextChar == separator || nextChar == newLine || nextChar < maxTrigger && quotationTriggers[nextChar]) {
-					return true;
-				}
-			}
+			appendValueToRow();
 		}
+		return true;
+	}
 
+	private boolean quoteElement(int start, String element) {
+		final int length = element.length();
+		final int max = charsToQuote.length;
+		for (int i = start; i < length; i++) {
+			char nextChar = element.charAt(i);
+			if (nextChar < max && charsToQuote[nextChar]) {
+				return true;
+			}
+		}
 		return false;
 	}
 
@@ -262,39 +377,31 @@ public class CsvWriter extends AbstractWriter<CsvWriterSettings> {
 			return true;
 		}
 
-		int i = start;
-		char ch = '\0';
-		for (; i < length; i++) {
-			ch = element.charAt(i);
-			if (ch == quoteChar || ch == separator || ch == newLine || ch == escapeChar || (ch < maxTrigger && quotationTriggers[ch])) {
-				appender.append(element, start, i);
-				start = i + 1;
-
-				if (ch == quoteChar) {
-					if (quoteElement(i, element)) {
-						appendQuoted(i, element);
-						return true;
-					} else if (escapeUnquoted) {
-						appendQuoted(i, element);
-					} else {
-						appender.append(element, i, length);
-						if(ignoreTrailing && element.charAt(length -1) <= ' '){
-							appender.updateWhitespace();
-						}
-					}
-					return isElementQuoted;
-				} else if (ch == escapeChar && inputNotEscaped && escapeEscape != '\0' && escapeUnquoted) {
-					appender.append(escapeEscape);
-				} else if (ch == separator || ch == newLine || ch < maxTrigger && quotationTriggers[ch]) {
+		for (int i = appender.appendUntil(element, start, charsToEscape); i < length; i = appender.appendUntil(element, i + 1, charsToEscape)) {
+			char ch = element.charAt(i);
+			if (ch == quoteChar) {
+				if (quoteElement(i, element)) {
 					appendQuoted(i, element);
 					return true;
+				} else if (escapeUnquoted) {
+					appendQuoted(i, element);
+				} else {
+					appender.append(element, i, length);
+					if (ignoreTrailing && element.charAt(length - 1) <= ' ') {
+						appender.updateWhitespace();
+					}
 				}
-				appender.append(ch);
+				return isElementQuoted;
+			} else if (ch == escapeChar && inputNotEscaped && escapeEscape != '\0' && escapeUnquoted) {
+				appender.append(escapeEscape);
+			} else if (ch < charsToQuote.length && charsToQuote[ch]) {
+				appendQuoted(i, element);
+				return true;
 			}
+			appender.append(ch);
 		}
 
-		appender.append(element, start, i);
-		if (ch <= ' ' && this.ignoreTrailing) {
+		if (this.ignoreTrailing && (start == length || element.charAt(length - 1) <= ' ')) {
 			appender.updateWhitespace();
 		}
 		return isElementQuoted;
@@ -302,23 +409,16 @@ public class CsvWriter extends AbstractWriter<CsvWriterSettings> {
 
 	private void appendQuoted(int start, String element) {
 		final int length = element.length();
-		int i = start;
-		char ch = '\0';
-		for (; i < length; i++) {
-			ch = element.charAt(i);
-			if (ch == quoteChar || ch == newLine || ch == escapeChar) {
-				appender.append(element, start, i);
-				start = i + 1;
-				if (ch == quoteChar && inputNotEscaped) {
-					appender.append(escapeChar);
-				} else if (ch == escapeChar && inputNotEscaped && escapeEscape != '\0') {
-					appender.append(escapeEscape);
-				}
-				appender.append(ch);
+		for (int i = appender.appendUntil(element, start, charsToEscapeWithinQuotes); i < length; i = appender.appendUntil(element, i + 1, charsToEscapeWithinQuotes)) {
+			char ch = element.charAt(i);
+			if (ch == quoteChar && inputNotEscaped) {
+				appender.append(escapeChar);
+			} else if (ch == escapeChar && inputNotEscaped && escapeEscape != '\0') {
+				appender.append(escapeEscape);
 			}
+			appender.append(ch);
 		}
-		appender.append(element, start, i);
-		if (ch <= ' ' && this.ignoreTrailing) {
+		if (this.ignoreTrailing && (start == length || element.charAt(length - 1) <= ' ')) {
 			appender.updateWhitespace();
 		}
 	}
@@ -16,6 +16,7 @@
 package com.univocity.parsers.csv;
 
 import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.fields.*;
 
 import java.util.*;
 
@@ -44,6 +45,7 @@ public class CsvWriterSettings extends CommonWriterSettings<CsvFormat> {
 	private boolean normalizeLineEndingsWithinQuotes = true;
 	private char[] quotationTriggers = new char[0];
 	private boolean quoteEscapingEnabled = false;
+	private FieldSelector trustedFieldSelector = null;
 
 	/**
 	 * Indicates that all written values should be enclosed within quotes (as defined in {@link CsvFormat})
@@ -246,6 +248,73 @@ public class CsvWriterSettings extends CommonWriterSettings<CsvFormat> {
 		this.quoteEscapingEnabled = quoteEscapingEnabled;
 	}
 
+	/**
+	 * Identifies columns whose values never contain characters that require quoting or escaping, such as the delimiter,
+	 * the quote and quote escape characters, line separators and quotation triggers. This is usually the case of columns
+	 * with integers, ISO dates or UUIDs.
+	 *
+	 * <p>The CSV writer won't scan the values of these columns for special characters: they are copied to the output as they are
+	 * (but still enclosed within quotes if {@link #getQuoteAllFields()} is enabled). Use this only for columns whose content is
+	 * known to be safe, otherwise the output produced will be invalid.</p>
+	 *
+	 * <p>Numbers written as instances of {@link Integer}, {@link Long}, {@link Short}, {@link Byte}, {@link Double} or {@link Float}
+	 * are never scanned, regardless of the columns identified here, unless the format uses digits, signs or letters of
+	 * {@code "NaN"}, {@code "Infinity"} or the exponent as special characters.</p>
+	 *
+	 * @param fieldNames names of the columns whose values can be written without being scanned for special characters.
+	 *
+	 * @return the set of columns whose values are written without being scanned.
+	 */
+	public FieldSet<String> trustFields(String... fieldNames) {
+		return setTrustedFieldSet(new FieldNameSelector(), fieldNames);
+	}
+
+	/**
+	 * Identifies columns whose values never contain characters that require quoting or escaping, such as the delimiter,
+	 * the quote and quote escape characters, line separators and quotation triggers.
+	 *
+	 * <p>The CSV writer won't scan the values of these columns for special characters. Refer to {@link #trustFields(String...)}
+	 * for details.</p>
+	 *
+	 * @param columns the columns whose values can be written without being scanned for special characters.
+	 *
+	 * @return the set of columns whose values are written without being scanned.
+	 */
+	@SuppressWarnings("rawtypes")
+	public FieldSet<Enum> trustFields(Enum... columns) {
+		return setTrustedFieldSet(new FieldEnumSelector(), columns);
+	}
+
+	/**
+	 * Identifies the positions of columns whose values never contain characters that require quoting or escaping, such as the delimiter,
+	 * the quote and quote escape characters, line separators and quotation triggers.
+	 *
+	 * <p>The CSV writer won't scan the values of these columns for special characters. Refer to {@link #trustFields(String...)}
+	 * for details.</p>
+	 *
+	 * @param indexes the positions of the columns whose values can be written without being scanned for special characters.
+	 *
+	 * @return the set of columns whose values are written without being scanned.
+	 */
+	public FieldSet<Integer> trustIndexes(Integer... indexes) {
+		return setTrustedFieldSet(new FieldIndexSelector(), indexes);
+	}
+
+	private <T> FieldSet<T> setTrustedFieldSet(FieldSet<T> fieldSet, T[] values) {
+		this.trustedFieldSelector = (FieldSelector) fieldSet;
+		fieldSet.add(values);
+		return fieldSet;
+	}
+
+	/**
+	 * Returns the {@link FieldSelector} that identifies the columns whose values are written without being scanned for special characters.
+	 *
+	 * @return the selector of trusted columns, or {@code null} if all values must be scanned.
+	 */
+	FieldSelector getTrustedFieldSelector() {
+		return trustedFieldSelector;
+	}
+
 	@Override
 	protected void addConfiguration(Map<String, Object> out) {
 		super.addConfiguration(out);
@@ -255,5 +324,6 @@ public class CsvWriterSettings extends CommonWriterSettings<CsvFormat> {
 		out.put("Input escaped", isInputEscaped);
 		out.put("Quote escaping enabled", quoteEscapingEnabled);
 		out.put("Quotation triggers", Arrays.toString(quotationTriggers));
+		out.put("Trusted fields", trustedFieldSelector == null ? "none" : trustedFieldSelector.describe());
 	}
 }
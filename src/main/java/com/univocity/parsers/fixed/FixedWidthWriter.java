@@ -16,6 +16,7 @@
 package com.univocity.parsers.fixed;
 
 import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.input.*;
 
 import java.io.*;
 import java.nio.charset.*;
@@ -46,13 +47,15 @@ public class FixedWidthWriter extends AbstractWriter<FixedWidthWriterSettings> {
 
 	private Lookup[] lookaheadFormats;
 	private Lookup[] lookbehindFormats;
-	private char[] lookupChars;
+	private LookupTrie lookaheadTrie;
+	private LookupTrie lookbehindTrie;
 	private Lookup lookbehindFormat;
 	private int[] rootLengths;
 	private FieldAlignment[] rootAlignments;
 	private char[] rootPaddings;
 	private boolean defaultHeaderPadding;
 	private FieldAlignment defaultHeaderAlignment;
+	private boolean[] newLineChar;
 
 	/**
 	 * The FixedWidthWriter supports all settings provided by {@link FixedWidthWriterSettings}, and requires this configuration to be properly initialized.
@@ -153,71 +156,64 @@ public class FixedWidthWriter extends AbstractWriter<FixedWidthWriterSettings> {
 		this.defaultHeaderAlignment = settings.getDefaultAlignmentForHeaders();
 		super.enableNewlineAfterRecord(settings.getWriteLineSeparatorAfterRecord());
 
+		this.newLineChar = WriterCharAppender.newSpecialCharTable(format.getNormalizedNewline());
+
 		if (lookaheadFormats != null || lookbehindFormats != null) {
-			lookupChars = new char[Lookup.calculateMaxLookupLength(lookaheadFormats, lookbehindFormats)];
+			lookaheadTrie = lookaheadFormats == null ? null : new LookupTrie(lookaheadFormats);
+			lookbehindTrie = lookbehindFormats == null ? null : new LookupTrie(lookbehindFormats);
 			rootLengths = fieldLengths;
 			rootAlignments = fieldAlignments;
 			rootPaddings = fieldPaddings;
 		} else {
-			lookupChars = null;
+			lookaheadTrie = null;
+			lookbehindTrie = null;
 			rootLengths = null;
 			rootAlignments = null;
 			rootPaddings = null;
 		}
 	}
 
+	@Override
+	protected AbstractWriter<FixedWidthWriterSettings> newFormatter(FixedWidthWriterSettings settings) {
+		if (lookbehindFormats != null) {
+			//the format of each row depends on the rows written before it.
+			return null;
+		}
+		return new FixedWidthWriter(settings);
+	}
+
 	@Override
 	protected void processRow(Object[] row) {
 		if (row.length > 0 && lookaheadFormats != null || lookbehindFormats != null) {
 			String value = String.valueOf(row[0]);
-			int end;
-			if (value.length() >= lookupChars.length) {
-				end = lookupChars.length;
-			} else {
-				end = value.length();
-				for (int i = lookupChars.length - 1; i > end; i--) {
-					lookupChars[i] = '\0';
-				}
-			}
-			value.getChars(0, end, lookupChars, 0);
 
 			boolean matched = false;
 			if (lookaheadFormats != null) {
-				for (int i = 0; i < lookaheadFormats.length; i++) {
-					if (lookaheadFormats[i].matches(lookupChars)) {
-						fieldLengths = lookaheadFormats[i].lengths;
-						fieldAlignments = lookaheadFormats[i].alignments;
-						fieldPaddings = lookaheadFormats[i].paddings;
-						matched = true;
-						break;
-					}
+				Lookup lookahead = lookaheadTrie.match(value);
+				if (lookahead != null) {
+					fieldLengths = lookahead.lengths;
+					fieldAlignments = lookahead.alignments;
+					fieldPaddings = lookahead.paddings;
+					matched = true;
 				}
 				if (lookbehindFormats != null && matched) {
-					lookbehindFormat = null;
-					for (int i = 0; i < lookbehindFormats.length; i++) {
-						if (lookbehindFormats[i].matches(lookupChars)) {
-							lookbehindFormat = lookbehindFormats[i];
-							break;
-						}
-					}
+					lookbehindFormat = lookbehindTrie.match(value);
 				}
 			} else {
-				for (int i = 0; i < lookbehindFormats.length; i++) {
-					if (lookbehindFormats[i].matches(lookupChars)) {
-						lookbehindFormat = lookbehindFormats[i];
-						matched = true;
-						fieldLengths = rootLengths;
-						fieldAlignments = rootAlignments;
-						fieldPaddings = rootPaddings;
-						break;
-					}
+				Lookup lookbehind = lookbehindTrie.match(value);
+				if (lookbehind != null) {
+					lookbehindFormat = lookbehind;
+					matched = true;
+					fieldLengths = rootLengths;
+					fieldAlignments = rootAlignments;
+					fieldPaddings = rootPaddings;
 				}
 			}
 
 			if (!matched) {
 				if (lookbehindFormat == null) {
 					if (rootLengths == null) {
-						throw new TextWritingException("Cannot write with the given configuration. No default field lengths defined and no lookahead/lookbehind value match '" + new String(lookupChars) + '\'', getRecordCount(), row);
+						throw new TextWritingException("Cannot write with the given configuration. No default field lengths defined and no lookahead/lookbehind value match '" + value + '\'', getRecordCount(), row);
 					}
 					fieldLengths = rootLengths;
 					fieldAlignments = rootAlignments;
@@ -260,6 +256,14 @@ public class FixedWidthWriter extends AbstractWriter<FixedWidthWriterSettings> {
 		length -= padCount;
 		appender.fill(padding, padCount);
 
+		//copies the value, truncated to the field length, in bulk. Line separators and trailing whitespace are handled one character at a time below.
+		int end = element.length() - start > length ? start + length : element.length();
+		if (!ignoreTrailing || end > start && element.charAt(end - 1) > ' ') {
+			int i = appender.appendUntil(element, start, end, newLineChar);
+			length -= i - start;
+			start = i;
+		}
+
 		if (this.ignoreTrailing) {
 			int i = start;
 			while (i < element.length() && length > 0) {
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.fixed;
+
+/**
+ * A prefix tree of {@link Lookup} values, used to find the lookahead/lookbehind format of a record with a single pass over
+ * its first characters, instead of testing each {@link Lookup} in sequence.
+ *
+ * <p>When multiple lookup values match, the longest one is selected, which is the same behavior of testing lookups sorted
+ * by length with {@link Lookup#matches(char[])}.</p>
+ *
+ * @author uniVocity Software Pty Ltd - <a href="mailto:parsers@univocity.com">parsers@univocity.com</a>
+ */
+final class LookupTrie {
+
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	private static final class Node {
+		final char ch;
+		Node[] children = NO_CHILDREN;
+		Lookup lookup;
+
+		Node(char ch) {
+			this.ch = ch;
+		}
+
+		Node get(char ch) {
+			for (int i = 0; i < children.length; i++) {
+				if (children[i].ch == ch) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		Node getOrCreate(char ch) {
+			Node child = get(ch);
+			if (child == null) {
+				child = new Node(ch);
+				Node[] tmp = new Node[children.length + 1];
+				System.arraycopy(children, 0, tmp, 0, children.length);
+				tmp[children.length] = child;
+				children = tmp;
+			}
+			return child;
+		}
+	}
+
+	private final Node root = new Node('\0');
+
+	/**
+	 * Builds a prefix tree with the given lookup formats.
+	 *
+	 * @param lookups the lookup formats to be matched against the values of each record.
+	 */
+	LookupTrie(Lookup[] lookups) {
+		for (int i = 0; i < lookups.length; i++) {
+			Node node = root;
+			char[] value = lookups[i].value;
+			for (int j = 0; j < value.length; j++) {
+				node = node.getOrCreate(value[j]);
+			}
+			if (node.lookup == null) {
+				node.lookup = lookups[i];
+			}
+		}
+	}
+
+	/**
+	 * Finds the longest lookup value that is a prefix of the given String.
+	 *
+	 * @param value the value to be matched
+	 *
+	 * @return the {@link Lookup} with the longest value that matches the beginning of the given String, or {@code null} if no
+	 * lookup value matches.
+	 */
+	Lookup match(String value) {
+		Lookup match = null;
+		Node node = root;
+		final int length = value.length();
+		for (int i = 0; i < length; i++) {
+			node = node.get(value.charAt(i));
+			if (node == null) {
+				break;
+			}
+			if (node.lookup != null) {
+				match = node.lookup;
+			}
+		}
+		return match;
+	}
+}
@@ -16,6 +16,7 @@
 package com.univocity.parsers.tsv;
 
 import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.input.*;
 
 import java.io.*;
 import java.nio.charset.*;
@@ -31,6 +32,8 @@ import java.nio.charset.*;
  */
 public class TsvWriter extends AbstractWriter<TsvWriterSettings> {
 
+	private static final boolean[] SPECIAL_CHARS = WriterCharAppender.newSpecialCharTable('\t', '\n', '\r', '\\');
+
 	private boolean ignoreLeading;
 	private boolean ignoreTrailing;
 	private boolean joinLines;
@@ -135,6 +138,11 @@ public class TsvWriter extends AbstractWriter<TsvWriterSettings> {
 		this.newLine = settings.getFormat().getNormalizedNewline();
 	}
 
+	@Override
+	protected AbstractWriter<TsvWriterSettings> newFormatter(TsvWriterSettings settings) {
+		return new TsvWriter(settings);
+	}
+
 	@Override
 	protected void processRow(Object[] row) {
 		for (int i = 0; i < row.length; i++) {
@@ -142,6 +150,11 @@ public class TsvWriter extends AbstractWriter<TsvWriterSettings> {
 				appendToRow('\t');
 			}
 
+			if (appendNumber(row[i]) || appendChars(row[i], SPECIAL_CHARS)) {
+				appendValueToRow();
+				continue;
+			}
+
 			String nextElement = getStringValue(row[i]);
 
 			int originalLength = appender.length();
@@ -172,27 +185,20 @@ public class TsvWriter extends AbstractWriter<TsvWriterSettings> {
 
 		final int length = element.length();
 
-		int i = start;
-		char ch = '\0';
-		for (; i < length; i++) {
-			ch = element.charAt(i);
-			if(ch == '\t' || ch == '\n' || ch == '\r' || ch == '\\') {
-				appender.append(element, start, i);
-				start = i + 1;
-				appender.append(escapeChar);
-				if (ch == '\t') {
-					appender.append('t');
-				} else if (ch == '\n') {
-					appender.append(joinLines ? newLine : 'n');
-				} else if (ch == '\\') {
-					appender.append('\\');
-				} else if (ch == '\r') {
-					appender.append(joinLines ? newLine : 'r');
-				}
+		for (int i = appender.appendUntil(element, start, SPECIAL_CHARS); i < length; i = appender.appendUntil(element, i + 1, SPECIAL_CHARS)) {
+			char ch = element.charAt(i);
+			appender.append(escapeChar);
+			if (ch == '\t') {
+				appender.append('t');
+			} else if (ch == '\n') {
+				appender.append(joinLines ? newLine : 'n');
+			} else if (ch == '\\') {
+				appender.append('\\');
+			} else if (ch == '\r') {
+				appender.append(joinLines ? newLine : 'r');
 			}
 		}
-		appender.append(element, start, i);
-		if (ch <= ' ' && ignoreTrailing) {
+		if (ignoreTrailing && (start == length || element.charAt(length - 1) <= ' ')) {
 			appender.updateWhitespace();
 		}
 	}
@@ -16,10 +16,13 @@
 package com.univocity.parsers.common;
 
 import com.univocity.parsers.ParserTestCase;
+import com.univocity.parsers.common.processor.*;
+import com.univocity.parsers.conversions.*;
 import com.univocity.parsers.csv.CsvWriter;
 import com.univocity.parsers.csv.CsvWriterSettings;
 import com.univocity.parsers.fixed.*;
 import com.univocity.parsers.fixed.FixedWidthFields;
+import com.univocity.parsers.tsv.*;
 import org.testng.annotations.Test;
 
 import java.io.BufferedWriter;
@@ -34,6 +37,8 @@ import java.util.List;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertEqualsNoOrder;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class AbstractWriterTest extends ParserTestCase {
 
@@ -119,4 +124,134 @@ public class AbstractWriterTest extends ParserTestCase {
 
 		assertEquals(output.toString(), "A,B,C,D,E,F\n,,,,,\nV1,V2,V3,,,\nV1,V2,V3,4,5,\nV1,V2,V3,4,5,6\n");
 	}
-}
\ No newline at end of file
+
+	private void addPrimitiveValues(AbstractWriter<?> writer) {
+		writer.addValue(0);
+		writer.addValue(-1);
+		writer.addValue(Integer.MIN_VALUE);
+		writer.addValue(Long.MAX_VALUE);
+		writer.addValue(Long.MIN_VALUE);
+		writer.addValue(0.0);
+		writer.addValue(-0.0);
+		writer.addValue(-12.0);
+		writer.addValue(1e7);
+		writer.addValue(0.001);
+		writer.addValue(Double.NaN);
+		writer.addValue(Double.NEGATIVE_INFINITY);
+		writer.addValue(1.5f);
+		writer.addValue(16777216f);
+		writer.addValue('x');
+		writer.addValue("abcde".toCharArray(), 1, 3);
+	}
+
+	@Test
+	public void testPrimitiveValueExceedingMaxColumns() {
+		String[] expected = {"7", "8", "9.5", "1.5", "z", "bcd"};
+		for (int i = 0; i < expected.length; i++) {
+			CsvWriterSettings settings = new CsvWriterSettings();
+			settings.setMaxColumns(1);
+			CsvWriter writer = new CsvWriter(new StringWriter(), settings);
+			writer.addValue(0);
+			try {
+				switch (i) {
+					case 0:
+						writer.addValue(7);
+						break;
+					case 1:
+						writer.addValue(8L);
+						break;
+					case 2:
+						writer.addValue(9.5);
+						break;
+					case 3:
+						writer.addValue(1.5f);
+						break;
+					case 4:
+						writer.addValue('z');
+						break;
+					default:
+						writer.addValue("abcde".toCharArray(), 1, 3);
+				}
+				fail("Expecting maximum number of columns to be exceeded");
+			} catch (TextWritingException e) {
+				assertTrue(e.getMessage().contains("Maximum number of columns (1) exceeded"), e.getMessage());
+				assertTrue(e.getMessage().contains("[" + expected[i] + "]"), e.getMessage());
+			}
+		}
+	}
+
+	private void addBoxedValues(AbstractWriter<?> writer) {
+		writer.addValues(0, -1, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, 0.0, -0.0, -12.0, 1e7, 0.001, Double.NaN, Double.NEGATIVE_INFINITY, 1.5f, 16777216f, 'x', "bcd");
+	}
+
+	private String writePrimitiveValues(AbstractWriter<?> writer, StringWriter output, boolean boxed) {
+		for (int i = 0; i < 2; i++) {
+			if (boxed) {
+				addBoxedValues(writer);
+			} else {
+				addPrimitiveValues(writer);
+			}
+			writer.writeValuesToRow();
+		}
+		writer.close();
+		return output.toString();
+	}
+
+	@Test
+	public void testPrimitiveValues() {
+		CsvWriterSettings csvSettings = new CsvWriterSettings();
+		csvSettings.getFormat().setLineSeparator("\n");
+		StringWriter boxed = new StringWriter();
+		StringWriter primitive = new StringWriter();
+		String expected = writePrimitiveValues(new CsvWriter(boxed, csvSettings), boxed, true);
+		assertEquals(writePrimitiveValues(new CsvWriter(primitive, csvSettings), primitive, false), expected);
+
+		csvSettings.getFormat().setDelimiter('.');
+		boxed = new StringWriter();
+		primitive = new StringWriter();
+		expected = writePrimitiveValues(new CsvWriter(boxed, csvSettings), boxed, true);
+		assertEquals(writePrimitiveValues(new CsvWriter(primitive, csvSettings), primitive, false), expected);
+
+		TsvWriterSettings tsvSettings = new TsvWriterSettings();
+		tsvSettings.getFormat().setLineSeparator("\n");
+		boxed = new StringWriter();
+		primitive = new StringWriter();
+		expected = writePrimitiveValues(new TsvWriter(boxed, tsvSettings), boxed, true);
+		assertEquals(writePrimitiveValues(new TsvWriter(primitive, tsvSettings), primitive, false), expected);
+
+		FixedWidthFields fields = new FixedWidthFields();
+		for (int i = 0; i < 16; i++) {
+			fields.addField(8);
+		}
+		FixedWidthWriterSettings fixedSettings = new FixedWidthWriterSettings(fields);
+		fixedSettings.getFormat().setLineSeparator("\n");
+		boxed = new StringWriter();
+		primitive = new StringWriter();
+		expected = writePrimitiveValues(new FixedWidthWriter(boxed, fixedSettings), boxed, true);
+		assertEquals(writePrimitiveValues(new FixedWidthWriter(primitive, fixedSettings), primitive, false), expected);
+	}
+
+	@Test
+	public void testProcessPrimitiveValues() {
+		ObjectRowWriterProcessor processor = new ObjectRowWriterProcessor();
+		processor.convertIndexes(Conversions.formatToNumber("000")).set(0);
+
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setRowWriterProcessor(processor);
+		StringWriter output = new StringWriter();
+		CsvWriter writer = new CsvWriter(output, settings);
+
+		writer.addValue(0);
+		writer.addValue(10L);
+		writer.addValue(2.5);
+		writer.processValuesToRow();
+
+		writer.addValue(1);
+		writer.addValue('c');
+		assertEquals(writer.processValuesToString(), "001,c");
+
+		writer.close();
+		assertEquals(output.toString(), "000,10,2.5\n");
+	}
+}
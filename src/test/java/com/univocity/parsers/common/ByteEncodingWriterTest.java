@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class ByteEncodingWriterTest {
+
+	private static final char[] SAMPLE_CHARS = {'a', 'Z', '0', ',', '"', '\n', '\u007F', '\u0080', '\u00E9', '\u00FF', '\u0100', '\u07FF', '\u0800', '\u20AC', '\uFFFD', '\uD83D', '\uDE00', '\uDBFF', '\uDFFF'};
+
+	@DataProvider
+	public Object[][] encodings() {
+		return new Object[][]{{"UTF-8"}, {"US-ASCII"}, {"ISO-8859-1"}};
+	}
+
+	@Test(dataProvider = "encodings")
+	public void testEncodingMatchesOutputStreamWriter(String encoding) throws IOException {
+		Charset charset = Charset.forName(encoding);
+		Random random = new Random(encoding.hashCode());
+		for (int test = 0; test < 200; test++) {
+			char[] input = new char[random.nextInt(100000)];
+			for (int i = 0; i < input.length; i++) {
+				input[i] = random.nextInt(3) == 0 ? SAMPLE_CHARS[random.nextInt(SAMPLE_CHARS.length)] : (char) ('a' + random.nextInt(26));
+			}
+
+			ByteArrayOutputStream expected = new ByteArrayOutputStream();
+			Writer reference = new OutputStreamWriter(expected, charset);
+			ByteArrayOutputStream actual = new ByteArrayOutputStream();
+			Writer writer = ArgumentUtils.newWriter(actual, charset);
+			assertTrue(writer instanceof ByteEncodingWriter);
+
+			int i = 0;
+			while (i < input.length) {
+				int length = Math.min(input.length - i, random.nextInt(70000) + 1);
+				switch (random.nextInt(3)) {
+					case 0:
+						writer.write(input, i, length);
+						reference.write(input, i, length);
+						break;
+					case 1:
+						writer.write(new String(input, i, length));
+						reference.write(new String(input, i, length));
+						break;
+					default:
+						writer.write(input[i]);
+						reference.write(input[i]);
+						length = 1;
+				}
+				i += length;
+			}
+			writer.close();
+			reference.close();
+
+			assertEquals(actual.toByteArray(), expected.toByteArray());
+		}
+	}
+
+	@Test
+	public void testUnsupportedEncoding() {
+		assertFalse(ArgumentUtils.newWriter(new ByteArrayOutputStream(), Charset.forName("UTF-16")) instanceof ByteEncodingWriter);
+	}
+
+	@Test
+	public void testWriteToFile() throws IOException {
+		File file = File.createTempFile("byte_encoding", ".csv");
+		file.deleteOnExit();
+
+		CsvWriter writer = new CsvWriter(file, "UTF-8", new CsvWriterSettings());
+		writer.writeRow("a", "\u20AC 1,5", "\uD83D\uDE00");
+		writer.flush();
+		writer.writeRow("b", "\u00E9");
+		writer.close();
+
+		Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+		StringBuilder out = new StringBuilder();
+		int ch;
+		while ((ch = reader.read()) != -1) {
+			out.append((char) ch);
+		}
+		reader.close();
+
+		assertEquals(out.toString(), "a,\"\u20AC 1,5\",\uD83D\uDE00\nb,\u00E9\n");
+	}
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.testng.Assert.*;
+
+public class ConcurrentWriterTest {
+
+	private static final int THREADS = 4;
+	private static final int ROWS = 5000;
+
+	private String writeConcurrently(Integer batchSize) throws Exception {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaders("thread", "row", "text");
+		settings.setHeaderWritingEnabled(true);
+
+		StringWriter output = new StringWriter();
+		final ConcurrentWriter writer = batchSize == null ? new ConcurrentWriter(new CsvWriter(output, settings)) : new ConcurrentWriter(new CsvWriter(output, settings), batchSize);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			futures.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int i = 0; i < ROWS; i++) {
+						writer.writeRow(thread, i, "a,b");
+					}
+					return null;
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		writer.close();
+		assertEquals(writer.getRecordCount(), THREADS * ROWS + 1);
+		return output.toString();
+	}
+
+	private void validate(String output) {
+		String[] lines = output.split("\n");
+		assertEquals(lines.length, THREADS * ROWS + 1);
+		assertEquals(lines[0], "thread,row,text");
+
+		int[] next = new int[THREADS];
+		for (int i = 1; i < lines.length; i++) {
+			String[] values = lines[i].split(",", 3);
+			int thread = Integer.parseInt(values[0]);
+			assertEquals(Integer.parseInt(values[1]), next[thread]++);
+			assertEquals(values[2], "\"a,b\"");
+		}
+	}
+
+	@Test
+	public void testArrivalOrder() throws Exception {
+		validate(writeConcurrently(null));
+	}
+
+	@Test
+	public void testProducerOrder() throws Exception {
+		validate(writeConcurrently(100));
+	}
+
+	@Test
+	public void testFieldSelectionUpdatedBeforeWritingConcurrently() throws Exception {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaders("thread", "row", "text");
+
+		StringWriter output = new StringWriter();
+		CsvWriter csvWriter = new CsvWriter(output, settings);
+		csvWriter.updateFieldSelection("text", "thread");
+		final ConcurrentWriter writer = new ConcurrentWriter(csvWriter, 10);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			futures.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int i = 0; i < 100; i++) {
+						writer.writeRow("a,b", thread);
+					}
+					return null;
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		writer.close();
+
+		String[] lines = output.toString().split("\n");
+		assertEquals(lines.length, THREADS * 100);
+		for (String line : lines) {
+			String[] values = line.split(",", 3);
+			assertTrue(Integer.parseInt(values[0]) < THREADS);
+			assertEquals(values[1], "");
+			assertEquals(values[2], "\"a,b\"");
+		}
+	}
+
+	@Test
+	public void testErrorInRow() {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+
+		StringWriter output = new StringWriter();
+		ConcurrentWriter writer = new ConcurrentWriter(new CsvWriter(output, settings), 10);
+		writer.writeRow("a", 1);
+		writer.writeRow("b", 2);
+		try {
+			writer.writeRow("c", new Object() {
+				@Override
+				public String toString() {
+					throw new IllegalStateException("boom");
+				}
+			});
+			fail("Expecting an exception here");
+		} catch (TextWritingException ex) {
+			assertEquals(ex.getRecordCount(), 2);
+			assertTrue(ex.getCause() instanceof IllegalStateException);
+		}
+		writer.writeRow("d", 4);
+		writer.flush();
+		assertEquals(output.toString(), "a,1\nb,2\nd,4\n");
+		assertEquals(writer.getRecordCount(), 3);
+		writer.close();
+
+		try {
+			writer.writeRow("e", 5);
+			fail("Expecting an exception here");
+		} catch (TextWritingException ex) {
+			//expected
+		}
+	}
+}
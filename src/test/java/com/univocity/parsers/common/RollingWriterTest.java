@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.zip.*;
+
+import static org.testng.Assert.*;
+
+public class RollingWriterTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private String read(InputStream input) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			byte[] buffer = new byte[1024];
+			int length;
+			while ((length = input.read(buffer)) != -1) {
+				out.write(buffer, 0, length);
+			}
+		} finally {
+			input.close();
+		}
+		return new String(out.toByteArray(), UTF_8);
+	}
+
+	private File createTempDir() throws IOException {
+		File dir = File.createTempFile("rolling", "");
+		assertTrue(dir.delete());
+		assertTrue(dir.mkdirs());
+		dir.deleteOnExit();
+		return dir;
+	}
+
+	private CsvWriterSettings newSettings(File dir) {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaders("id", "name");
+		settings.setHeaderWritingEnabled(true);
+		settings.setOutputFileNamePattern(dir.getAbsolutePath() + "/part_{index}.csv");
+		return settings;
+	}
+
+	@Test
+	public void testRollByRecordCount() throws Exception {
+		File dir = createTempDir();
+		CsvWriterSettings settings = newSettings(dir);
+		settings.setMaxRecordsPerFile(3);
+
+		final List<String> closed = new ArrayList<String>();
+		settings.setOutputFileListener(new OutputFileListener() {
+			@Override
+			public void fileClosed(File file, int index, long recordCount) {
+				closed.add(file.getName() + ":" + index + ":" + recordCount);
+			}
+		});
+
+		RollingWriter writer = new RollingWriter(new CsvWriter(settings), UTF_8);
+		for (int i = 0; i < 7; i++) {
+			writer.writeRow(i, "name" + i);
+		}
+		writer.close();
+
+		assertEquals(writer.getRecordCount(), 7);
+		assertEquals(writer.getFiles().size(), 3);
+		assertEquals(closed, Arrays.asList("part_1.csv:1:3", "part_2.csv:2:3", "part_3.csv:3:1"));
+
+		assertEquals(read(new FileInputStream(writer.getFiles().get(0))), "id,name\n0,name0\n1,name1\n2,name2\n");
+		assertEquals(read(new FileInputStream(writer.getFiles().get(1))), "id,name\n3,name3\n4,name4\n5,name5\n");
+		assertEquals(read(new FileInputStream(writer.getFiles().get(2))), "id,name\n6,name6\n");
+		for (File file : writer.getFiles()) {
+			file.deleteOnExit();
+		}
+	}
+
+	@Test
+	public void testRollBySize() throws Exception {
+		File dir = createTempDir();
+		CsvWriterSettings settings = newSettings(dir);
+		settings.setMaxBytesPerFile(30);
+
+		RollingWriter writer = new RollingWriter(new CsvWriter(settings), UTF_8);
+		writer.writeRow(1, "a\u00e7\u00e3o"); //7 chars, 9 bytes: header + row = 17 bytes
+		writer.writeRow(2, "abcdefghijk"); //14 bytes, 31 in total: goes to the next file
+		writer.writeRow(3, "a");
+		writer.writeRow(4, "this value is larger than the limit");
+		writer.close();
+
+		List<File> files = writer.getFiles();
+		assertEquals(files.size(), 3);
+		assertEquals(read(new FileInputStream(files.get(0))), "id,name\n1,a\u00e7\u00e3o\n");
+		assertEquals(read(new FileInputStream(files.get(1))), "id,name\n2,abcdefghijk\n3,a\n");
+		assertEquals(read(new FileInputStream(files.get(2))), "id,name\n4,this value is larger than the limit\n");
+		for (File file : files) {
+			assertTrue(file.length() <= 30 || file == files.get(2));
+			file.deleteOnExit();
+		}
+	}
+
+	@Test
+	public void testCompression() throws Exception {
+		File dir = createTempDir();
+		CsvWriterSettings settings = newSettings(dir);
+		settings.setMaxRecordsPerFile(2);
+		settings.setCompressRolledFiles(true);
+
+		final List<File> closed = Collections.synchronizedList(new ArrayList<File>());
+		settings.setOutputFileListener(new OutputFileListener() {
+			@Override
+			public void fileClosed(File file, int index, long recordCount) {
+				closed.add(file);
+			}
+		});
+
+		RollingWriter writer = new RollingWriter(new CsvWriter(settings), UTF_8);
+		for (int i = 0; i < 4; i++) {
+			writer.writeRow(i, "name" + i);
+		}
+		writer.close();
+
+		assertEquals(closed.size(), 2);
+		for (int i = 0; i < 2; i++) {
+			File file = closed.get(i);
+			file.deleteOnExit();
+			assertEquals(writer.getFiles().get(i), file);
+			assertTrue(file.getPath().endsWith(".gz"));
+			assertFalse(new File(file.getPath().substring(0, file.getPath().length() - 3)).exists());
+			String expected = "id,name\n" + (i * 2) + ",name" + (i * 2) + "\n" + (i * 2 + 1) + ",name" + (i * 2 + 1) + "\n";
+			assertEquals(read(new GZIPInputStream(new FileInputStream(file))), expected);
+		}
+
+		try {
+			writer.writeRow(5, "name5");
+			fail("Expecting an exception here");
+		} catch (TextWritingException ex) {
+			//expected
+		}
+	}
+}
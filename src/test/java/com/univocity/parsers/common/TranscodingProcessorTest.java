@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common;
+
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class TranscodingProcessorTest {
+
+	private CsvParserSettings newParserSettings(AbstractWriter<?> writer) {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setProcessor(new TranscodingProcessor(writer));
+		return settings;
+	}
+
+	private CsvWriter newWriter(Writer output) {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		return new CsvWriter(output, settings);
+	}
+
+	@Test
+	public void testLeadingEmptyColumn() throws Exception {
+		StringBuilder input = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			input.append(",abcdefghij,").append(i).append('\n');
+			expected.append(",abcdefghij,").append(i).append('\n');
+		}
+
+		StringWriter output = new StringWriter();
+		CsvParser parser = new CsvParser(newParserSettings(newWriter(output)));
+		parser.parse(new StringReader(input.toString()));
+
+		assertEquals(output.toString(), expected.toString());
+
+		Field rowChars = ParserOutput.class.getDeclaredField("rowChars");
+		rowChars.setAccessible(true);
+		assertEquals(((char[]) rowChars.get(parser.output)).length, 1024);
+	}
+
+	@Test
+	public void testParseNextReturnsValues() {
+		StringWriter output = new StringWriter();
+		CsvParserSettings settings = newParserSettings(newWriter(output));
+		settings.setHeaderExtractionEnabled(true);
+		settings.selectFields("c", "a");
+
+		List<String[]> rows = new CsvParser(settings).parseAll(new StringReader("a,b,c\n1,,3\n4,5\n"));
+
+		assertEquals(rows.size(), 2);
+		assertEquals(rows.get(0), new String[]{"3", "1"});
+		assertEquals(rows.get(1), new String[]{null, "4"});
+		assertEquals(output.toString(), "3,1\n,4\n");
+	}
+
+	@Test
+	public void testErrorReportsValues() {
+		CsvWriterSettings writerSettings = new CsvWriterSettings();
+		writerSettings.setMaxColumns(1);
+		CsvWriter writer = new CsvWriter(new StringWriter(), writerSettings);
+
+		CsvParserSettings settings = newParserSettings(writer);
+		settings.setHeaderExtractionEnabled(true);
+
+		try {
+			new CsvParser(settings).parse(new StringReader("x,y\nabc,def\n"));
+			fail("Expecting parsing to fail");
+		} catch (TextParsingException ex) {
+			assertTrue(ex.getMessage().contains("[abc, def]"), ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testProcessorSharedByParsers() {
+		StringWriter output = new StringWriter();
+		CsvWriter writer = newWriter(output);
+		CsvParserSettings settings = newParserSettings(writer);
+
+		CsvParser first = new CsvParser(settings);
+		CsvParser second = new CsvParser(settings);
+		first.beginParsing(new StringReader("a,b\nc,d\n"));
+		second.beginParsing(new StringReader("1,2\n3,4\n"));
+
+		first.parseNext();
+		second.parseNext();
+		first.parseNext();
+		second.parseNext();
+		writer.flush();
+
+		assertEquals(output.toString(), "a,b\n1,2\nc,d\n3,4\n");
+	}
+}
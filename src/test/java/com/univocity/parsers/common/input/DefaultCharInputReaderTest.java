@@ -65,4 +65,46 @@ public class DefaultCharInputReaderTest {
 		assertEquals('\n', reader.nextChar());
 		assertEOF(reader);
 	}
+
+	@Test
+	public void testSkipLines() {
+		DefaultCharInputReader reader = new DefaultCharInputReader("\r\n".toCharArray(), '\n', 3);
+
+		reader.start(new StringReader("ab\rc\r\nd\r\n\r\nefgh\r\nij"));
+		reader.skipLines(1);
+		assertEquals(reader.lineCount(), 1);
+		assertEquals('d', reader.nextChar());
+
+		reader.start(new StringReader("ab\rc\r\nd\r\n\r\nefgh\r\nij"));
+		reader.skipLines(3);
+		assertEquals(reader.lineCount(), 3);
+		assertEquals('e', reader.nextChar());
+		reader.skipLines(1);
+		assertEquals('i', reader.nextChar());
+		assertEquals('j', reader.nextChar());
+		assertEOF(reader);
+
+		reader.start(new StringReader("ab\r\ncd"));
+		try {
+			reader.skipLines(2);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException ex) {
+			//pass
+		}
+	}
+
+	@Test
+	public void testSkipLinesWithDetectedLineSeparator() {
+		DefaultCharInputReader reader = new DefaultCharInputReader('\n', 4);
+
+		reader.start(new StringReader("ab\rcd\ref\rgh"));
+		reader.skipLines(2);
+		assertEquals(reader.lineCount(), 2);
+		assertEquals('e', reader.nextChar());
+
+		reader.start(new StringReader("ab\ncd\nef\ngh"));
+		reader.skipLines(3);
+		assertEquals(reader.lineCount(), 3);
+		assertEquals('g', reader.nextChar());
+	}
 }
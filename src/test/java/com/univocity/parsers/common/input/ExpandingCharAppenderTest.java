@@ -106,6 +106,17 @@ public class ExpandingCharAppenderTest {
 		assertEquals(a.chars.length, 14);
 	}
 
+	@Test
+	public void testFillPastEndOfBuffer() throws Exception {
+		ExpandingCharAppender a = new ExpandingCharAppender(4, null);
+		a.append('a');
+		a.fill('*', 5);
+		assertEquals(a.toString(), "a*****");
+
+		a.fill('-', 100);
+		assertEquals(a.length(), 106);
+	}
+
 	@Test
 	public void testPrepend() throws Exception {
 		ExpandingCharAppender a = new ExpandingCharAppender(2, null);
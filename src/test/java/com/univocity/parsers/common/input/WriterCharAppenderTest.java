@@ -49,4 +49,34 @@ public class WriterCharAppenderTest {
 
 		assertEquals(stringWriter.toString(), expectedString);
 	}
+
+	@Test
+	public void testAppendUntilSpecialChar() {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		WriterCharAppender appender = new WriterCharAppender(4, null, settings.getFormat());
+		boolean[] specialChars = WriterCharAppender.newSpecialCharTable(',', '"');
+
+		assertEquals(appender.appendUntil("abc,def", 0, specialChars), 3);
+		assertEquals(appender.toString(), "abc");
+		assertEquals(appender.appendUntil("abc,def", 4, specialChars), 7);
+		assertEquals(appender.toString(), "abcdef");
+		assertEquals(appender.appendUntil("abc", 3, specialChars), 3);
+		assertEquals(appender.appendUntil("x\u2028yz\"", 0, specialChars), 4);
+		assertEquals(appender.toString(), "abcdefx\u2028yz");
+	}
+
+	@Test
+	public void testEscapingAcrossBufferBoundaries() {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setMaxCharsPerColumn(8);
+		settings.setQuotationTriggers('|');
+
+		StringWriter stringWriter = new StringWriter();
+		CsvWriter writer = new CsvWriter(stringWriter, settings);
+		writer.writeRow("a long value without special characters", "a long value with a quote \" inside", "long value, with comma", "trigger|value");
+		writer.close();
+
+		assertEquals(stringWriter.toString(), "a long value without special characters,a long value with a quote \" inside,\"long value, with comma\",\"trigger|value\"\n");
+	}
 }
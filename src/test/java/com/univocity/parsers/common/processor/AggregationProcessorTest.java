@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class AggregationProcessorTest {
+
+	private static final String INPUT = "" +
+			"account,amount,rate\n" +
+			"a,10,1.5\n" +
+			"b,5,\n" +
+			"a,-3,2.5\n" +
+			"c,,0.5\n" +
+			"b,7,1\n";
+
+	private AggregationProcessor parse(String input, AggregationProcessor processor) {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+		settings.setProcessor(processor);
+		new CsvParser(settings).parse(new StringReader(input));
+		return processor;
+	}
+
+	private AggregationProcessor newProcessor(int partitions) {
+		AggregationProcessor processor = new AggregationProcessor(partitions);
+		processor.groupBy("account");
+		processor.aggregate(Aggregate.count(), Aggregate.count("amount"), Aggregate.sum("amount").as("total"), Aggregate.min(1), Aggregate.max("rate"), Aggregate.avg("rate"));
+		return processor;
+	}
+
+	@Test
+	public void testAggregates() {
+		AggregationProcessor processor = parse(INPUT, newProcessor(1));
+
+		assertEquals(processor.getResultHeaders(), new String[]{"account", "count(*)", "count(amount)", "total", "min(amount)", "max(rate)", "avg(rate)"});
+		assertEquals(processor.getGroupCount(), 3);
+
+		List<Object[]> rows = processor.getRows();
+		assertEquals(rows.get(0), new Object[]{"a", 2L, 2L, 7L, -3L, 2.5, 2.0});
+		assertEquals(rows.get(1), new Object[]{"b", 2L, 2L, 12L, 5L, 1L, 1.0});
+		assertEquals(rows.get(2), new Object[]{"c", 1L, 0L, null, null, 0.5, 0.5});
+	}
+
+	@Test
+	public void testNoGrouping() {
+		AggregationProcessor processor = new AggregationProcessor();
+		processor.aggregate(Aggregate.count(), Aggregate.sum("rate"), Aggregate.sum("amount"));
+		parse(INPUT, processor);
+
+		List<Object[]> rows = processor.getRows();
+		assertEquals(rows.size(), 1);
+		assertEquals(rows.get(0), new Object[]{5L, 5.5, 19L});
+	}
+
+	@Test
+	public void testOverflowProducesDecimal() {
+		AggregationProcessor processor = new AggregationProcessor();
+		processor.aggregate(Aggregate.sum(0));
+		parse("v\n" + Long.MAX_VALUE / 10 * 9 + "\n" + Long.MAX_VALUE / 10 * 9 + "\n", processor);
+
+		Object sum = processor.getRows().get(0)[0];
+		assertTrue(sum instanceof Double);
+		assertEquals((Double) sum, (Long.MAX_VALUE / 10 * 9) * 2.0, 1e6);
+	}
+
+	@Test
+	public void testInvalidNumber() {
+		AggregationProcessor processor = new AggregationProcessor();
+		processor.aggregate(Aggregate.sum("amount"));
+		try {
+			parse("amount\n1\nabc\n", processor);
+			fail("Expected exception");
+		} catch (DataProcessingException e) {
+			assertEquals(e.getValue(), "abc");
+			assertTrue(e.getMessage().contains("sum(amount)"));
+		}
+	}
+
+	@Test
+	public void testPartitionsAndMerge() {
+		StringBuilder input = new StringBuilder("account,amount,rate\n");
+		Random random = new Random(3);
+		for (int i = 0; i < 20000; i++) {
+			input.append("acc").append(random.nextInt(500)).append(',').append(random.nextInt(1000) - 500).append(',').append(random.nextInt(100) / 4.0).append('\n');
+		}
+
+		Map<Object, List<Object>> expected = toMap(parse(input.toString(), newProcessor(1)));
+		assertEquals(expected.size(), 500);
+
+		assertEquals(toMap(parse(input.toString(), newProcessor(4))), expected);
+
+		String text = input.toString();
+		int middle = text.indexOf('\n', text.length() / 2) + 1;
+		AggregationProcessor first = parse(text.substring(0, middle), newProcessor(1));
+		AggregationProcessor second = parse(text.substring(0, text.indexOf('\n') + 1) + text.substring(middle), newProcessor(1));
+		first.merge(second);
+		Map<Object, List<Object>> merged = toMap(first);
+		assertEquals(merged.keySet(), expected.keySet());
+		for (Object key : expected.keySet()) {
+			List<Object> e = expected.get(key);
+			List<Object> m = merged.get(key);
+			assertEquals(m.subList(0, 4), e.subList(0, 4));
+			assertEquals((Double) m.get(4), (Double) e.get(4), 1e-9);
+			assertEquals((Double) m.get(5), (Double) e.get(5), 1e-9);
+		}
+	}
+
+	private Map<Object, List<Object>> toMap(AggregationProcessor processor) {
+		Map<Object, List<Object>> out = new HashMap<Object, List<Object>>();
+		for (Object[] row : processor.getRows()) {
+			out.put(row[0], Arrays.asList(row).subList(1, row.length));
+		}
+		return out;
+	}
+
+	@Test
+	public void testWriteResults() {
+		AggregationProcessor processor = parse(INPUT, newProcessor(1));
+
+		StringWriter output = new StringWriter();
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		processor.writeResultsAndClose(new CsvWriter(output, settings));
+
+		assertEquals(output.toString(), "" +
+				"account,count(*),count(amount),total,min(amount),max(rate),avg(rate)\n" +
+				"a,2,2,7,-3,2.5,2.0\n" +
+				"b,2,2,12,5,1,1.0\n" +
+				"c,1,0,,,0.5,0.5\n");
+	}
+}
@@ -131,4 +131,111 @@ public class MultiBeanListProcessorTest extends AnnotatedBeanProcessorTest{
 
 
 	}
+
+	public static class CountingConversion implements Conversion<String, String> {
+		static int executions;
+		private final String prefix;
+
+		public CountingConversion(String... args) {
+			prefix = args.length == 0 ? "" : args[0];
+		}
+
+		@Override
+		public String execute(String input) {
+			executions++;
+			return input == null ? null : prefix + input;
+		}
+
+		@Override
+		public String revert(String input) {
+			return input;
+		}
+	}
+
+	public static class CodeBean {
+		@Parsed
+		@Convert(conversionClass = CountingConversion.class, args = "#")
+		String code;
+
+		@Parsed
+		BigDecimal amount;
+	}
+
+	public static class OtherCodeBean {
+		@Parsed(field = "code")
+		@Convert(conversionClass = CountingConversion.class, args = "#")
+		String value;
+
+		@Parsed
+		BigDecimal amount;
+	}
+
+	public static class PrefixedCodeBean {
+		@Parsed
+		@Convert(conversionClass = CountingConversion.class, args = "$")
+		String code;
+	}
+
+	@Test
+	public void testConversionsSharedAcrossBeans() {
+		CountingConversion.executions = 0;
+
+		MultiBeanListProcessor processor = new MultiBeanListProcessor(CodeBean.class, OtherCodeBean.class, PrefixedCodeBean.class);
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setHeaderExtractionEnabled(true);
+		settings.setRowProcessor(processor);
+
+		new CsvParser(settings).parse(new StringReader("code,amount\na,1.5\nb,2\nb,3"));
+
+		List<CodeBean> codes = processor.getBeans(CodeBean.class);
+		List<OtherCodeBean> otherCodes = processor.getBeans(OtherCodeBean.class);
+		List<PrefixedCodeBean> prefixedCodes = processor.getBeans(PrefixedCodeBean.class);
+
+		assertEquals(codes.size(), 3);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(otherCodes.get(i).value, codes.get(i).code);
+			assertSame(otherCodes.get(i).amount, codes.get(i).amount);
+			assertEquals(prefixedCodes.get(i).code.substring(1), codes.get(i).code.substring(1));
+		}
+		assertEquals(codes.get(0).code, "#a");
+		assertEquals(codes.get(2).code, "#b");
+		assertEquals(prefixedCodes.get(1).code, "$b");
+		assertEquals(codes.get(2).amount, new BigDecimal("3"));
+
+		//CodeBean and OtherCodeBean share the same conversion. PrefixedCodeBean uses a different argument and has its own.
+		assertEquals(CountingConversion.executions, 6);
+	}
+
+	public static class DateBean {
+		@Parsed
+		@com.univocity.parsers.annotations.Format(formats = "yyyy-MM-dd")
+		Date date;
+	}
+
+	public static class OtherDateBean {
+		@Parsed(field = "date")
+		@com.univocity.parsers.annotations.Format(formats = "yyyy-MM-dd")
+		Date value;
+	}
+
+	@Test
+	public void testMutableValuesNotShared() {
+		MultiBeanListProcessor processor = new MultiBeanListProcessor(DateBean.class, OtherDateBean.class);
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setHeaderExtractionEnabled(true);
+		settings.setRowProcessor(processor);
+
+		new CsvParser(settings).parse(new StringReader("date\n2016-01-31"));
+
+		Date date = processor.getBeans(DateBean.class).get(0).date;
+		Date otherDate = processor.getBeans(OtherDateBean.class).get(0).value;
+		assertEquals(date, otherDate);
+		assertNotSame(date, otherDate);
+
+		long time = otherDate.getTime();
+		date.setTime(0L);
+		assertEquals(otherDate.getTime(), time);
+	}
 }
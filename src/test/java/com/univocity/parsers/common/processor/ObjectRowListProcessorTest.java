@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.univocity.parsers.common.processor;
 
+import com.univocity.parsers.common.*;
 import com.univocity.parsers.conversions.*;
 import com.univocity.parsers.csv.*;
 import org.testng.annotations.*;
@@ -162,4 +163,69 @@ public class ObjectRowListProcessorTest {
 		assertEquals(row[3], false);
 		assertNull(row[2]);
 	}
+
+	@Test
+	public void conversionTestWithReusedObjectRow() {
+		final List<Object[]> rowInstances = new ArrayList<Object[]>();
+		final List<Object> amounts = new ArrayList<Object>();
+
+		ObjectRowProcessor processor = new ObjectRowProcessor() {
+			@Override
+			public void rowProcessed(Object[] row, ParsingContext context) {
+				rowInstances.add(row);
+				amounts.add(row[0]);
+			}
+		};
+		processor.setObjectRowReuseEnabled(true);
+		processor.convertFields(toNull("", "?"), toBigDecimal()).set("amount");
+		processor.convertType(String.class, toUpperCase());
+
+		CsvParserSettings settings = newCsvInputSettings();
+		settings.selectFields("amount", "comments");
+		settings.setHeaderExtractionEnabled(true);
+		settings.setRowProcessor(processor);
+
+		new CsvParser(settings).parse(new StringReader(input));
+
+		assertEquals(rowInstances.size(), 2);
+		assertSame(rowInstances.get(0), rowInstances.get(1));
+		assertEquals(amounts.get(0), new BigDecimal("555.999"));
+		assertNull(amounts.get(1));
+		assertEquals(rowInstances.get(1)[1], "  \" SOMETHING \"  ");
+	}
+
+	@Test
+	public void conversionTestWithProcessorReusedForDifferentHeaders() {
+		ObjectRowListProcessor processor = new ObjectRowListProcessor();
+		processor.convertFields(toInteger()).set("number");
+
+		CsvParserSettings settings = newCsvInputSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+		settings.setProcessor(processor);
+
+		new CsvParser(settings).parse(new StringReader("number,text\n1,a\n"));
+		assertEquals(processor.getRows().get(0), new Object[]{1, "a"});
+
+		new CsvParser(settings).parse(new StringReader("text,number\nb,2\n"));
+		assertEquals(processor.getRows().get(0), new Object[]{"b", 2});
+	}
+
+	@Test
+	public void conversionTestWithRaggedRowsWithoutHeaders() {
+		ObjectRowListProcessor processor = new ObjectRowListProcessor();
+		processor.convertAll(toInteger());
+
+		CsvParserSettings settings = newCsvInputSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setProcessor(processor);
+
+		new CsvParser(settings).parse(new StringReader("1\n2,3\n4,5,6\n7\n"));
+
+		List<Object[]> rows = processor.getRows();
+		assertEquals(rows.get(0), new Object[]{1});
+		assertEquals(rows.get(1), new Object[]{2, 3});
+		assertEquals(rows.get(2), new Object[]{4, 5, 6});
+		assertEquals(rows.get(3), new Object[]{7});
+	}
 }
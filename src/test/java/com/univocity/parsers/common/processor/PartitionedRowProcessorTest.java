@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor;
+
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class PartitionedRowProcessorTest {
+
+	private static final int LINES = 5000;
+	private static final int ACCOUNTS = 37;
+
+	private String input;
+
+	@BeforeClass
+	public void init() {
+		StringBuilder bigInput = new StringBuilder("account,sequence,amount\n");
+		for (int i = 0; i < LINES; i++) {
+			bigInput.append("acc").append(i % ACCOUNTS);
+			bigInput.append(',').append(i);
+			bigInput.append(',').append(i % 10);
+			bigInput.append('\n');
+		}
+		input = bigInput.toString();
+	}
+
+	@DataProvider
+	private Object[][] getCapacities() {
+		return new Object[][]{
+				{1},
+				{10},
+				{1024}
+		};
+	}
+
+	@Test(dataProvider = "getCapacities")
+	public void testRowsOfSameKeyProcessedInOrder(int capacity) {
+		RowListProcessor[] processors = new RowListProcessor[4];
+		for (int i = 0; i < processors.length; i++) {
+			processors[i] = new RowListProcessor();
+		}
+
+		PartitionedRowProcessor partitioned = new PartitionedRowProcessor(capacity, processors);
+		partitioned.partitionBy("account");
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setHeaderExtractionEnabled(true);
+		settings.setRowProcessor(partitioned);
+		new CsvParser(settings).parse(new StringReader(input));
+
+		int total = 0;
+		Map<String, Integer> partitionOfAccount = new HashMap<String, Integer>();
+		for (int p = 0; p < processors.length; p++) {
+			List<String[]> rows = processors[p].getRows();
+			assertEquals(partitioned.getRecordCount(p), rows.size());
+			assertEquals(processors[p].getHeaders(), new String[]{"account", "sequence", "amount"});
+			total += rows.size();
+
+			Map<String, Integer> lastSequence = new HashMap<String, Integer>();
+			for (String[] row : rows) {
+				Integer partition = partitionOfAccount.put(row[0], p);
+				assertTrue(partition == null || partition == p, "Account " + row[0] + " processed by multiple partitions");
+
+				int sequence = Integer.parseInt(row[1]);
+				Integer previous = lastSequence.put(row[0], sequence);
+				assertTrue(previous == null || previous < sequence, "Rows of account " + row[0] + " out of order");
+			}
+		}
+		assertEquals(total, LINES);
+		assertEquals(partitionOfAccount.size(), ACCOUNTS);
+	}
+
+	@Test
+	public void testPartitionBySelectedIndex() {
+		RowListProcessor[] processors = new RowListProcessor[]{new RowListProcessor(), new RowListProcessor(), new RowListProcessor()};
+
+		PartitionedRowProcessor partitioned = new PartitionedRowProcessor(processors);
+		partitioned.partitionByIndexes(0);
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setHeaderExtractionEnabled(true);
+		settings.selectIndexes(1, 0);
+		settings.setRowProcessor(partitioned);
+		new CsvParser(settings).parse(new StringReader(input));
+
+		int total = 0;
+		Set<String> seen = new HashSet<String>();
+		for (RowListProcessor processor : processors) {
+			Set<String> accounts = new HashSet<String>();
+			for (String[] row : processor.getRows()) {
+				assertEquals(row.length, 2);
+				accounts.add(row[1]);
+			}
+			for (String account : accounts) {
+				assertTrue(seen.add(account));
+			}
+			total += processor.getRows().size();
+		}
+		assertEquals(total, LINES);
+	}
+
+	@Test
+	public void testErrorsReportedPerPartition() {
+		RowProcessor[] processors = new RowProcessor[2];
+		for (int i = 0; i < processors.length; i++) {
+			final int partition = i;
+			processors[i] = new AbstractRowProcessor() {
+				@Override
+				public void rowProcessed(String[] row, ParsingContext context) {
+					if (row[0].equals("acc3")) {
+						throw new IllegalStateException("failed on partition " + partition);
+					}
+				}
+			};
+		}
+
+		PartitionedRowProcessor partitioned = new PartitionedRowProcessor(16, processors);
+		partitioned.partitionBy("account");
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setHeaderExtractionEnabled(true);
+		settings.setRowProcessor(partitioned);
+
+		try {
+			new CsvParser(settings).parse(new StringReader(input));
+			fail("Expecting partition error to be reported");
+		} catch (DataProcessingException e) {
+			int failed = partitioned.getError(0) != null ? 0 : 1;
+			assertNull(partitioned.getError(1 - failed));
+			assertTrue(partitioned.getError(failed) instanceof IllegalStateException);
+			assertTrue(e.getMessage().contains("failed on partition " + failed));
+			assertTrue(partitioned.getRecordCount(failed) < LINES);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.processor;
+
+import com.univocity.parsers.common.processor.core.*;
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class ProfilingProcessorTest {
+
+	private static final String INPUT = "" +
+			"id,name,amount,code\n" +
+			"1,apple,10,x\n" +
+			"2,banana,2.5\n" +
+			"3,apple,-3,y\n" +
+			"4,,7,x\n" +
+			"5,cherry pie,,x\n";
+
+	private ProfileReport profile(String input, ProfilingProcessor processor) {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+		settings.setProcessor(processor);
+		new CsvParser(settings).parse(new StringReader(input));
+		return processor.getReport();
+	}
+
+	@Test
+	public void testProfile() {
+		ProfileReport report = profile(INPUT, new ProfilingProcessor());
+
+		assertEquals(report.getRowCount(), 5L);
+		assertEquals(report.getHeaders(), new String[]{"id", "name", "amount", "code"});
+		assertEquals(report.getColumns().size(), 4);
+
+		ColumnProfile id = report.getColumn("id");
+		assertTrue(id.isNumeric());
+		assertEquals(id.getMinimum(), 1L);
+		assertEquals(id.getMaximum(), 5L);
+		assertEquals(id.getDistinctCount(), 5L);
+		assertEquals(id.getNullCount(), 0L);
+
+		ColumnProfile name = report.getColumn("name");
+		assertFalse(name.isNumeric());
+		assertEquals(name.getValueCount(), 4L);
+		assertEquals(name.getNullCount(), 1L);
+		assertEquals(name.getDistinctCount(), 3L);
+		assertEquals(name.getMinimum(), "apple");
+		assertEquals(name.getMaximum(), "cherry pie");
+		assertEquals(name.getMinLength(), 5);
+		assertEquals(name.getMaxLength(), 10);
+		assertEquals(name.getAverageLength(), 6.5);
+		assertEquals(name.getLengthHistogram(), new long[]{0L, 0L, 3L, 1L});
+		assertEquals(new ArrayList<String>(name.getTopValues().keySet()), Arrays.asList("apple", "banana", "cherry pie"));
+		assertEquals(name.getTopValues().get("apple"), Long.valueOf(2L));
+
+		ColumnProfile amount = report.getColumn(2);
+		assertTrue(amount.isNumeric());
+		assertEquals(amount.getMinimum(), -3.0);
+		assertEquals(amount.getMaximum(), 10.0);
+
+		ColumnProfile code = report.getColumn("code");
+		assertEquals(code.getValueCount(), 4L);
+		assertEquals(code.getNullCount(), 1L);
+		assertEquals(code.getTopValues().get("x"), Long.valueOf(3L));
+	}
+
+	@Test
+	public void testSelectedFields() {
+		ProfilingProcessor processor = new ProfilingProcessor();
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+		settings.selectFields("code", "name");
+		settings.setProcessor(processor);
+		new CsvParser(settings).parse(new StringReader(INPUT));
+
+		ProfileReport report = processor.getReport();
+		assertEquals(report.getHeaders(), new String[]{"code", "name"});
+		assertEquals(report.getColumn(0).getName(), "code");
+		assertEquals(report.getColumn("name").getValueCount(), 4L);
+	}
+
+	@Test
+	public void testTopValuesAreBounded() {
+		StringBuilder input = new StringBuilder("value\n");
+		for (int i = 0; i < 20000; i++) {
+			if (i % 4 == 0) {
+				input.append("frequent\n");
+			} else if (i % 10 == 1) {
+				input.append("common\n");
+			} else {
+				input.append("value").append(i).append('\n');
+			}
+		}
+		ProfilingProcessor processor = new ProfilingProcessor();
+		processor.setTopValueCount(2);
+		ColumnProfile column = profile(input.toString(), processor).getColumn(0);
+
+		assertEquals(column.getValueCount(), 20000L);
+		assertEquals(column.getTopValues().size(), 2);
+		Iterator<Map.Entry<String, Long>> top = column.getTopValues().entrySet().iterator();
+		Map.Entry<String, Long> first = top.next();
+		assertEquals(first.getKey(), "frequent");
+		assertTrue(first.getValue() >= 5000L && first.getValue() <= 5000L + 20000L / 20);
+		assertEquals(top.next().getKey(), "common");
+
+		long distinct = column.getDistinctCount();
+		long expected = 20000 - 5000 - 2000 + 2;
+		assertTrue(Math.abs(distinct - expected) < expected * 0.05, "Estimated " + distinct + " distinct values, expected about " + expected);
+	}
+
+	@Test
+	public void testPartitionsAndMerge() {
+		StringBuilder input = new StringBuilder("a,b\n");
+		for (int i = 0; i < 10000; i++) {
+			input.append(i).append(',').append("v").append(i % 7).append('\n');
+		}
+
+		ProfileReport sequential = profile(input.toString(), new ProfilingProcessor());
+		ProfileReport partitioned = profile(input.toString(), new ProfilingProcessor(3));
+
+		assertEquals(partitioned.getRowCount(), 10000L);
+		assertEquals(partitioned.getHeaders(), new String[]{"a", "b"});
+		for (int i = 0; i < 2; i++) {
+			ColumnProfile expected = sequential.getColumn(i);
+			ColumnProfile actual = partitioned.getColumn(i);
+			assertEquals(actual.getValueCount(), expected.getValueCount());
+			assertEquals(actual.getMinimum(), expected.getMinimum());
+			assertEquals(actual.getMaximum(), expected.getMaximum());
+			assertEquals(actual.getDistinctCount(), expected.getDistinctCount());
+			assertEquals(actual.getLengthHistogram(), expected.getLengthHistogram());
+		}
+		assertEquals(partitioned.getColumn("b").getTopValues(), sequential.getColumn("b").getTopValues());
+
+		ProfilingProcessor first = new ProfilingProcessor();
+		ProfilingProcessor second = new ProfilingProcessor();
+		profile("a,b\n1,x\n2,y\n", first);
+		profile("a,b,c\n3,x,z\n", second);
+		first.merge(second);
+
+		ProfileReport merged = first.getReport();
+		assertEquals(merged.getRowCount(), 3L);
+		assertEquals(merged.getColumn(0).getMaximum(), 3L);
+		assertEquals(merged.getColumn(1).getTopValues().get("x"), Long.valueOf(2L));
+		assertEquals(merged.getColumn(2).getNullCount(), 2L);
+		assertEquals(merged.getColumn(2).getValueCount(), 1L);
+		assertEquals(merged.getHeaders(), new String[]{"a", "b", "c"});
+		assertEquals(merged.getColumn("c").getNullCount(), 2L);
+	}
+}
@@ -17,6 +17,8 @@
 package com.univocity.parsers.common.routine;
 
 import com.univocity.parsers.*;
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.*;
 import com.univocity.parsers.csv.*;
 import com.univocity.parsers.examples.*;
 import com.univocity.parsers.fixed.*;
@@ -192,4 +194,155 @@ public class AbstractRoutinesTest {
 		assertEquals(beans.get(1).getComments(), "\" something \"");
 	}
 
-}
\ No newline at end of file
+
+	private String writeTypedResultSet(CsvRoutines routines) throws Exception {
+		Class.forName("org.hsqldb.jdbcDriver");
+		Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:typed");
+		try {
+			Statement statement = connection.createStatement();
+			try {
+				statement.execute("CREATE TABLE IF NOT EXISTS typed(id bigint primary key, amount double, ratio real, qty integer, name varchar(32), active boolean, created date)");
+				statement.execute("DELETE FROM typed");
+				for (int i = 0; i < 10; i++) {
+					statement.executeUpdate("INSERT INTO typed VALUES (" + (i - 5) + ", " + (i * 1.5) + ", " + (i / 4.0) + ", " + (i == 3 ? "null" : i) +
+							", 'name, " + i + "', " + (i % 2 == 0) + ", '2016-01-" + (10 + i) + "')");
+				}
+				statement.executeUpdate("INSERT INTO typed VALUES (100, null, null, null, null, null, null)");
+
+				ResultSet rs = statement.executeQuery("SELECT * FROM typed ORDER BY id");
+				StringWriter output = new StringWriter();
+				routines.write(rs, output);
+				return output.toString();
+			} finally {
+				statement.close();
+			}
+		} finally {
+			connection.close();
+		}
+	}
+
+	@Test
+	public void testWriteTypedResultSet() throws Exception {
+		StringBuilder expected = new StringBuilder("ID,AMOUNT,RATIO,QTY,NAME,ACTIVE,CREATED\n");
+		for (int i = 0; i < 10; i++) {
+			expected.append(i - 5).append(',').append(i * 1.5).append(',').append((float) (i / 4.0)).append(',').append(i == 3 ? "" : String.valueOf(i))
+					.append(",\"name, ").append(i).append("\",").append(i % 2 == 0).append(",2016-01-").append(10 + i).append('\n');
+		}
+		expected.append("100,,,,,,\n");
+
+		CsvWriterSettings settings = getWriterSettings();
+		settings.setHeaderWritingEnabled(true);
+		CsvRoutines routines = new CsvRoutines(settings);
+		assertEquals(writeTypedResultSet(routines), expected.toString());
+
+		routines.setResultSetFetchSize(3);
+		assertEquals(writeTypedResultSet(routines), expected.toString());
+
+		routines.setReadResultSetOnSeparateThread(true);
+		assertEquals(writeTypedResultSet(routines), expected.toString());
+
+		settings.setParallelFormattingThreads(2);
+		settings.setParallelFormattingBatchSize(2);
+		assertEquals(writeTypedResultSet(routines), expected.toString());
+
+		settings.setParallelFormattingThreads(1);
+		settings.setRowWriterProcessor(new ObjectRowWriterProcessor());
+		assertEquals(writeTypedResultSet(routines), expected.toString());
+	}
+
+	private static final String TRANSCODING_INPUT = "id,name,notes\n" +
+			"1,Alpha,plain text\n" +
+			"2,\"Beta, Inc.\",\"multi\nline\"\n" +
+			"3,,\"with \"\"quotes\"\"\"\n" +
+			"4,  Delta  ,tab\there\n" +
+			"\n" +
+			"5,Epsilon\n";
+
+	private CsvParserSettings getTranscodingParserSettings(String... selectedFields) {
+		CsvParserSettings out = getParserSettings();
+		out.setHeaderExtractionEnabled(true);
+		out.setSkipEmptyLines(false);
+		if (selectedFields.length > 0) {
+			out.selectFields(selectedFields);
+		}
+		return out;
+	}
+
+	private String transcode(AbstractWriter<?> writer, StringWriter output, String... selectedFields) {
+		CsvParserSettings settings = getTranscodingParserSettings(selectedFields);
+		settings.setProcessor(new TranscodingProcessor(writer));
+		new CsvParser(settings).parse(new StringReader(TRANSCODING_INPUT));
+		return output.toString();
+	}
+
+	private String writeParsedRows(AbstractWriter<?> writer, StringWriter output, String... selectedFields) {
+		List<String[]> rows = new CsvParser(getTranscodingParserSettings(selectedFields)).parseAll(new StringReader(TRANSCODING_INPUT));
+		writer.writeStringRowsAndClose(rows);
+		return output.toString();
+	}
+
+	@Test
+	public void testTranscodingProcessor() {
+		CsvWriterSettings quoteAll = getWriterSettings();
+		quoteAll.setQuoteAllFields(true);
+
+		TsvWriterSettings tsvSettings = new TsvWriterSettings();
+		tsvSettings.getFormat().setLineSeparator("\n");
+		tsvSettings.setNullValue("?");
+
+		FixedWidthWriterSettings fixedWidthSettings = new FixedWidthWriterSettings(new FixedWidthFieldLengths(3, 12, 12));
+		fixedWidthSettings.getFormat().setLineSeparator("\n");
+
+		String[][] selections = new String[][]{{}, {"notes", "id"}};
+		for (String[] selection : selections) {
+			StringWriter expected = new StringWriter();
+			StringWriter actual = new StringWriter();
+			assertEquals(transcode(new CsvWriter(actual, getWriterSettings()), actual, selection), writeParsedRows(new CsvWriter(expected, getWriterSettings()), expected, selection));
+
+			expected = new StringWriter();
+			actual = new StringWriter();
+			assertEquals(transcode(new CsvWriter(actual, quoteAll), actual, selection), writeParsedRows(new CsvWriter(expected, quoteAll), expected, selection));
+
+			expected = new StringWriter();
+			actual = new StringWriter();
+			assertEquals(transcode(new TsvWriter(actual, tsvSettings), actual, selection), writeParsedRows(new TsvWriter(expected, tsvSettings), expected, selection));
+
+			expected = new StringWriter();
+			actual = new StringWriter();
+			assertEquals(transcode(new FixedWidthWriter(actual, fixedWidthSettings), actual, selection), writeParsedRows(new FixedWidthWriter(expected, fixedWidthSettings), expected, selection));
+		}
+
+		StringWriter tsv = new StringWriter();
+		assertEquals(transcode(new TsvWriter(tsv, tsvSettings), tsv), "" +
+				"1\tAlpha\tplain text\n" +
+				"2\tBeta, Inc.\tmulti\\nline\n" +
+				"3\t?\twith \"quotes\"\n" +
+				"4\tDelta\ttab\\there\n" +
+				"5\tEpsilon\n");
+	}
+
+	@Test
+	public void testParseAndWriteTranscodesValues() {
+		CsvParserSettings parserSettings = getTranscodingParserSettings();
+
+		StringWriter csv = new StringWriter();
+		new CsvRoutines(parserSettings, getWriterSettings()).parseAndWrite(new StringReader(TRANSCODING_INPUT), csv);
+		assertEquals(csv.toString(), "" +
+				"1,Alpha,plain text\n" +
+				"2,\"Beta, Inc.\",\"multi\nline\"\n" +
+				"3,,with \"quotes\"\n" +
+				"4,Delta,tab\there\n" +
+				"5,Epsilon\n");
+
+		parserSettings.selectFields("notes", "id");
+		StringWriter reordered = new StringWriter();
+		new CsvRoutines(parserSettings, getWriterSettings()).parseAndWrite(new StringReader(TRANSCODING_INPUT), reordered);
+		assertEquals(reordered.toString(), "" +
+				"plain text,1\n" +
+				"\"multi\nline\",2\n" +
+				"with \"quotes\",3\n" +
+				"tab\there,4\n" +
+				",\n" +
+				",5\n");
+	}
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.conversions.*;
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.text.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import static org.testng.Assert.*;
+
+public class ExternalSorterTest {
+
+	private static final int ROWS = 20000;
+
+	private File temporaryDirectory;
+
+	@BeforeMethod
+	public void createTemporaryDirectory() throws IOException {
+		temporaryDirectory = File.createTempFile("sort-test", "");
+		temporaryDirectory.delete();
+		temporaryDirectory.mkdirs();
+	}
+
+	@AfterMethod
+	public void deleteTemporaryDirectory() {
+		File[] files = temporaryDirectory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		temporaryDirectory.delete();
+	}
+
+	private CsvRoutines newRoutines() {
+		CsvParserSettings parserSettings = new CsvParserSettings();
+		parserSettings.getFormat().setLineSeparator("\n");
+		parserSettings.setHeaderExtractionEnabled(true);
+
+		CsvWriterSettings writerSettings = new CsvWriterSettings();
+		writerSettings.getFormat().setLineSeparator("\n");
+
+		CsvRoutines routines = new CsvRoutines(parserSettings, writerSettings);
+		routines.setTemporaryDirectory(temporaryDirectory);
+		return routines;
+	}
+
+	private List<String[]> generateRows() {
+		Random random = new Random(42);
+		List<String[]> rows = new ArrayList<String[]>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			String group = random.nextInt(10) == 0 ? null : "g" + random.nextInt(20);
+			rows.add(new String[]{String.valueOf(i), group, String.valueOf(random.nextInt(1000) - 500), "text, " + random.nextInt()});
+		}
+		return rows;
+	}
+
+	private String toCsv(List<String[]> rows) {
+		StringWriter out = new StringWriter();
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		CsvWriter writer = new CsvWriter(out, settings);
+		writer.writeHeaders("id", "group", "amount", "description");
+		writer.writeStringRowsAndClose(rows);
+		return out.toString();
+	}
+
+	private void assertSorted(long memoryBudget) {
+		List<String[]> rows = generateRows();
+		String input = toCsv(rows);
+
+		CsvRoutines routines = newRoutines();
+		routines.setSortMemoryBudget(memoryBudget);
+		routines.setSortThreads(2);
+
+		StringWriter output = new StringWriter();
+		routines.sort(new StringReader(input), output, new SortKey("group"), new SortKey("amount").convertWith(Conversions.toInteger()).descending());
+
+		List<String[]> expected = new ArrayList<String[]>(rows);
+		Collections.sort(expected, new Comparator<String[]>() {
+			@Override
+			public int compare(String[] r1, String[] r2) {
+				if (r1[1] == null || r2[1] == null) {
+					if (r1[1] != r2[1]) {
+						return r1[1] == null ? -1 : 1;
+					}
+				} else if (!r1[1].equals(r2[1])) {
+					return r1[1].compareTo(r2[1]);
+				}
+				return Integer.valueOf(r2[2]).compareTo(Integer.valueOf(r1[2]));
+			}
+		});
+
+		assertEquals(output.toString(), toCsv(expected));
+		assertEquals(temporaryDirectory.list().length, 0);
+	}
+
+	@Test
+	public void testSortInMemory() {
+		assertSorted(64L * 1024L * 1024L);
+	}
+
+	@Test
+	public void testSortWithTemporaryFiles() {
+		assertSorted(50000L);
+	}
+
+	/**
+	 * Fails if the conversion is executed by more than one thread at a time, as date conversions are not thread-safe.
+	 */
+	private static final class SingleThreadedConversion<T> implements Conversion<String, T> {
+		private final Conversion<String, T> conversion;
+		private final AtomicInteger running = new AtomicInteger();
+		private final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+		SingleThreadedConversion(Conversion<String, T> conversion) {
+			this.conversion = conversion;
+		}
+
+		@Override
+		public T execute(String input) {
+			if (running.incrementAndGet() != 1) {
+				throw new IllegalStateException("Conversion executed concurrently");
+			}
+			try {
+				threads.add(Thread.currentThread());
+				return conversion.execute(input);
+			} finally {
+				running.decrementAndGet();
+			}
+		}
+
+		@Override
+		public String revert(T input) {
+			return conversion.revert(input);
+		}
+	}
+
+	private <T> SingleThreadedConversion<T> assertSortedByDate(Conversion<String, T> dateConversion) {
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		Random random = new Random(42);
+		List<String[]> rows = new ArrayList<String[]>();
+		for (int i = 0; i < 3000; i++) {
+			rows.add(new String[]{String.valueOf(i), format.format(new Date(random.nextInt() * 1000L)), "x", "y"});
+		}
+
+		CsvRoutines routines = newRoutines();
+		routines.setSortMemoryBudget(9000L);
+		routines.setSortThreads(4);
+
+		SingleThreadedConversion<T> conversion = new SingleThreadedConversion<T>(dateConversion);
+		StringWriter output = new StringWriter();
+		routines.sort(new StringReader(toCsv(rows)), output, new SortKey("group").convertWith(conversion));
+
+		List<String[]> expected = new ArrayList<String[]>(rows);
+		Collections.sort(expected, new Comparator<String[]>() {
+			@Override
+			public int compare(String[] r1, String[] r2) {
+				return r1[1].compareTo(r2[1]);
+			}
+		});
+
+		assertEquals(output.toString(), toCsv(expected));
+		assertEquals(temporaryDirectory.list().length, 0);
+		return conversion;
+	}
+
+	@Test
+	public void testMergeDoesNotConvertStoredKeys() {
+		SingleThreadedConversion<Date> conversion = assertSortedByDate(Conversions.toDate("yyyy-MM-dd HH:mm:ss"));
+		assertEquals(conversion.threads, Collections.singleton(Thread.currentThread()));
+	}
+
+	@Test
+	public void testMergeConvertsOtherKeysOneAtATime() {
+		assertSortedByDate(Conversions.toCalendar("yyyy-MM-dd HH:mm:ss"));
+	}
+
+	@Test
+	public void testSortByIndex() {
+		CsvRoutines routines = newRoutines();
+		routines.getParserSettings().setHeaderExtractionEnabled(false);
+
+		StringWriter output = new StringWriter();
+		routines.sort(new StringReader("b,2\na,3\nc,1\na,1\n"), output, new SortKey(0), new SortKey(1));
+		assertEquals(output.toString(), "a,1\na,3\nb,2\nc,1\n");
+	}
+
+	@Test
+	public void testUnknownColumn() {
+		try {
+			newRoutines().sort(new StringReader("a,b\n1,2\n"), new StringWriter(), new SortKey("c"));
+			fail("Expecting an exception here");
+		} catch (IllegalArgumentException ex) {
+			assertTrue(ex.getMessage().contains("'c'"));
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class PartitionedWriterTest {
+
+	private String read(File file) throws IOException {
+		StringBuilder out = new StringBuilder();
+		Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+		try {
+			char[] buffer = new char[1024];
+			int length;
+			while ((length = reader.read(buffer)) != -1) {
+				out.append(buffer, 0, length);
+			}
+		} finally {
+			reader.close();
+		}
+		return out.toString();
+	}
+
+	private File createTempDir() throws IOException {
+		File dir = File.createTempFile("partitions", "");
+		assertTrue(dir.delete());
+		assertTrue(dir.mkdirs());
+		dir.deleteOnExit();
+		return dir;
+	}
+
+	@Test
+	public void testPartitionsWithEviction() throws Exception {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaders("region", "id");
+		settings.setHeaderWritingEnabled(true);
+
+		File dir = createTempDir();
+		PartitionedWriter<CsvWriterSettings> writer = new PartitionedWriter<CsvWriterSettings>(new CsvRoutines(settings), dir.getAbsolutePath() + "/out_{key}.csv", null, 2);
+		writer.partitionBy("region");
+
+		String[] regions = {"north", "south", "east", "west", "central"};
+		for (int i = 0; i < 20; i++) {
+			writer.writeRow(regions[i % regions.length], i);
+			assertTrue(writer.getOpenFileCount() <= 2);
+		}
+		writer.close();
+		assertEquals(writer.getOpenFileCount(), 0);
+
+		assertEquals(writer.getPartitions(), new LinkedHashSet<String>(Arrays.asList(regions)));
+		assertEquals(writer.getRecordCount(), 20);
+		for (int r = 0; r < regions.length; r++) {
+			String region = regions[r];
+			assertEquals(writer.getRecordCount(region), 4);
+
+			File file = writer.getFile(region);
+			assertEquals(file, new File(dir, "out_" + region + ".csv"));
+			StringBuilder expected = new StringBuilder("region,id\n");
+			for (int i = r; i < 20; i += regions.length) {
+				expected.append(region).append(',').append(i).append('\n');
+			}
+			assertEquals(read(file), expected.toString());
+			file.deleteOnExit();
+		}
+	}
+
+	@Test
+	public void testCustomPartitionKey() throws Exception {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+
+		File dir = createTempDir();
+		PartitionedWriter<CsvWriterSettings> writer = new PartitionedWriter<CsvWriterSettings>(new CsvRoutines(settings), dir.getAbsolutePath() + "/{key}.csv") {
+			@Override
+			protected String partitionKey(Object[] row) {
+				return row[0].toString().substring(0, 4);
+			}
+		};
+
+		writer.writeRow("2016/01/10", "a");
+		writer.writeRow("2017/02/11", "b");
+		writer.writeRow("2016/03/12", "c");
+		writer.close();
+
+		new File(dir, "2016.csv").deleteOnExit();
+		new File(dir, "2017.csv").deleteOnExit();
+
+		assertEquals(writer.getRecordCount("2016"), 2);
+		assertEquals(writer.getRecordCount("2017"), 1);
+		assertEquals(read(new File(dir, "2016.csv")), "2016/01/10,a\n2016/03/12,c\n");
+		assertEquals(read(new File(dir, "2017.csv")), "2017/02/11,b\n");
+	}
+
+	@Test
+	public void testKeySanitization() {
+		PartitionedWriter<CsvWriterSettings> writer = new PartitionedWriter<CsvWriterSettings>(new CsvRoutines(), "/tmp/{key}.csv");
+		assertEquals(writer.getFile("a/b c"), new File("/tmp/a_b_c.csv"));
+		assertEquals(writer.getFile(".."), new File("/tmp/_...csv"));
+	}
+
+	@Test
+	public void testCollidingFileNames() throws Exception {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaders("a", "b", "id");
+		settings.setHeaderWritingEnabled(true);
+
+		File dir = createTempDir();
+		PartitionedWriter<CsvWriterSettings> writer = new PartitionedWriter<CsvWriterSettings>(new CsvRoutines(settings), dir.getAbsolutePath() + "/{key}.csv", null, 1);
+		writer.partitionBy("a", "b");
+
+		Object[][] rows = new Object[][]{
+				{"x_y", "z", 1},
+				{"x", "y_z", 2},
+				{"x/y", "z", 3},
+				{null, "z", 4},
+				{"null", "z", 5},
+				{"X_Y", "Z", 6},
+				{"x_y", "z", 7},
+		};
+		for (Object[] row : rows) {
+			writer.writeRow(row);
+		}
+		writer.close();
+		assertTrue(settings.isHeaderWritingEnabled());
+
+		assertEquals(writer.getPartitions().size(), 6);
+		assertEquals(writer.getRecordCount(), 7);
+
+		Set<File> files = new HashSet<File>();
+		for (String key : writer.getPartitions()) {
+			File file = writer.getFile(key);
+			file.deleteOnExit();
+			assertTrue(files.add(file), "File " + file + " used by multiple partitions");
+			assertTrue(read(file).startsWith("a,b,id\n"));
+		}
+
+		assertEquals(writer.getRecordCount("x\\_y_z"), 2);
+		assertEquals(read(writer.getFile("x\\_y_z")), "a,b,id\nx_y,z,1\nx_y,z,7\n");
+		assertEquals(read(writer.getFile("x_y\\_z")), "a,b,id\nx,y_z,2\n");
+		assertEquals(read(writer.getFile("x/y_z")), "a,b,id\nx/y,z,3\n");
+		assertEquals(read(writer.getFile("\\N_z")), "a,b,id\n,z,4\n");
+		assertEquals(read(writer.getFile("null_z")), "a,b,id\nnull,z,5\n");
+		assertEquals(read(writer.getFile("X\\_Y_Z")), "a,b,id\nX_Y,Z,6\n");
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testTemplateWithoutKey() {
+		new PartitionedWriter<CsvWriterSettings>(new CsvRoutines(), "/tmp/out.csv");
+	}
+}
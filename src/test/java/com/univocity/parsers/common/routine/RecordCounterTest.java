@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.csv.*;
+import com.univocity.parsers.tsv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class RecordCounterTest {
+
+	private static final String INPUT = "" +
+			"id,notes\n" +
+			"1,\"multi\n" +
+			"line\"\n" +
+			"\n" +
+			"# a \"comment\n" +
+			"2,\"quote \"\" and\n" +
+			"# not a comment\"\n" +
+			"   \n" +
+			"3,un\"quoted\n" +
+			"4,\"\"\n" +
+			"5,last";
+
+	private CsvParserSettings newSettings() {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		return settings;
+	}
+
+	@Test
+	public void testCountMatchesParser() {
+		for (boolean headers : new boolean[]{false, true}) {
+			for (boolean skipEmptyLines : new boolean[]{false, true}) {
+				CsvParserSettings settings = newSettings();
+				settings.setHeaderExtractionEnabled(headers);
+				settings.setSkipEmptyLines(skipEmptyLines);
+
+				long expected = new CsvParser(settings).parseAll(new StringReader(INPUT)).size();
+				long count = new CsvRoutines(settings).countRecords(new StringReader(INPUT));
+				assertEquals(count, expected, "headers: " + headers + ", skip empty lines: " + skipEmptyLines);
+			}
+		}
+		assertEquals(new CsvRoutines(newSettings()).countRecords(new StringReader(INPUT)), 6);
+	}
+
+	@Test
+	public void testQuoteEscapeCharacter() {
+		String input = "1,\"a \\\" \n b\"\n2,c\r\n3,\"\\\\\"\r\n";
+		CsvParserSettings settings = newSettings();
+		settings.getFormat().setLineSeparator("\r\n");
+		settings.getFormat().setQuoteEscape('\\');
+
+		assertEquals(new CsvRoutines(settings).countRecords(new StringReader(input)), 3);
+		assertEquals(new CsvParser(settings).parseAll(new StringReader(input)).size(), 3);
+	}
+
+	@Test
+	public void testNoQuoting() {
+		String input = "a\t\"b\n\"c\td\n\n#x\n e\n";
+		TsvParserSettings settings = new TsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+
+		assertEquals(new TsvRoutines(settings).countRecords(new StringReader(input)), 3);
+		assertEquals(new TsvParser(settings).parseAll(new StringReader(input)).size(), 3);
+	}
+
+	@Test
+	public void testDetectedLineSeparator() throws IOException {
+		File file = File.createTempFile("univocity-count-", ".csv");
+		try {
+			for (String lineSeparator : new String[]{"\r", "\n", "\r\n"}) {
+				String input = INPUT.replace("\n", lineSeparator);
+				Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+				try {
+					out.write(input);
+				} finally {
+					out.close();
+				}
+
+				CsvParserSettings settings = newSettings();
+				settings.getFormat().setLineSeparator("\r\n".equals(lineSeparator) ? "\n" : "\r\n");
+				settings.setLineSeparatorDetectionEnabled(true);
+
+				long expected = new CsvParser(settings).parseAll(new StringReader(input)).size();
+				assertEquals(expected, 6);
+				assertEquals(new CsvRoutines(settings).countRecords(new StringReader(input)), expected);
+				assertEquals(new CsvRoutines(settings).countRecords(file, Charset.forName("UTF-8")), expected);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testParallelCount() throws IOException {
+		File file = File.createTempFile("univocity-count-", ".csv");
+		try {
+			Random random = new Random(11);
+			Writer out = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(file)), "UTF-8");
+			long records = 0;
+			try {
+				out.write("id,text\n");
+				while (file.length() + 1000000 < 40L * 1024L * 1024L || records < 100) {
+					for (int i = 0; i < 10000; i++) {
+						out.write(String.valueOf(records++));
+						out.write(',');
+						if (random.nextInt(4) == 0) {
+							out.write("\"çé\n,\"\"\n");
+							for (int j = random.nextInt(300); j > 0; j--) {
+								out.write(j % 50 == 0 ? '\n' : 'x');
+							}
+							out.write('"');
+						} else {
+							out.write("plain value");
+						}
+						out.write('\n');
+					}
+					out.flush();
+				}
+			} finally {
+				out.close();
+			}
+
+			CsvParserSettings settings = newSettings();
+			settings.setHeaderExtractionEnabled(true);
+			CsvRoutines routines = new CsvRoutines(settings);
+
+			assertEquals(routines.countRecords(file, Charset.forName("UTF-8")), records);
+			assertEquals(routines.countRecords(new InputStreamReader(new FileInputStream(file), "UTF-8")), records);
+
+			RecordCounter counter = new RecordCounter('\n', false, '#', new char[]{',', '"', '"'}, true, true);
+			assertEquals(counter.count(file, Charset.forName("UTF-8"), 4), records + 1);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testSplitAtRecordStarts() throws IOException {
+		long[] chunks = split("\"note\r", "end\"");
+		assertEquals(chunks.length, 17);
+
+		// every quote is at the start or end of a value, so the quoting state is never known from a chunk alone
+		chunks = split("\"", "\"");
+		assertTrue(chunks.length < 17);
+	}
+
+	private long[] split(String quotedPrefix, String quotedSuffix) throws IOException {
+		File file = File.createTempFile("univocity-split-", ".csv");
+		try {
+			Random random = new Random(3);
+			Set<Long> recordStarts = new HashSet<Long>();
+			StringBuilder input = new StringBuilder("skipped\r\"header\rwith a line separator\",b\r");
+			long firstRecord = input.length();
+			for (int i = 0; i < 5000; i++) {
+				recordStarts.add((long) input.length());
+				input.append(i).append(',');
+				if (random.nextBoolean()) {
+					input.append(quotedPrefix);
+					for (int j = random.nextInt(8); j >= 0; j--) {
+						input.append("1,2\r");
+					}
+					input.append(quotedSuffix);
+				}
+				input.append('\r');
+			}
+			Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			try {
+				out.write(input.toString());
+			} finally {
+				out.close();
+			}
+
+			RecordCounter counter = new RecordCounter('\n', true, '#', new char[]{',', '"', '"'}, true, true);
+			Charset encoding = Charset.forName("UTF-8");
+			assertEquals(counter.findFirstRecord(file, encoding, 1, true), firstRecord);
+			assertEquals(counter.findFirstRecord(file, encoding, 0, false), 0);
+			assertEquals(counter.split(file, Charset.forName("UTF-16"), 16, firstRecord), new long[]{0, file.length()});
+
+			long[] chunks = counter.split(file, encoding, 16, firstRecord);
+			assertEquals(chunks[0], 0);
+			assertEquals(chunks[chunks.length - 1], file.length());
+			for (int i = 1; i < chunks.length - 1; i++) {
+				assertTrue(chunks[i] > chunks[i - 1]);
+				assertTrue(recordStarts.contains(chunks[i]), "Chunk " + i + " starts at " + chunks[i]);
+			}
+			return chunks;
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class RowDeduplicatorTest {
+
+	private static final String INPUT = "" +
+			"id,name,version\n" +
+			"1,a,1\n" +
+			"2,b,1\n" +
+			"1,a,2\n" +
+			",c,1\n" +
+			"2,b,1\n" +
+			",c,2\n";
+
+	private CsvRoutines newRoutines() {
+		CsvParserSettings parserSettings = new CsvParserSettings();
+		parserSettings.getFormat().setLineSeparator("\n");
+		parserSettings.setHeaderExtractionEnabled(true);
+
+		CsvWriterSettings writerSettings = new CsvWriterSettings();
+		writerSettings.getFormat().setLineSeparator("\n");
+
+		return new CsvRoutines(parserSettings, writerSettings);
+	}
+
+	@Test
+	public void testKeepFirst() {
+		StringWriter output = new StringWriter();
+		long duplicates = newRoutines().distinct(new StringReader(INPUT), output, DuplicateRowHandling.KEEP_FIRST, "id", "name");
+		assertEquals(duplicates, 3);
+		assertEquals(output.toString(), "" +
+				"id,name,version\n" +
+				"1,a,1\n" +
+				"2,b,1\n" +
+				",c,1\n");
+	}
+
+	@Test
+	public void testKeepLast() {
+		StringWriter output = new StringWriter();
+		long duplicates = newRoutines().distinct(new StringReader(INPUT), output, DuplicateRowHandling.KEEP_LAST, "id");
+		assertEquals(duplicates, 3);
+		assertEquals(output.toString(), "" +
+				"id,name,version\n" +
+				"1,a,2\n" +
+				"2,b,1\n" +
+				",c,2\n");
+	}
+
+	@Test
+	public void testEntireRows() {
+		StringWriter output = new StringWriter();
+		long duplicates = newRoutines().distinct(new StringReader(INPUT), output, DuplicateRowHandling.KEEP_FIRST);
+		assertEquals(duplicates, 1);
+		assertEquals(output.toString(), "" +
+				"id,name,version\n" +
+				"1,a,1\n" +
+				"2,b,1\n" +
+				"1,a,2\n" +
+				",c,1\n" +
+				",c,2\n");
+	}
+
+	private String distinctWithCollisions(DuplicateRowHandling handling, final int fingerprints, int[] keys, long expectedDuplicates) {
+		CsvParserSettings parserSettings = new CsvParserSettings();
+		parserSettings.getFormat().setLineSeparator("\n");
+		parserSettings.setHeaderExtractionEnabled(true);
+		CsvParser parser = new CsvParser(parserSettings);
+
+		CsvWriterSettings writerSettings = new CsvWriterSettings();
+		writerSettings.getFormat().setLineSeparator("\n");
+		StringWriter output = new StringWriter();
+
+		RowDeduplicator deduplicator = new RowDeduplicator(keys, handling, false, null) {
+			@Override
+			long fingerprint(String[] row) {
+				return super.fingerprint(row) % fingerprints;
+			}
+		};
+
+		parser.beginParsing(new StringReader(INPUT));
+		long duplicates = deduplicator.distinct(parser, parser.parseNext(), new CsvWriter(output, writerSettings));
+		assertEquals(duplicates, expectedDuplicates);
+		return output.toString();
+	}
+
+	@Test
+	public void testFingerprintCollisions() {
+		for (int fingerprints : new int[]{1, 2}) {
+			assertEquals(distinctWithCollisions(DuplicateRowHandling.KEEP_FIRST, fingerprints, new int[]{0, 1}, 3), "" +
+					"1,a,1\n" +
+					"2,b,1\n" +
+					",c,1\n");
+
+			assertEquals(distinctWithCollisions(DuplicateRowHandling.KEEP_LAST, fingerprints, new int[]{0}, 3), "" +
+					"1,a,2\n" +
+					"2,b,1\n" +
+					",c,2\n");
+
+			assertEquals(distinctWithCollisions(DuplicateRowHandling.KEEP_FIRST, fingerprints, null, 1), "" +
+					"1,a,1\n" +
+					"2,b,1\n" +
+					"1,a,2\n" +
+					",c,1\n" +
+					",c,2\n");
+
+			assertEquals(distinctWithCollisions(DuplicateRowHandling.KEEP_LAST, fingerprints, null, 1), "" +
+					"1,a,1\n" +
+					"1,a,2\n" +
+					",c,1\n" +
+					"2,b,1\n" +
+					",c,2\n");
+		}
+	}
+
+	@Test
+	public void testManyKeysOffHeap() {
+		Random random = new Random(7);
+		StringBuilder input = new StringBuilder();
+		Set<String> keys = new HashSet<String>();
+		Map<String, String> lastRows = new LinkedHashMap<String, String>();
+		for (int i = 0; i < 200000; i++) {
+			String key = random.nextInt(100) + "," + random.nextInt(1000);
+			String row = key + "," + i;
+			input.append(row).append('\n');
+			keys.add(key);
+			lastRows.remove(key);
+			lastRows.put(key, row);
+		}
+
+		for (DuplicateRowHandling handling : DuplicateRowHandling.values()) {
+			for (boolean offHeap : new boolean[]{false, true}) {
+				CsvRoutines routines = newRoutines();
+				routines.getParserSettings().setHeaderExtractionEnabled(false);
+				routines.setStoreKeysOffHeap(offHeap);
+
+				StringWriter output = new StringWriter();
+				long duplicates = routines.distinct(new StringReader(input.toString()), output, handling, new int[]{0, 1});
+				assertEquals(duplicates, 200000 - keys.size());
+
+				String[] lines = output.toString().split("\n");
+				assertEquals(lines.length, keys.size());
+				if (handling == DuplicateRowHandling.KEEP_LAST) {
+					List<String> expected = new ArrayList<String>(lastRows.values());
+					Collections.sort(expected, new Comparator<String>() {
+						@Override
+						public int compare(String o1, String o2) {
+							return Integer.valueOf(o1.substring(o1.lastIndexOf(',') + 1)).compareTo(Integer.valueOf(o2.substring(o2.lastIndexOf(',') + 1)));
+						}
+					});
+					assertEquals(Arrays.asList(lines), expected);
+				}
+			}
+		}
+	}
+}
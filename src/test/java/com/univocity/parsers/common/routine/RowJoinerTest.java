@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class RowJoinerTest {
+
+	private static final String ORDERS = "" +
+			"order,customer,amount\n" +
+			"1,c1,10\n" +
+			"2,c2,20\n" +
+			"3,c9,30\n" +
+			"4,,40\n" +
+			"5,c1,50\n";
+
+	private static final String CUSTOMERS = "" +
+			"name,id\n" +
+			"Alice,c1\n" +
+			"Bob,c2\n" +
+			"Bobby,c2\n" +
+			"Nobody,\n";
+
+	private CsvRoutines newRoutines() {
+		CsvParserSettings parserSettings = new CsvParserSettings();
+		parserSettings.getFormat().setLineSeparator("\n");
+		parserSettings.setHeaderExtractionEnabled(true);
+
+		CsvWriterSettings writerSettings = new CsvWriterSettings();
+		writerSettings.getFormat().setLineSeparator("\n");
+
+		return new CsvRoutines(parserSettings, writerSettings);
+	}
+
+	private String join(CsvRoutines routines, String left, String right, JoinType joinType) {
+		StringWriter output = new StringWriter();
+		routines.join(new StringReader(left), new StringReader(right), output, joinType, new String[]{"customer"}, new String[]{"id"});
+		return output.toString();
+	}
+
+	@Test
+	public void testHashJoin() {
+		CsvRoutines routines = newRoutines();
+
+		assertEquals(join(routines, ORDERS, CUSTOMERS, JoinType.INNER), "" +
+				"order,customer,amount,name\n" +
+				"1,c1,10,Alice\n" +
+				"2,c2,20,Bob\n" +
+				"2,c2,20,Bobby\n" +
+				"5,c1,50,Alice\n");
+
+		assertEquals(join(routines, ORDERS, CUSTOMERS, JoinType.LEFT), "" +
+				"order,customer,amount,name\n" +
+				"1,c1,10,Alice\n" +
+				"2,c2,20,Bob\n" +
+				"2,c2,20,Bobby\n" +
+				"3,c9,30,\n" +
+				"4,,40,\n" +
+				"5,c1,50,Alice\n");
+
+		assertEquals(join(routines, ORDERS, CUSTOMERS, JoinType.ANTI), "" +
+				"order,customer,amount\n" +
+				"3,c9,30\n" +
+				"4,,40\n");
+	}
+
+	@Test
+	public void testSortMergeJoin() {
+		CsvRoutines routines = newRoutines();
+		routines.setJoinMemoryBudget(1);
+
+		assertEquals(join(routines, ORDERS, CUSTOMERS, JoinType.INNER), "" +
+				"order,customer,amount,name\n" +
+				"1,c1,10,Alice\n" +
+				"5,c1,50,Alice\n" +
+				"2,c2,20,Bob\n" +
+				"2,c2,20,Bobby\n");
+
+		assertEquals(join(routines, ORDERS, CUSTOMERS, JoinType.LEFT), "" +
+				"order,customer,amount,name\n" +
+				"4,,40,\n" +
+				"1,c1,10,Alice\n" +
+				"5,c1,50,Alice\n" +
+				"2,c2,20,Bob\n" +
+				"2,c2,20,Bobby\n" +
+				"3,c9,30,\n");
+
+		assertEquals(join(routines, ORDERS, CUSTOMERS, JoinType.ANTI), "" +
+				"order,customer,amount\n" +
+				"4,,40\n" +
+				"3,c9,30\n");
+	}
+
+	@Test
+	public void testLargeJoinWithCompositeKeys() {
+		StringBuilder left = new StringBuilder();
+		StringBuilder right = new StringBuilder();
+		String smallLeft = null;
+		Random random = new Random(1);
+		for (int i = 0; i < 5000; i++) {
+			left.append(random.nextInt(100)).append(',').append(random.nextInt(50)).append(",l").append(i).append('\n');
+			if (i == 199) {
+				smallLeft = left.toString();
+			}
+		}
+		for (int i = 0; i < 3000; i++) {
+			right.append("r").append(i).append(',').append(random.nextInt(100)).append(',').append(random.nextInt(50)).append('\n');
+		}
+
+		for (String leftInput : new String[]{left.toString(), smallLeft}) {
+			for (JoinType joinType : JoinType.values()) {
+				List<String> results = new ArrayList<String>();
+				for (long budget : new long[]{64L * 1024L * 1024L, 10000L, 60000L}) {
+					CsvRoutines routines = newRoutines();
+					routines.getParserSettings().setHeaderExtractionEnabled(false);
+					routines.setJoinMemoryBudget(budget);
+					routines.setSortMemoryBudget(20000L);
+
+					StringWriter output = new StringWriter();
+					routines.join(new StringReader(leftInput), new StringReader(right.toString()), output, joinType, new int[]{0, 1}, new int[]{1, 2});
+					String[] lines = output.toString().split("\n");
+					Arrays.sort(lines);
+					results.add(Arrays.toString(lines));
+				}
+				assertEquals(results.get(1), results.get(0), "Results of " + joinType + " join differ");
+				assertEquals(results.get(2), results.get(0), "Results of " + joinType + " join differ");
+			}
+		}
+	}
+
+	@Test
+	public void testHashJoinOnLeftInput() {
+		StringBuilder right = new StringBuilder(CUSTOMERS);
+		for (int i = 0; i < 2000; i++) {
+			right.append("Customer ").append(i).append(",x").append(i).append('\n');
+		}
+		right.append("Alice,c1\n");
+
+		CsvRoutines routines = newRoutines();
+		routines.setJoinMemoryBudget(50000L);
+
+		assertEquals(join(routines, ORDERS, right.toString(), JoinType.INNER), "" +
+				"order,customer,amount,name\n" +
+				"1,c1,10,Alice\n" +
+				"5,c1,50,Alice\n" +
+				"2,c2,20,Bob\n" +
+				"2,c2,20,Bobby\n" +
+				"1,c1,10,Alice\n" +
+				"5,c1,50,Alice\n");
+
+		assertEquals(join(routines, ORDERS, right.toString(), JoinType.LEFT), "" +
+				"order,customer,amount,name\n" +
+				"4,,40,\n" +
+				"1,c1,10,Alice\n" +
+				"5,c1,50,Alice\n" +
+				"2,c2,20,Bob\n" +
+				"2,c2,20,Bobby\n" +
+				"1,c1,10,Alice\n" +
+				"5,c1,50,Alice\n" +
+				"3,c9,30,\n");
+
+		assertEquals(join(routines, ORDERS, right.toString(), JoinType.ANTI), "" +
+				"order,customer,amount\n" +
+				"4,,40\n" +
+				"3,c9,30\n");
+	}
+
+	@Test
+	public void testInvalidKeys() {
+		try {
+			newRoutines().join(new StringReader(ORDERS), new StringReader(CUSTOMERS), new StringWriter(), JoinType.INNER, new String[]{"customer", "order"}, new String[]{"id"});
+			fail("Expecting an exception here");
+		} catch (IllegalArgumentException ex) {
+			//expected
+		}
+	}
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.common.routine;
+
+import com.univocity.parsers.common.processor.*;
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.math.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class SchemaInferrerTest {
+
+	private static final String INPUT = "" +
+			"id,big,amount,day,flag,status,name,code\n" +
+			"1,10000000000,1.5,2016-01-31,yes,OPEN,John,007\n" +
+			"2,3,-2.25,2016-02-01,no,CLOSED,Mary Ann,010\n" +
+			"3,-4,,2016-02-29,Yes,OPEN,,100\n" +
+			"4,5,10,,no,OPEN,Paul,200\n" +
+			"5,6,0.125,2016-12-01,,CLOSED,\"Ringo, the drummer\",300\n" +
+			"-6,7,3,2016-03-01,yes,OPEN,George,400\n";
+
+	private CsvRoutines newRoutines() {
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+		return new CsvRoutines(settings);
+	}
+
+	@Test
+	public void testInferTypes() {
+		InputSchema schema = newRoutines().inferSchema(new StringReader(INPUT), 0);
+		assertEquals(schema.getRowCount(), 6);
+		assertEquals(schema.getColumns().size(), 8);
+
+		assertEquals(schema.getColumn("id").getType(), ColumnType.INTEGER);
+		assertFalse(schema.getColumn("id").isNullable());
+		assertEquals(schema.getColumn("big").getType(), ColumnType.LONG);
+
+		ColumnSchema amount = schema.getColumn("amount");
+		assertEquals(amount.getType(), ColumnType.DECIMAL);
+		assertEquals(amount.getScale(), 3);
+		assertTrue(amount.isNullable());
+		assertEquals(amount.getNullCount(), 1);
+
+		ColumnSchema day = schema.getColumn("day");
+		assertEquals(day.getType(), ColumnType.DATE);
+		assertEquals(day.getDatePattern(), "yyyy-MM-dd");
+
+		ColumnSchema flag = schema.getColumn("flag");
+		assertEquals(flag.getType(), ColumnType.BOOLEAN);
+		assertEquals(flag.getValues(), Arrays.asList("yes", "no"));
+
+		ColumnSchema status = schema.getColumn("status");
+		assertEquals(status.getType(), ColumnType.ENUM);
+		assertEquals(status.getValues(), Arrays.asList("CLOSED", "OPEN"));
+
+		ColumnSchema name = schema.getColumn("name");
+		assertEquals(name.getType(), ColumnType.TEXT);
+		assertEquals(name.getMinLength(), 4);
+		assertEquals(name.getMaxLength(), 18);
+
+		assertEquals(schema.getColumn("code").getType(), ColumnType.TEXT);
+		assertEquals(schema.getFieldLengths(), new int[]{2, 11, 6, 10, 4, 6, 18, 4});
+	}
+
+	@Test
+	public void testDatePatternsAndSampleSize() {
+		String input = "a,b\n01/02/2016,x\n12/25/2016,y\n";
+		CsvRoutines routines = newRoutines();
+
+		InputSchema schema = routines.inferSchema(new StringReader(input), 1);
+		assertEquals(schema.getRowCount(), 1);
+		assertEquals(schema.getColumn(0).getDatePattern(), "dd/MM/yyyy");
+
+		schema = routines.inferSchema(new StringReader(input), 0);
+		assertEquals(schema.getColumn(0).getDatePattern(), "MM/dd/yyyy");
+		assertEquals(schema.getColumn(1).getType(), ColumnType.TEXT);
+	}
+
+	@Test
+	public void testApplyConversions() {
+		InputSchema schema = newRoutines().inferSchema(new StringReader(INPUT), 0);
+
+		ObjectRowListProcessor processor = new ObjectRowListProcessor();
+		schema.applyConversions(processor);
+
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderExtractionEnabled(true);
+		settings.setProcessor(processor);
+		new CsvParser(settings).parse(new StringReader(INPUT));
+
+		Object[] row = processor.getRows().get(0);
+		assertEquals(row[0], 1);
+		assertEquals(row[1], 10000000000L);
+		assertEquals(row[2], new BigDecimal("1.5"));
+		assertTrue(row[3] instanceof Date);
+		assertEquals(row[4], Boolean.TRUE);
+		assertEquals(row[5], "OPEN");
+		assertEquals(row[7], "007");
+
+		assertEquals(processor.getRows().get(4)[4], null);
+		assertEquals(processor.getRows().get(2)[4], Boolean.TRUE);
+	}
+
+	@Test
+	public void testParallelSampling() throws IOException {
+		File file = File.createTempFile("univocity-schema-", ".csv");
+		try {
+			Random random = new Random(5);
+			Writer out = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(file)), "UTF-8");
+			try {
+				out.write("id,amount,flag,text\n");
+				for (int i = 0; file.length() < 10L * 1024L * 1024L; i++) {
+					out.write(String.valueOf(i));
+					out.write(',');
+					if (random.nextInt(50) != 0) {
+						out.write(String.valueOf(random.nextInt(100000) / 100.0));
+					}
+					out.write(',');
+					out.write(random.nextBoolean() ? "true" : "false");
+					out.write(",\"");
+					for (int j = random.nextInt(60); j >= 0; j--) {
+						out.write((char) ('a' + random.nextInt(26)));
+					}
+					out.write("\"\n");
+					if (i % 1000 == 0) {
+						out.flush();
+					}
+				}
+			} finally {
+				out.close();
+			}
+
+			CsvRoutines routines = newRoutines();
+			InputSchema expected = routines.inferSchema(new InputStreamReader(new FileInputStream(file), "UTF-8"), 0);
+			InputSchema schema = ((AbstractRoutines<?, ?>) routines).inferSchema(file, Charset.forName("UTF-8"), 0, 3);
+
+			assertEquals(schema.getRowCount(), expected.getRowCount());
+			assertEquals(schema.getHeaders(), expected.getHeaders());
+			for (int i = 0; i < 4; i++) {
+				ColumnSchema e = expected.getColumn(i);
+				ColumnSchema c = schema.getColumn(i);
+				assertEquals(c.toString(), e.toString());
+				assertEquals(c.getNullCount(), e.getNullCount());
+				assertEquals(c.getValueCount(), e.getValueCount());
+			}
+			assertEquals(schema.getColumn("amount").getType(), ColumnType.DECIMAL);
+			assertEquals(schema.getColumn("flag").getType(), ColumnType.BOOLEAN);
+
+			InputSchema sample = ((AbstractRoutines<?, ?>) routines).inferSchema(file, Charset.forName("UTF-8"), 3000, 3);
+			assertEquals(sample.getRowCount(), 3000);
+			assertEquals(sample.getColumn("id").getType(), ColumnType.INTEGER);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testParallelSamplingWithQuotedLineSeparators() throws IOException {
+		File file = File.createTempFile("univocity-schema-", ".csv");
+		try {
+			Random random = new Random(7);
+			Writer out = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(file)), "UTF-8");
+			try {
+				out.write("# comment\r\"id\",\"multi\rline\",flag\r");
+				for (int i = 0; file.length() < 10L * 1024L * 1024L; i++) {
+					out.write(String.valueOf(i));
+					out.write(",\"text\r");
+					for (int j = random.nextInt(20); j >= 0; j--) {
+						out.write("a,b,c,d,e\r");
+					}
+					out.write("end\",");
+					out.write(random.nextBoolean() ? "yes" : "no");
+					out.write('\r');
+					if (i % 1000 == 0) {
+						out.flush();
+					}
+				}
+			} finally {
+				out.close();
+			}
+
+			CsvParserSettings settings = new CsvParserSettings();
+			settings.setLineSeparatorDetectionEnabled(true);
+			settings.setHeaderExtractionEnabled(true);
+			CsvRoutines routines = new CsvRoutines(settings);
+
+			InputSchema expected = routines.inferSchema(new InputStreamReader(new FileInputStream(file), "UTF-8"), 0);
+			InputSchema schema = ((AbstractRoutines<?, ?>) routines).inferSchema(file, Charset.forName("UTF-8"), 0, 3);
+
+			assertEquals(schema.getRowCount(), expected.getRowCount());
+			assertEquals(schema.getHeaders(), new String[]{"id", "multi\nline", "flag"});
+			assertEquals(schema.getColumns().size(), 3);
+			for (int i = 0; i < 3; i++) {
+				assertEquals(schema.getColumn(i).toString(), expected.getColumn(i).toString());
+				assertEquals(schema.getColumn(i).getNullCount(), 0);
+			}
+			assertEquals(schema.getColumn("id").getType(), ColumnType.INTEGER);
+			assertEquals(schema.getColumn("flag").getType(), ColumnType.BOOLEAN);
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.conversions;
+
+import com.univocity.parsers.annotations.*;
+import com.univocity.parsers.common.*;
+import com.univocity.parsers.common.processor.*;
+import com.univocity.parsers.csv.*;
+import org.testng.annotations.*;
+
+import java.io.*;
+import java.math.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class CachedConversionTest {
+
+	private static class CountingConversion extends ObjectConversion<String> {
+		int executions;
+
+		@Override
+		protected String fromString(String input) {
+			executions++;
+			return input.toUpperCase();
+		}
+	}
+
+	@Test
+	public void testResultsAreCached() {
+		CountingConversion counting = new CountingConversion();
+		CachedConversion<String, String> cached = Conversions.cache(counting, 2);
+
+		assertEquals(cached.execute("a"), "A");
+		assertEquals(cached.execute("a"), "A");
+		assertEquals(cached.execute("b"), "B");
+		assertEquals(counting.executions, 2);
+		assertEquals(cached.getHits(), 1);
+		assertEquals(cached.getMisses(), 2);
+		assertEquals(cached.getSize(), 2);
+
+		//"b" becomes the least recently used entry and is discarded when "c" is added.
+		assertEquals(cached.execute("a"), "A");
+		assertEquals(cached.execute("c"), "C");
+		assertEquals(counting.executions, 3);
+		assertEquals(cached.execute("a"), "A");
+		assertEquals(counting.executions, 3);
+		assertEquals(cached.execute("b"), "B");
+		assertEquals(counting.executions, 4);
+
+		assertNull(cached.execute(null));
+		assertNull(cached.execute(null));
+		assertEquals(cached.getMisses(), 5);
+
+		cached.clear();
+		assertEquals(cached.getSize(), 0);
+		assertEquals(cached.getHits(), 0);
+		assertEquals(cached.execute("a"), "A");
+		assertEquals(counting.executions, 5);
+	}
+
+	@Test
+	public void testErrorsAreNotCached() {
+		CachedConversion<String, Integer> cached = Conversions.cache(Conversions.toInteger());
+		for (int i = 0; i < 2; i++) {
+			try {
+				cached.execute("x");
+				fail("Expected conversion error");
+			} catch (DataProcessingException e) {
+				//expected
+			}
+		}
+		assertEquals(cached.getSize(), 0);
+		assertEquals(cached.execute("10"), Integer.valueOf(10));
+	}
+
+	public static class CachedBean {
+		@Cached(size = 2)
+		@Trim
+		@Parsed
+		private BigDecimal amount;
+
+		@Cached
+		@Parsed
+		private int code;
+	}
+
+	public static class InvalidCachedBean {
+		@Cached
+		@Parsed
+		private Date date;
+	}
+
+	@Test
+	public void testCachedAnnotation() {
+		BeanListProcessor<CachedBean> processor = new BeanListProcessor<CachedBean>(CachedBean.class);
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setHeaderExtractionEnabled(true);
+		settings.setProcessor(processor);
+
+		new CsvParser(settings).parse(new StringReader("amount,code\n 10.5,1\n10.5 ,2\n 10.5 ,1\n3,2"));
+
+		List<CachedBean> beans = processor.getBeans();
+		assertEquals(beans.size(), 4);
+		assertEquals(beans.get(0).amount, new BigDecimal("10.5"));
+		assertSame(beans.get(0).amount, beans.get(1).amount);
+		assertSame(beans.get(0).amount, beans.get(2).amount);
+		assertEquals(beans.get(3).amount, new BigDecimal("3"));
+		assertEquals(beans.get(0).code, 1);
+		assertEquals(beans.get(1).code, 2);
+		assertEquals(beans.get(2).code, 1);
+		assertEquals(beans.get(3).code, 2);
+	}
+
+	@Test(expectedExceptions = DataProcessingException.class)
+	public void testCachedAnnotationRejectsMutableTypes() {
+		BeanListProcessor<InvalidCachedBean> processor = new BeanListProcessor<InvalidCachedBean>(InvalidCachedBean.class);
+		CsvParserSettings settings = new CsvParserSettings();
+		settings.setHeaderExtractionEnabled(true);
+		settings.setProcessor(processor);
+
+		new CsvParser(settings).parse(new StringReader("date\n2016-01-01"));
+	}
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2016 uniVocity Software Pty Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.univocity.parsers.conversions;
+
+import org.testng.annotations.*;
+
+import java.math.*;
+import java.text.*;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class NumericConversionTest {
+
+	private static final String[] INPUTS = {
+			"0", "-0", "1", "-1", "007", "1.0", "1.50", "-0.0", "0.001", "1,000", "1,2,3", "12,345,678.90", "-12,345.6789",
+			"9223372036854775807", "-9223372036854775808", "9223372036854775808", "922337203685477580.00", "9223372036854775807.0",
+			"12345678901234567890.5", "123456789012345678901234567890", "0.1234567890123456789",
+			"1.", ".5", "1E3", "1,", "1,,2", ",1", "--1", "-", "", "12abc", " 12", "1.2.3", "1.000,50", "1 000,50", "1.234.567,89"
+	};
+
+	@DataProvider
+	private Object[][] getFormats() {
+		List<Object[]> out = new ArrayList<Object[]>();
+		String[] patterns = {"0", "#,##0", "#,##0.00", "#0.###", "#,##0.00;(#,##0.00)", "0.00%", "0.###E0", "$#,##0.00"};
+		Locale[] locales = {Locale.US, Locale.GERMANY, Locale.FRANCE};
+		for (String pattern : patterns) {
+			for (Locale locale : locales) {
+				for (boolean bigDecimal : new boolean[]{false, true}) {
+					DecimalFormat format = new DecimalFormat(pattern, new DecimalFormatSymbols(locale));
+					format.setParseBigDecimal(bigDecimal);
+					out.add(new Object[]{format});
+				}
+			}
+		}
+		return out.toArray(new Object[0][]);
+	}
+
+	@Test(dataProvider = "getFormats")
+	public void testDecimalParserMatchesDecimalFormat(DecimalFormat format) {
+		DecimalParser parser = DecimalParser.compile(format);
+		if (parser == null) {
+			return;
+		}
+
+		List<String> inputs = new ArrayList<String>(Arrays.asList(INPUTS));
+		Random random = new Random(format.toPattern().hashCode());
+		for (int i = 0; i < 500; i++) {
+			inputs.add(format.format(random.nextDouble() * Math.pow(10, random.nextInt(20)) * (random.nextBoolean() ? 1 : -1)));
+			inputs.add(format.format(random.nextLong()));
+		}
+
+		for (String input : inputs) {
+			Number fast = parser.parse(input);
+			if (fast != null) {
+				ParsePosition position = new ParsePosition(0);
+				Number expected = format.parse(input, position);
+				assertEquals(position.getIndex(), input.length(), "Unexpected fast parse of '" + input + "' with pattern " + format.toPattern());
+				assertEquals(fast.getClass(), expected.getClass(), "Type mismatch parsing '" + input + "' with pattern " + format.toPattern());
+				assertEquals(fast, expected, "Value mismatch parsing '" + input + "' with pattern " + format.toPattern());
+			}
+		}
+	}
+
+	@Test
+	public void testUnsupportedFormatsNotCompiled() {
+		assertNull(DecimalParser.compile(new DecimalFormat("0.00%")));
+		assertNull(DecimalParser.compile(new DecimalFormat("0.###E0")));
+		assertNull(DecimalParser.compile(new DecimalFormat("$#,##0.00")));
+		assertNull(DecimalParser.compile(new DecimalFormat("#,##0.00;(#,##0.00)")));
+		assertNotNull(DecimalParser.compile(new DecimalFormat("#,##0.00")));
+	}
+
+	@Test
+	public void testFormattedConversions() {
+		FormattedBigDecimalConversion conversion = Conversions.formatToBigDecimal("#,##0.00", "$#,##0.00");
+		assertEquals(conversion.execute("1,234.50"), new BigDecimal("1234.50"));
+		assertEquals(conversion.execute("$1,234.50"), new BigDecimal("1234.50"));
+
+		conversion.getFormatterObjects()[0].setDecimalFormatSymbols(new DecimalFormatSymbols(Locale.GERMANY));
+		assertEquals(conversion.execute("1.234,5"), new BigDecimal("1234.5"));
+
+		NumericConversion<Integer> integers = Conversions.formatToNumber(Integer.class, "#,##0");
+		integers.setNumberType(Integer.class);
+		assertEquals(integers.execute("-12,345"), Integer.valueOf(-12345));
+	}
+}
@@ -18,6 +18,7 @@ package com.univocity.parsers.csv;
 import org.testng.annotations.*;
 
 import java.io.*;
+import java.nio.charset.*;
 import java.util.*;
 
 import static org.testng.Assert.*;
@@ -66,4 +67,36 @@ public class CsvFormatDetectorTest {
 			assertEquals(rows.get(i), output.get(i));
 		}
 	}
+
+	@Test
+	public void testDetectFormatSamplingRegions() throws IOException {
+		File file = File.createTempFile("univocity-detect-", ".csv");
+		try {
+			Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			try {
+				for (int i = 0; i < 50; i++) {
+					out.write("10;2," + i + "\r\n");
+				}
+				for (int i = 0; i < 5000; i++) {
+					out.write(i + ",'a " + i + "',b" + i + "\r\n");
+				}
+			} finally {
+				out.close();
+			}
+
+			CsvParserSettings settings = new CsvParserSettings();
+			settings.setInputBufferSize(512);
+			CsvRoutines routines = new CsvRoutines(settings);
+
+			CsvFormat firstRegion = routines.detectFormat(file, Charset.forName("UTF-8"), 1);
+			assertEquals(firstRegion.getDelimiter(), ';');
+
+			CsvFormat format = routines.detectFormat(file, Charset.forName("UTF-8"));
+			assertEquals(format.getDelimiter(), ',');
+			assertEquals(format.getQuote(), '\'');
+			assertEquals(format.getLineSeparatorString(), "\r\n");
+		} finally {
+			file.delete();
+		}
+	}
 }
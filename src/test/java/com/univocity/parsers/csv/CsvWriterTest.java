@@ -17,10 +17,12 @@ package com.univocity.parsers.csv;
 
 import com.univocity.parsers.common.*;
 import com.univocity.parsers.common.processor.*;
+import com.univocity.parsers.conversions.*;
 import org.testng.annotations.*;
 
 import java.io.*;
 import java.nio.charset.*;
+import java.util.*;
 
 import static org.testng.Assert.*;
 
@@ -528,4 +530,254 @@ public class CsvWriterTest extends CsvParserTest {
 			assertEquals(ex.getRecordData()[0], bomb);
 		}
 	}
+
+	private List<Object[]> generateRows(int count) {
+		List<Object[]> rows = new ArrayList<Object[]>(count);
+		for (int i = 0; i < count; i++) {
+			switch (i % 5) {
+				case 0:
+					rows.add(new Object[]{i, "a,b", null, " x "});
+					break;
+				case 1:
+					rows.add(new Object[]{i, "say \"hi\"", "", 1.5});
+					break;
+				case 2:
+					rows.add(new Object[]{i, "multi\nline"});
+					break;
+				case 3:
+					rows.add(null);
+					break;
+				default:
+					rows.add(new Object[]{i, "plain", 'c', true});
+			}
+		}
+		return rows;
+	}
+
+	private String writeRows(CsvWriterSettings settings, List<Object[]> rows, boolean processRecords) {
+		StringWriter output = new StringWriter();
+		CsvWriter writer = new CsvWriter(output, settings);
+		if (processRecords) {
+			writer.processRecords(rows);
+			writer.processRecordsAndClose(rows.subList(0, 10));
+		} else {
+			writer.writeRows(rows);
+			writer.writeRowsAndClose(rows.subList(0, 10));
+		}
+		return output.toString();
+	}
+
+	@Test
+	public void testParallelFormatting() {
+		List<Object[]> rows = generateRows(5003);
+
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.setHeaders("id", "text", "value", "other");
+		settings.setHeaderWritingEnabled(true);
+		settings.setSkipEmptyLines(false);
+		String expected = writeRows(settings, rows, false);
+
+		settings.setParallelFormattingThreads(4);
+		settings.setParallelFormattingBatchSize(7);
+		assertEquals(writeRows(settings, rows, false), expected);
+
+		ObjectRowWriterProcessor processor = new ObjectRowWriterProcessor();
+		processor.convertIndexes(Conversions.toUpperCase()).set(1);
+		settings.setRowWriterProcessor(processor);
+		settings.setParallelFormattingThreads(1);
+		String expectedRecords = writeRows(settings, rows, true);
+		assertTrue(expectedRecords.contains("MULTI"));
+
+		settings.setParallelFormattingThreads(3);
+		assertEquals(writeRows(settings, rows, true), expectedRecords);
+	}
+
+	@Test
+	public void testParallelFormattingError() {
+		List<Object[]> rows = generateRows(100);
+		rows.set(42, new Object[]{new Object() {
+			public String toString() {
+				throw new UnsupportedOperationException("boom!");
+			}
+		}});
+
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.setParallelFormattingThreads(2);
+		settings.setParallelFormattingBatchSize(5);
+
+		StringWriter output = new StringWriter();
+		CsvWriter writer = new CsvWriter(output, settings);
+		try {
+			writer.writeRows(rows);
+			fail("Expecting an exception here");
+		} catch (TextWritingException ex) {
+			assertTrue(ex.getCause() instanceof UnsupportedOperationException);
+			assertEquals(ex.getRecordCount(), 34);
+		}
+
+		assertTrue(output.toString().endsWith("\n40,\"a,b\",,x\n41,say \"hi\",,1.5\n"));
+	}
+
+	@Test
+	public void testWriteOutputOnSeparateThread() {
+		List<Object[]> rows = generateRows(20000);
+
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.setSkipEmptyLines(false);
+		String expected = writeRows(settings, rows, false);
+
+		settings.setWriteOutputOnSeparateThread(true);
+		assertEquals(writeRows(settings, rows, false), expected);
+
+		StringWriter output = new StringWriter();
+		CsvWriter writer = new CsvWriter(output, settings);
+		writer.writeRow("a", "b");
+		writer.flush();
+		assertEquals(output.toString(), "a,b\n");
+		writer.close();
+	}
+
+	@Test
+	public void testWriteOutputOnSeparateThreadError() {
+		Writer failing = new Writer() {
+			private int written;
+
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				written += len;
+				if (written > 100000) {
+					throw new IOException("disk full");
+				}
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.setWriteOutputOnSeparateThread(true);
+		CsvWriter writer = new CsvWriter(failing, settings);
+		try {
+			for (int i = 0; i < 100000; i++) {
+				writer.writeRow("some value", i);
+			}
+			writer.close();
+			fail("Expecting an exception here");
+		} catch (TextWritingException ex) {
+			Throwable cause = ex.getCause();
+			while (cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			assertEquals(cause.getMessage(), "disk full");
+		}
+	}
+
+	@Test
+	public void testTrustedFields() {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setHeaderWritingEnabled(true);
+		settings.trustFields("id", "date");
+
+		StringWriter output = new StringWriter();
+		CsvWriter writer = new CsvWriter(output, settings);
+		writer.writeHeaders("id", "text", "date");
+		writer.writeRow("a,1", "b,2", " 2016-01-01 ");
+		writer.writeRow(null, "", "");
+		writer.close();
+		assertEquals(output.toString(), "id,text,date\na,1,\"b,2\",2016-01-01\n,,\n");
+
+		settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		settings.setQuoteAllFields(true);
+		settings.trustIndexes(1);
+		output = new StringWriter();
+		writer = new CsvWriter(output, settings);
+		writer.writeRow("a\"b", "c\"d", 3);
+		writer.close();
+		assertEquals(output.toString(), "\"a\"\"b\",\"c\"d\",\"3\"\n");
+	}
+
+	@Test
+	public void testTrustedFieldsWithParallelFormatting() {
+		List<Object[]> rows = generateRows(1000);
+
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.setHeaders("id", "text", "value", "other");
+		settings.setHeaderWritingEnabled(true);
+		settings.setSkipEmptyLines(false);
+		String expected = writeRows(settings, rows, false);
+
+		settings.trustFields("id", "other");
+		settings.setParallelFormattingThreads(3);
+		settings.setParallelFormattingBatchSize(10);
+		assertEquals(writeRows(settings, rows, false), expected);
+	}
+
+	@Test
+	public void testNumbersWithNumericDelimiter() {
+		for (boolean writeNumbersDirectly : new boolean[]{false, true}) {
+			CsvWriterSettings settings = new CsvWriterSettings();
+			settings.getFormat().setLineSeparator("\n");
+			settings.getFormat().setDelimiter('.');
+			settings.setQuotationTriggers('-');
+			settings.setWriteNumbersDirectly(writeNumbersDirectly);
+
+			StringWriter output = new StringWriter();
+			CsvWriter writer = new CsvWriter(output, settings);
+			writer.writeRow(1.5, -2, 3L, (short) 4, 5.25f);
+			writer.close();
+			assertEquals(output.toString(), "\"1.5\".\"-2\".3.4.\"5.25\"\n");
+		}
+	}
+
+	@Test
+	public void testWriteNumbersDirectly() {
+		Object[] numbers = new Object[]{0, -17, Long.MIN_VALUE, Long.MAX_VALUE, (short) -3, (byte) 127, 0.0, -0.0, 1.5, -2.0, 1.0E7, 9999999.0, 1.0E-5,
+				Double.NaN, Double.NEGATIVE_INFINITY, 3.25f, -0.0f, 1.0E10f, Float.MIN_VALUE};
+
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < numbers.length; i++) {
+			expected.append(i == 0 ? "" : ",").append(String.valueOf(numbers[i]));
+		}
+		expected.append('\n');
+
+		for (boolean writeNumbersDirectly : new boolean[]{false, true}) {
+			CsvWriterSettings settings = new CsvWriterSettings();
+			settings.getFormat().setLineSeparator("\n");
+			settings.setWriteNumbersDirectly(writeNumbersDirectly);
+
+			StringWriter output = new StringWriter();
+			CsvWriter writer = new CsvWriter(output, settings);
+			writer.writeRow(numbers);
+			writer.close();
+			assertEquals(output.toString(), expected.toString());
+		}
+	}
+
+	@Test
+	public void testNumbersConvertedWithStringValueByDefault() {
+		CsvWriterSettings settings = new CsvWriterSettings();
+		settings.getFormat().setLineSeparator("\n");
+		assertFalse(settings.getWriteNumbersDirectly());
+
+		StringWriter output = new StringWriter();
+		CsvWriter writer = new CsvWriter(output, settings) {
+			@Override
+			protected String getStringValue(Object element) {
+				if (element instanceof Number) {
+					return "#" + element;
+				}
+				return super.getStringValue(element);
+			}
+		};
+		writer.writeRow(1, 2L, 3.5, "a");
+		writer.close();
+		assertEquals(output.toString(), "#1,#2,#3.5,a\n");
+	}
 }
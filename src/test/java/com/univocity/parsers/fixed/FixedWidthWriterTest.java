@@ -379,4 +379,47 @@ public class FixedWidthWriterTest extends FixedWidthParserTest {
 
 		assertEquals(out.toString(), "abcd#>>some random comment<<data++++");
 	}
+
+	@Test
+	public void testLongestLookaheadValueIsSelected() {
+		FixedWidthWriterSettings settings = new FixedWidthWriterSettings(new FixedWidthFields(3, 3));
+		settings.getFormat().setLineSeparator("\n");
+		settings.addFormatForLookahead("AB", new FixedWidthFields(2, 4));
+		settings.addFormatForLookahead("ABC", new FixedWidthFields(3, 5));
+		settings.addFormatForLookahead("X", new FixedWidthFields(1, 2));
+
+		StringWriter out = new StringWriter();
+		FixedWidthWriter writer = new FixedWidthWriter(out, settings);
+		writer.writeRow("ABC", "1");
+		writer.writeRow("A", "2");
+		writer.writeRow("ABD", "3");
+		writer.writeRow("XYZ", "4");
+		writer.close();
+
+		assertEquals(out.toString(), "ABC1    \nA  2  \nAB3   \nX4 \n");
+	}
+
+	@Test
+	public void testLongPaddingAndTruncation() {
+		FixedWidthFields fields = new FixedWidthFields();
+		fields.addField(2000, FieldAlignment.RIGHT, '0');
+		fields.addField(5);
+		fields.addField(6);
+		FixedWidthWriterSettings settings = new FixedWidthWriterSettings(fields);
+		settings.getFormat().setLineSeparator("\r\n");
+		settings.getFormat().setNormalizedNewline('\n');
+		settings.setIgnoreTrailingWhitespaces(false);
+
+		StringWriter out = new StringWriter();
+		FixedWidthWriter writer = new FixedWidthWriter(out, settings);
+		writer.writeRow("42", "truncated value", "a\nbcdef");
+		writer.close();
+
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 1998; i++) {
+			expected.append('0');
+		}
+		expected.append("42trunca\r\nbcde\r\n");
+		assertEquals(out.toString(), expected.toString());
+	}
 }